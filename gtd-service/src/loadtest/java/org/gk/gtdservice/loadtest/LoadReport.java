@@ -0,0 +1,95 @@
+package org.gk.gtdservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency percentiles per operation and for the whole mix. Prints a table, writes each
+ * operation's full response-time distribution as an {@code .hgrm} file (plot with
+ * HdrHistogram's plotter to compare releases) and appends one line per run to
+ * {@code summary.csv}.
+ *
+ * @param results response and service time histograms in nanoseconds, per operation
+ */
+record LoadReport(
+        LoadTestConfig config,
+        long requests,
+        long elapsedNanos,
+        long throttled,
+        Map<Operation, OperationResult> results
+) {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    record OperationResult(Histogram responseTime, Histogram serviceTime, long errors) {
+    }
+
+    Histogram total() {
+        Histogram total = new Histogram(3);
+        results.values().forEach(result -> total.add(result.responseTime()));
+        return total;
+    }
+
+    long errors() {
+        return results.values().stream().mapToLong(OperationResult::errors).sum();
+    }
+
+    double throughput() {
+        return requests / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%nTarget %.0f req/s, achieved %.1f req/s, %d requests, %d errors (%d throttled)%n",
+                config.rate(), throughput(), requests, errors(), throttled);
+        out.println("Response time in ms, measured from each request's scheduled start; svc p99 is send-to-response.");
+        out.printf(Locale.ROOT, "%-10s %9s %8s %8s %8s %8s %8s %8s %9s%n",
+                "operation", "count", "errors", "p50", "p90", "p99", "p99.9", "max", "svc p99");
+        results.forEach((operation, result) -> row(out, operation.key, result.responseTime(), result.serviceTime(), result.errors()));
+        Histogram total = total();
+        Histogram service = new Histogram(3);
+        results.values().forEach(result -> service.add(result.serviceTime()));
+        row(out, "all", total, service, errors());
+    }
+
+    private static void row(PrintStream out, String name, Histogram response, Histogram service, long errors) {
+        out.printf(Locale.ROOT, "%-10s %9d %8d %8.2f %8.2f %8.2f %8.2f %8.2f %9.2f%n",
+                name, response.getTotalCount(), errors,
+                millis(response, 50), millis(response, 90), millis(response, 99), millis(response, 99.9),
+                response.getMaxValue() / NANOS_PER_MILLI, millis(service, 99));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, OperationResult> entry : results.entrySet()) {
+            writeDistribution(directory.resolve(config.label() + "-" + entry.getKey().key + ".hgrm"), entry.getValue().responseTime());
+        }
+        Histogram total = total();
+        writeDistribution(directory.resolve(config.label() + "-all.hgrm"), total);
+        Path summary = directory.resolve("summary.csv");
+        if (Files.notExists(summary)) {
+            Files.writeString(summary, "label,users,tasks_per_user,target_rps,achieved_rps,requests,errors,p50_ms,p99_ms,p999_ms,max_ms\n");
+        }
+        Files.writeString(summary, String.format(Locale.ROOT, "%s,%d,%d,%.0f,%.1f,%d,%d,%.3f,%.3f,%.3f,%.3f%n",
+                        config.label(), config.users(), config.tasksPerUser(), config.rate(), throughput(), requests, errors(),
+                        millis(total, 50), millis(total, 99), millis(total, 99.9), total.getMaxValue() / NANOS_PER_MILLI),
+                StandardOpenOption.APPEND);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.gk.gtdservice.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Issues requests on a fixed schedule (an open workload): request {@code i} is due at
+ * {@code start + i / rate} whether or not earlier ones have returned, and each runs on
+ * its own virtual thread. Response time is measured from the due time, not from when
+ * the request was actually sent, so a stalled server is charged for the requests that
+ * queued behind the stall instead of hiding them (coordinated omission). Service time,
+ * from send to response, is recorded alongside for comparison.
+ */
+class LoadRunner {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final URI baseUri;
+    private final List<UserState> users;
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final Operation[] schedule;
+    private final Map<Operation, Recorder> responseTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Recorder> serviceTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final LongAdder throttled = new LongAdder();
+
+    LoadRunner(URI baseUri, List<UserState> users, LoadTestConfig config) {
+        this.baseUri = baseUri;
+        this.users = users;
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.schedule = schedule(config.mix());
+        for (Operation operation : Operation.values()) {
+            responseTimes.put(operation, new Recorder(3));
+            serviceTimes.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /** Expands the weights into a lookup table, so picking an operation is one random index. */
+    static Operation[] schedule(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("loadtest.mix must have a positive weight");
+        }
+        Operation[] table = new Operation[total];
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int n = 0; n < entry.getValue(); n++) {
+                table[i++] = entry.getKey();
+            }
+        }
+        return table;
+    }
+
+    LoadReport run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        long intervalNanos = Math.max(1, (long) (1_000_000_000L / config.rate()));
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        long measuredRequests = 0;
+        // Warm-up requests run at full rate but are never recorded.
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + i * intervalNanos;
+                if (due >= end) {
+                    break;
+                }
+                parkUntil(due);
+                boolean measured = due >= measureFrom;
+                if (measured) {
+                    measuredRequests++;
+                }
+                Operation operation = schedule[random.nextInt(schedule.length)];
+                UserState user = users.get(random.nextInt(users.size()));
+                // Blocking here delays the send, not the due time, so the wait still counts.
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        execute(operation, user, due, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsedNanos = System.nanoTime() - measureFrom;
+        Map<Operation, LoadReport.OperationResult> results = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new LoadReport.OperationResult(
+                    responseTimes.get(operation).getIntervalHistogram(),
+                    serviceTimes.get(operation).getIntervalHistogram(),
+                    errors.get(operation).sum()));
+        }
+        return new LoadReport(config, measuredRequests, elapsedNanos, throttled.sum(), results);
+    }
+
+    private void execute(Operation operation, UserState user, long due, boolean measured) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = switch (operation) {
+            case INBOX -> get("/api/tasks?userId=" + user.userId + "&status=inbox", user);
+            case NEXT_ACTIONS -> get("/api/tasks?userId=" + user.userId + "&status=next", user);
+            case CAPTURE -> capture(user);
+            case COMPLETE -> {
+                Long taskId = user.takeToComplete(random);
+                yield taskId == null ? capture(user) : post("/api/tasks/" + taskId + "/complete", "", user);
+            }
+            case REORDER -> {
+                long[] move = user.pickMove(random);
+                yield move == null
+                        ? get("/api/tasks?userId=" + user.userId + "&status=next", user)
+                        : post("/api/tasks/" + move[0] + "/move", "{\"afterId\":" + move[1] + "}", user);
+            }
+        };
+        long sent = System.nanoTime();
+        int status;
+        String body;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = response.body();
+        } catch (IOException e) {
+            status = -1;
+            body = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+        if (status == 201 && body != null) {
+            Matcher id = ID.matcher(body);
+            if (id.find()) {
+                user.captured(Long.parseLong(id.group(1)));
+            }
+        }
+        if (!measured) {
+            return;
+        }
+        responseTimes.get(operation).recordValue(done - due);
+        serviceTimes.get(operation).recordValue(done - sent);
+        if (status == 429) {
+            throttled.increment();
+        }
+        if (status < 200 || status >= 300) {
+            errors.get(operation).increment();
+        }
+    }
+
+    private HttpRequest capture(UserState user) {
+        return post("/api/tasks", "{\"userId\":" + user.userId + ",\"title\":\"Captured thought\",\"status\":\"inbox\"}", user);
+    }
+
+    private HttpRequest get(String path, UserState user) {
+        return request(path, user).GET().build();
+    }
+
+    private HttpRequest post(String path, String json, UserState user) {
+        return request(path, user)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, UserState user) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("X-User-Id", Long.toString(user.userId));
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)));
+        }
+    }
+}
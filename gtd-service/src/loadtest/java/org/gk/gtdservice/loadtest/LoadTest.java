@@ -0,0 +1,38 @@
+package org.gk.gtdservice.loadtest;
+
+import org.gk.gtdservice.GtdServiceApplication;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Starts the service in this JVM on a random port, seeds it and replays a GTD client
+ * traffic mix at a fixed rate. Run with {@code ./gradlew loadTest}; settings are in
+ * {@link LoadTestConfig}. Results land in {@code build/loadtest}.
+ * <p>
+ * Client and server share the machine, so absolute numbers are only comparable between
+ * runs on the same hardware with the same settings.
+ */
+class LoadTest {
+
+    void main() throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(GtdServiceApplication.class)
+                .properties(config.applicationProperties());
+        if (!config.profile().isEmpty()) {
+            builder.profiles(config.profile());
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            List<UserState> users = new Seeder(context.getBean(ShardedJdbc.class), config).seed();
+            System.out.printf("Driving %d users for %s after %s warm-up%n", users.size(), config.duration(), config.warmup());
+            LoadReport report = new LoadRunner(URI.create("http://localhost:" + port), users, config).run();
+            report.print(System.out);
+            report.write(Path.of("."));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.gk.gtdservice.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties (Gradle passes
+ * {@code -Ploadtest.*} through).
+ *
+ * @param users           users seeded and driven
+ * @param tasksPerUser    mean tasks seeded per user, across all lists
+ * @param skew            Zipf exponent for tasks per user, {@code 0} for the same number each
+ * @param tagsPerUser     tags seeded per user
+ * @param dependencyRatio share of project tasks that depend on the previous task of their project
+ * @param rate            requests per second, issued on a fixed schedule whatever the response times
+ * @param warmup          time driven at full rate before latencies are recorded
+ * @param duration        measured time
+ * @param mix             relative weight of each operation
+ * @param profile         Spring profile for the service under test; {@code mysql} seeds the local MySQL
+ * @param maxInFlight     outstanding requests before the generator waits; the wait is still
+ *                        charged to the affected requests' response times
+ * @param seed            random seed for the dataset and the request sequence
+ * @param label           names this run in the summary line, e.g. the release being measured
+ */
+record LoadTestConfig(
+        int users,
+        int tasksPerUser,
+        double skew,
+        int tagsPerUser,
+        double dependencyRatio,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        String profile,
+        int maxInFlight,
+        long seed,
+        String label
+) {
+
+    static final String DEFAULT_MIX = "inbox=30,next=35,capture=15,complete=10,reorder=10";
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.users", 100),
+                Integer.getInteger("loadtest.tasks-per-user", 200),
+                Double.parseDouble(System.getProperty("loadtest.skew", "1.1")),
+                Integer.getInteger("loadtest.tags-per-user", 8),
+                Double.parseDouble(System.getProperty("loadtest.dependency-ratio", "0.3")),
+                Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                Duration.parse("PT" + System.getProperty("loadtest.warmup", "10s")),
+                Duration.parse("PT" + System.getProperty("loadtest.duration", "60s")),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                System.getProperty("loadtest.profile", ""),
+                Integer.getInteger("loadtest.max-in-flight", 512),
+                Long.getLong("loadtest.seed", 42L),
+                System.getProperty("loadtest.label", "local"));
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected op=weight in loadtest.mix, got '" + part + "'");
+            }
+            weights.put(Operation.fromKey(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Overrides for the service under test: a private in-memory database unless MySQL is
+     * chosen, a random port, no per-user rate limits and quiet repository logging.
+     */
+    Map<String, Object> applicationProperties() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("gtd.rate-limit.enabled", false);
+        properties.put("logging.level.org.gk.gtdservice", "WARN");
+        if (!profile.equals("mysql")) {
+            properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+            properties.put("gtd.datasource.replica.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        }
+        return properties;
+    }
+}
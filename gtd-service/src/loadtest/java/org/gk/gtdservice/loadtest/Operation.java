@@ -0,0 +1,33 @@
+package org.gk.gtdservice.loadtest;
+
+/**
+ * The client actions the load generator replays, named as in {@code loadtest.mix}.
+ */
+enum Operation {
+
+    /** Opening the inbox: {@code GET /api/tasks?userId=&status=inbox}. */
+    INBOX("inbox"),
+    /** Next-actions list: {@code GET /api/tasks?userId=&status=next}. */
+    NEXT_ACTIONS("next"),
+    /** Quick capture into the inbox: {@code POST /api/tasks}. */
+    CAPTURE("capture"),
+    /** Ticking off an open task: {@code POST /api/tasks/{id}/complete}. */
+    COMPLETE("complete"),
+    /** Dragging a task below another one: {@code POST /api/tasks/{id}/move}. */
+    REORDER("reorder");
+
+    final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "' in loadtest.mix");
+    }
+}
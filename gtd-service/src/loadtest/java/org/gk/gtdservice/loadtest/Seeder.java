@@ -0,0 +1,57 @@
+package org.gk.gtdservice.loadtest;
+
+import org.gk.gtdservice.fixtures.Dataset;
+import org.gk.gtdservice.fixtures.DatasetGenerator;
+import org.gk.gtdservice.fixtures.DatasetSpec;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads a {@link DatasetGenerator} dataset into the primary shard and collects each
+ * seeded user's open inbox and next-action tasks for the runner.
+ */
+class Seeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(Seeder.class);
+
+    private final ShardedJdbc shards;
+    private final LoadTestConfig config;
+
+    Seeder(ShardedJdbc shards, LoadTestConfig config) {
+        this.shards = shards;
+        this.config = config;
+    }
+
+    /**
+     * @return the seeded users with their open inbox and next-action task ids
+     */
+    List<UserState> seed() {
+        NamedParameterJdbcTemplate jdbc = shards.primary();
+        DatasetSpec spec = DatasetSpec.defaults()
+                .withUsers(config.users())
+                .withMeanTasksPerUser(config.tasksPerUser())
+                .withTasksPerUserSkew(config.skew())
+                .withTagsPerUser(config.tagsPerUser())
+                .withDependencies(config.dependencyRatio(), DatasetSpec.defaults().maxDependencyDepth())
+                .withSeed(config.seed());
+        long start = System.nanoTime();
+        Dataset dataset = new DatasetGenerator(spec).load(jdbc.getJdbcTemplate());
+        logger.warn("Seeded {} users, {} tasks, {} rows in total in {} ms", dataset.userIds().size(), dataset.tasks(),
+                dataset.rows(), (System.nanoTime() - start) / 1_000_000);
+
+        Map<Long, UserState> states = new HashMap<>();
+        dataset.userIds().forEach(userId -> states.put(userId, new UserState(userId)));
+        jdbc.query("SELECT id, user_id, status FROM gtd.tasks WHERE user_id IN (:userIds) AND status IN (:statuses) ORDER BY id",
+                Map.of("userIds", dataset.userIds(), "statuses", List.of(TaskStatus.INBOX.code(), TaskStatus.NEXT.code())), rs -> {
+                    states.get(rs.getLong("user_id")).seeded(rs.getLong("id"), TaskStatus.fromCode(rs.getShort("status")));
+                });
+        return dataset.userIds().stream().map(states::get).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package org.gk.gtdservice.loadtest;
+
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * What the generator knows about a user's open tasks, so completions and reorders
+ * target tasks that exist. Updated from responses; a task another request completed
+ * first simply yields a 404, which is counted like any other error.
+ */
+final class UserState {
+
+    final long userId;
+    private final List<Long> inbox = new ArrayList<>();
+    private final List<Long> next = new ArrayList<>();
+
+    UserState(long userId) {
+        this.userId = userId;
+    }
+
+    synchronized void seeded(long taskId, TaskStatus status) {
+        switch (status) {
+            case INBOX -> inbox.add(taskId);
+            case NEXT -> next.add(taskId);
+            default -> {
+            }
+        }
+    }
+
+    synchronized void captured(long taskId) {
+        inbox.add(taskId);
+    }
+
+    /**
+     * Removes and returns an open task to complete, preferring next actions, or
+     * {@code null} when the user has none left.
+     */
+    synchronized Long takeToComplete(RandomGenerator random) {
+        List<Long> from = !next.isEmpty() ? next : inbox;
+        return from.isEmpty() ? null : from.remove(random.nextInt(from.size()));
+    }
+
+    /**
+     * @return a next action and a different one to drop it after, or {@code null} if
+     * the list has fewer than two tasks
+     */
+    synchronized long[] pickMove(RandomGenerator random) {
+        if (next.size() < 2) {
+            return null;
+        }
+        int moved = random.nextInt(next.size());
+        int after = random.nextInt(next.size() - 1);
+        if (after >= moved) {
+            after++;
+        }
+        return new long[]{next.get(moved), next.get(after)};
+    }
+}
@@ -0,0 +1,139 @@
+package org.gk.gtdservice.blob;
+
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Files stored once per content under a root directory, named by their SHA-256 and
+ * spread over two directory levels taken from the start of the hash
+ * ({@code ab/cd/abcd…}) so no directory grows too large. A stored file never changes,
+ * so its hash doubles as a strong ETag.
+ * <p>
+ * Uploads are streamed to a temporary file under {@code tmp/} while being hashed, then
+ * moved into place; only a fixed-size buffer is held in memory. Storing content that is
+ * already present replaces the file with an identical one. The store does not know which
+ * files are still used, so callers must not {@link #delete} a file while an upload of the
+ * same content is being {@linkplain #keep kept}; {@code AttachmentRepository#withBlobLock}
+ * takes them in turn.
+ */
+public class BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final long maxSize;
+
+    public BlobStore(Path root, long maxSize) {
+        this.root = root.toAbsolutePath().normalize();
+        this.maxSize = maxSize;
+    }
+
+    public record Blob(String sha256, long size) {
+    }
+
+    /**
+     * Content received into a temporary file and hashed but not yet {@linkplain #keep kept}.
+     * Closing it removes the temporary file if it is still there.
+     */
+    public record Upload(Path file, Blob blob) implements AutoCloseable {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Reads {@code content} to its end into a temporary file. Does not close the stream.
+     *
+     * @throws InvalidRequestException if the content is larger than the configured maximum
+     */
+    public Upload receive(InputStream content) throws IOException {
+        Path tmpDir = Files.createDirectories(root.resolve("tmp"));
+        Path tmp = tmpDir.resolve(UUID.randomUUID().toString());
+        MessageDigest digest = sha256();
+        long size = 0;
+        boolean received = false;
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new InvalidRequestException("Attachment exceeds the maximum size of " + maxSize + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                }
+                out.force(true);
+            }
+            received = true;
+            return new Upload(tmp, new Blob(HexFormat.of().formatHex(digest.digest()), size));
+        } finally {
+            if (!received) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    /**
+     * Moves a received upload into place under its hash.
+     */
+    public Blob keep(Upload upload) throws IOException {
+        Path target = path(upload.blob().sha256());
+        Files.createDirectories(target.getParent());
+        Files.move(upload.file(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Stored blob {} ({} bytes)", upload.blob().sha256(), upload.blob().size());
+        return upload.blob();
+    }
+
+    /**
+     * Where the blob with the given hash is (or would be) stored.
+     *
+     * @throws IllegalArgumentException if {@code sha256} is not a lower-case hex SHA-256
+     */
+    public Path path(String sha256) {
+        if (sha256 == null || !sha256.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a SHA-256: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    public boolean exists(String sha256) {
+        return Files.isRegularFile(path(sha256));
+    }
+
+    public void delete(String sha256) throws IOException {
+        if (Files.deleteIfExists(path(sha256))) {
+            logger.debug("Deleted blob {}", sha256);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.gk.gtdservice.blob;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BlobStoreProperties.class)
+public class BlobStoreConfig {
+
+    @Bean
+    public BlobStore blobStore(BlobStoreProperties properties) {
+        return new BlobStore(properties.root(), properties.maxSize().toBytes());
+    }
+}
@@ -0,0 +1,21 @@
+package org.gk.gtdservice.blob;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Local content-addressed storage for reference attachments. Each node reads and writes
+ * its own {@code root}, so several nodes need it on shared storage.
+ *
+ * @param root    directory holding the files, created on first upload
+ * @param maxSize uploads larger than this are rejected
+ */
+@ConfigurationProperties("gtd.blob-store")
+public record BlobStoreProperties(
+        @DefaultValue("data/blobs") Path root,
+        @DefaultValue("100MB") DataSize maxSize
+) {
+}
@@ -0,0 +1,49 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.util.List;
+
+/**
+ * Rows held as the task records read from JDBC.
+ */
+record HeapTaskRows(List<RankedTask> tasks) implements TaskRows {
+
+    /** Rough heap cost of a cached task besides its strings: the records, boxed fields and index slots. */
+    private static final long TASK_BYTES = 240;
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public long id(int row) {
+        return tasks.get(row).task().id();
+    }
+
+    @Override
+    public TaskStatus status(int row) {
+        return tasks.get(row).task().status();
+    }
+
+    @Override
+    public RankedTask get(int row) {
+        return tasks.get(row);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (RankedTask ranked : tasks) {
+            bytes += TASK_BYTES + 2L * (length(ranked.task().title()) + length(ranked.task().notes())
+                    + length(ranked.task().waitingOn()) + length(ranked.rankKey()));
+        }
+        return bytes;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package org.gk.gtdservice.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@ConditionalOnProperty(name = "gtd.query-cache.enabled", havingValue = "true")
+@EnableConfigurationProperties(QueryCacheProperties.class)
+public class QueryCacheConfig {
+
+    @Bean
+    public UserVersionRegistry userVersionRegistry() {
+        return new UserVersionRegistry();
+    }
+
+    @Bean
+    public QueryResultCache queryResultCache(UserVersionRegistry versions, QueryCacheProperties properties,
+                                             PlatformTransactionManager transactionManager) {
+        // Suspends a read-only transaction so its misses are not read from a lagging replica
+        TransactionTemplate primaryReads = new TransactionTemplate(transactionManager);
+        primaryReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        return new QueryResultCache(versions, properties.maxMemory().toBytes(), properties.idleTimeout(), primaryReads);
+    }
+
+    @Bean
+    public QueryCacheEndpoint queryCacheEndpoint(QueryResultCache cache) {
+        return new QueryCacheEndpoint(cache);
+    }
+}
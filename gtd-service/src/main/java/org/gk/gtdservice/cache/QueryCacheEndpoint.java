@@ -0,0 +1,23 @@
+package org.gk.gtdservice.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@code GET /actuator/querycache}: hits, misses and memory of the query-result cache
+ * since start.
+ */
+@Endpoint(id = "querycache")
+public class QueryCacheEndpoint {
+
+    private final QueryResultCache cache;
+
+    public QueryCacheEndpoint(QueryResultCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public QueryResultCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,23 @@
+package org.gk.gtdservice.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Cached results of per-user task reads. Off by default: each node invalidates only on
+ * its own writes, so only enable it where one node serves all of a user's requests or
+ * the nodes share a {@code gtd.invalidation.bus}.
+ *
+ * @param maxMemory   estimated memory for all cached results; least recently read ones are dropped beyond it
+ * @param idleTimeout a result is dropped after this long without a read
+ */
+@ConfigurationProperties("gtd.query-cache")
+public record QueryCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("32MB") DataSize maxMemory,
+        @DefaultValue("10m") Duration idleTimeout
+) {
+}
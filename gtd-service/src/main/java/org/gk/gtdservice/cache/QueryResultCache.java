@@ -0,0 +1,237 @@
+package org.gk.gtdservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Results of per-user reads, keyed by the user and a normalized description of the
+ * query. Each result carries the {@link UserVersionRegistry} stamp taken before it was
+ * read and is served until the user's version passes it, so every committed write to
+ * the user's data invalidates exactly that user's results without touching them.
+ * <p>
+ * Reads joined to a read-write transaction neither use nor fill the cache, since they
+ * may see that transaction's uncommitted writes. A miss in a read-only transaction is
+ * read outside it, so it goes to the primary: a replica that has not applied the user's
+ * last write yet would otherwise be cached under a stamp taken after that write and be
+ * served until the user's next one.
+ * <p>
+ * Results are dropped when they have not been read for the idle timeout and, least
+ * recently read first, when their estimated size passes the memory budget.
+ */
+public class QueryResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+
+    /** Rough heap cost of an entry besides its value: key, entry record and map node. */
+    static final long ENTRY_BYTES = 160;
+
+    private final UserVersionRegistry versions;
+    private final long maxBytes;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final TransactionOperations primaryReads;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    /** Registry stamps taken at each sweep, oldest first, to find the stamp one idle timeout ago. */
+    private final Deque<long[]> sweepMarks = new ArrayDeque<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param primaryReads runs a miss outside the caller's read-only transaction
+     */
+    public QueryResultCache(UserVersionRegistry versions, long maxBytes, Duration idleTimeout,
+                            TransactionOperations primaryReads) {
+        this(versions, maxBytes, idleTimeout, primaryReads, System::nanoTime);
+    }
+
+    QueryResultCache(UserVersionRegistry versions, long maxBytes, Duration idleTimeout,
+                     TransactionOperations primaryReads, LongSupplier clock) {
+        this.versions = versions;
+        this.maxBytes = maxBytes;
+        this.idleNanos = idleTimeout.toNanos();
+        this.primaryReads = primaryReads;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached result of {@code query} for the user if no write to the user's
+     * data has committed since it was read, otherwise reads it with {@code load} and
+     * caches it. The value is shared between callers and must not be modified.
+     *
+     * @param query  equal for requests that read the same thing; a record of the parsed parameters
+     * @param weigher estimated heap size of a value in bytes
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, Object query, Supplier<T> load, ToLongFunction<? super T> weigher) {
+        if (!cacheable()) {
+            return load.get();
+        }
+        Key key = new Key(userId, query);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.stamp() >= versions.version(userId)) {
+                entry.lastAccess = clock.getAsLong();
+                hits.increment();
+                return (T) entry.value();
+            }
+            invalidated.increment();
+            remove(key, entry);
+        }
+        misses.increment();
+        long stamp = versions.stamp();
+        T value = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? primaryReads.execute(_status -> load.get())
+                : load.get();
+        long bytes = ENTRY_BYTES + weigher.applyAsLong(value);
+        // One huge result would push out many small ones that are read far more often.
+        if (bytes <= maxBytes / 10) {
+            Entry fresh = new Entry(value, stamp, bytes);
+            fresh.lastAccess = clock.getAsLong();
+            Entry previous = entries.put(key, fresh);
+            estimatedBytes.addAndGet(bytes - (previous != null ? previous.bytes() : 0));
+            enforceBudget();
+        }
+        return value;
+    }
+
+    /**
+     * Invalidates the user's results once the current transaction commits.
+     */
+    public void invalidate(Long userId) {
+        versions.bumpAfterCommit(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.query-cache.sweep-interval:60s}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (now - entry.getValue().lastAccess >= idleNanos && remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+
+        // Anything read before the stamp of one idle timeout ago has been evicted or is
+        // about to be, so versions up to it are no longer needed.
+        long forgetUpTo = -1;
+        synchronized (sweepMarks) {
+            sweepMarks.addLast(new long[]{now, versions.stamp()});
+            while (sweepMarks.size() > 1 && now - sweepMarks.peekFirst()[0] >= idleNanos) {
+                forgetUpTo = sweepMarks.removeFirst()[1];
+            }
+        }
+        int forgotten = forgetUpTo >= 0 ? versions.forgetUpTo(forgetUpTo) : 0;
+        if (evicted > 0 || forgotten > 0) {
+            logger.debug("Evicted {} idle query results and forgot {} user versions, {} bytes held",
+                    evicted, forgotten, estimatedBytes.get());
+        }
+    }
+
+    public Stats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long reads = hitCount + missCount;
+        return new Stats(hitCount, missCount, reads == 0 ? 0 : (double) hitCount / reads, invalidated.sum(),
+                evictions.sum(), entries.size(), estimatedBytes.get());
+    }
+
+    /**
+     * @param misses      reads that had to query, including invalidated ones
+     * @param invalidated cached results found older than their user's last write
+     * @param evictions   results dropped for being idle or over the memory budget
+     */
+    public record Stats(long hits, long misses, double hitRate, long invalidated, long evictions, int entries,
+                        long estimatedBytes) {
+    }
+
+    private static boolean cacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private boolean remove(Key key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            estimatedBytes.addAndGet(-entry.bytes());
+            return true;
+        }
+        return false;
+    }
+
+    private void enforceBudget() {
+        if (estimatedBytes.get() <= maxBytes || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Evict down to 90% of the budget so the next few misses do not trigger another pass.
+            long target = maxBytes - maxBytes / 10;
+            List<Map.Entry<Key, Entry>> byAge = entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .toList();
+            int evicted = 0;
+            for (Map.Entry<Key, Entry> entry : byAge) {
+                if (estimatedBytes.get() <= target) {
+                    break;
+                }
+                if (remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+            evictions.add(evicted);
+            logger.debug("Evicted {} query results over the memory budget, {} bytes held", evicted, estimatedBytes.get());
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Key(Long userId, Object query) {
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long stamp;
+        private final long bytes;
+        volatile long lastAccess;
+
+        Entry(Object value, long stamp, long bytes) {
+            this.value = value;
+            this.stamp = stamp;
+            this.bytes = bytes;
+        }
+
+        Object value() {
+            return value;
+        }
+
+        long stamp() {
+            return stamp;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+    }
+}
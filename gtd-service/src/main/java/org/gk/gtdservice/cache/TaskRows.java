@@ -0,0 +1,24 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.TaskStatus;
+
+/**
+ * A user's held tasks in row order, as laid out by {@link WorkingSetStorage}. Rows are
+ * grouped by status and each group is in {@link UserWorkingSet#LIST_ORDER}.
+ */
+interface TaskRows {
+
+    int size();
+
+    long id(int row);
+
+    TaskStatus status(int row);
+
+    /**
+     * @return the row as a task; storages that do not hold task objects decode a new one per call
+     */
+    RankedTask get(int row);
+
+    long estimatedBytes();
+}
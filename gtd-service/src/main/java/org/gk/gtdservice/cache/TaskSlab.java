@@ -0,0 +1,258 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * Task rows in a single native memory segment: {@link #ROW}-sized rows, then a string
+ * dictionary of offset and length pairs, then the dictionary's UTF-8 text. Ids and
+ * timestamps are plain longs, timestamps in microseconds since the epoch (the
+ * database's precision), the status is its {@link TaskStatus#code()} in a byte and
+ * every string is an index into the dictionary, so a title or {@code waiting_on} value
+ * repeated across tasks is stored once. Nulls are {@link Long#MIN_VALUE},
+ * {@link Integer#MIN_VALUE} and index -1.
+ * <p>
+ * A slab is immutable. Its memory belongs to an automatic arena and is freed once the
+ * slab is unreachable, so a reader still holding a replaced slab never sees it freed.
+ */
+final class TaskSlab implements TaskRows {
+
+    static final StructLayout ROW = MemoryLayout.structLayout(
+            JAVA_LONG.withName("id"),
+            JAVA_LONG.withName("user_id"),
+            JAVA_LONG.withName("project_id"),
+            JAVA_LONG.withName("context_id"),
+            JAVA_LONG.withName("due_at"),
+            JAVA_LONG.withName("defer_until"),
+            JAVA_LONG.withName("waiting_since"),
+            JAVA_LONG.withName("created_at"),
+            JAVA_LONG.withName("completed_at"),
+            JAVA_INT.withName("priority"),
+            JAVA_INT.withName("energy"),
+            JAVA_INT.withName("duration_est_min"),
+            JAVA_INT.withName("order_index"),
+            JAVA_INT.withName("title"),
+            JAVA_INT.withName("notes"),
+            JAVA_INT.withName("waiting_on"),
+            JAVA_INT.withName("rank_key"),
+            JAVA_BYTE.withName("status"),
+            MemoryLayout.paddingLayout(7));
+
+    private static final long ID = offset("id");
+    private static final long USER_ID = offset("user_id");
+    private static final long PROJECT_ID = offset("project_id");
+    private static final long CONTEXT_ID = offset("context_id");
+    private static final long DUE_AT = offset("due_at");
+    private static final long DEFER_UNTIL = offset("defer_until");
+    private static final long WAITING_SINCE = offset("waiting_since");
+    private static final long CREATED_AT = offset("created_at");
+    private static final long COMPLETED_AT = offset("completed_at");
+    private static final long PRIORITY = offset("priority");
+    private static final long ENERGY = offset("energy");
+    private static final long DURATION_EST_MIN = offset("duration_est_min");
+    private static final long ORDER_INDEX = offset("order_index");
+    private static final long TITLE = offset("title");
+    private static final long NOTES = offset("notes");
+    private static final long WAITING_ON = offset("waiting_on");
+    private static final long RANK_KEY = offset("rank_key");
+    private static final long STATUS = offset("status");
+
+    /** A dictionary entry: the string's offset in the text area and its length in bytes. */
+    private static final long ENTRY_BYTES = 2 * JAVA_INT.byteSize();
+
+    /** The slab object, its segment and arena on the heap. */
+    private static final long OVERHEAD_BYTES = 96;
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    private final MemorySegment segment;
+    private final int rows;
+    private final long dictionaryBase;
+    private final long textBase;
+
+    private TaskSlab(MemorySegment segment, int rows, int strings) {
+        this.segment = segment;
+        this.rows = rows;
+        this.dictionaryBase = rows * ROW.byteSize();
+        this.textBase = dictionaryBase + strings * ENTRY_BYTES;
+    }
+
+    /**
+     * @param tasks in row order
+     */
+    static TaskSlab of(List<RankedTask> tasks) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> texts = new ArrayList<>();
+        int[] refs = new int[tasks.size() * 4];
+        long textBytes = 0;
+        for (int row = 0; row < tasks.size(); row++) {
+            RankedTask ranked = tasks.get(row);
+            String[] strings = {ranked.task().title(), ranked.task().notes(), ranked.task().waitingOn(),
+                    ranked.rankKey()};
+            for (int i = 0; i < strings.length; i++) {
+                if (strings[i] == null) {
+                    refs[row * 4 + i] = NULL_STRING;
+                    continue;
+                }
+                Integer index = dictionary.get(strings[i]);
+                if (index == null) {
+                    byte[] text = strings[i].getBytes(StandardCharsets.UTF_8);
+                    index = texts.size();
+                    dictionary.put(strings[i], index);
+                    texts.add(text);
+                    textBytes += text.length;
+                }
+                refs[row * 4 + i] = index;
+            }
+        }
+
+        long size = tasks.size() * ROW.byteSize() + texts.size() * ENTRY_BYTES + textBytes;
+        MemorySegment segment = Arena.ofAuto().allocate(Math.max(size, 1), ROW.byteAlignment());
+        TaskSlab slab = new TaskSlab(segment, tasks.size(), texts.size());
+        for (int row = 0; row < tasks.size(); row++) {
+            slab.write(row, tasks.get(row).task(), refs, row * 4);
+        }
+        long offset = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            byte[] text = texts.get(i);
+            long entry = slab.dictionaryBase + i * ENTRY_BYTES;
+            segment.set(JAVA_INT, entry, Math.toIntExact(offset));
+            segment.set(JAVA_INT, entry + JAVA_INT.byteSize(), text.length);
+            MemorySegment.copy(text, 0, segment, JAVA_BYTE, slab.textBase + offset, text.length);
+            offset += text.length;
+        }
+        return slab;
+    }
+
+    private void write(int row, Task task, int[] refs, int ref) {
+        long base = row * ROW.byteSize();
+        segment.set(JAVA_LONG, base + ID, task.id());
+        segment.set(JAVA_LONG, base + USER_ID, task.userId());
+        segment.set(JAVA_LONG, base + PROJECT_ID, task.projectId() != null ? task.projectId() : NULL_LONG);
+        segment.set(JAVA_LONG, base + CONTEXT_ID, task.contextId() != null ? task.contextId() : NULL_LONG);
+        segment.set(JAVA_LONG, base + DUE_AT, micros(task.dueAt()));
+        segment.set(JAVA_LONG, base + DEFER_UNTIL, micros(task.deferUntil()));
+        segment.set(JAVA_LONG, base + WAITING_SINCE, micros(task.waitingSince()));
+        segment.set(JAVA_LONG, base + CREATED_AT, micros(task.createdAt()));
+        segment.set(JAVA_LONG, base + COMPLETED_AT, micros(task.completedAt()));
+        segment.set(JAVA_INT, base + PRIORITY, task.priority() != null ? task.priority() : NULL_INT);
+        segment.set(JAVA_INT, base + ENERGY, task.energy() != null ? task.energy() : NULL_INT);
+        segment.set(JAVA_INT, base + DURATION_EST_MIN, task.durationEstMin() != null ? task.durationEstMin() : NULL_INT);
+        segment.set(JAVA_INT, base + ORDER_INDEX, task.orderIndex() != null ? task.orderIndex() : NULL_INT);
+        segment.set(JAVA_INT, base + TITLE, refs[ref]);
+        segment.set(JAVA_INT, base + NOTES, refs[ref + 1]);
+        segment.set(JAVA_INT, base + WAITING_ON, refs[ref + 2]);
+        segment.set(JAVA_INT, base + RANK_KEY, refs[ref + 3]);
+        segment.set(JAVA_BYTE, base + STATUS, (byte) task.status().code());
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public long id(int row) {
+        return segment.get(JAVA_LONG, base(row) + ID);
+    }
+
+    @Override
+    public TaskStatus status(int row) {
+        return TaskStatus.fromCode(segment.get(JAVA_BYTE, base(row) + STATUS));
+    }
+
+    @Override
+    public RankedTask get(int row) {
+        long base = base(row);
+        Task task = new Task(
+                segment.get(JAVA_LONG, base + ID),
+                segment.get(JAVA_LONG, base + USER_ID),
+                longOrNull(base + PROJECT_ID),
+                longOrNull(base + CONTEXT_ID),
+                string(base + TITLE),
+                string(base + NOTES),
+                TaskStatus.fromCode(segment.get(JAVA_BYTE, base + STATUS)),
+                intOrNull(base + PRIORITY),
+                intOrNull(base + ENERGY),
+                intOrNull(base + DURATION_EST_MIN),
+                instant(base + DUE_AT),
+                instant(base + DEFER_UNTIL),
+                string(base + WAITING_ON),
+                instant(base + WAITING_SINCE),
+                instant(base + CREATED_AT),
+                instant(base + COMPLETED_AT),
+                intOrNull(base + ORDER_INDEX));
+        return new RankedTask(task, string(base + RANK_KEY));
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return segment.byteSize() + OVERHEAD_BYTES;
+    }
+
+    private long base(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        return row * ROW.byteSize();
+    }
+
+    private Long longOrNull(long offset) {
+        long value = segment.get(JAVA_LONG, offset);
+        return value != NULL_LONG ? value : null;
+    }
+
+    private Integer intOrNull(long offset) {
+        int value = segment.get(JAVA_INT, offset);
+        return value != NULL_INT ? value : null;
+    }
+
+    private Instant instant(long offset) {
+        long micros = segment.get(JAVA_LONG, offset);
+        if (micros == NULL_LONG) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1000L);
+    }
+
+    private String string(long offset) {
+        int index = segment.get(JAVA_INT, offset);
+        if (index == NULL_STRING) {
+            return null;
+        }
+        long entry = dictionaryBase + index * ENTRY_BYTES;
+        int start = segment.get(JAVA_INT, entry);
+        byte[] text = new byte[segment.get(JAVA_INT, entry + JAVA_INT.byteSize())];
+        MemorySegment.copy(segment, JAVA_BYTE, textBase + start, text, 0, text.length);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private static long micros(Instant instant) {
+        if (instant == null) {
+            return NULL_LONG;
+        }
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1000);
+    }
+
+    private static long offset(String field) {
+        return ROW.byteOffset(MemoryLayout.PathElement.groupElement(field));
+    }
+}
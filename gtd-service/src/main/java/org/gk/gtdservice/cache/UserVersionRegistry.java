@@ -0,0 +1,107 @@
+package org.gk.gtdservice.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * When each user's data last changed, as stamps from one node-wide counter. Something
+ * computed from a user's data at stamp {@code s} is still current while
+ * {@link #version} of that user is at most {@code s}: a later commit would have bumped
+ * it past {@code s}.
+ * <p>
+ * Users that have not written for a while are forgotten to bound the map. A forgotten
+ * user reads as the highest stamp forgotten so far, never lower than their real one, so
+ * forgetting can only make a cached result look older than it is.
+ */
+public class UserVersionRegistry {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> commitListeners = new CopyOnWriteArrayList<>();
+    private volatile long floor;
+
+    /**
+     * The current stamp. Take it before reading a user's data; the result is current as
+     * of the stamp.
+     */
+    public long stamp() {
+        return clock.get();
+    }
+
+    /**
+     * The stamp of the user's last change.
+     */
+    public long version(Long userId) {
+        Long version = versions.get(userId);
+        return version != null ? version : floor;
+    }
+
+    /**
+     * Marks the user changed now. Call once the change is committed and visible to reads;
+     * unlike {@link #bumpAfterCommit} it does not notify the commit listeners, so it also
+     * serves to apply changes other nodes committed.
+     */
+    public void bump(Long userId) {
+        versions.merge(userId, clock.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * {@link #bump}s the user once the current transaction commits, or right away outside
+     * one; a rolled-back change leaves results computed before it current.
+     */
+    public void bumpAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed(userId);
+            }
+        });
+    }
+
+    /**
+     * Called with the user after each bump of {@link #bumpAfterCommit}, on the committing
+     * thread, e.g. to tell other nodes.
+     */
+    public void addCommitListener(Consumer<Long> listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * Forgets users whose last change is at or before {@code stamp}.
+     *
+     * @return how many users were forgotten
+     */
+    public synchronized int forgetUpTo(long stamp) {
+        // Raise the floor first so a forgotten user never reads lower than their real version.
+        floor = Math.max(floor, stamp);
+        int forgotten = 0;
+        for (Map.Entry<Long, Long> entry : versions.entrySet()) {
+            if (entry.getValue() <= stamp && versions.remove(entry.getKey(), entry.getValue())) {
+                forgotten++;
+            }
+        }
+        return forgotten;
+    }
+
+    int trackedUsers() {
+        return versions.size();
+    }
+
+    private void committed(Long userId) {
+        bump(userId);
+        for (Consumer<Long> listener : commitListeners) {
+            listener.accept(userId);
+        }
+    }
+}
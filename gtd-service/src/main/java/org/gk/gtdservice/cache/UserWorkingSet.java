@@ -0,0 +1,159 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * One user's open tasks (done and dropped ones are the bulk of a user's history and
+ * are not kept), held as {@link TaskRows} grouped by status with each group in
+ * {@code ORDER BY rank_key, id} order. Immutable: a change produces a new set, so
+ * readers never need a lock. Rebuilding the rows on every change is linear in the
+ * user's open tasks, which stay in the hundreds for a working GTD system; for the same
+ * reason a lookup by id is a scan rather than an index.
+ */
+final class UserWorkingSet {
+
+    static final Comparator<RankedTask> LIST_ORDER = Comparator
+            .comparing(RankedTask::rankKey, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(ranked -> ranked.task().id());
+
+    private static final Comparator<RankedTask> ROW_ORDER = Comparator
+            .comparing((RankedTask ranked) -> ranked.task().status())
+            .thenComparing(LIST_ORDER);
+
+    private final WorkingSetStorage storage;
+    private final TaskRows rows;
+    /** First and past-the-end row of each status held. */
+    private final Map<TaskStatus, int[]> ranges = new EnumMap<>(TaskStatus.class);
+    private final long estimatedBytes;
+
+    private UserWorkingSet(WorkingSetStorage storage, TaskRows rows) {
+        this.storage = storage;
+        this.rows = rows;
+        for (int row = 0; row < rows.size(); row++) {
+            int first = row;
+            ranges.computeIfAbsent(rows.status(row), _k -> new int[]{first, first})[1] = row + 1;
+        }
+        this.estimatedBytes = rows.estimatedBytes();
+    }
+
+    static UserWorkingSet of(Collection<RankedTask> tasks) {
+        return of(tasks, WorkingSetStorage.HEAP);
+    }
+
+    static UserWorkingSet of(Collection<RankedTask> tasks, WorkingSetStorage storage) {
+        Map<Long, RankedTask> byId = new HashMap<>();
+        for (RankedTask ranked : tasks) {
+            if (ranked.task().status().isOpen()) {
+                byId.put(ranked.task().id(), ranked);
+            }
+        }
+        List<RankedTask> sorted = new ArrayList<>(byId.values());
+        sorted.sort(ROW_ORDER);
+        return new UserWorkingSet(storage, storage.store(sorted));
+    }
+
+    /**
+     * @return a view of the status's rows; with {@link WorkingSetStorage#OFF_HEAP} each
+     * task is decoded as the view is read, which for a request is while the response is written
+     */
+    List<Task> byStatus(TaskStatus status) {
+        int[] range = ranges.get(status);
+        return range != null ? new StatusView(rows, range[0], range[1]) : List.of();
+    }
+
+    /**
+     * @param ids     tasks that changed
+     * @param current those of {@code ids} that still exist for the user, as they are now
+     */
+    UserWorkingSet apply(Collection<Long> ids, Collection<RankedTask> current) {
+        Set<Long> changed = new HashSet<>(ids);
+        List<RankedTask> next = new ArrayList<>(rows.size() + current.size());
+        for (int row = 0; row < rows.size(); row++) {
+            if (!changed.contains(rows.id(row))) {
+                next.add(rows.get(row));
+            }
+        }
+        next.addAll(current);
+        return of(next, storage);
+    }
+
+    /**
+     * Whether {@code id} sorts after {@code afterId} and before {@code beforeId}, either
+     * of which may be {@code null}. False when a neighbour is not held, since its key
+     * cannot be compared then.
+     */
+    boolean inOrder(Long afterId, Long id, Long beforeId) {
+        RankedTask moved = find(id);
+        if (moved == null) {
+            return true;
+        }
+        if (afterId != null) {
+            RankedTask after = find(afterId);
+            if (after == null || LIST_ORDER.compare(after, moved) >= 0) {
+                return false;
+            }
+        }
+        if (beforeId == null) {
+            return true;
+        }
+        RankedTask before = find(beforeId);
+        return before != null && LIST_ORDER.compare(moved, before) < 0;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private RankedTask find(long id) {
+        for (int row = 0; row < rows.size(); row++) {
+            if (rows.id(row) == id) {
+                return rows.get(row);
+            }
+        }
+        return null;
+    }
+
+    private static final class StatusView extends AbstractList<Task> implements RandomAccess {
+
+        private final TaskRows rows;
+        private final int from;
+        private final int to;
+
+        StatusView(TaskRows rows, int from, int to) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return rows.get(from + index).task();
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
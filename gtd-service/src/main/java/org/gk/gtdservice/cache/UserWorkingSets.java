@@ -0,0 +1,312 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Serves users' open-task lists from memory. A user's {@link UserWorkingSet} is
+ * loaded from the primary with one query on first read; writes still go to JDBC
+ * first, and once they commit the changed task ids are queued on the user's set.
+ * The next read applies the queue by re-reading just those rows, so a user always
+ * reads their own committed writes and the write path does no extra work.
+ * <p>
+ * Sets are dropped when they have not been read for the idle timeout and, least
+ * recently read first, when their estimated size passes the memory budget.
+ */
+public class UserWorkingSets {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserWorkingSets.class);
+
+    private final TaskRepository taskRepository;
+    private final ShardedJdbc shards;
+    private final long maxBytes;
+    private final long idleNanos;
+    private final WorkingSetStorage storage;
+    private final LongSupplier clock;
+    private final Map<Long, Holder> users = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final List<Consumer<Long>> commitListeners = new CopyOnWriteArrayList<>();
+
+    public UserWorkingSets(TaskRepository taskRepository, ShardedJdbc shards, long maxBytes, Duration idleTimeout,
+                           WorkingSetStorage storage) {
+        this(taskRepository, shards, maxBytes, idleTimeout, storage, System::nanoTime);
+    }
+
+    UserWorkingSets(TaskRepository taskRepository, ShardedJdbc shards, long maxBytes, Duration idleTimeout,
+                    WorkingSetStorage storage, LongSupplier clock) {
+        this.taskRepository = taskRepository;
+        this.shards = shards;
+        this.maxBytes = maxBytes;
+        this.idleNanos = idleTimeout.toNanos();
+        this.storage = storage;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether lists of this status are held; done and dropped are not.
+     */
+    public static boolean serves(TaskStatus status) {
+        return status.isOpen();
+    }
+
+    /**
+     * @return the user's tasks with an open {@code status}, in list order
+     */
+    public List<Task> findByStatus(Long userId, TaskStatus status) {
+        return snapshot(userId).byStatus(status);
+    }
+
+    /**
+     * Queues {@code taskIds} for re-reading once the current transaction commits.
+     */
+    public void changed(Long userId, Collection<Long> taskIds) {
+        Change change = new Change(Set.copyOf(taskIds), null, null, null);
+        afterCommit(userId, () -> enqueue(userId, change));
+    }
+
+    /**
+     * Like {@link #changed} for a reorder. If the moved task does not land between its
+     * neighbours once re-read, the user's keys were respaced and the set is reloaded.
+     */
+    public void moved(Long userId, Long id, Long afterId, Long beforeId) {
+        Change change = new Change(Set.of(id), id, afterId, beforeId);
+        afterCommit(userId, () -> enqueue(userId, change));
+    }
+
+    /**
+     * Drops the user's set once the current transaction commits, for changes that touch
+     * more than a few known tasks.
+     */
+    public void invalidate(Long userId) {
+        afterCommit(userId, () -> drop(userId));
+    }
+
+    /**
+     * Drops the user's set now, for changes already committed elsewhere, e.g. on another node.
+     */
+    public void drop(Long userId) {
+        Holder holder = users.get(userId);
+        if (holder != null) {
+            holder.lock.lock();
+            try {
+                install(holder, null);
+            } finally {
+                holder.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Called with the user once each change passed to {@link #changed}, {@link #moved} or
+     * {@link #invalidate} has committed, on the committing thread, e.g. to tell other nodes.
+     */
+    public void addCommitListener(Consumer<Long> listener) {
+        commitListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.working-set.sweep-interval:60s}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<Long, Holder> entry : users.entrySet()) {
+            Holder holder = entry.getValue();
+            if (now - holder.lastAccess < idleNanos || !holder.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (holder.set != null) {
+                    evicted++;
+                }
+                install(holder, null);
+                holder.removed = true;
+                users.remove(entry.getKey(), holder);
+            } finally {
+                holder.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle working sets, {} bytes held", evicted, estimatedBytes.get());
+        }
+    }
+
+    int cachedUsers() {
+        return (int) users.values().stream().filter(holder -> holder.set != null).count();
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    private UserWorkingSet snapshot(Long userId) {
+        while (true) {
+            Holder holder = users.computeIfAbsent(userId, _k -> new Holder());
+            holder.lastAccess = clock.getAsLong();
+            UserWorkingSet set = holder.set;
+            if (set != null && holder.pending.isEmpty()) {
+                return set;
+            }
+            holder.lock.lock();
+            try {
+                if (holder.removed) {
+                    continue;
+                }
+                if (holder.set == null) {
+                    // Changes committed before this load are in what it reads.
+                    holder.pending.clear();
+                    install(holder, UserWorkingSet.of(
+                            onPrimary(userId, () -> taskRepository.findOpenRanked(userId)), storage));
+                    logger.debug("Loaded working set of {} tasks for userId: {}", holder.set.size(), userId);
+                } else if (!holder.pending.isEmpty()) {
+                    applyPending(userId, holder);
+                }
+                set = holder.set;
+            } finally {
+                holder.lock.unlock();
+            }
+            enforceBudget();
+            return set;
+        }
+    }
+
+    private void applyPending(Long userId, Holder holder) {
+        List<Change> changes = new ArrayList<>();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Change change; (change = holder.pending.poll()) != null; ) {
+            changes.add(change);
+            ids.addAll(change.ids());
+        }
+        List<RankedTask> current = onPrimary(userId, () -> taskRepository.findRankedByIds(userId, ids));
+        UserWorkingSet next = holder.set.apply(ids, current);
+        for (Change change : changes) {
+            if (change.movedId() != null && !next.inOrder(change.afterId(), change.movedId(), change.beforeId())) {
+                logger.debug("Rank keys respaced for userId: {}, reloading working set", userId);
+                install(holder, UserWorkingSet.of(
+                        onPrimary(userId, () -> taskRepository.findOpenRanked(userId)), storage));
+                return;
+            }
+        }
+        install(holder, next);
+    }
+
+    private void enqueue(Long userId, Change change) {
+        Holder holder = users.get(userId);
+        if (holder != null) {
+            holder.pending.add(change);
+        }
+    }
+
+    /** Caller holds the holder's lock. */
+    private void install(Holder holder, UserWorkingSet set) {
+        long before = holder.set != null ? holder.set.estimatedBytes() : 0;
+        long after = set != null ? set.estimatedBytes() : 0;
+        holder.set = set;
+        estimatedBytes.addAndGet(after - before);
+    }
+
+    private void enforceBudget() {
+        if (estimatedBytes.get() <= maxBytes || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Evict down to 90% of the budget so the next few loads do not trigger another pass.
+            long target = maxBytes - maxBytes / 10;
+            List<Map.Entry<Long, Holder>> byAge = users.entrySet().stream()
+                    .filter(entry -> entry.getValue().set != null)
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .toList();
+            int evicted = 0;
+            for (Map.Entry<Long, Holder> entry : byAge) {
+                if (estimatedBytes.get() <= target) {
+                    break;
+                }
+                Holder holder = entry.getValue();
+                if (holder.lock.tryLock()) {
+                    try {
+                        install(holder, null);
+                        evicted++;
+                    } finally {
+                        holder.lock.unlock();
+                    }
+                }
+            }
+            logger.debug("Evicted {} working sets over the memory budget, {} bytes held", evicted, estimatedBytes.get());
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Runs a read outside the caller's transaction, so it goes to the primary rather than
+     * a replica that may not have the user's latest commit yet.
+     */
+    private <T> T onPrimary(Long userId, Supplier<T> read) {
+        TransactionTemplate template = shards.transactionTemplate(shards.router().shardFor(userId));
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        return template.execute(_status -> read.get());
+    }
+
+    private void afterCommit(Long userId, Runnable action) {
+        Runnable committed = () -> {
+            action.run();
+            for (Consumer<Long> listener : commitListeners) {
+                listener.accept(userId);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.run();
+            }
+        });
+    }
+
+    /**
+     * Task ids to re-read; for a move also the neighbours the task must land between.
+     */
+    private record Change(Set<Long> ids, Long movedId, Long afterId, Long beforeId) {
+    }
+
+    private static final class Holder {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+        volatile UserWorkingSet set;
+        volatile long lastAccess;
+        /** Set once the holder has left the map; a reader that raced with that retries. */
+        boolean removed;
+    }
+}
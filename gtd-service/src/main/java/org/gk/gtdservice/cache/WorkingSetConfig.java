@@ -0,0 +1,21 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "gtd.working-set.enabled", havingValue = "true")
+@EnableConfigurationProperties(WorkingSetProperties.class)
+public class WorkingSetConfig {
+
+    @Bean
+    public UserWorkingSets userWorkingSets(TaskRepository taskRepository, ShardedJdbc shards,
+                                           WorkingSetProperties properties) {
+        return new UserWorkingSets(taskRepository, shards, properties.maxMemory().toBytes(), properties.idleTimeout(),
+                properties.storage());
+    }
+}
@@ -0,0 +1,25 @@
+package org.gk.gtdservice.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * In-memory working sets of users' open tasks. Off by default: every node keeps its
+ * own copy, so only enable it where one node serves all of a user's requests or the
+ * nodes share a {@code gtd.invalidation.bus}.
+ *
+ * @param maxMemory   estimated memory for all working sets; least recently read users are dropped beyond it
+ * @param idleTimeout a user's working set is dropped after this long without a read
+ * @param storage     where the sets keep their rows; {@code off-heap} keeps them out of the garbage-collected heap
+ */
+@ConfigurationProperties("gtd.working-set")
+public record WorkingSetProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("64MB") DataSize maxMemory,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue("heap") WorkingSetStorage storage
+) {
+}
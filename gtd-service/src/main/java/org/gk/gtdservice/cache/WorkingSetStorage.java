@@ -0,0 +1,36 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+
+import java.util.List;
+
+/**
+ * Where a {@link UserWorkingSet} keeps its rows.
+ */
+public enum WorkingSetStorage {
+
+    /** The task records as read, on the heap. */
+    HEAP {
+        @Override
+        TaskRows store(List<RankedTask> tasks) {
+            return new HeapTaskRows(List.copyOf(tasks));
+        }
+    },
+
+    /**
+     * Fixed-layout rows in native memory, see {@link TaskSlab}. Several times smaller
+     * than {@link #HEAP} and nearly invisible to the garbage collector, at the cost of
+     * decoding each task as it is read.
+     */
+    OFF_HEAP {
+        @Override
+        TaskRows store(List<RankedTask> tasks) {
+            return TaskSlab.of(tasks);
+        }
+    };
+
+    /**
+     * @param tasks in row order
+     */
+    abstract TaskRows store(List<RankedTask> tasks);
+}
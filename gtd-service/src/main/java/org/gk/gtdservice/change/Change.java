@@ -0,0 +1,49 @@
+package org.gk.gtdservice.change;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * A committed change to one of a user's tasks, projects or tags, as pushed to clients:
+ * which item changed and how, not its new state. Clients re-read what they show.
+ *
+ * @param sequence position in the node's {@link ChangeFeed}; sent as the event id, not in the body
+ */
+public record Change(@JsonIgnore long sequence, @JsonIgnore Long userId, Entity entity, Long id, Action action) {
+
+    public enum Entity {
+
+        TASK("task"),
+        PROJECT("project"),
+        TAG("tag");
+
+        private final String value;
+
+        Entity(String value) {
+            this.value = value;
+        }
+
+        @JsonValue
+        public String value() {
+            return value;
+        }
+    }
+
+    public enum Action {
+
+        CREATED("created"),
+        UPDATED("updated"),
+        DELETED("deleted");
+
+        private final String value;
+
+        Action(String value) {
+            this.value = value;
+        }
+
+        @JsonValue
+        public String value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package org.gk.gtdservice.change;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Committed changes to users' data, numbered from one node-wide sequence. Each user's
+ * latest changes are kept in a ring buffer so a client that reconnects can be sent what
+ * it missed, and every change is handed to the user's current subscribers.
+ * <p>
+ * Event ids carry an epoch that is new each time the node starts, so an id handed out
+ * before a restart or by another node is recognized as unknown rather than resumed from.
+ * A user's buffer is dropped once no one has been subscribed and nothing has changed for
+ * the retention period. The highest sequence dropped so far is remembered, so a client
+ * resuming from before it is told it missed changes instead of being sent none.
+ */
+public class ChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    /** {@link #subscribe} position of a client without a {@code Last-Event-ID}. */
+    private static final long FRESH = -1;
+    /** {@link #subscribe} position of a {@code Last-Event-ID} not handed out by this node since it started. */
+    private static final long UNKNOWN = -2;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private final Map<Long, UserChanges> users = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final long retentionNanos;
+    private final LongSupplier clock;
+
+    public ChangeFeed(int bufferSize, Duration retention) {
+        this(bufferSize, retention, System::nanoTime);
+    }
+
+    ChangeFeed(int bufferSize, Duration retention, LongSupplier clock) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.retentionNanos = retention.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Publishes the change once the current transaction commits, or right away outside
+     * one. The changes of one transaction are published together in the order recorded,
+     * repeats of the same change once, and none of them if it rolls back.
+     */
+    public void record(Long userId, Change.Entity entity, Long id, Change.Action action) {
+        Pending change = new Pending(userId, entity, id, action);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(change));
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.feed() == this) {
+                pending.changes.add(change);
+                return;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        pending.changes.add(change);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    /**
+     * Subscribes to the user's changes and collects those committed after
+     * {@code lastEventId}. No change is both missed and delivered, and none falls between
+     * the two. The listener is called on the committing thread while the user's changes
+     * are locked, so it must only hand the change off.
+     *
+     * @param lastEventId the {@link #eventId} of the last change the client has, or null for
+     *                    a client that loads the user's data itself
+     */
+    public Subscription subscribe(Long userId, String lastEventId, Consumer<Change> listener) {
+        long after = position(lastEventId);
+        while (true) {
+            UserChanges changes = changesOf(userId);
+            synchronized (changes) {
+                if (changes.dropped) {
+                    continue;
+                }
+                long current = sequence.get();
+                List<Change> missed = List.of();
+                boolean complete = true;
+                if (after == UNKNOWN || (after != FRESH && (after < changes.truncatedUpTo || after > current))) {
+                    complete = false;
+                } else if (after != FRESH) {
+                    missed = changes.after(after);
+                }
+                changes.listeners.add(listener);
+                return new Subscription(changes, listener, eventId(current), complete, missed);
+            }
+        }
+    }
+
+    /**
+     * The SSE event id of a change, or of a position in the feed.
+     */
+    public String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Drops the buffers of users no one has subscribed to or changed within the retention period.
+     */
+    @Scheduled(fixedDelayString = "${gtd.events.sweep-interval:60s}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int dropped = 0;
+        for (Map.Entry<Long, UserChanges> entry : users.entrySet()) {
+            UserChanges changes = entry.getValue();
+            synchronized (changes) {
+                if (changes.listeners.isEmpty() && now - changes.lastActive >= retentionNanos) {
+                    // Raise the floor first so a resume from before these changes is never taken as complete.
+                    floor.accumulateAndGet(changes.lastSequence(), Math::max);
+                    changes.dropped = true;
+                    users.remove(entry.getKey(), changes);
+                    dropped++;
+                }
+            }
+        }
+        if (dropped > 0) {
+            logger.debug("Dropped the change buffers of {} idle users, {} left", dropped, users.size());
+        }
+    }
+
+    int bufferedUsers() {
+        return users.size();
+    }
+
+    void publish(Collection<Pending> changes) {
+        for (Pending change : changes) {
+            append(change);
+        }
+    }
+
+    private void append(Pending pending) {
+        while (true) {
+            UserChanges changes = changesOf(pending.userId());
+            synchronized (changes) {
+                if (changes.dropped) {
+                    continue;
+                }
+                Change change = new Change(sequence.incrementAndGet(), pending.userId(), pending.entity(),
+                        pending.id(), pending.action());
+                changes.add(change, bufferSize, clock.getAsLong());
+                for (Consumer<Change> listener : changes.listeners) {
+                    try {
+                        listener.accept(change);
+                    } catch (RuntimeException e) {
+                        logger.error("Change listener failed for user {}", pending.userId(), e);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private UserChanges changesOf(Long userId) {
+        return users.computeIfAbsent(userId, key -> new UserChanges(floor.get(), clock.getAsLong()));
+    }
+
+    private long position(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return FRESH;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return UNKNOWN;
+        }
+        try {
+            long position = Long.parseLong(lastEventId.substring(dash + 1).trim());
+            return position >= 0 ? position : UNKNOWN;
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * A listener's place in the feed. Closing it stops deliveries; the user's buffer is
+     * then kept for the retention period so the client can reconnect and resume.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final UserChanges changes;
+        private final Consumer<Change> listener;
+        private final String position;
+        private final boolean complete;
+        private final List<Change> missed;
+
+        private Subscription(UserChanges changes, Consumer<Change> listener, String position, boolean complete,
+                             List<Change> missed) {
+            this.changes = changes;
+            this.listener = listener;
+            this.position = position;
+            this.complete = complete;
+            this.missed = missed;
+        }
+
+        /**
+         * The event id the client is at once it has the {@link #missed} changes.
+         */
+        public String position() {
+            return position;
+        }
+
+        /**
+         * False if changes the client missed are no longer known, so it must reload.
+         */
+        public boolean complete() {
+            return complete;
+        }
+
+        /**
+         * Changes after the client's {@code Last-Event-ID}, oldest first.
+         */
+        public List<Change> missed() {
+            return missed;
+        }
+
+        @Override
+        public void close() {
+            synchronized (changes) {
+                if (changes.listeners.remove(listener)) {
+                    changes.lastActive = clock.getAsLong();
+                }
+            }
+        }
+    }
+
+    record Pending(Long userId, Change.Entity entity, Long id, Change.Action action) {
+    }
+
+    /**
+     * The changes recorded in one transaction, published after it commits.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Pending> changes = new LinkedHashSet<>();
+
+        ChangeFeed feed() {
+            return ChangeFeed.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            publish(changes);
+        }
+    }
+
+    /**
+     * One user's latest changes and subscribers. Guarded by its own monitor.
+     */
+    private static final class UserChanges {
+
+        private final Deque<Change> buffer = new ArrayDeque<>();
+        /** Copied on write, since a listener may close its subscription while it is being called. */
+        private final List<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+        /** Sequence of the last change dropped from the buffer; later ones are all in it. */
+        private long truncatedUpTo;
+        private long lastActive;
+        private boolean dropped;
+
+        private UserChanges(long truncatedUpTo, long now) {
+            this.truncatedUpTo = truncatedUpTo;
+            this.lastActive = now;
+        }
+
+        private void add(Change change, int bufferSize, long now) {
+            if (buffer.size() == bufferSize) {
+                truncatedUpTo = buffer.removeFirst().sequence();
+            }
+            buffer.addLast(change);
+            lastActive = now;
+        }
+
+        private List<Change> after(long sequence) {
+            List<Change> after = new ArrayList<>();
+            for (Change change : buffer) {
+                if (change.sequence() > sequence) {
+                    after.add(change);
+                }
+            }
+            return after;
+        }
+
+        private long lastSequence() {
+            return buffer.isEmpty() ? truncatedUpTo : buffer.getLast().sequence();
+        }
+    }
+}
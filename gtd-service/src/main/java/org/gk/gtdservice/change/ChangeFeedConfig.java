@@ -0,0 +1,25 @@
+package org.gk.gtdservice.change;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedConfig {
+
+    @Bean
+    public ChangeFeed changeFeed(ChangeFeedProperties properties) {
+        return new ChangeFeed(properties.bufferSize(), properties.retention());
+    }
+
+    @Bean
+    public ChangeStreams changeStreams(ChangeFeed feed, ChangeFeedProperties properties) {
+        return new ChangeStreams(feed, properties.timeout(), properties.heartbeat(), properties.queueCapacity());
+    }
+
+    @Bean
+    public ChangeWaiters changeWaiters(ChangeFeed feed, ChangeFeedProperties properties) {
+        return new ChangeWaiters(feed, properties.maxWait());
+    }
+}
@@ -0,0 +1,29 @@
+package org.gk.gtdservice.change;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Change events pushed at {@code /api/users/{id}/events}. Each node pushes the changes
+ * committed on it, so with several nodes a client only hears about writes made through
+ * the node it is connected to.
+ *
+ * @param bufferSize    latest changes kept per user for clients that reconnect; one that missed more reloads
+ * @param retention     a user's buffer is kept this long after their last change or subscriber
+ * @param heartbeat     a comment is sent when a stream has been quiet this long
+ * @param timeout       streams are ended after this long and the client reconnects
+ * @param queueCapacity changes waiting to be written to one client before it is disconnected
+ * @param maxWait       longest a {@code /changes/wait} long poll may ask to wait
+ */
+@ConfigurationProperties("gtd.events")
+public record ChangeFeedProperties(
+        @DefaultValue("256") int bufferSize,
+        @DefaultValue("10m") Duration retention,
+        @DefaultValue("15s") Duration heartbeat,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("256") int queueCapacity,
+        @DefaultValue("60s") Duration maxWait
+) {
+}
@@ -0,0 +1,127 @@
+package org.gk.gtdservice.change;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One client's event stream. The committing thread only queues a change; the stream's
+ * own virtual thread writes it, so a slow client never holds up a write. A client that
+ * falls a full queue behind is disconnected and resumes from the feed's buffer when it
+ * reconnects. When nothing is sent for a heartbeat interval a comment is, which keeps
+ * proxies from closing the connection and notices clients that went away.
+ * <p>
+ * The stream opens with the changes the client missed followed by a {@code ready}
+ * event, or with a {@code reset} event if they are no longer known. Both carry the
+ * stream's position as their id, so a client that reconnects resumes from there.
+ */
+final class ChangeStream implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStream.class);
+
+    static final String CHANGE = "change";
+    static final String READY = "ready";
+    static final String RESET = "reset";
+
+    private final SseEmitter emitter;
+    private final ChangeFeed feed;
+    private final Long userId;
+    private final BlockingQueue<Change> queue;
+    private final long heartbeatNanos;
+    private final Consumer<ChangeStream> onClose;
+    private ChangeFeed.Subscription subscription;
+    private volatile boolean closed;
+    private volatile boolean overflowed;
+    private volatile Thread thread;
+
+    ChangeStream(SseEmitter emitter, ChangeFeed feed, Long userId, int queueCapacity, Duration heartbeat,
+                 Consumer<ChangeStream> onClose) {
+        this.emitter = emitter;
+        this.feed = feed;
+        this.userId = userId;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.onClose = onClose;
+    }
+
+    /**
+     * Subscribes on the calling thread, so changes committed after the request arrived
+     * are not missed, and starts writing on a virtual thread.
+     */
+    void start(String lastEventId) {
+        emitter.onCompletion(this::close);
+        emitter.onError(_error -> close());
+        emitter.onTimeout(() -> {
+            close();
+            emitter.complete();
+        });
+        subscription = feed.subscribe(userId, lastEventId, this::enqueue);
+        thread = Thread.ofVirtual().name("events-user-" + userId).start(this);
+    }
+
+    void close() {
+        closed = true;
+        Thread writer = thread;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean clientGone = false;
+        try {
+            for (Change change : subscription.missed()) {
+                send(change);
+            }
+            emitter.send(SseEmitter.event()
+                    .id(subscription.position())
+                    .name(subscription.complete() ? READY : RESET)
+                    .data(Map.of(), MediaType.APPLICATION_JSON));
+            while (!closed && !overflowed) {
+                Change change = queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                if (change != null) {
+                    send(change);
+                } else {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+            if (overflowed) {
+                logger.debug("Events for user {} backed up, disconnecting the client so it resumes", userId);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected or the response already completed; the container cleans up.
+            clientGone = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+            onClose.accept(this);
+            if (!clientGone) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private void enqueue(Change change) {
+        if (!queue.offer(change)) {
+            overflowed = true;
+        }
+    }
+
+    private void send(Change change) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(feed.eventId(change.sequence()))
+                .name(CHANGE)
+                .data(change, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,52 @@
+package org.gk.gtdservice.change;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens Server-Sent Events streams of users' changes, any number per user. Each is an
+ * async request, which holds no request thread, plus a virtual thread that writes to
+ * it. Streams end after the timeout; browsers' {@code EventSource} and the app
+ * reconnect with {@code Last-Event-ID} and carry on from where they were.
+ */
+public class ChangeStreams implements AutoCloseable {
+
+    private final ChangeFeed feed;
+    private final long timeoutMillis;
+    private final Duration heartbeat;
+    private final int queueCapacity;
+    private final Set<ChangeStream> open = ConcurrentHashMap.newKeySet();
+
+    public ChangeStreams(ChangeFeed feed, Duration timeout, Duration heartbeat, int queueCapacity) {
+        this.feed = feed;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeat = heartbeat;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param lastEventId the client's {@code Last-Event-ID} header, if any
+     */
+    public SseEmitter open(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        ChangeStream stream = new ChangeStream(emitter, feed, userId, queueCapacity, heartbeat, open::remove);
+        open.add(stream);
+        stream.start(lastEventId);
+        return emitter;
+    }
+
+    public int openCount() {
+        return open.size();
+    }
+
+    /**
+     * Ends every open stream, so shutdown does not wait for clients to go away.
+     */
+    @Override
+    public void close() {
+        open.forEach(ChangeStream::close);
+    }
+}
@@ -0,0 +1,115 @@
+package org.gk.gtdservice.change;
+
+import org.gk.gtdservice.dto.ChangesDto;
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Long polls for users' changes. A waiting request is an async request with a listener
+ * on the {@link ChangeFeed}: it holds no thread and no connection, only the listener and
+ * its {@link DeferredResult}. It is answered by the first change committed after the
+ * client's version, or with no changes once its timeout is up.
+ * <p>
+ * Versions are the event ids of the SSE stream, so a client can switch between the two.
+ */
+public class ChangeWaiters {
+
+    private final ChangeFeed feed;
+    private final Duration maxWait;
+
+    public ChangeWaiters(ChangeFeed feed, Duration maxWait) {
+        this.feed = feed;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Answers right away when the client has no version yet, missed changes, or has a
+     * version that is no longer known; otherwise when the next change commits. Changes
+     * committed together may be answered one at a time, since the client comes back for
+     * the rest straight away.
+     *
+     * @param since   the version of the client's last answer, or null to get the current one
+     * @param timeout how long to wait, e.g. {@code 30s}; a bare number is seconds
+     */
+    public DeferredResult<ChangesDto> await(Long userId, String since, String timeout) {
+        DeferredResult<ChangesDto> result = new DeferredResult<>(waitTime(timeout).toMillis());
+        Waiter waiter = new Waiter(result);
+        ChangeFeed.Subscription subscription = feed.subscribe(userId, since, waiter);
+        waiter.subscription = subscription;
+        if (since == null || since.isBlank() || !subscription.complete() || !subscription.missed().isEmpty()) {
+            subscription.close();
+            result.setResult(new ChangesDto(subscription.position(), !subscription.complete(), subscription.missed()));
+            return result;
+        }
+        result.onTimeout(() -> result.setResult(new ChangesDto(subscription.position(), false, List.of())));
+        result.onCompletion(subscription::close);
+        waiter.arm();
+        return result;
+    }
+
+    Duration waitTime(String timeout) {
+        Duration wait;
+        try {
+            wait = DurationStyle.detectAndParse(timeout, ChronoUnit.SECONDS);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid timeout: " + timeout);
+        }
+        if (wait.isNegative() || wait.isZero()) {
+            throw new InvalidRequestException("Timeout must be positive");
+        }
+        return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    }
+
+    /**
+     * Holds back changes that arrive before {@link #arm}: until then it is not known whether
+     * the request waits at all, or is answered with the changes it missed.
+     */
+    private final class Waiter implements Consumer<Change> {
+
+        private final DeferredResult<ChangesDto> result;
+        private final List<Change> early = new ArrayList<>();
+        private ChangeFeed.Subscription subscription;
+        private boolean armed;
+
+        Waiter(DeferredResult<ChangesDto> result) {
+            this.result = result;
+        }
+
+        @Override
+        public void accept(Change change) {
+            synchronized (this) {
+                if (!armed) {
+                    early.add(change);
+                    return;
+                }
+            }
+            answer(List.of(change));
+        }
+
+        void arm() {
+            List<Change> held;
+            synchronized (this) {
+                armed = true;
+                held = List.copyOf(early);
+            }
+            if (!held.isEmpty()) {
+                answer(held);
+            }
+        }
+
+        // Called outside the waiter's lock, since closing takes the user's changes lock.
+        private void answer(List<Change> changes) {
+            String version = feed.eventId(changes.getLast().sequence());
+            if (result.setResult(new ChangesDto(version, false, changes))) {
+                subscription.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.gk.gtdservice.config;
+
+import org.gk.gtdservice.shard.SchemaInspector;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates the index on {@code gtd.reference_attachments.sha256} on every shard, so that
+ * checking whether a file is still in use before deleting it is a lookup rather than a
+ * scan. Done here rather than in schema.sql because MySQL has no {@code IF NOT EXISTS}
+ * for indexes and the script runs on every start.
+ */
+@Component
+@Order(4)
+public class AttachmentHashIndex implements StartupMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentHashIndex.class);
+
+    static final String INDEX = "idx_attachments_sha256";
+
+    private final ShardedJdbc shards;
+
+    public AttachmentHashIndex(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void migrate() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            JdbcTemplate jdbc = shards.forShard(shard).getJdbcTemplate();
+            DataSource dataSource = jdbc.getDataSource();
+            if (SchemaInspector.hasIndex(dataSource, "reference_attachments", INDEX)) {
+                continue;
+            }
+            jdbc.execute("CREATE INDEX " + SchemaInspector.indexName(dataSource, INDEX)
+                    + " ON gtd.reference_attachments (sha256)");
+            logger.info("Created index {} on shard {}", INDEX, shard);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.gk.gtdservice.config;
+
+import org.gk.gtdservice.repo.ListCounterRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code gtd.user_list_counters} on startup for databases whose tasks predate
+ * the counters table.
+ */
+@Component
+@Order(5)
+public class ListCounterBackfill implements StartupMigration {
+
+    private final ShardedJdbc shards;
+    private final ListCounterRepository counters;
+
+    public ListCounterBackfill(ShardedJdbc shards, ListCounterRepository counters) {
+        this.shards = shards;
+        this.counters = counters;
+    }
+
+    @Override
+    public void migrate() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            if (counters.needsRebuild(shard)) {
+                counters.rebuild(shard);
+            }
+        }
+    }
+}
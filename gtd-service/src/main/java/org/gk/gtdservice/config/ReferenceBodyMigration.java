@@ -0,0 +1,66 @@
+package org.gk.gtdservice.config;
+
+import org.gk.gtdservice.repo.ReferenceRepository;
+import org.gk.gtdservice.shard.SchemaInspector;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts databases created when reference bodies were a {@code body} TEXT column of
+ * {@code gtd.references_store}: adds the body hash, size and snippet columns, moves
+ * each body into {@code gtd.reference_bodies}, then drops {@code body} and links the
+ * hash to the stored bodies. Done here rather than in schema.sql because MySQL has no
+ * {@code IF NOT EXISTS} for columns and the script runs on every start.
+ */
+@Component
+@Order(3)
+public class ReferenceBodyMigration implements StartupMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceBodyMigration.class);
+
+    /** Column name to definition, added to databases that still have {@code body}. */
+    static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("body_hash", "CHAR(64)");
+        COLUMNS.put("body_size", "INT");
+        COLUMNS.put("snippet", "VARCHAR(200)");
+    }
+
+    private final ShardedJdbc shards;
+    private final ReferenceRepository referenceRepository;
+
+    public ReferenceBodyMigration(ShardedJdbc shards, ReferenceRepository referenceRepository) {
+        this.shards = shards;
+        this.referenceRepository = referenceRepository;
+    }
+
+    @Override
+    public void migrate() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            JdbcTemplate jdbc = shards.forShard(shard).getJdbcTemplate();
+            DataSource dataSource = jdbc.getDataSource();
+            if (!SchemaInspector.hasColumn(dataSource, "references_store", "body")) {
+                continue;
+            }
+            for (Map.Entry<String, String> column : COLUMNS.entrySet()) {
+                if (!SchemaInspector.hasColumn(dataSource, "references_store", column.getKey())) {
+                    jdbc.execute("ALTER TABLE gtd.references_store ADD COLUMN " + column.getKey() + " " + column.getValue());
+                }
+            }
+            referenceRepository.moveInlineBodies(shard);
+            jdbc.execute("ALTER TABLE gtd.references_store DROP COLUMN body");
+            jdbc.execute("ALTER TABLE gtd.references_store ADD CONSTRAINT fk_reference_body "
+                    + "FOREIGN KEY (user_id, body_hash) REFERENCES gtd.reference_bodies (user_id, hash)");
+            logger.info("Moved gtd.references_store bodies to gtd.reference_bodies on shard {}", shard);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.gk.gtdservice.config;
+
+import org.gk.gtdservice.shard.SchemaInspector;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds {@code cleanup_shard} to {@code gtd.user_shards} on databases created before
+ * shard moves recorded the shard still holding a moved user's old rows. Done here
+ * rather than in schema.sql because MySQL has no {@code IF NOT EXISTS} for columns and
+ * the script runs on every start.
+ */
+@Component
+@Order(6)
+public class ShardMoveCleanupColumn implements StartupMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardMoveCleanupColumn.class);
+
+    private final ShardedJdbc shards;
+
+    public ShardMoveCleanupColumn(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void migrate() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            JdbcTemplate jdbc = shards.forShard(shard).getJdbcTemplate();
+            if (!SchemaInspector.hasColumn(jdbc.getDataSource(), "user_shards", "cleanup_shard")) {
+                jdbc.execute("ALTER TABLE gtd.user_shards ADD COLUMN cleanup_shard INT");
+                logger.info("Added cleanup_shard to gtd.user_shards on shard {}", shard);
+            }
+        }
+    }
+}
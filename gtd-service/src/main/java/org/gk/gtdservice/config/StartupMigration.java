@@ -0,0 +1,11 @@
+package org.gk.gtdservice.config;
+
+/**
+ * One step of bringing an existing database up to the current schema and derived data.
+ * Steps run once per start, in {@link org.springframework.core.annotation.Order} order,
+ * before the web server accepts requests; see {@link StartupMigrations}.
+ */
+public interface StartupMigration {
+
+    void migrate();
+}
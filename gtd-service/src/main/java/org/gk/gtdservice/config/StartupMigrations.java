@@ -0,0 +1,27 @@
+package org.gk.gtdservice.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs every {@link StartupMigration} once all singletons exist and before the context
+ * finishes refreshing. The embedded web server only opens its connectors when the
+ * refresh finishes, so no request can reach a table that is still being converted,
+ * unlike an {@link org.springframework.boot.ApplicationRunner}, which runs after that.
+ */
+@Component
+public class StartupMigrations implements SmartInitializingSingleton {
+
+    private final List<StartupMigration> migrations;
+
+    public StartupMigrations(List<StartupMigration> migrations) {
+        this.migrations = migrations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrations.forEach(StartupMigration::migrate);
+    }
+}
@@ -0,0 +1,86 @@
+package org.gk.gtdservice.config;
+
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.shard.SchemaInspector;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Converts databases created when statuses were stored as text to SMALLINT status
+ * codes: each task and project status is rewritten to its {@link TaskStatus} or
+ * {@link ProjectStatus} code, the column is narrowed and its CHECK constraint replaced.
+ * List counters are derived data, so they are emptied rather than converted and
+ * {@link ListCounterBackfill} rebuilds them. Runs before the other startup migrations,
+ * which already read and write codes.
+ */
+@Component
+@Order(1)
+public class StatusColumnMigration implements StartupMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusColumnMigration.class);
+
+    private final ShardedJdbc shards;
+
+    public StatusColumnMigration(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void migrate() {
+        Map<String, Short> taskCodes = Arrays.stream(TaskStatus.values())
+                .collect(Collectors.toMap(TaskStatus::value, TaskStatus::code, (a, _b) -> a, LinkedHashMap::new));
+        Map<String, Short> projectCodes = Arrays.stream(ProjectStatus.values())
+                .collect(Collectors.toMap(ProjectStatus::value, ProjectStatus::code, (a, _b) -> a, LinkedHashMap::new));
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            JdbcTemplate jdbc = shards.forShard(shard).getJdbcTemplate();
+            DataSource dataSource = jdbc.getDataSource();
+            boolean mysql = SchemaInspector.isMySql(dataSource);
+            if (SchemaInspector.isTextColumn(dataSource, "tasks", "status")) {
+                convert(jdbc, mysql, "gtd.tasks", "chk_task_status", taskCodes, TaskStatus.INBOX.code());
+                logger.info("Converted gtd.tasks status to codes on shard {}", shard);
+            }
+            if (SchemaInspector.isTextColumn(dataSource, "projects", "status")) {
+                convert(jdbc, mysql, "gtd.projects", "chk_project_status", projectCodes, ProjectStatus.ACTIVE.code());
+                logger.info("Converted gtd.projects status to codes on shard {}", shard);
+            }
+            if (SchemaInspector.isTextColumn(dataSource, "user_list_counters", "status")) {
+                jdbc.update("DELETE FROM gtd.user_list_counters");
+                jdbc.execute(alterColumn(mysql, "gtd.user_list_counters", "SMALLINT NOT NULL"));
+                logger.info("Emptied gtd.user_list_counters for rebuild with status codes on shard {}", shard);
+            }
+        }
+    }
+
+    /**
+     * The old CHECK only admits the text values, so it goes first; the new one bounds
+     * the codes. Values are rewritten as digit strings and the type change parses them.
+     */
+    private static void convert(JdbcTemplate jdbc, boolean mysql, String table, String constraint,
+                                Map<String, Short> codes, short defaultCode) {
+        jdbc.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + constraint);
+        StringBuilder update = new StringBuilder("UPDATE ").append(table).append(" SET status = CASE status");
+        codes.forEach((value, code) ->
+                update.append(" WHEN '").append(value).append("' THEN '").append(code).append('\''));
+        jdbc.update(update.append(" END").toString());
+        jdbc.execute(alterColumn(mysql, table, "SMALLINT NOT NULL DEFAULT " + defaultCode));
+        jdbc.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + constraint
+                + " CHECK (status BETWEEN 0 AND " + (codes.size() - 1) + ")");
+    }
+
+    private static String alterColumn(boolean mysql, String table, String definition) {
+        return mysql
+                ? "ALTER TABLE " + table + " MODIFY COLUMN status " + definition
+                : "ALTER TABLE " + table + " ALTER COLUMN status " + definition;
+    }
+}
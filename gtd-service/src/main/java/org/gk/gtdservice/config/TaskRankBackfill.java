@@ -0,0 +1,66 @@
+package org.gk.gtdservice.config;
+
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.shard.SchemaInspector;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Brings {@code gtd.tasks} up to rank-key ordering on startup: adds the
+ * {@code rank_key} column to databases created before it existed, creates the
+ * indexes the list queries sort by, and gives existing tasks keys in their old
+ * order. Done here rather than in schema.sql because MySQL has no
+ * {@code IF NOT EXISTS} for columns and indexes and the script runs on every start.
+ */
+@Component
+@Order(2)
+public class TaskRankBackfill implements StartupMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRankBackfill.class);
+
+    /** Index name to columns; each matches the filter and sort of a task list query. */
+    static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put("idx_tasks_user_rank", "user_id, rank_key");
+        INDEXES.put("idx_tasks_user_status_rank", "user_id, status, rank_key");
+        INDEXES.put("idx_tasks_project_rank", "project_id, rank_key");
+        INDEXES.put("idx_tasks_context_rank", "context_id, rank_key");
+    }
+
+    private final ShardedJdbc shards;
+    private final TaskRepository taskRepository;
+
+    public TaskRankBackfill(ShardedJdbc shards, TaskRepository taskRepository) {
+        this.shards = shards;
+        this.taskRepository = taskRepository;
+    }
+
+    @Override
+    public void migrate() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            NamedParameterJdbcTemplate jdbc = shards.forShard(shard);
+            DataSource dataSource = jdbc.getJdbcTemplate().getDataSource();
+            if (!SchemaInspector.hasColumn(dataSource, "tasks", "rank_key")) {
+                jdbc.getJdbcTemplate().execute("ALTER TABLE gtd.tasks ADD COLUMN rank_key VARCHAR(64)");
+                logger.info("Added rank_key to gtd.tasks on shard {}", shard);
+            }
+            for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+                if (!SchemaInspector.hasIndex(dataSource, "tasks", index.getKey())) {
+                    jdbc.getJdbcTemplate().execute("CREATE INDEX " + SchemaInspector.indexName(dataSource, index.getKey())
+                            + " ON gtd.tasks (" + index.getValue() + ")");
+                    logger.info("Created index {} on shard {}", index.getKey(), shard);
+                }
+            }
+            taskRepository.backfillRanks(shard);
+        }
+    }
+}
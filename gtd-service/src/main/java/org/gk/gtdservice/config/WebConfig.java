@@ -1,10 +1,16 @@
 package org.gk.gtdservice.config;
 
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.web.RateLimitProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class WebConfig implements WebMvcConfigurer {
 
     @Override
@@ -16,4 +22,13 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(false)
                 .maxAge(0);
     }
+
+    /**
+     * Status query parameters take the same lower-case values as JSON bodies.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TaskStatus.class, TaskStatus::fromValue);
+        registry.addConverter(String.class, ProjectStatus.class, ProjectStatus::fromValue);
+    }
 }
@@ -0,0 +1,141 @@
+package org.gk.gtdservice.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.gk.gtdservice.dto.AttachmentDto;
+import org.gk.gtdservice.service.AttachmentService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Files attached to a reference. Uploads are the raw request body, named by the
+ * {@code name} parameter and typed by the request's {@code Content-Type}.
+ */
+@RestController
+@RequestMapping("/api/references/{referenceId}/attachments")
+public class AttachmentController {
+
+    /** Request attributes through which Tomcat sends a file region with {@code sendfile}. */
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentService service;
+
+    public AttachmentController(AttachmentService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public List<AttachmentDto> list(@PathVariable Long referenceId) {
+        return service.findByReferenceId(referenceId);
+    }
+
+    @PostMapping
+    public ResponseEntity<AttachmentDto> upload(@PathVariable Long referenceId, @RequestParam String name,
+                                                HttpServletRequest request) throws IOException {
+        AttachmentDto created = service.create(referenceId, name, request.getContentType(), request.getInputStream());
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequestUri()
+                .path("/{id}")
+                .buildAndExpand(created.id())
+                .toUri();
+        return ResponseEntity.created(location)
+                .body(created);
+    }
+
+    /**
+     * Sends the file with its SHA-256 as a strong ETag. A single byte range is answered
+     * with 206 (unless {@code If-Range} names another version); several ranges get the
+     * whole file. Where the container supports it the file region is handed to
+     * {@code sendfile}, otherwise it is transferred from a {@link FileChannel}; either way
+     * the content does not pass through the heap.
+     */
+    @GetMapping("/{attachmentId}")
+    public void download(@PathVariable Long referenceId, @PathVariable Long attachmentId,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AttachmentDto attachment = service.findById(referenceId, attachmentId);
+        Path file = service.file(attachment);
+        String etag = "\"" + attachment.sha256() + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long length = attachment.size();
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges = parseRanges(range);
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = Math.min(ranges.get(0).getRangeEnd(length), length - 1) + 1;
+                if (start >= length || start >= end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(attachment.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.name(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setContentLengthLong(end - start);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || start == end) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    @DeleteMapping("/{attachmentId}")
+    public ResponseEntity<Void> delete(@PathVariable Long referenceId, @PathVariable Long attachmentId) {
+        service.delete(referenceId, attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * A malformed {@code Range} header is ignored, as if it had not been sent.
+     */
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
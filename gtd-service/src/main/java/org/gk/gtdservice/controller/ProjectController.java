@@ -2,7 +2,11 @@ package org.gk.gtdservice.controller;
 
 import jakarta.validation.Valid;
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ProjectDto;
+import org.gk.gtdservice.dto.ProjectProperty;
+import org.gk.gtdservice.dto.SparseList;
+import org.gk.gtdservice.model.ProjectStatus;
 import org.gk.gtdservice.service.ProjectService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,21 +25,29 @@ public class ProjectController {
         this.service = service;
     }
 
+    /**
+     * {@code fields} is a comma-separated list of properties to return; without it every
+     * property but {@code notes} is returned.
+     */
     @GetMapping
-    public List<ProjectDto> list(
+    public SparseList<ProjectDto> list(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) Long areaId,
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) ProjectStatus status,
+            @RequestParam(required = false) String fields
     ) {
+        Fieldset<ProjectProperty> selected = Fieldset.parse(fields, ProjectProperty.class);
+        List<ProjectDto> projects;
         if (userId != null) {
-            return service.findByUserId(userId);
+            projects = service.findByUserId(userId, selected);
         } else if (areaId != null) {
-            return service.findByAreaId(areaId);
+            projects = service.findByAreaId(areaId, selected);
         } else if (status != null) {
-            return service.findByStatus(status);
+            projects = service.findByStatus(status, selected);
         } else {
-            return service.findAll();
+            projects = service.findAll(selected);
         }
+        return SparseList.of(projects, selected);
     }
 
     @GetMapping("/{id}")
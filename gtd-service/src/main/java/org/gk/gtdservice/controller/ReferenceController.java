@@ -2,14 +2,21 @@ package org.gk.gtdservice.controller;
 
 import jakarta.validation.Valid;
 import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ReferenceDto;
+import org.gk.gtdservice.dto.ReferenceProperty;
+import org.gk.gtdservice.dto.SparseList;
+import org.gk.gtdservice.model.ReferenceBody;
 import org.gk.gtdservice.service.ReferenceService;
+import org.gk.gtdservice.web.ETagCompressionFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/references")
@@ -21,12 +28,19 @@ public class ReferenceController {
         this.service = service;
     }
 
+    /**
+     * {@code fields} is a comma-separated list of properties to return; without it every
+     * property is returned. Bodies are not part of a list: each reference carries a
+     * {@code snippet} and its {@code bodySize}, and the body is read from {@code /{id}/body}.
+     */
     @GetMapping
-    public List<ReferenceDto> list(@RequestParam(required = false) Long userId) {
+    public SparseList<ReferenceDto> list(@RequestParam(required = false) Long userId,
+                                         @RequestParam(required = false) String fields) {
+        Fieldset<ReferenceProperty> selected = Fieldset.parse(fields, ReferenceProperty.class);
         if (userId != null) {
-            return service.findByUserId(userId);
+            return SparseList.of(service.findByUserId(userId, selected), selected);
         } else {
-            return service.findAll();
+            return SparseList.of(service.findAll(selected), selected);
         }
     }
 
@@ -35,6 +49,27 @@ public class ReferenceController {
         return service.findById(id);
     }
 
+    /**
+     * The body as plain text, tagged with its content hash. Clients accepting gzip get the
+     * stored compressed bytes as they are.
+     */
+    @GetMapping("/{id}/body")
+    public ResponseEntity<byte[]> body(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                       String acceptEncoding) {
+        ReferenceBody body = service.findBody(id);
+        boolean gzip = ETagCompressionFilter.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.eTag(body.hash() + "-gzip")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(body.gzip());
+        }
+        return response.eTag(body.hash()).body(body.utf8());
+    }
+
     @PostMapping
     public ResponseEntity<ReferenceDto> create(@Valid @RequestBody CreateReferenceDto dto) {
         ReferenceDto created = service.create(dto);
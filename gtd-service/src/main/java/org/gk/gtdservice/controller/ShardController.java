@@ -0,0 +1,32 @@
+package org.gk.gtdservice.controller;
+
+import org.gk.gtdservice.dto.UserShardDto;
+import org.gk.gtdservice.shard.ShardRebalancer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+public class ShardController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardController.class);
+
+    private final ShardRebalancer rebalancer;
+
+    public ShardController(ShardRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    @GetMapping("/users/{userId}")
+    public UserShardDto get(@PathVariable Long userId) {
+        return new UserShardDto(userId, rebalancer.shardOf(userId), 0);
+    }
+
+    @PostMapping("/users/{userId}/move")
+    public UserShardDto move(@PathVariable Long userId, @RequestParam int target) {
+        logger.info("Moving user {} to shard {}", userId, target);
+        int moved = rebalancer.moveUser(userId, target);
+        return new UserShardDto(userId, rebalancer.shardOf(userId), moved);
+    }
+}
@@ -1,12 +1,23 @@
 package org.gk.gtdservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
+import org.gk.gtdservice.dto.BulkTaskRequestDto;
+import org.gk.gtdservice.dto.BulkTaskResultDto;
 import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.SparseList;
 import org.gk.gtdservice.dto.TagDto;
+import org.gk.gtdservice.dto.TaskCompletionDto;
 import org.gk.gtdservice.dto.TaskDto;
+import org.gk.gtdservice.dto.TaskMoveDto;
+import org.gk.gtdservice.dto.TaskProperty;
+import org.gk.gtdservice.mapper.TaskPatchMapper;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.service.TaskService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -20,36 +31,47 @@ public class TaskController {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
 
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final TaskService taskService;
 
     public TaskController(TaskService taskService) {
         this.taskService = taskService;
     }
 
+    /**
+     * {@code fields} is a comma-separated list of properties to return, e.g.
+     * {@code fields=id,title,status,contextId,dueAt}; without it every property but
+     * {@code notes} is returned.
+     */
     @GetMapping
-    public List<TaskDto> list(
+    public SparseList<TaskDto> list(
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) Long projectId,
             @RequestParam(required = false) Long contextId,
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) String fields
     ) {
-        logger.info("Listing tasks with filters - userId: {}, projectId: {}, contextId: {}, status: {}", 
-                   userId, projectId, contextId, status);
+        logger.info("Listing tasks with filters - userId: {}, projectId: {}, contextId: {}, status: {}, fields: {}", 
+                   userId, projectId, contextId, status, fields);
+        Fieldset<TaskProperty> selected = Fieldset.parse(fields, TaskProperty.class);
         
         // Support combined userId + status filtering
+        List<TaskDto> tasks;
         if (userId != null && status != null) {
-            return taskService.findByUserIdAndStatus(userId, status);
+            tasks = taskService.findByUserIdAndStatus(userId, status, selected);
         } else if (userId != null) {
-            return taskService.findByUserId(userId);
+            tasks = taskService.findByUserId(userId, selected);
         } else if (projectId != null) {
-            return taskService.findByProjectId(projectId);
+            tasks = taskService.findByProjectId(projectId, selected);
         } else if (contextId != null) {
-            return taskService.findByContextId(contextId);
+            tasks = taskService.findByContextId(contextId, selected);
         } else if (status != null) {
-            return taskService.findByStatus(status);
+            tasks = taskService.findByStatus(status, selected);
         } else {
-            return taskService.findAll();
+            tasks = taskService.findAll(selected);
         }
+        return SparseList.of(tasks, selected);
     }
 
     @GetMapping("/{id}")
@@ -79,6 +101,16 @@ public class TaskController {
         return updated;
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): send only the fields to change, {@code null} to
+     * clear one. Plain {@code application/json} is accepted for older clients.
+     */
+    @PatchMapping(path = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public TaskDto patch(@PathVariable Long id, @RequestBody JsonNode patch) {
+        logger.info("Patching task with id: {}", id);
+        return taskService.patch(id, TaskPatchMapper.fromJson(patch));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         logger.info("Deleting task with id: {}", id);
@@ -87,6 +119,32 @@ public class TaskController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/{id}/complete")
+    public TaskCompletionDto complete(@PathVariable Long id) {
+        logger.info("Completing task with id: {}", id);
+        return taskService.complete(id);
+    }
+
+    /**
+     * Drag and drop: places the task between two others. Lists are sorted by a
+     * fractional rank key, so this writes only the moved task.
+     */
+    @PostMapping("/{id}/move")
+    public TaskDto move(@PathVariable Long id, @RequestBody TaskMoveDto dto) {
+        logger.info("Moving task with id: {}", id);
+        return taskService.move(id, dto);
+    }
+
+    /**
+     * Several status, project, context, order and delete operations in one transaction.
+     * Always 200; check each result's outcome.
+     */
+    @PostMapping("/bulk")
+    public List<BulkTaskResultDto> bulk(@Valid @RequestBody BulkTaskRequestDto request) {
+        logger.info("Applying {} bulk operations for userId: {}", request.operations().size(), request.userId());
+        return taskService.bulk(request);
+    }
+
     @PostMapping("/{taskId}/tags/{tagId}")
     public ResponseEntity<Void> addTag(@PathVariable Long taskId, @PathVariable Long tagId, @RequestParam Long userId) {
         logger.info("Adding tag {} to task {} for user {}", tagId, taskId, userId);
@@ -1,11 +1,18 @@
 package org.gk.gtdservice.controller;
 
 import jakarta.validation.Valid;
+import org.gk.gtdservice.change.ChangeStreams;
+import org.gk.gtdservice.change.ChangeWaiters;
+import org.gk.gtdservice.dto.ChangesDto;
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.ListCountsDto;
 import org.gk.gtdservice.dto.UserDto;
 import org.gk.gtdservice.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -16,9 +23,13 @@ import java.util.List;
 public class UserController {
 
     private final UserService service;
+    private final ChangeStreams changeStreams;
+    private final ChangeWaiters changeWaiters;
 
-    public UserController(UserService service) {
+    public UserController(UserService service, ChangeStreams changeStreams, ChangeWaiters changeWaiters) {
         this.service = service;
+        this.changeStreams = changeStreams;
+        this.changeWaiters = changeWaiters;
     }
 
     @GetMapping
@@ -31,6 +42,38 @@ public class UserController {
         return service.findById(id);
     }
 
+    @GetMapping("/{id}/counts")
+    public ListCountsDto counts(@PathVariable Long id) {
+        return service.getListCounts(id);
+    }
+
+    /**
+     * Streams the user's task, project and tag changes as Server-Sent Events, so clients
+     * reload a list when it changed instead of polling it. A client reconnecting with
+     * {@code Last-Event-ID} is sent what it missed, or a {@code reset} event if that is no
+     * longer known.
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long id,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        service.findById(id);
+        return changeStreams.open(id, lastEventId);
+    }
+
+    /**
+     * Long polls for the user's changes, for clients that cannot keep a stream open. Answers
+     * with the changes committed after {@code since} as soon as there are any, or with none
+     * after the timeout; either way with the version to wait from next. Without
+     * {@code since} it answers right away with the current version.
+     */
+    @GetMapping("/{id}/changes/wait")
+    public DeferredResult<ChangesDto> waitForChanges(@PathVariable Long id,
+                                                     @RequestParam(required = false) String since,
+                                                     @RequestParam(defaultValue = "30s") String timeout) {
+        service.findById(id);
+        return changeWaiters.await(id, since, timeout);
+    }
+
     @PostMapping
     public ResponseEntity<UserDto> create(@Valid @RequestBody CreateUserDto dto) {
         UserDto created = service.create(dto);
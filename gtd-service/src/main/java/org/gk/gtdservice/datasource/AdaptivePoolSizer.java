@@ -0,0 +1,92 @@
+package org.gk.gtdservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.gk.gtdservice.datasource.PoolMetrics.PoolSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resizes the Hikari pools between {@code gtd.datasource.pool.adaptive.min-size} and
+ * {@code max-size} from what they recorded in the last interval.
+ * <p>
+ * Little's law gives the connections the load actually keeps busy (completed borrows
+ * per second times mean hold time). The hold time is also compared against its
+ * recent minimum, like a gradient concurrency limit: when it has grown past
+ * {@code latency-tolerance} the database is the bottleneck and the pool shrinks,
+ * since more connections would only queue inside it. Otherwise the pool grows while
+ * callers wait longer than {@code target-wait} for a connection, and gives back one
+ * connection per interval once it is larger than the load needs.
+ */
+public class AdaptivePoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    /** How quickly the baseline hold time follows a sustained increase. */
+    private static final double BASELINE_DRIFT = 0.05;
+
+    private final PoolMetrics metrics;
+    private final PoolTuningProperties.Adaptive config;
+    private final Map<String, Double> baselineMillis = new ConcurrentHashMap<>();
+    private long lastSampleNanos = System.nanoTime();
+
+    public AdaptivePoolSizer(PoolMetrics metrics, PoolTuningProperties.Adaptive config) {
+        this.metrics = metrics;
+        this.config = config;
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.datasource.pool.adaptive.interval:10s}")
+    public void adjust() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        lastSampleNanos = now;
+        for (HikariDataSource pool : metrics.pools()) {
+            if (pool.isClosed() || pool.getHikariPoolMXBean() == null) {
+                continue;
+            }
+            PoolSample sample = metrics.sample(pool.getPoolName());
+            if (sample == null || sample.usages() == 0) {
+                continue;
+            }
+            double baseline = baselineMillis.merge(pool.getPoolName(), sample.meanUsageMillis(),
+                    AdaptivePoolSizer::updateBaseline);
+            int current = pool.getMaximumPoolSize();
+            int next = nextSize(current, sample, seconds, baseline, config);
+            if (next != current) {
+                logger.info("Resizing pool {} from {} to {} (acquire {} ms, hold {} ms, baseline {} ms)",
+                        pool.getPoolName(), current, next, String.format("%.2f", sample.meanAcquireMillis()),
+                        String.format("%.2f", sample.meanUsageMillis()), String.format("%.2f", baseline));
+                if (pool.getMinimumIdle() > next) {
+                    pool.setMinimumIdle(next);
+                }
+                pool.setMaximumPoolSize(next);
+            }
+        }
+    }
+
+    static int nextSize(int current, PoolSample sample, double seconds, double baselineMillis,
+                        PoolTuningProperties.Adaptive config) {
+        double holdMillis = sample.meanUsageMillis();
+        double inUse = sample.usages() / seconds * holdMillis / 1000.0;
+        int needed = (int) Math.ceil(inUse * config.headroom());
+        // Millisecond resolution: anything under 1 ms counts as 1 ms
+        double gradient = Math.min(1.0, Math.max(baselineMillis, 1) / Math.max(holdMillis, 1));
+
+        int target;
+        if (gradient < 1 / config.latencyTolerance()) {
+            target = Math.max(current / 2, (int) Math.ceil(current * gradient));
+        } else if (sample.timeouts() > 0 || sample.meanAcquireMillis() > config.targetWait().toNanos() / 1_000_000.0) {
+            target = Math.min(current + config.maxStep(), Math.max(needed, current + Math.max(1, sample.pending())));
+        } else {
+            target = needed < current ? current - 1 : current;
+        }
+        return Math.clamp(target, config.minSize(), config.maxSize());
+    }
+
+    static double updateBaseline(double baseline, double holdMillis) {
+        return holdMillis <= baseline ? holdMillis : baseline + (holdMillis - baseline) * BASELINE_DRIFT;
+    }
+}
@@ -0,0 +1,27 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instruments the Hikari pools and, when {@code gtd.datasource.pool.adaptive.enabled}
+ * is set, resizes them from the recorded wait and hold times. The static pool
+ * settings live in {@code spring.datasource.hikari.*} per profile.
+ */
+@Configuration
+@EnableConfigurationProperties(PoolTuningProperties.class)
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static PoolMetrics poolMetrics() {
+        return new PoolMetrics();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gtd.datasource.pool.adaptive.enabled", havingValue = "true")
+    public AdaptivePoolSizer adaptivePoolSizer(PoolMetrics poolMetrics, PoolTuningProperties properties) {
+        return new AdaptivePoolSizer(poolMetrics, properties.adaptive());
+    }
+}
@@ -0,0 +1,107 @@
+package org.gk.gtdservice.datasource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Database work done on behalf of the current HTTP request. Bound to the request
+ * thread for the duration of the request; connections taken on other threads (async
+ * work, the outbox relay) are not attributed to any request.
+ */
+public final class DbRequestStats {
+
+    private static final ThreadLocal<DbRequestStats> CURRENT = new ThreadLocal<>();
+
+    private int connections;
+    private long acquireNanos;
+    private int statements;
+    private long statementNanos;
+    private long rows;
+    private final Map<String, Integer> fingerprints = new HashMap<>();
+
+    private DbRequestStats() {
+    }
+
+    public static DbRequestStats begin() {
+        DbRequestStats stats = new DbRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return the current request's stats, or {@code null} outside a request
+     */
+    public static DbRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void recordAcquire(long nanos) {
+        connections++;
+        acquireNanos += nanos;
+    }
+
+    void recordStatement(String fingerprint, long nanos) {
+        statements++;
+        statementNanos += nanos;
+        fingerprints.merge(fingerprint, 1, Integer::sum);
+    }
+
+    void recordRows(long count) {
+        rows += count;
+    }
+
+    public int connections() {
+        return connections;
+    }
+
+    public long acquireNanos() {
+        return acquireNanos;
+    }
+
+    public double acquireMillis() {
+        return acquireNanos / 1_000_000.0;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public double statementMillis() {
+        return statementNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return rows read from result sets plus rows reported changed by updates
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return the {@link SqlFingerprint}s executed more than {@code limit} times, with their counts;
+     * in a request this usually means a query issued once per row of an earlier result
+     */
+    public Map<String, Integer> repeatedStatements(int limit) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        fingerprints.forEach((fingerprint, count) -> {
+            if (count > limit) {
+                repeated.put(fingerprint, count);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * @return the stats as a {@code Server-Timing} header value
+     */
+    public String serverTiming() {
+        return String.format(Locale.ROOT, "db-acquire;dur=%.3f;desc=\"%d connections\", db;dur=%.3f;desc=\"%d statements, %d rows\"",
+                acquireMillis(), connections, statementMillis(), statements, rows);
+    }
+}
@@ -0,0 +1,120 @@
+package org.gk.gtdservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hooks into every Hikari pool in the context. Connection-acquire time is added to
+ * the current request's {@link DbRequestStats} and, together with how long connections
+ * are held, to a per-pool window that {@link AdaptivePoolSizer} samples.
+ */
+public class PoolMetrics implements BeanPostProcessor, MetricsTrackerFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolMetrics.class);
+
+    private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            if (dataSource.getMetricsTrackerFactory() == null && dataSource.getMetricRegistry() == null) {
+                dataSource.setMetricsTrackerFactory(this);
+                pools.add(dataSource);
+            } else {
+                logger.info("Pool {} already has a metrics tracker, not instrumenting it", beanName);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Window window = new Window(poolStats);
+        windows.put(poolName, window);
+        return window;
+    }
+
+    public List<HikariDataSource> pools() {
+        return pools;
+    }
+
+    /**
+     * @return what the pool recorded since the previous call, or {@code null} before it started
+     */
+    public PoolSample sample(String poolName) {
+        Window window = windows.get(poolName);
+        return window != null ? window.drain() : null;
+    }
+
+    /**
+     * @param acquires     connections handed out
+     * @param acquireNanos total time callers waited for them
+     * @param usages       connections returned to the pool
+     * @param usageMillis  total time they were held
+     * @param pending      threads waiting for a connection at sampling time
+     */
+    public record PoolSample(long acquires, long acquireNanos, long usages, long usageMillis, long timeouts,
+                             int pending) {
+
+        public double meanAcquireMillis() {
+            return acquires == 0 ? 0 : acquireNanos / 1_000_000.0 / acquires;
+        }
+
+        public double meanUsageMillis() {
+            return usages == 0 ? 0 : (double) usageMillis / usages;
+        }
+    }
+
+    static final class Window implements IMetricsTracker {
+
+        private final PoolStats poolStats;
+        private final LongAdder acquires = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAdder usages = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        Window(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquires.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            // Hikari records the borrow on the thread that asked for the connection
+            DbRequestStats stats = DbRequestStats.current();
+            if (stats != null) {
+                stats.recordAcquire(elapsedAcquiredNanos);
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usages.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        PoolSample drain() {
+            return new PoolSample(acquires.sumThenReset(), acquireNanos.sumThenReset(), usages.sumThenReset(),
+                    usageMillis.sumThenReset(), timeouts.sumThenReset(), poolStats != null ? poolStats.getPendingThreads() : 0);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection pool tuning beyond the static {@code spring.datasource.hikari.*} settings.
+ */
+@ConfigurationProperties("gtd.datasource.pool")
+public record PoolTuningProperties(@DefaultValue Adaptive adaptive) {
+
+    /**
+     * Bounds and thresholds for {@link AdaptivePoolSizer}.
+     *
+     * @param minSize          smallest maximum-pool-size the sizer will set
+     * @param maxSize          largest maximum-pool-size the sizer will set; keep it under the
+     *                         database's connection limit divided by the number of instances
+     * @param targetWait       mean connection-acquire time above which the pool is considered starved
+     * @param latencyTolerance how many times slower than its baseline a connection may be held
+     *                         before the database, not the pool, is treated as the bottleneck
+     * @param headroom         factor over the Little's-law estimate of connections in use
+     * @param maxStep          most connections added in one adjustment
+     */
+    public record Adaptive(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("2") int minSize,
+            @DefaultValue("32") int maxSize,
+            @DefaultValue("10s") Duration interval,
+            @DefaultValue("5ms") Duration targetWait,
+            @DefaultValue("2.0") double latencyTolerance,
+            @DefaultValue("1.5") double headroom,
+            @DefaultValue("4") int maxStep
+    ) {
+
+        public Adaptive {
+            if (minSize < 1 || maxSize < minSize) {
+                throw new IllegalArgumentException("Pool bounds must satisfy 1 <= min-size <= max-size");
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.gk.gtdservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the application DataSource into a primary and a read replica pool when
+ * {@code gtd.datasource.replica.url} is set. Without it Spring Boot's single
+ * DataSource is used unchanged. The primary pool takes the usual
+ * {@code spring.datasource.hikari.*} settings, the replica pool
+ * {@code gtd.datasource.replica.hikari.*}.
+ */
+@Configuration
+@ConditionalOnProperty("gtd.datasource.replica.url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadWriteDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteDataSourceConfig.class);
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("gtd.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, ReplicaProperties replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primary.determineDriverClassName())
+                .url(replica.url())
+                .username(replica.username() != null ? replica.username() : primary.determineUsername())
+                .password(replica.password() != null ? replica.password() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties replica) {
+        return new ReadYourWritesTracker(replica.stickiness());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaProperties replica, DataSourceProperties properties,
+                                 ReadYourWritesTracker tracker) {
+        logger.info("Routing read-only transactions to replica {}", replica.url());
+        HikariDataSource replicaDataSource = replicaDataSource(properties, replica);
+        if (replica.url().startsWith("jdbc:h2:")) {
+            // Local stand-in replica: nothing replicates the schema into it. Done here rather
+            // than in replicaDataSource() so the pool starts only after its settings are bound.
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replicaDataSource);
+        }
+        DataSource routing = new ReadWriteRoutingDataSource(primaryDataSource(properties), replicaDataSource, tracker);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,71 @@
+package org.gk.gtdservice.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers who wrote recently so their reads are not served from a lagging replica.
+ * <p>
+ * The current request binds its stickiness keys (its user, or else its client) to the thread; a
+ * read-write transaction marks all of them sticky for the configured window and a
+ * read-only transaction checks whether any of them still is.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Duration window;
+    private final Clock clock;
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<String>> currentKeys = new ThreadLocal<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this(window, Clock.systemUTC());
+    }
+
+    ReadYourWritesTracker(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    public void bind(List<String> keys) {
+        currentKeys.set(keys);
+    }
+
+    public void unbind() {
+        currentKeys.remove();
+    }
+
+    public void recordWrite() {
+        List<String> keys = currentKeys.get();
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        long until = clock.millis() + window.toMillis();
+        for (String key : keys) {
+            stickyUntil.put(key, until);
+        }
+        if (stickyUntil.size() > PURGE_THRESHOLD) {
+            long now = clock.millis();
+            stickyUntil.values().removeIf(expiry -> expiry <= now);
+        }
+    }
+
+    public boolean recentlyWrote() {
+        List<String> keys = currentKeys.get();
+        if (keys == null || keys.isEmpty()) {
+            return false;
+        }
+        long now = clock.millis();
+        for (String key : keys) {
+            Long until = stickyUntil.get(key);
+            if (until != null && until > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
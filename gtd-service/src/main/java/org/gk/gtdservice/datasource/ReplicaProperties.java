@@ -0,0 +1,21 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read replica pool. Routing is only switched on when {@code url} is set; the primary
+ * keeps using the regular {@code spring.datasource.*} settings.
+ *
+ * @param stickiness how long a client's read-only transactions stay on the primary after it wrote
+ */
+@ConfigurationProperties("gtd.datasource.replica")
+public record ReplicaProperties(
+        String url,
+        String username,
+        String password,
+        @DefaultValue("5s") Duration stickiness
+) {
+}
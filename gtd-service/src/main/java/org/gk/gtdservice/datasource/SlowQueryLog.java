@@ -0,0 +1,102 @@
+package org.gk.gtdservice.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Writes slow statements to the {@code gtd.sql.slow} logger from a background thread,
+ * so formatting and log I/O never add to the slow request. The queue is bounded; when
+ * the writer falls behind, entries are dropped and counted rather than blocking JDBC
+ * calls. Bind parameters are included for a sample of entries only, and long values
+ * are truncated.
+ */
+public class SlowQueryLog implements AutoCloseable {
+
+    private static final Logger slowLogger = LoggerFactory.getLogger("gtd.sql.slow");
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    static final int MAX_PARAM_LENGTH = 64;
+
+    private final BlockingQueue<Entry> queue;
+    private final double paramSampleRate;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running = true;
+
+    public SlowQueryLog(int capacity, double paramSampleRate) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.paramSampleRate = paramSampleRate;
+        Thread.ofPlatform().daemon().name("slow-query-log").start(this::drain);
+    }
+
+    public void submit(String fingerprint, String sql, long nanos, long rows, Supplier<List<Object>> params) {
+        List<Object> sampled = paramSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < paramSampleRate
+                ? params.get() : null;
+        if (!queue.offer(new Entry(fingerprint, sql, nanos, rows, sampled))) {
+            dropped.increment();
+        }
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    static String format(Entry entry) {
+        StringBuilder line = new StringBuilder()
+                .append(String.format(Locale.ROOT, "%.3f ms", entry.nanos() / 1_000_000.0))
+                .append(" rows=").append(entry.rows())
+                .append(" fingerprint=[").append(entry.fingerprint()).append(']');
+        if (entry.params() != null) {
+            line.append(" sql=[").append(entry.sql()).append("] params=")
+                    .append(entry.params().stream().map(SlowQueryLog::formatParam).collect(Collectors.joining(", ", "[", "]")));
+        }
+        return line.toString();
+    }
+
+    private static String formatParam(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        String text = value instanceof byte[] bytes ? "<" + bytes.length + " bytes>" : value.toString();
+        if (text.length() > MAX_PARAM_LENGTH) {
+            text = text.substring(0, MAX_PARAM_LENGTH) + "...";
+        }
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    slowLogger.warn(format(entry));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Could not write slow query entry: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (dropped.sum() > 0) {
+            logger.info("Dropped {} slow query entries while the log was behind", dropped.sum());
+        }
+    }
+
+    record Entry(String fingerprint, String sql, long nanos, long rows, List<Object> params) {
+    }
+}
@@ -0,0 +1,150 @@
+package org.gk.gtdservice.datasource;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram, call count and row count per {@link SqlFingerprint}, across all
+ * requests and background work since startup (or the last {@link #reset()}).
+ * Statements at or over the slow threshold are also handed to the {@link SlowQueryLog}.
+ * <p>
+ * Histogram buckets are powers of two in microseconds, so percentiles are upper bounds
+ * within a factor of two, which is enough to rank statements. Once
+ * {@code maxFingerprints} shapes are tracked, further ones are counted under
+ * {@link #OTHER} to keep memory bounded when SQL is built with inline values.
+ */
+public class SqlStats {
+
+    static final String OTHER = "(other)";
+
+    /** Bucket i holds durations below 2^i microseconds; the last one is open-ended. */
+    static final int BUCKETS = 28;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxFingerprints;
+    private final long slowThresholdNanos;
+    private final SlowQueryLog slowQueryLog;
+
+    public SqlStats(int maxFingerprints, long slowThresholdNanos, SlowQueryLog slowQueryLog) {
+        this.maxFingerprints = maxFingerprints;
+        this.slowThresholdNanos = slowThresholdNanos;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @param params the statement's bind parameters, only read if the statement was slow
+     */
+    public void record(String fingerprint, String sql, long nanos, long rows, Supplier<List<Object>> params) {
+        Entry entry = entry(fingerprint);
+        entry.record(nanos, rows);
+        if (nanos >= slowThresholdNanos && slowQueryLog != null) {
+            slowQueryLog.submit(fingerprint, sql, nanos, rows, params);
+        }
+    }
+
+    /**
+     * Rows read from a query's result set, known only once it has been consumed.
+     */
+    public void recordRows(String fingerprint, long rows) {
+        entry(fingerprint).rows.add(rows);
+    }
+
+    /**
+     * @return up to {@code limit} fingerprints, most total time first
+     */
+    public List<FingerprintStats> top(int limit) {
+        return entries.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparingDouble(FingerprintStats::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    private Entry entry(String fingerprint) {
+        Entry entry = entries.get(fingerprint);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= maxFingerprints) {
+            return entries.computeIfAbsent(OTHER, _k -> new Entry());
+        }
+        return entries.computeIfAbsent(fingerprint, _k -> new Entry());
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /** Upper bound of a bucket in milliseconds. */
+    static double bucketLimitMillis(int bucket) {
+        return (1L << bucket) / 1000.0;
+    }
+
+    public record FingerprintStats(String fingerprint, long calls, double totalMillis, double meanMillis,
+                                   double p50Millis, double p95Millis, double p99Millis, double maxMillis,
+                                   long rows) {
+    }
+
+    private static final class Entry {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos, long rowCount) {
+            calls.increment();
+            totalNanos.add(nanos);
+            rows.add(rowCount);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucket(nanos));
+        }
+
+        FingerprintStats snapshot(String fingerprint) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            long callCount = calls.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            double maxMillis = maxNanos.get() / 1_000_000.0;
+            return new FingerprintStats(fingerprint, callCount, totalMillis,
+                    callCount == 0 ? 0 : totalMillis / callCount,
+                    percentile(counts, total, 0.50, maxMillis), percentile(counts, total, 0.95, maxMillis),
+                    percentile(counts, total, 0.99, maxMillis), maxMillis, rows.sum());
+        }
+
+        private static double percentile(long[] counts, long total, double quantile, double maxMillis) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketLimitMillis(i), maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+}
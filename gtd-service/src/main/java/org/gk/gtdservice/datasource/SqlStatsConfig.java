@@ -0,0 +1,27 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "gtd.sqlstats.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(SqlStatsProperties.class)
+public class SqlStatsConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SqlStatsProperties properties) {
+        return new SlowQueryLog(properties.slowLogCapacity(), properties.paramSampleRate());
+    }
+
+    @Bean
+    public SqlStats sqlStats(SqlStatsProperties properties, SlowQueryLog slowQueryLog) {
+        return new SqlStats(properties.maxFingerprints(), properties.slowThreshold().toNanos(), slowQueryLog);
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStats sqlStats, SlowQueryLog slowQueryLog) {
+        return new SqlStatsEndpoint(sqlStats, slowQueryLog);
+    }
+}
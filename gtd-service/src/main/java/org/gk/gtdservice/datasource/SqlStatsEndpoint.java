@@ -0,0 +1,43 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/sqlstats?limit=N}: the statements with the most total execution
+ * time. {@code DELETE} starts a new measurement window.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    static final int DEFAULT_LIMIT = 20;
+
+    private final SqlStats sqlStats;
+    private final SlowQueryLog slowQueryLog;
+
+    public SqlStatsEndpoint(SqlStats sqlStats, SlowQueryLog slowQueryLog) {
+        this.sqlStats = sqlStats;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public SqlStatsReport top(@Nullable Integer limit) {
+        int n = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        return new SqlStatsReport(sqlStats.size(), slowQueryLog.dropped(), sqlStats.top(n));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStats.reset();
+    }
+
+    /**
+     * @param slowQueriesDropped slow-query log entries lost because the writer was behind
+     */
+    public record SqlStatsReport(int fingerprints, long slowQueriesDropped, List<SqlStats.FingerprintStats> top) {
+    }
+}
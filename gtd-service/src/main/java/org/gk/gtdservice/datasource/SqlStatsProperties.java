@@ -0,0 +1,24 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Per-statement statistics and the slow-query log.
+ *
+ * @param maxFingerprints distinct statement shapes tracked before the rest are pooled
+ * @param slowThreshold   statements taking at least this long go to the slow-query log
+ * @param paramSampleRate fraction of slow-query entries that include bind parameters
+ * @param slowLogCapacity slow-query entries buffered for the log writer before new ones are dropped
+ */
+@ConfigurationProperties("gtd.sqlstats")
+public record SqlStatsProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000") int maxFingerprints,
+        @DefaultValue("200ms") Duration slowThreshold,
+        @DefaultValue("0.1") double paramSampleRate,
+        @DefaultValue("1000") int slowLogCapacity
+) {
+}
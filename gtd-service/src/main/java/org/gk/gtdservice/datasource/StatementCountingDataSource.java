@@ -0,0 +1,214 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the statements, their execution time and the rows they touch for the current
+ * request's {@link DbRequestStats} and, when given, for the application-wide
+ * {@link SqlStats}. Connections, statements and result sets are JDK proxies around the
+ * driver's objects. A JDBC batch is one round trip and counts as one statement.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private final SqlStats sqlStats;
+
+    public StatementCountingDataSource(DataSource target) {
+        this(target, null);
+    }
+
+    public StatementCountingDataSource(DataSource target, SqlStats sqlStats) {
+        super(target);
+        this.sqlStats = sqlStats;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(), sqlStats));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password), sqlStats));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection target, SqlStats sqlStats) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingDataSource.invoke(proxy, target, method, args);
+            return switch (result) {
+                case CallableStatement call ->
+                        proxy(CallableStatement.class, new StatementHandler(call, (String) args[0], sqlStats));
+                case PreparedStatement prepared ->
+                        proxy(PreparedStatement.class, new StatementHandler(prepared, (String) args[0], sqlStats));
+                case Statement statement -> proxy(Statement.class, new StatementHandler(statement, null, sqlStats));
+                case null, default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final SqlStats sqlStats;
+        /** Bind parameters by position, kept only when there are stats to sample them for. */
+        private Object[] params;
+        private int paramCount;
+        private String lastFingerprint;
+
+        StatementHandler(Statement target, String preparedSql, SqlStats sqlStats) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.sqlStats = sqlStats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            DbRequestStats stats = DbRequestStats.current();
+            if (!name.startsWith("execute")) {
+                if (sqlStats != null) {
+                    trackParameter(name, args);
+                }
+                Object result = StatementCountingDataSource.invoke(proxy, target, method, args);
+                return result instanceof ResultSet resultSet && name.equals("getResultSet")
+                        ? wrap(resultSet, stats, lastFingerprint)
+                        : result;
+            }
+            if (stats == null && sqlStats == null) {
+                return StatementCountingDataSource.invoke(proxy, target, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            String fingerprint = SqlFingerprint.of(sql);
+            lastFingerprint = fingerprint;
+            long start = System.nanoTime();
+            Object result = StatementCountingDataSource.invoke(proxy, target, method, args);
+            long nanos = System.nanoTime() - start;
+            long rows = switch (result) {
+                case Integer count -> Math.max(0, count);
+                case Long count -> Math.max(0, count);
+                case int[] counts -> Arrays.stream(counts).filter(count -> count > 0).asLongStream().sum();
+                case long[] counts -> Arrays.stream(counts).filter(count -> count > 0).sum();
+                case null, default -> 0L;
+            };
+            if (stats != null) {
+                stats.recordStatement(fingerprint, nanos);
+                stats.recordRows(rows);
+            }
+            if (sqlStats != null) {
+                sqlStats.record(fingerprint, sql, nanos, rows, this::paramsSnapshot);
+            }
+            return result instanceof ResultSet resultSet ? wrap(resultSet, stats, fingerprint) : result;
+        }
+
+        private Object wrap(ResultSet resultSet, DbRequestStats stats, String fingerprint) {
+            if (stats == null && sqlStats == null) {
+                return resultSet;
+            }
+            return proxy(ResultSet.class, new ResultSetHandler(resultSet, stats, sqlStats,
+                    fingerprint != null ? fingerprint : SqlFingerprint.of(preparedSql)));
+        }
+
+        private void trackParameter(String name, Object[] args) {
+            if (name.equals("clearParameters")) {
+                params = null;
+                paramCount = 0;
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && index > 0 && index <= 1024) {
+                if (params == null || params.length < index) {
+                    params = Arrays.copyOf(params != null ? params : new Object[0], Math.max(index, 8));
+                }
+                params[index - 1] = name.equals("setNull") ? null : args[1];
+                paramCount = Math.max(paramCount, index);
+            }
+        }
+
+        private List<Object> paramsSnapshot() {
+            if (params == null) {
+                return List.of();
+            }
+            return new ArrayList<>(Arrays.asList(params).subList(0, paramCount));
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final DbRequestStats stats;
+        private final SqlStats sqlStats;
+        private final String fingerprint;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet target, DbRequestStats stats, SqlStats sqlStats, String fingerprint) {
+            this.target = target;
+            this.stats = stats;
+            this.sqlStats = sqlStats;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingDataSource.invoke(proxy, target, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        rows++;
+                        if (stats != null) {
+                            stats.recordRows(1);
+                        }
+                    }
+                }
+                case "close" -> {
+                    if (sqlStats != null && !reported) {
+                        reported = true;
+                        sqlStats.recordRows(fingerprint, rows);
+                    }
+                }
+                default -> {
+                }
+            }
+            return result;
+        }
+    }
+}
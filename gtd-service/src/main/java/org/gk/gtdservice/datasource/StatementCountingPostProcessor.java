@@ -0,0 +1,34 @@
+package org.gk.gtdservice.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@code dataSource} bean, the one the JDBC templates and the
+ * transaction manager use, in a {@link StatementCountingDataSource}. The individual
+ * pools behind read/write routing stay unwrapped so statements are counted once.
+ * Statements also feed {@link SqlStats} when it is enabled.
+ */
+@Component
+public class StatementCountingPostProcessor implements BeanPostProcessor {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ObjectProvider<SqlStats> sqlStats;
+
+    public StatementCountingPostProcessor(ObjectProvider<SqlStats> sqlStats) {
+        this.sqlStats = sqlStats;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof StatementCountingDataSource)) {
+            return new StatementCountingDataSource(dataSource, sqlStats.getIfAvailable());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,14 @@
+package org.gk.gtdservice.dto;
+
+import java.time.Instant;
+
+public record AttachmentDto(
+        Long id,
+        Long referenceId,
+        String name,
+        String contentType,
+        Long size,
+        String sha256,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,26 @@
+package org.gk.gtdservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import org.gk.gtdservice.model.TaskStatus;
+
+/**
+ * One step of a bulk request. Which of the optional fields is read depends on
+ * {@code op}: {@code status} for set_status, {@code projectId} for move_to_project
+ * (null takes the task out of its project), {@code contextId} for set_context (null
+ * clears it) and {@code afterId}/{@code beforeId} for move, which places the task
+ * between those two as {@code POST /api/tasks/{id}/move} does. Later moves see where
+ * earlier ones put their tasks, so a list is reordered by moving each task after the
+ * one before it.
+ */
+public record BulkTaskOperationDto(
+        @NotNull Long taskId,
+        @NotBlank @Pattern(regexp = "set_status|move_to_project|set_context|move|delete") String op,
+        TaskStatus status,
+        Long projectId,
+        Long contextId,
+        Long afterId,
+        Long beforeId
+) {
+}
@@ -0,0 +1,17 @@
+package org.gk.gtdservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Operations on tasks of one user, applied in order in a single transaction.
+ */
+public record BulkTaskRequestDto(
+        @NotNull Long userId,
+        @NotEmpty @Size(max = 1000) List<@NotNull @Valid BulkTaskOperationDto> operations
+) {
+}
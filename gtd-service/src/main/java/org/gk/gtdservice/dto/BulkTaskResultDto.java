@@ -0,0 +1,14 @@
+package org.gk.gtdservice.dto;
+
+/**
+ * @param index   position of the operation in the request
+ * @param outcome {@code ok}, {@code not_found} (task, project or context missing or
+ *                owned by someone else) or {@code invalid} (a field the op needs is missing)
+ */
+public record BulkTaskResultDto(
+        int index,
+        Long taskId,
+        String outcome,
+        String message
+) {
+}
@@ -0,0 +1,17 @@
+package org.gk.gtdservice.dto;
+
+import org.gk.gtdservice.change.Change;
+
+import java.util.List;
+
+/**
+ * @param version where the client is now; sent back as {@code since} to wait for the next changes
+ * @param reset   changes since the client's version are no longer known, so it should reload
+ * @param changes committed after the client's version, oldest first
+ */
+public record ChangesDto(
+        String version,
+        boolean reset,
+        List<Change> changes
+) {
+}
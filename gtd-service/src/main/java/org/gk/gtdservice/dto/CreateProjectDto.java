@@ -2,8 +2,8 @@ package org.gk.gtdservice.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.gk.gtdservice.model.ProjectStatus;
 
 import java.time.LocalDate;
 
@@ -13,7 +13,7 @@ public record CreateProjectDto(
         @NotBlank @Size(max = 200) String title,
         @Size(max = 500) String outcome,
         @Size(max = 2000) String notes,
-        @NotBlank @Pattern(regexp = "active|on_hold|someday|completed|dropped") String status,
+        @NotNull ProjectStatus status,
         LocalDate dueDate
 ) {
 }
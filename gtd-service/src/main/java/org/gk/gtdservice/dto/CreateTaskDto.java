@@ -4,8 +4,8 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.gk.gtdservice.model.TaskStatus;
 
 import java.time.Instant;
 
@@ -15,7 +15,7 @@ public record CreateTaskDto(
         Long contextId,
         @NotBlank @Size(max = 500) String title,
         @Size(max = 2000) String notes,
-        @NotBlank @Pattern(regexp = "inbox|next|waiting|scheduled|someday|reference|done|dropped") String status,
+        @NotNull TaskStatus status,
         @Min(1) Integer priority,
         @Min(1) @Max(5) Integer energy,
         @Min(1) Integer durationEstMin,
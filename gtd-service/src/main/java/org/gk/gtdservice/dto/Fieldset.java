@@ -0,0 +1,64 @@
+package org.gk.gtdservice.dto;
+
+import org.gk.gtdservice.exception.InvalidRequestException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The properties a collection request asked for with {@code fields=}, a comma-separated
+ * list of JSON names. Without the parameter every property except the large ones is
+ * included. {@code id} is always included so a client can fetch the rest of an item.
+ */
+public record Fieldset<F extends Enum<F> & SparseField<?>>(Set<F> fields) {
+
+    public Fieldset {
+        fields = Collections.unmodifiableSet(EnumSet.copyOf(fields));
+    }
+
+    public static <F extends Enum<F> & SparseField<?>> Fieldset<F> all(Class<F> type) {
+        return new Fieldset<>(EnumSet.allOf(type));
+    }
+
+    /**
+     * @param fields the {@code fields} query parameter, or {@code null} for the defaults
+     */
+    public static <F extends Enum<F> & SparseField<?>> Fieldset<F> parse(String fields, Class<F> type) {
+        EnumSet<F> selected = EnumSet.noneOf(type);
+        for (F field : type.getEnumConstants()) {
+            if (fields == null ? !field.large() : field.jsonName().equals("id")) {
+                selected.add(field);
+            }
+        }
+        if (fields == null) {
+            return new Fieldset<>(selected);
+        }
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(type.getEnumConstants())
+                    .filter(field -> field.jsonName().equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestException("Unknown field: " + trimmed + ", expected one of "
+                            + Arrays.stream(type.getEnumConstants()).map(SparseField::jsonName)
+                            .collect(Collectors.joining(", ")))));
+        }
+        return new Fieldset<>(selected);
+    }
+
+    public boolean contains(F field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * The selected columns in declaration order, for a {@code SELECT} list.
+     */
+    public String columns() {
+        return fields.stream().map(SparseField::column).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,14 @@
+package org.gk.gtdservice.dto;
+
+public record ListCountsDto(
+        Long userId,
+        long inbox,
+        long next,
+        long waiting,
+        long scheduled,
+        long someday,
+        long reference,
+        long done,
+        long dropped
+) {
+}
@@ -1,5 +1,7 @@
 package org.gk.gtdservice.dto;
 
+import org.gk.gtdservice.model.ProjectStatus;
+
 import java.time.Instant;
 import java.time.LocalDate;
 
@@ -10,7 +12,7 @@ public record ProjectDto(
         String title,
         String outcome,
         String notes,
-        String status,
+        ProjectStatus status,
         LocalDate dueDate,
         Instant createdAt,
         Instant completedAt
@@ -0,0 +1,53 @@
+package org.gk.gtdservice.dto;
+
+import java.util.function.Function;
+
+/**
+ * The properties of {@link ProjectDto} a project list can be narrowed to, with their
+ * columns in {@code gtd.projects}. {@code notes} is free text and only sent when asked for.
+ */
+public enum ProjectProperty implements SparseField<ProjectDto> {
+
+    ID("id", "id", false, ProjectDto::id),
+    USER_ID("userId", "user_id", false, ProjectDto::userId),
+    AREA_ID("areaId", "area_id", false, ProjectDto::areaId),
+    TITLE("title", "title", false, ProjectDto::title),
+    OUTCOME("outcome", "outcome", false, ProjectDto::outcome),
+    NOTES("notes", "notes", true, ProjectDto::notes),
+    STATUS("status", "status", false, ProjectDto::status),
+    DUE_DATE("dueDate", "due_date", false, ProjectDto::dueDate),
+    CREATED_AT("createdAt", "created_at", false, ProjectDto::createdAt),
+    COMPLETED_AT("completedAt", "completed_at", false, ProjectDto::completedAt);
+
+    private final String jsonName;
+    private final String column;
+    private final boolean large;
+    private final Function<ProjectDto, Object> getter;
+
+    ProjectProperty(String jsonName, String column, boolean large, Function<ProjectDto, Object> getter) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.large = large;
+        this.getter = getter;
+    }
+
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public boolean large() {
+        return large;
+    }
+
+    @Override
+    public Object get(ProjectDto dto) {
+        return getter.apply(dto);
+    }
+}
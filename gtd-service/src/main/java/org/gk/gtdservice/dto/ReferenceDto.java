@@ -7,6 +7,8 @@ public record ReferenceDto(
         Long userId,
         String title,
         String body,
+        String snippet,
+        Integer bodySize,
         String url,
         String fileHint,
         Instant createdAt
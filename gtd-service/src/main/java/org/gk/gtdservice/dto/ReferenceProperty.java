@@ -0,0 +1,53 @@
+package org.gk.gtdservice.dto;
+
+import java.util.function.Function;
+
+/**
+ * The properties of {@link ReferenceDto} a reference list can be narrowed to, with their
+ * columns in {@code gtd.references_store}. The body itself is not among them: it is stored
+ * compressed in {@code gtd.reference_bodies} and served by {@code /api/references/{id}/body};
+ * lists carry its {@code snippet} and {@code bodySize} instead.
+ */
+public enum ReferenceProperty implements SparseField<ReferenceDto> {
+
+    ID("id", "id", false, ReferenceDto::id),
+    USER_ID("userId", "user_id", false, ReferenceDto::userId),
+    TITLE("title", "title", false, ReferenceDto::title),
+    SNIPPET("snippet", "snippet", false, ReferenceDto::snippet),
+    BODY_SIZE("bodySize", "body_size", false, ReferenceDto::bodySize),
+    URL("url", "url", false, ReferenceDto::url),
+    FILE_HINT("fileHint", "file_hint", false, ReferenceDto::fileHint),
+    CREATED_AT("createdAt", "created_at", false, ReferenceDto::createdAt);
+
+    private final String jsonName;
+    private final String column;
+    private final boolean large;
+    private final Function<ReferenceDto, Object> getter;
+
+    ReferenceProperty(String jsonName, String column, boolean large, Function<ReferenceDto, Object> getter) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.large = large;
+        this.getter = getter;
+    }
+
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public boolean large() {
+        return large;
+    }
+
+    @Override
+    public Object get(ReferenceDto dto) {
+        return getter.apply(dto);
+    }
+}
@@ -0,0 +1,19 @@
+package org.gk.gtdservice.dto;
+
+/**
+ * A property of a response DTO that a {@code fields=} query parameter can select, with
+ * the column it is read from.
+ *
+ * @param <D> the DTO the property belongs to
+ */
+public interface SparseField<D> {
+
+    String jsonName();
+
+    String column();
+
+    /** Large text, left out of collection responses unless asked for by name. */
+    boolean large();
+
+    Object get(D dto);
+}
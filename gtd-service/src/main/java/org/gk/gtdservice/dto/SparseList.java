@@ -0,0 +1,48 @@
+package org.gk.gtdservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A collection response limited to a {@link Fieldset}. Written as a plain JSON array of
+ * objects holding only the selected properties, read through {@link SparseField#get}
+ * rather than by introspecting the DTO.
+ */
+@JsonSerialize(using = SparseList.Serializer.class)
+public record SparseList<D>(List<D> items, Collection<? extends SparseField<D>> fields) {
+
+    public static <D, F extends Enum<F> & SparseField<D>> SparseList<D> of(List<D> items, Fieldset<F> fields) {
+        return new SparseList<>(items, fields.fields());
+    }
+
+    public static final class Serializer extends StdSerializer<SparseList<?>> {
+
+        public Serializer() {
+            super(SparseList.class, false);
+        }
+
+        @Override
+        public void serialize(SparseList<?> list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            write(list, gen, provider);
+        }
+
+        private static <D> void write(SparseList<D> list, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartArray(list, list.items().size());
+            for (D item : list.items()) {
+                gen.writeStartObject(item);
+                for (SparseField<D> field : list.fields()) {
+                    provider.defaultSerializeField(field.jsonName(), field.get(item), gen);
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
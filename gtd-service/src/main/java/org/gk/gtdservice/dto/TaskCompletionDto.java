@@ -0,0 +1,13 @@
+package org.gk.gtdservice.dto;
+
+import java.util.List;
+
+/**
+ * @param task      the completed task
+ * @param unblocked open dependents whose last open prerequisite was this task
+ */
+public record TaskCompletionDto(
+        TaskDto task,
+        List<TaskDto> unblocked
+) {
+}
@@ -1,5 +1,7 @@
 package org.gk.gtdservice.dto;
 
+import org.gk.gtdservice.model.TaskStatus;
+
 import java.time.Instant;
 
 public record TaskDto(
@@ -9,7 +11,7 @@ public record TaskDto(
         Long contextId,
         String title,
         String notes,
-        String status,
+        TaskStatus status,
         Integer priority,
         Integer energy,
         Integer durationEstMin,
@@ -0,0 +1,12 @@
+package org.gk.gtdservice.dto;
+
+/**
+ * Where a dragged task was dropped, as the ids of the tasks now around it in the
+ * list the user is looking at. Leave {@code afterId} out to move to the top and
+ * {@code beforeId} out to move to the bottom.
+ */
+public record TaskMoveDto(
+        Long afterId,
+        Long beforeId
+) {
+}
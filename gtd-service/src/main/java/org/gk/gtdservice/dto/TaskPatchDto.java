@@ -0,0 +1,39 @@
+package org.gk.gtdservice.dto;
+
+import org.gk.gtdservice.model.TaskField;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parsed JSON Merge Patch (RFC 7396) for a task: only the fields the client sent,
+ * with {@code null} meaning "clear this field". Values are already validated and
+ * converted to the field's Java type.
+ */
+public record TaskPatchDto(Map<TaskField, Object> changes) {
+
+    public TaskPatchDto {
+        changes = changes.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new EnumMap<>(changes));
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public boolean contains(TaskField field) {
+        return changes.containsKey(field);
+    }
+
+    public Set<TaskField> fields() {
+        return changes.keySet();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(TaskField field) {
+        return (T) changes.get(field);
+    }
+}
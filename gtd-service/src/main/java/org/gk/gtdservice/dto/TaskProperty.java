@@ -0,0 +1,60 @@
+package org.gk.gtdservice.dto;
+
+import java.util.function.Function;
+
+/**
+ * The properties of {@link TaskDto} a task list can be narrowed to, with their columns in
+ * {@code gtd.tasks}. {@code notes} is up to 2000 characters and only sent when asked for.
+ */
+public enum TaskProperty implements SparseField<TaskDto> {
+
+    ID("id", "id", false, TaskDto::id),
+    USER_ID("userId", "user_id", false, TaskDto::userId),
+    PROJECT_ID("projectId", "project_id", false, TaskDto::projectId),
+    CONTEXT_ID("contextId", "context_id", false, TaskDto::contextId),
+    TITLE("title", "title", false, TaskDto::title),
+    NOTES("notes", "notes", true, TaskDto::notes),
+    STATUS("status", "status", false, TaskDto::status),
+    PRIORITY("priority", "priority", false, TaskDto::priority),
+    ENERGY("energy", "energy", false, TaskDto::energy),
+    DURATION_EST_MIN("durationEstMin", "duration_est_min", false, TaskDto::durationEstMin),
+    DUE_AT("dueAt", "due_at", false, TaskDto::dueAt),
+    DEFER_UNTIL("deferUntil", "defer_until", false, TaskDto::deferUntil),
+    WAITING_ON("waitingOn", "waiting_on", false, TaskDto::waitingOn),
+    WAITING_SINCE("waitingSince", "waiting_since", false, TaskDto::waitingSince),
+    CREATED_AT("createdAt", "created_at", false, TaskDto::createdAt),
+    COMPLETED_AT("completedAt", "completed_at", false, TaskDto::completedAt),
+    ORDER_INDEX("orderIndex", "order_index", false, TaskDto::orderIndex);
+
+    private final String jsonName;
+    private final String column;
+    private final boolean large;
+    private final Function<TaskDto, Object> getter;
+
+    TaskProperty(String jsonName, String column, boolean large, Function<TaskDto, Object> getter) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.large = large;
+        this.getter = getter;
+    }
+
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public boolean large() {
+        return large;
+    }
+
+    @Override
+    public Object get(TaskDto dto) {
+        return getter.apply(dto);
+    }
+}
@@ -0,0 +1,8 @@
+package org.gk.gtdservice.dto;
+
+public record UserShardDto(
+        Long userId,
+        int shard,
+        int rowsMoved
+) {
+}
@@ -0,0 +1,25 @@
+package org.gk.gtdservice.event;
+
+import java.time.Instant;
+
+/**
+ * Something that happened to a user's data. Events are appended to {@code gtd.outbox}
+ * in the transaction that made the change and published by {@link OutboxRelay} after
+ * it committed; in-process listeners receive them as Spring application events.
+ */
+public sealed interface DomainEvent permits TaskCreated, TaskStatusChanged, TaskCompleted, TaskDeferred,
+        TaskDeleted, ProjectStatusChanged, ProjectCompleted {
+
+    Long userId();
+
+    /**
+     * Id of the task or project the event is about.
+     */
+    Long aggregateId();
+
+    Instant occurredAt();
+
+    default String type() {
+        return getClass().getSimpleName();
+    }
+}
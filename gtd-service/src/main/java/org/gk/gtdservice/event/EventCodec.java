@@ -0,0 +1,55 @@
+package org.gk.gtdservice.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gk.gtdservice.model.OutboxEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JSON form of {@link DomainEvent}s as stored in the outbox payload column. The event
+ * type name is the record's simple name.
+ */
+@Component
+public class EventCodec {
+
+    private static final Map<String, Class<?>> TYPES = Arrays.stream(DomainEvent.class.getPermittedSubclasses())
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    private final ObjectMapper objectMapper;
+
+    public EventCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String encode(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.type(), e);
+        }
+    }
+
+    /**
+     * @return the typed event, or {@code null} for a type this build does not know
+     */
+    public DomainEvent decode(OutboxEvent stored) {
+        Class<?> type = TYPES.get(stored.eventType());
+        if (type == null) {
+            return null;
+        }
+        try {
+            return (DomainEvent) objectMapper.readValue(stored.payload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read " + stored.eventType() + " event " + stored.id(), e);
+        }
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,15 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed events outside this process. A batch is removed from the
+ * outbox only after {@link #publish} returns, so sinks see every event at least once
+ * and must tolerate redelivery after a crash (the outbox id is stable).
+ */
+public interface EventSink {
+
+    void publish(List<OutboxEvent> events);
+}
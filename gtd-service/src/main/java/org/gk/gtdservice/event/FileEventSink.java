@@ -0,0 +1,70 @@
+package org.gk.gtdservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.gk.gtdservice.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Local stand-in for a broker: appends one JSON line per event and forces the batch
+ * to disk before the relay deletes it from the outbox. Consumers can tail the file and
+ * use {@code id} to skip redelivered events.
+ */
+public class FileEventSink implements EventSink, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileEventSink.class);
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public FileEventSink(Path path, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logger.info("Publishing events to {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+            for (OutboxEvent event : events) {
+                ObjectNode line = objectMapper.createObjectNode();
+                line.put("id", event.id());
+                line.put("type", event.eventType());
+                line.put("userId", event.userId());
+                line.put("aggregateId", event.aggregateId());
+                line.put("createdAt", event.createdAt().toString());
+                line.set("payload", objectMapper.readTree(event.payload()));
+                lines.write(objectMapper.writeValueAsBytes(line));
+                lines.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append events", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,46 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Derives the events implied by a task or project going from one state to another.
+ */
+public final class LifecycleEvents {
+
+    private LifecycleEvents() {
+    }
+
+    public static List<DomainEvent> taskChanges(Task before, Task after, Instant now) {
+        List<DomainEvent> events = new ArrayList<>(2);
+        if (before.status() != after.status()) {
+            events.add(new TaskStatusChanged(after.userId(), after.id(), before.status(), after.status(), now));
+            if (after.status() == TaskStatus.DONE) {
+                events.add(new TaskCompleted(after.userId(), after.id(), after.projectId(), now));
+            }
+        }
+        if (after.deferUntil() != null
+                && (before.deferUntil() == null || after.deferUntil().isAfter(before.deferUntil()))) {
+            events.add(new TaskDeferred(after.userId(), after.id(), before.deferUntil(), after.deferUntil(), now));
+        }
+        return events;
+    }
+
+    public static List<DomainEvent> projectChanges(Project before, Project after, Instant now) {
+        if (before.status() == after.status()) {
+            return List.of();
+        }
+        List<DomainEvent> events = new ArrayList<>(2);
+        events.add(new ProjectStatusChanged(after.userId(), after.id(), before.status(), after.status(), now));
+        if (after.status() == ProjectStatus.COMPLETED) {
+            events.add(new ProjectCompleted(after.userId(), after.id(), now));
+        }
+        return events;
+    }
+}
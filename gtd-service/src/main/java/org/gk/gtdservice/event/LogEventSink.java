@@ -0,0 +1,19 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+public class LogEventSink implements EventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogEventSink.class);
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            logger.info("Event {} {} userId: {} {}", event.id(), event.eventType(), event.userId(), event.payload());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.repo.OutboxRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records domain events from the service layer. Must be called inside the transaction
+ * that makes the change so the event and the change commit or roll back together.
+ */
+@Component
+public class Outbox {
+
+    private final OutboxRepository repository;
+    private final EventCodec codec;
+
+    public Outbox(OutboxRepository repository, EventCodec codec) {
+        this.repository = repository;
+        this.codec = codec;
+    }
+
+    public void record(DomainEvent event) {
+        repository.append(event.userId(), event.aggregateId(), event.type(), codec.encode(event));
+    }
+}
@@ -0,0 +1,29 @@
+package org.gk.gtdservice.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gtd.outbox.sink", havingValue = "file")
+    public EventSink fileEventSink(@Value("${gtd.outbox.file:data/outbox-events.jsonl}") Path path,
+                                   EventCodec codec) throws IOException {
+        return new FileEventSink(path, codec.objectMapper());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(EventSink.class)
+    public EventSink logEventSink() {
+        return new LogEventSink();
+    }
+}
@@ -0,0 +1,90 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.OutboxEvent;
+import org.gk.gtdservice.repo.OutboxRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drains {@code gtd.outbox} on every shard in id order. Each batch is handed to the
+ * {@link EventSink}, then to in-process {@code @EventListener}s, and deleted in the
+ * same local transaction. A sink failure rolls the batch back for the next run; a
+ * failing listener is logged and skipped so one bad consumer cannot stall the stream.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final ShardedJdbc shards;
+    private final OutboxRepository repository;
+    private final EventCodec codec;
+    private final EventSink sink;
+    private final ApplicationEventPublisher publisher;
+    private final int batchSize;
+
+    public OutboxRelay(ShardedJdbc shards, OutboxRepository repository, EventCodec codec, EventSink sink,
+                       ApplicationEventPublisher publisher,
+                       @Value("${gtd.outbox.batch-size:200}") int batchSize) {
+        this.shards = shards;
+        this.repository = repository;
+        this.codec = codec;
+        this.sink = sink;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.outbox.poll-interval:250ms}")
+    public void relay() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            try {
+                int relayed;
+                do {
+                    relayed = relayBatch(shard);
+                } while (relayed == batchSize);
+            } catch (RuntimeException e) {
+                logger.error("Relaying outbox of shard {} failed, will retry", shard, e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of events relayed
+     */
+    int relayBatch(int shard) {
+        Integer relayed = shards.transactionTemplate(shard).execute(_status -> {
+            List<OutboxEvent> batch = repository.lockBatch(shard, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            sink.publish(batch);
+            for (OutboxEvent stored : batch) {
+                dispatch(stored);
+            }
+            repository.delete(shard, batch.stream().map(OutboxEvent::id).toList());
+            logger.debug("Relayed {} events from shard {}", batch.size(), shard);
+            return batch.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private void dispatch(OutboxEvent stored) {
+        try {
+            DomainEvent event = codec.decode(stored);
+            if (event == null) {
+                logger.warn("Skipping unknown event type {} (id {})", stored.eventType(), stored.id());
+                return;
+            }
+            publisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            logger.error("Listener failed for event {} ({})", stored.id(), stored.eventType(), e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.ProjectStatus;
+
+import java.time.Instant;
+
+public record ProjectStatusChanged(Long userId, Long projectId, ProjectStatus fromStatus, ProjectStatus toStatus,
+                                   Instant occurredAt)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return projectId;
+    }
+}
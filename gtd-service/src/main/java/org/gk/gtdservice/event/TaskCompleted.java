@@ -0,0 +1,11 @@
+package org.gk.gtdservice.event;
+
+import java.time.Instant;
+
+public record TaskCompleted(Long userId, Long taskId, Long projectId, Instant occurredAt) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,15 @@
+package org.gk.gtdservice.event;
+
+import java.time.Instant;
+
+/**
+ * The task's defer date was set or pushed later.
+ */
+public record TaskDeferred(Long userId, Long taskId, Instant previousDeferUntil, Instant deferUntil, Instant occurredAt)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,14 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.time.Instant;
+
+public record TaskDeleted(Long userId, Long taskId, Long projectId, TaskStatus status, Instant occurredAt)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return taskId;
+    }
+}
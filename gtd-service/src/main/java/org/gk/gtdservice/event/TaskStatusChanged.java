@@ -0,0 +1,18 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.time.Instant;
+
+/**
+ * Emitted for every status transition; {@link TaskCompleted} and {@link TaskDeferred}
+ * follow it for the transitions they describe.
+ */
+public record TaskStatusChanged(Long userId, Long taskId, TaskStatus fromStatus, TaskStatus toStatus, Instant occurredAt)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,13 @@
+package org.gk.gtdservice.exception;
+
+/**
+ * Exception to signal a request body that passed JSON parsing but is not a valid
+ * request, e.g. a merge patch naming an unknown field (maps to HTTP 400).
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+}
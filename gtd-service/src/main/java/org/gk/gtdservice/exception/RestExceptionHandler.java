@@ -3,6 +3,7 @@ package org.gk.gtdservice.exception;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -26,6 +27,15 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    protected ResponseEntity<Object> handleInvalidRequest(InvalidRequestException ex) {
+        logger.warn("Invalid request: {}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "bad_request");
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     protected ResponseEntity<Object> handleConflict(DataIntegrityViolationException ex) {
         logger.error("Data integrity violation: {}", ex.getMessage(), ex);
@@ -34,4 +44,15 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         body.put("message", ex.getMessage());
         return new ResponseEntity<>(body, HttpStatus.CONFLICT);
     }
+
+    @ExceptionHandler(ShardUnavailableException.class)
+    protected ResponseEntity<Object> handleShardUnavailable(ShardUnavailableException ex) {
+        logger.warn("Shard unavailable: {}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "unavailable");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
 }
@@ -0,0 +1,13 @@
+package org.gk.gtdservice.exception;
+
+/**
+ * Exception to signal a user's shard is temporarily unavailable, e.g. while the
+ * user is being rebalanced (maps to HTTP 503).
+ */
+public class ShardUnavailableException extends RuntimeException {
+
+    public ShardUnavailableException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.gk.gtdservice.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Collects published changes and sends them together every flush interval. Until then,
+ * repeated changes to one user's data of one type are held as a single message, so a
+ * burst of writes by one user costs one message per type.
+ */
+public abstract class BatchingInvalidationBus implements InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingInvalidationBus.class);
+
+    /** Identifies this node's messages, so a transport that echoes them back can drop them. */
+    protected final long nodeId = UUID.randomUUID().getMostSignificantBits();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Key, Invalidation> pending = new ConcurrentHashMap<>();
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Invalidation.Type type, long userId) {
+        Invalidation invalidation = new Invalidation(type, userId, sequence.incrementAndGet());
+        pending.merge(new Key(type, userId), invalidation, BatchingInvalidationBus::latest);
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sends what was published since the last flush. A batch that fails to send is put
+     * back, merged with anything published meanwhile, for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${gtd.invalidation.flush-interval:20ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Invalidation> batch = new ArrayList<>(pending.size());
+        for (Key key : pending.keySet()) {
+            Invalidation invalidation = pending.remove(key);
+            if (invalidation != null) {
+                batch.add(invalidation);
+            }
+        }
+        try {
+            send(batch);
+            logger.debug("Sent {} invalidations", batch.size());
+        } catch (RuntimeException e) {
+            logger.warn("Sending {} invalidations failed, will retry", batch.size(), e);
+            for (Invalidation invalidation : batch) {
+                pending.merge(new Key(invalidation.type(), invalidation.userId()), invalidation,
+                        BatchingInvalidationBus::latest);
+            }
+        }
+    }
+
+    /**
+     * Sends a batch to the other nodes.
+     */
+    protected abstract void send(List<Invalidation> batch);
+
+    /**
+     * Hands a batch received from the transport to the listeners, unless this node sent it.
+     * A failing listener is logged and skipped.
+     */
+    protected void deliver(long fromNode, List<Invalidation> batch) {
+        if (fromNode == nodeId) {
+            return;
+        }
+        for (Invalidation invalidation : batch) {
+            for (Consumer<Invalidation> listener : listeners) {
+                try {
+                    listener.accept(invalidation);
+                } catch (RuntimeException e) {
+                    logger.error("Applying {} failed", invalidation, e);
+                }
+            }
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private static Invalidation latest(Invalidation a, Invalidation b) {
+        return a.version() >= b.version() ? a : b;
+    }
+
+    private record Key(Invalidation.Type type, long userId) {
+    }
+}
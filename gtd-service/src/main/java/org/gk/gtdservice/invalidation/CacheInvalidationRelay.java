@@ -0,0 +1,27 @@
+package org.gk.gtdservice.invalidation;
+
+import org.gk.gtdservice.cache.UserVersionRegistry;
+import org.gk.gtdservice.cache.UserWorkingSets;
+
+import java.util.Optional;
+
+/**
+ * Connects the enabled in-process caches to the bus: their committed local changes are
+ * published, and changes from other nodes are applied to them.
+ */
+public class CacheInvalidationRelay {
+
+    public CacheInvalidationRelay(InvalidationBus bus, Optional<UserVersionRegistry> versions,
+                                  Optional<UserWorkingSets> workingSets) {
+        versions.ifPresent(registry ->
+                registry.addCommitListener(userId -> bus.publish(Invalidation.Type.QUERY_RESULTS, userId)));
+        workingSets.ifPresent(sets ->
+                sets.addCommitListener(userId -> bus.publish(Invalidation.Type.WORKING_SET, userId)));
+        bus.subscribe(invalidation -> {
+            switch (invalidation.type()) {
+                case QUERY_RESULTS -> versions.ifPresent(registry -> registry.bump(invalidation.userId()));
+                case WORKING_SET -> workingSets.ifPresent(sets -> sets.drop(invalidation.userId()));
+            }
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package org.gk.gtdservice.invalidation;
+
+import org.gk.gtdservice.repo.InvalidationRepository;
+import org.gk.gtdservice.repo.InvalidationRepository.StoredInvalidation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Appends each batch to {@code gtd.invalidations} and polls the table for other nodes'
+ * rows, so the nodes need nothing but the database they already share.
+ * <p>
+ * Ids are assigned at insert but become visible at commit, so a row can appear behind
+ * one already read. Each id skipped over is remembered as a gap and looked up again on
+ * every poll until its row shows up or the gap timeout passes, however far the reading
+ * has moved on meanwhile. A gap given up on is logged: either its insert failed, or the
+ * row committed too late and the caches it invalidates may stay stale.
+ */
+public class DbInvalidationBus extends BatchingInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(DbInvalidationBus.class);
+
+    static final int BATCH_SIZE = 1000;
+
+    private final InvalidationRepository repository;
+    private final Duration retention;
+    private final Duration gapTimeout;
+    private final Clock clock;
+    /** Highest id read, or -1 before the first poll, which starts from the end of the table. */
+    private long lastId = -1;
+    /** Ids below {@link #lastId} whose rows have not been read, with when each was skipped. */
+    private final Map<Long, Instant> gaps = new TreeMap<>();
+
+    public DbInvalidationBus(InvalidationRepository repository, Duration retention, Duration gapTimeout) {
+        this(repository, retention, gapTimeout, Clock.systemUTC());
+    }
+
+    DbInvalidationBus(InvalidationRepository repository, Duration retention, Duration gapTimeout, Clock clock) {
+        this.repository = repository;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void send(List<Invalidation> batch) {
+        repository.append(nodeId, batch);
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.invalidation.poll-interval:200ms}")
+    public synchronized void poll() {
+        if (lastId < 0) {
+            // A node that just started has nothing cached yet, so earlier rows do not concern it.
+            // 0 when the table is empty; ids from 1 up to the first row read then count as gaps.
+            lastId = repository.maxId();
+            return;
+        }
+        Instant now = clock.instant();
+        if (!gaps.isEmpty()) {
+            for (StoredInvalidation row : repository.findByIds(gaps.keySet())) {
+                gaps.remove(row.id());
+                deliver(row.nodeId(), List.of(row.invalidation()));
+            }
+            expireGaps(now);
+        }
+        List<StoredInvalidation> rows;
+        do {
+            rows = repository.findAfter(lastId, BATCH_SIZE);
+            for (StoredInvalidation row : rows) {
+                for (long id = lastId + 1; id < row.id(); id++) {
+                    gaps.put(id, now);
+                }
+                deliver(row.nodeId(), List.of(row.invalidation()));
+                lastId = row.id();
+            }
+        } while (rows.size() == BATCH_SIZE);
+    }
+
+    private void expireGaps(Instant now) {
+        Instant cutoff = now.minus(gapTimeout);
+        List<Long> expired = new ArrayList<>();
+        gaps.entrySet().removeIf(gap -> {
+            if (gap.getValue().isBefore(cutoff)) {
+                expired.add(gap.getKey());
+                return true;
+            }
+            return false;
+        });
+        if (!expired.isEmpty()) {
+            logger.warn("No invalidation with ids {} showed up within {}; if one commits later, "
+                    + "caches on this node may serve stale data until the user's next write", expired, gapTimeout);
+        }
+    }
+
+    /**
+     * Deletes rows every node has had time to read. The newest row is kept, so a node
+     * starting on a quiet table still starts from the current id rather than from 0.
+     */
+    @Scheduled(fixedDelayString = "${gtd.invalidation.purge-interval:60s}")
+    public void purge() {
+        int deleted = repository.deleteOlderThan(Instant.now().minus(retention));
+        if (deleted > 0) {
+            logger.debug("Purged {} invalidations older than {}", deleted, retention);
+        }
+    }
+
+    int openGaps() {
+        return gaps.size();
+    }
+}
@@ -0,0 +1,47 @@
+package org.gk.gtdservice.invalidation;
+
+/**
+ * One user's cached data of one kind changed on another node.
+ *
+ * @param version the sending node's invalidation sequence when the change was published;
+ *                of several changes coalesced into one message, the latest
+ */
+public record Invalidation(Type type, long userId, long version) {
+
+    /**
+     * What a node caches per user. Sent as its {@link #code()}, which must never be
+     * reassigned while nodes of different versions share a bus.
+     */
+    public enum Type {
+
+        /** Results in the {@link org.gk.gtdservice.cache.QueryResultCache}. */
+        QUERY_RESULTS(0),
+        /** The user's {@link org.gk.gtdservice.cache.UserWorkingSet}. */
+        WORKING_SET(1);
+
+        private static final Type[] BY_CODE = new Type[values().length];
+
+        static {
+            for (Type type : values()) {
+                BY_CODE[type.code] = type;
+            }
+        }
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        public static Type fromCode(int code) {
+            if (code < 0 || code >= BY_CODE.length) {
+                throw new IllegalArgumentException("Unknown invalidation type code: " + code);
+            }
+            return BY_CODE[code];
+        }
+    }
+}
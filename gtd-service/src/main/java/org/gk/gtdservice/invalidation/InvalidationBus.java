@@ -0,0 +1,23 @@
+package org.gk.gtdservice.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Tells the other nodes serving the same database which users' cached data changed, so
+ * several nodes can run behind a load balancer with their in-process caches enabled.
+ * Delivery is asynchronous: another node serves what it cached for up to the bus's
+ * delay after a commit.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Queues a committed change made on this node. Changes to the same user and type are
+     * coalesced until the next send.
+     */
+    void publish(Invalidation.Type type, long userId);
+
+    /**
+     * Registers a handler for changes made on other nodes; never called with this node's own.
+     */
+    void subscribe(Consumer<Invalidation> listener);
+}
@@ -0,0 +1,68 @@
+package org.gk.gtdservice.invalidation;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary datagrams of invalidations: a header (magic, format version, sending node,
+ * count) followed by 17 bytes per invalidation (type code, user id, version). A batch
+ * larger than one datagram is split so no datagram needs IP fragmentation.
+ */
+final class InvalidationCodec {
+
+    static final int MAGIC = 0x47544449; // "GTDI"
+    static final byte FORMAT = 1;
+    static final int HEADER_BYTES = 4 + 1 + 8 + 2;
+    static final int ENTRY_BYTES = 1 + 8 + 8;
+    /** Stays below a 1500-byte Ethernet MTU after IP and UDP headers. */
+    static final int MAX_DATAGRAM_BYTES = 1400;
+    static final int MAX_ENTRIES = (MAX_DATAGRAM_BYTES - HEADER_BYTES) / ENTRY_BYTES;
+
+    private InvalidationCodec() {
+    }
+
+    record Datagram(long nodeId, List<Invalidation> invalidations) {
+    }
+
+    static List<ByteBuffer> encode(long nodeId, List<Invalidation> batch) {
+        List<ByteBuffer> datagrams = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += MAX_ENTRIES) {
+            List<Invalidation> chunk = batch.subList(from, Math.min(batch.size(), from + MAX_ENTRIES));
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + chunk.size() * ENTRY_BYTES)
+                    .putInt(MAGIC)
+                    .put(FORMAT)
+                    .putLong(nodeId)
+                    .putShort((short) chunk.size());
+            for (Invalidation invalidation : chunk) {
+                buffer.put(invalidation.type().code())
+                        .putLong(invalidation.userId())
+                        .putLong(invalidation.version());
+            }
+            datagrams.add(buffer.flip());
+        }
+        return datagrams;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the datagram is not a complete invalidation batch
+     */
+    static Datagram decode(ByteBuffer datagram) {
+        try {
+            if (datagram.getInt() != MAGIC || datagram.get() != FORMAT) {
+                throw new IllegalArgumentException("Not an invalidation datagram");
+            }
+            long nodeId = datagram.getLong();
+            int count = Short.toUnsignedInt(datagram.getShort());
+            List<Invalidation> invalidations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                invalidations.add(new Invalidation(Invalidation.Type.fromCode(datagram.get()), datagram.getLong(),
+                        datagram.getLong()));
+            }
+            return new Datagram(nodeId, invalidations);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated invalidation datagram", e);
+        }
+    }
+}
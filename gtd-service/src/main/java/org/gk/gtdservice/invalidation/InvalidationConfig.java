@@ -0,0 +1,36 @@
+package org.gk.gtdservice.invalidation;
+
+import org.gk.gtdservice.cache.UserVersionRegistry;
+import org.gk.gtdservice.cache.UserWorkingSets;
+import org.gk.gtdservice.repo.InvalidationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.Optional;
+
+@Configuration
+@ConditionalOnProperty(name = "gtd.invalidation.bus")
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gtd.invalidation.bus", havingValue = "db")
+    public DbInvalidationBus dbInvalidationBus(InvalidationRepository repository, InvalidationProperties properties) {
+        return new DbInvalidationBus(repository, properties.retention(), properties.gapTimeout());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gtd.invalidation.bus", havingValue = "udp")
+    public UdpInvalidationBus udpInvalidationBus(InvalidationProperties properties) throws IOException {
+        return new UdpInvalidationBus(properties.udp().bindAddress(), properties.udp().peerAddresses());
+    }
+
+    @Bean
+    public CacheInvalidationRelay cacheInvalidationRelay(InvalidationBus bus, Optional<UserVersionRegistry> versions,
+                                                         Optional<UserWorkingSets> workingSets) {
+        return new CacheInvalidationRelay(bus, versions, workingSets);
+    }
+}
@@ -0,0 +1,55 @@
+package org.gk.gtdservice.invalidation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The bus that keeps in-process caches of several nodes consistent. Without
+ * {@code gtd.invalidation.bus} there is none and each node's caches only see its own
+ * writes.
+ *
+ * @param bus       {@code db} to go through {@code gtd.invalidations}, {@code udp} for datagrams between peers
+ * @param retention {@code db}: how long rows are kept for slower nodes to read
+ * @param gapTimeout {@code db}: how long to keep looking for a row whose id was skipped because it
+ *                   had not committed yet when later ones were read
+ * @param udp       {@code udp}: this node's address and its peers'
+ */
+@ConfigurationProperties("gtd.invalidation")
+public record InvalidationProperties(
+        String bus,
+        @DefaultValue("5m") Duration retention,
+        @DefaultValue("1m") Duration gapTimeout,
+        @DefaultValue Udp udp
+) {
+
+    /**
+     * @param bind  address and port to receive on
+     * @param peers {@code host:port} of every other node
+     */
+    public record Udp(
+            @DefaultValue("127.0.0.1:47100") String bind,
+            @DefaultValue List<String> peers
+    ) {
+
+        public InetSocketAddress bindAddress() {
+            return address(bind);
+        }
+
+        public List<InetSocketAddress> peerAddresses() {
+            return peers.stream().map(Udp::address).toList();
+        }
+
+        private static InetSocketAddress address(String hostAndPort) {
+            int colon = hostAndPort.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Expected host:port, got " + hostAndPort);
+            }
+            return new InetSocketAddress(hostAndPort.substring(0, colon).trim(),
+                    Integer.parseInt(hostAndPort.substring(colon + 1).trim()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.gk.gtdservice.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+
+/**
+ * Sends each batch as UDP datagrams to a fixed list of peers and receives theirs on
+ * its own port. Meant for several nodes on one machine or a trusted network, with no
+ * other infrastructure: a datagram lost or sent while a peer is down is not repeated,
+ * so a node can serve a stale cached result until that user's next change or until
+ * the result is evicted. Use the database bus where that matters.
+ */
+public class UdpInvalidationBus extends BatchingInvalidationBus implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdpInvalidationBus.class);
+
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers;
+
+    public UdpInvalidationBus(InetSocketAddress bindAddress, List<InetSocketAddress> peers) throws IOException {
+        this.channel = DatagramChannel.open().bind(bindAddress);
+        this.peers = List.copyOf(peers);
+        Thread.ofPlatform().daemon().name("invalidation-udp").start(this::receive);
+        logger.info("Invalidation bus listening on {}, sending to {}", channel.getLocalAddress(), this.peers);
+    }
+
+    public InetSocketAddress localAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    @Override
+    protected void send(List<Invalidation> batch) {
+        for (ByteBuffer datagram : InvalidationCodec.encode(nodeId, batch)) {
+            for (InetSocketAddress peer : peers) {
+                try {
+                    channel.send(datagram.duplicate(), peer);
+                } catch (IOException e) {
+                    logger.warn("Sending invalidations to {} failed", peer, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void receive() {
+        ByteBuffer buffer = ByteBuffer.allocate(InvalidationCodec.MAX_DATAGRAM_BYTES);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                InetSocketAddress sender = (InetSocketAddress) channel.receive(buffer);
+                buffer.flip();
+                try {
+                    InvalidationCodec.Datagram datagram = InvalidationCodec.decode(buffer);
+                    deliver(datagram.nodeId(), datagram.invalidations());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Dropped a malformed invalidation datagram from {}", sender, e);
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Receiving invalidations failed", e);
+            }
+        }
+    }
+}
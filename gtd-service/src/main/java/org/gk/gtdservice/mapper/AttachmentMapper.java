@@ -0,0 +1,18 @@
+package org.gk.gtdservice.mapper;
+
+import org.gk.gtdservice.dto.AttachmentDto;
+import org.gk.gtdservice.model.Attachment;
+
+public class AttachmentMapper {
+    public static AttachmentDto toDto(Attachment attachment) {
+        return new AttachmentDto(
+                attachment.id(),
+                attachment.referenceId(),
+                attachment.name(),
+                attachment.contentType(),
+                attachment.size(),
+                attachment.sha256(),
+                attachment.createdAt()
+        );
+    }
+}
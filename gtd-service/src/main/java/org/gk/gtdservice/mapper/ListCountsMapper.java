@@ -0,0 +1,23 @@
+package org.gk.gtdservice.mapper;
+
+import org.gk.gtdservice.dto.ListCountsDto;
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.util.Map;
+
+public class ListCountsMapper {
+
+    public static ListCountsDto toDto(Long userId, Map<TaskStatus, Long> counts) {
+        return new ListCountsDto(
+                userId,
+                counts.getOrDefault(TaskStatus.INBOX, 0L),
+                counts.getOrDefault(TaskStatus.NEXT, 0L),
+                counts.getOrDefault(TaskStatus.WAITING, 0L),
+                counts.getOrDefault(TaskStatus.SCHEDULED, 0L),
+                counts.getOrDefault(TaskStatus.SOMEDAY, 0L),
+                counts.getOrDefault(TaskStatus.REFERENCE, 0L),
+                counts.getOrDefault(TaskStatus.DONE, 0L),
+                counts.getOrDefault(TaskStatus.DROPPED, 0L)
+        );
+    }
+}
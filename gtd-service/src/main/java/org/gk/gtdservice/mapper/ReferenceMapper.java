@@ -10,6 +10,8 @@ public class ReferenceMapper {
                 reference.userId(),
                 reference.title(),
                 reference.body(),
+                reference.snippet(),
+                reference.bodySize(),
                 reference.url(),
                 reference.fileHint(),
                 reference.createdAt()
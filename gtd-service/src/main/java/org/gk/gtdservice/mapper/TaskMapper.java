@@ -5,6 +5,9 @@ import org.gk.gtdservice.dto.TaskDto;
 import org.gk.gtdservice.model.Task;
 
 import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
 
 public class TaskMapper {
 
@@ -31,6 +34,14 @@ public class TaskMapper {
         );
     }
 
+    /**
+     * A view that maps each task when it is read rather than up front. Over a list that
+     * decodes its tasks on access, neither exists on the heap before the response is written.
+     */
+    public static List<TaskDto> toDtoView(List<Task> tasks) {
+        return new DtoView(tasks);
+    }
+
     public static Task fromCreateDto(CreateTaskDto c) {
         if (c == null) return null;
         return new Task(
@@ -53,4 +64,23 @@ public class TaskMapper {
                 c.orderIndex()
         );
     }
+
+    private static final class DtoView extends AbstractList<TaskDto> implements RandomAccess {
+
+        private final List<Task> tasks;
+
+        DtoView(List<Task> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        public TaskDto get(int index) {
+            return toDto(tasks.get(index));
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package org.gk.gtdservice.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskField;
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class TaskPatchMapper {
+
+    /**
+     * Reads a merge patch document, applying the same rules as {@code CreateTaskDto}
+     * to each field present. Unknown fields, {@code userId} and nested objects are
+     * rejected rather than ignored so a typo never turns into a silent no-op.
+     */
+    public static TaskPatchDto fromJson(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidRequestException("Merge patch must be a JSON object");
+        }
+        Map<TaskField, Object> changes = new EnumMap<>(TaskField.class);
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            TaskField field = TaskField.fromJsonName(entry.getKey())
+                    .orElseThrow(() -> new InvalidRequestException("Field cannot be patched: " + entry.getKey()));
+            changes.put(field, read(field, entry.getValue()));
+        }
+        return new TaskPatchDto(changes);
+    }
+
+    /**
+     * The task as it is after the patch, given the completion time the update wrote.
+     */
+    public static Task apply(Task t, TaskPatchDto patch, Instant completedAt) {
+        return new Task(
+                t.id(),
+                t.userId(),
+                patch.contains(TaskField.PROJECT_ID) ? patch.get(TaskField.PROJECT_ID) : t.projectId(),
+                patch.contains(TaskField.CONTEXT_ID) ? patch.get(TaskField.CONTEXT_ID) : t.contextId(),
+                patch.contains(TaskField.TITLE) ? patch.get(TaskField.TITLE) : t.title(),
+                patch.contains(TaskField.NOTES) ? patch.get(TaskField.NOTES) : t.notes(),
+                patch.contains(TaskField.STATUS) ? patch.get(TaskField.STATUS) : t.status(),
+                patch.contains(TaskField.PRIORITY) ? patch.get(TaskField.PRIORITY) : t.priority(),
+                patch.contains(TaskField.ENERGY) ? patch.get(TaskField.ENERGY) : t.energy(),
+                patch.contains(TaskField.DURATION_EST_MIN) ? patch.get(TaskField.DURATION_EST_MIN) : t.durationEstMin(),
+                patch.contains(TaskField.DUE_AT) ? patch.get(TaskField.DUE_AT) : t.dueAt(),
+                patch.contains(TaskField.DEFER_UNTIL) ? patch.get(TaskField.DEFER_UNTIL) : t.deferUntil(),
+                patch.contains(TaskField.WAITING_ON) ? patch.get(TaskField.WAITING_ON) : t.waitingOn(),
+                patch.contains(TaskField.WAITING_SINCE) ? patch.get(TaskField.WAITING_SINCE) : t.waitingSince(),
+                t.createdAt(),
+                completedAt,
+                patch.contains(TaskField.ORDER_INDEX) ? patch.get(TaskField.ORDER_INDEX) : t.orderIndex()
+        );
+    }
+
+    private static Object read(TaskField field, JsonNode value) {
+        if (value.isNull()) {
+            if (!field.nullable()) {
+                throw invalid(field, "must not be null");
+            }
+            return null;
+        }
+        return switch (field.kind()) {
+            case LONG -> {
+                if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+                    throw invalid(field, "must be an integer");
+                }
+                yield value.longValue();
+            }
+            case INTEGER -> {
+                if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+                    throw invalid(field, "must be an integer");
+                }
+                int number = value.intValue();
+                if (field.min() != null && number < field.min()) {
+                    throw invalid(field, "must be greater than or equal to " + field.min());
+                }
+                if (field.max() != null && number > field.max()) {
+                    throw invalid(field, "must be less than or equal to " + field.max());
+                }
+                yield number;
+            }
+            case STRING -> {
+                if (!value.isTextual()) {
+                    throw invalid(field, "must be a string");
+                }
+                String text = value.textValue();
+                if (!field.nullable() && text.isBlank()) {
+                    throw invalid(field, "must not be blank");
+                }
+                if (field.max() != null && text.length() > field.max()) {
+                    throw invalid(field, "size must be at most " + field.max());
+                }
+                if (field.pattern() != null && !field.pattern().matcher(text).matches()) {
+                    throw invalid(field, "must match \"" + field.pattern().pattern() + "\"");
+                }
+                yield text;
+            }
+            case TASK_STATUS -> {
+                if (!value.isTextual()) {
+                    throw invalid(field, "must be a string");
+                }
+                try {
+                    yield TaskStatus.fromValue(value.textValue());
+                } catch (IllegalArgumentException e) {
+                    throw invalid(field, "must be one of " + TaskStatus.VALUES);
+                }
+            }
+            case INSTANT -> {
+                if (!value.isTextual()) {
+                    throw invalid(field, "must be an ISO-8601 instant");
+                }
+                try {
+                    yield Instant.parse(value.textValue());
+                } catch (DateTimeParseException e) {
+                    throw invalid(field, "must be an ISO-8601 instant");
+                }
+            }
+        };
+    }
+
+    private static InvalidRequestException invalid(TaskField field, String problem) {
+        return new InvalidRequestException(field.jsonName() + " " + problem);
+    }
+}
@@ -0,0 +1,15 @@
+package org.gk.gtdservice.model;
+
+import java.time.Instant;
+
+public record Attachment(
+        Long id,
+        Long referenceId,
+        Long userId,
+        String name,
+        String contentType,
+        Long size,
+        String sha256,
+        Instant createdAt
+) {
+}
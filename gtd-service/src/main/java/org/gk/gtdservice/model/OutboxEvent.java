@@ -0,0 +1,13 @@
+package org.gk.gtdservice.model;
+
+import java.time.Instant;
+
+public record OutboxEvent(
+        Long id,
+        Long userId,
+        Long aggregateId,
+        String eventType,
+        String payload,
+        Instant createdAt
+) {
+}
@@ -10,7 +10,7 @@ public record Project(
         String title,
         String outcome,
         String notes,
-        String status,
+        ProjectStatus status,
         LocalDate dueDate,
         Instant createdAt,
         Instant completedAt
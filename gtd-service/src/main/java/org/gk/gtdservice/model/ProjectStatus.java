@@ -0,0 +1,72 @@
+package org.gk.gtdservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The state of a project. Stored in {@code gtd.projects.status} as its {@link #code()},
+ * which must never be reassigned once written; shown in JSON and query parameters as
+ * its lower-case {@link #value()}.
+ */
+public enum ProjectStatus {
+
+    ACTIVE(0, "active"),
+    ON_HOLD(1, "on_hold"),
+    SOMEDAY(2, "someday"),
+    COMPLETED(3, "completed"),
+    DROPPED(4, "dropped");
+
+    /** The accepted values, for error messages. */
+    public static final String VALUES = Arrays.stream(values()).map(ProjectStatus::value)
+            .collect(Collectors.joining(", "));
+
+    private static final ProjectStatus[] BY_CODE = new ProjectStatus[values().length];
+
+    static {
+        for (ProjectStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final short code;
+    private final String value;
+
+    ProjectStatus(int code, String value) {
+        this.code = (short) code;
+        this.value = value;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    public static ProjectStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown project status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    @JsonCreator
+    public static ProjectStatus fromValue(String value) {
+        for (ProjectStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown project status: " + value + ", expected one of " + VALUES);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
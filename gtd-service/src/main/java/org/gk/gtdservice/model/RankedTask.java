@@ -0,0 +1,11 @@
+package org.gk.gtdservice.model;
+
+/**
+ * A task with the rank key its list is sorted by, for callers that keep lists in
+ * memory and have to place tasks the way {@code ORDER BY rank_key, id} would.
+ */
+public record RankedTask(
+        Task task,
+        String rankKey
+) {
+}
@@ -7,6 +7,8 @@ public record Reference(
         Long userId,
         String title,
         String body,
+        String snippet,
+        Integer bodySize,
         String url,
         String fileHint,
         Instant createdAt
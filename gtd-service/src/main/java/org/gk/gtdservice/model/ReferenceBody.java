@@ -0,0 +1,102 @@
+package org.gk.gtdservice.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A reference body as stored in {@code gtd.reference_bodies}: the gzip of its UTF-8
+ * text, keyed by the SHA-256 of that text so identical bodies of one user are stored
+ * once. The gzip bytes can be sent as they are to clients that accept gzip.
+ *
+ * @param hash SHA-256 of the UTF-8 text, in lower-case hex
+ * @param size length of the UTF-8 text in bytes
+ * @param gzip the compressed text
+ */
+public record ReferenceBody(
+        String hash,
+        int size,
+        byte[] gzip
+) {
+
+    /** Characters of a body kept in the reference row for list responses. */
+    public static final int SNIPPET_LENGTH = 200;
+
+    public static final ReferenceBody EMPTY = of("");
+
+    /**
+     * Bodies are written once and read many times, so the best compression level is
+     * worth its extra CPU.
+     */
+    public static ReferenceBody of(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gz.write(utf8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ReferenceBody(hash(utf8), utf8.length, out.toByteArray());
+    }
+
+    public String text() {
+        return new String(utf8(), StandardCharsets.UTF_8);
+    }
+
+    public byte[] utf8() {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt reference body " + hash, e);
+        }
+    }
+
+    /**
+     * The start of {@code text} with runs of whitespace collapsed, at most
+     * {@link #SNIPPET_LENGTH} characters and never ending inside a surrogate pair.
+     */
+    public static String snippet(String text) {
+        StringBuilder snippet = new StringBuilder(Math.min(text.length(), SNIPPET_LENGTH));
+        boolean space = false;
+        for (int i = 0; i < text.length() && snippet.length() < SNIPPET_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = !snippet.isEmpty();
+                continue;
+            }
+            if (space) {
+                snippet.append(' ');
+                space = false;
+            }
+            snippet.append(c);
+        }
+        if (snippet.length() > SNIPPET_LENGTH) {
+            snippet.setLength(SNIPPET_LENGTH);
+        }
+        if (!snippet.isEmpty() && Character.isHighSurrogate(snippet.charAt(snippet.length() - 1))) {
+            snippet.setLength(snippet.length() - 1);
+        }
+        return snippet.toString().stripTrailing();
+    }
+
+    private static String hash(byte[] utf8) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(utf8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -9,7 +9,7 @@ public record Task(
         Long contextId,
         String title,
         String notes,
-        String status,
+        TaskStatus status,
         Integer priority,
         Integer energy,
         Integer durationEstMin,
@@ -0,0 +1,19 @@
+package org.gk.gtdservice.model;
+
+/**
+ * A task as read under its row lock before being completed, and as it is afterwards.
+ * Both are the same task when it was done already.
+ */
+public record TaskCompletion(
+        Task before,
+        Task after
+) {
+
+    /**
+     * Whether this call completed the task, as opposed to finding it done. Of concurrent
+     * or retried completions of one task exactly one did.
+     */
+    public boolean changed() {
+        return before.status() != TaskStatus.DONE;
+    }
+}
@@ -0,0 +1,87 @@
+package org.gk.gtdservice.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The task properties a client may change after creation, with their JSON name,
+ * their column in {@code gtd.tasks} and the same constraints {@code CreateTaskDto}
+ * puts on them. {@code userId} is not here: a task never changes owner.
+ */
+public enum TaskField {
+
+    PROJECT_ID("projectId", "project_id", Kind.LONG, true, null, null, null),
+    CONTEXT_ID("contextId", "context_id", Kind.LONG, true, null, null, null),
+    TITLE("title", "title", Kind.STRING, false, null, 500L, null),
+    NOTES("notes", "notes", Kind.STRING, true, null, 2000L, null),
+    STATUS("status", "status", Kind.TASK_STATUS, false, null, null, null),
+    PRIORITY("priority", "priority", Kind.INTEGER, true, 1L, null, null),
+    ENERGY("energy", "energy", Kind.INTEGER, true, 1L, 5L, null),
+    DURATION_EST_MIN("durationEstMin", "duration_est_min", Kind.INTEGER, true, 1L, null, null),
+    DUE_AT("dueAt", "due_at", Kind.INSTANT, true, null, null, null),
+    DEFER_UNTIL("deferUntil", "defer_until", Kind.INSTANT, true, null, null, null),
+    WAITING_ON("waitingOn", "waiting_on", Kind.STRING, true, null, 200L, null),
+    WAITING_SINCE("waitingSince", "waiting_since", Kind.INSTANT, true, null, null, null),
+    ORDER_INDEX("orderIndex", "order_index", Kind.INTEGER, true, null, null, null);
+
+    public enum Kind { LONG, INTEGER, STRING, INSTANT, TASK_STATUS }
+
+    private static final Map<String, TaskField> BY_JSON_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(TaskField::jsonName, Function.identity()));
+
+    private final String jsonName;
+    private final String column;
+    private final Kind kind;
+    private final boolean nullable;
+    private final Long min;
+    private final Long max;
+    private final Pattern pattern;
+
+    TaskField(String jsonName, String column, Kind kind, boolean nullable, Long min, Long max, Pattern pattern) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.kind = kind;
+        this.nullable = nullable;
+        this.min = min;
+        this.max = max;
+        this.pattern = pattern;
+    }
+
+    public static Optional<TaskField> fromJsonName(String name) {
+        return Optional.ofNullable(BY_JSON_NAME.get(name));
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public boolean nullable() {
+        return nullable;
+    }
+
+    /** Lower bound for numbers. */
+    public Long min() {
+        return min;
+    }
+
+    /** Upper bound for numbers, maximum length for strings. */
+    public Long max() {
+        return max;
+    }
+
+    public Pattern pattern() {
+        return pattern;
+    }
+}
@@ -0,0 +1,82 @@
+package org.gk.gtdservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The GTD list a task is on. Stored in {@code gtd.tasks.status} as its {@link #code()},
+ * which must never be reassigned once written; shown in JSON and query parameters as
+ * its lower-case {@link #value()}.
+ */
+public enum TaskStatus {
+
+    INBOX(0, "inbox"),
+    NEXT(1, "next"),
+    WAITING(2, "waiting"),
+    SCHEDULED(3, "scheduled"),
+    SOMEDAY(4, "someday"),
+    REFERENCE(5, "reference"),
+    DONE(6, "done"),
+    DROPPED(7, "dropped");
+
+    /** The accepted values, for error messages. */
+    public static final String VALUES = Arrays.stream(values()).map(TaskStatus::value)
+            .collect(Collectors.joining(", "));
+
+    private static final TaskStatus[] BY_CODE = new TaskStatus[values().length];
+
+    static {
+        for (TaskStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final short code;
+    private final String value;
+
+    TaskStatus(int code, String value) {
+        this.code = (short) code;
+        this.value = value;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    /**
+     * Done and dropped tasks are history; every other status is a list a task is still on.
+     */
+    public boolean isOpen() {
+        return this != DONE && this != DROPPED;
+    }
+
+    public static TaskStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown task status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    @JsonCreator
+    public static TaskStatus fromValue(String value) {
+        for (TaskStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status: " + value + ", expected one of " + VALUES);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
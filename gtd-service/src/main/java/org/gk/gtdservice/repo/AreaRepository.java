@@ -2,12 +2,12 @@ package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateAreaDto;
 import org.gk.gtdservice.model.Area;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
@@ -24,10 +24,10 @@ public class AreaRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(AreaRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public AreaRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public AreaRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
     private final RowMapper<Area> mapper = (rs, _rowNum) -> new Area(
@@ -40,14 +40,14 @@ public class AreaRepository {
 
     public List<Area> findAll() {
         logger.info("Finding all areas");
-        List<Area> areas = jdbc.query("SELECT id, user_id, name, description, created_at FROM gtd.areas", Collections.emptyMap(), mapper);
+        List<Area> areas = shards.queryAll("SELECT id, user_id, name, description, created_at FROM gtd.areas", Collections.emptyMap(), mapper);
         logger.debug("Found {} areas", areas.size());
         return areas;
     }
 
     public List<Area> findByUserId(Long userId) {
         logger.info("Finding areas by userId: {}", userId);
-        List<Area> areas = jdbc.query("SELECT id, user_id, name, description, created_at FROM gtd.areas WHERE user_id = :user_id", Map.of("user_id", userId), mapper);
+        List<Area> areas = shards.forUser(userId).query("SELECT id, user_id, name, description, created_at FROM gtd.areas WHERE user_id = :user_id", Map.of("user_id", userId), mapper);
         logger.debug("Found {} areas for userId: {}", areas.size(), userId);
         return areas;
     }
@@ -55,8 +55,7 @@ public class AreaRepository {
     public Optional<Area> findById(Long id) {
         logger.info("Finding area by id: {}", id);
         Map<String, Object> params = Map.of("id", id);
-        List<Area> l = jdbc.query("SELECT id, user_id, name, description, created_at FROM gtd.areas WHERE id = :id", params, mapper);
-        Optional<Area> result = l.stream().findFirst();
+        Optional<Area> result = shards.queryFirst("SELECT id, user_id, name, description, created_at FROM gtd.areas WHERE id = :id", params, mapper);
         if (result.isPresent()) {
             logger.debug("Found area with id: {}", id);
         } else {
@@ -74,7 +73,7 @@ public class AreaRepository {
                 .addValue("name", dto.name())
                 .addValue("description", dto.description())
                 .addValue("created_at", Timestamp.from(Instant.now()));
-        jdbc.update(sql, params, keyHolder, new String[]{"id"});
+        shards.forUser(dto.userId()).update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
         Long id = key != null ? key.longValue() : null;
         logger.info("Created area with id: {}", id);
@@ -89,7 +88,7 @@ public class AreaRepository {
                 .addValue("name", dto.name())
                 .addValue("description", dto.description())
                 .addValue("id", id);
-        int updated = jdbc.update(sql, params);
+        int updated = shards.forUser(dto.userId()).update(sql, params);
         if (updated == 0) {
             logger.warn("No area updated for id: {}", id);
             return null;
@@ -100,7 +99,7 @@ public class AreaRepository {
 
     public boolean delete(Long id) {
         logger.info("Deleting area with id: {}", id);
-        int updated = jdbc.update("DELETE FROM gtd.areas WHERE id = :id", Map.of("id", id));
+        int updated = shards.updateAll("DELETE FROM gtd.areas WHERE id = :id", Map.of("id", id));
         boolean deleted = updated > 0;
         if (deleted) {
             logger.info("Deleted area with id: {}", id);
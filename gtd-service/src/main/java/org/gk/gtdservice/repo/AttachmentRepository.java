@@ -0,0 +1,136 @@
+package org.gk.gtdservice.repo;
+
+import org.gk.gtdservice.model.Attachment;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Attachment metadata. The files themselves live in the
+ * {@link org.gk.gtdservice.blob.BlobStore}, shared by every attachment with the same
+ * {@code sha256}.
+ */
+@Repository
+public class AttachmentRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentRepository.class);
+
+    private final ShardedJdbc shards;
+
+    public AttachmentRepository(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    private final RowMapper<Attachment> mapper = (rs, _rowNum) -> new Attachment(
+            rs.getLong("id"),
+            rs.getLong("reference_id"),
+            rs.getLong("user_id"),
+            rs.getString("name"),
+            rs.getString("content_type"),
+            rs.getLong("size_bytes"),
+            rs.getString("sha256"),
+            rs.getTimestamp("created_at").toInstant()
+    );
+
+    public List<Attachment> findByReferenceId(Long userId, Long referenceId) {
+        logger.debug("Finding attachments of reference: {}", referenceId);
+        return shards.forUser(userId).query(
+                "SELECT * FROM gtd.reference_attachments WHERE reference_id = :referenceId ORDER BY id",
+                new MapSqlParameterSource("referenceId", referenceId), mapper);
+    }
+
+    public Optional<Attachment> findById(Long userId, Long id) {
+        logger.debug("Finding attachment by id: {}", id);
+        return shards.forUser(userId).query("SELECT * FROM gtd.reference_attachments WHERE id = :id",
+                new MapSqlParameterSource("id", id), mapper).stream().findFirst();
+    }
+
+    public Attachment create(Long userId, Long referenceId, String name, String contentType, long size, String sha256) {
+        logger.debug("Creating attachment {} of reference {}", name, referenceId);
+        String sql = """
+                INSERT INTO gtd.reference_attachments (reference_id, user_id, name, content_type, size_bytes, sha256, created_at)
+                VALUES (:referenceId, :userId, :name, :contentType, :size, :sha256, :createdAt)
+                """;
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        Instant now = Instant.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("referenceId", referenceId)
+                .addValue("userId", userId)
+                .addValue("name", name)
+                .addValue("contentType", contentType)
+                .addValue("size", size)
+                .addValue("sha256", sha256)
+                .addValue("createdAt", Timestamp.from(now));
+
+        shards.forUser(userId).update(sql, params, keyHolder, new String[]{"id"});
+        Number key = keyHolder.getKey();
+        if (key == null) {
+            throw new DataIntegrityViolationException("Failed to retrieve generated key for attachment");
+        }
+        return new Attachment(key.longValue(), referenceId, userId, name, contentType, size, sha256, now);
+    }
+
+    public boolean delete(Long userId, Long id) {
+        return shards.forUser(userId).update("DELETE FROM gtd.reference_attachments WHERE id = :id",
+                new MapSqlParameterSource("id", id)) > 0;
+    }
+
+    public int deleteByReferenceId(Long userId, Long referenceId) {
+        return shards.forUser(userId).update("DELETE FROM gtd.reference_attachments WHERE reference_id = :referenceId",
+                new MapSqlParameterSource("referenceId", referenceId));
+    }
+
+    /**
+     * Whether any attachment on any shard still uses the file with this hash.
+     */
+    public boolean isBlobInUse(String sha256) {
+        return shards.queryFirst("SELECT 1 FROM gtd.reference_attachments WHERE sha256 = :sha256",
+                new MapSqlParameterSource("sha256", sha256), (rs, _rowNum) -> rs.getInt(1)).isPresent();
+    }
+
+    /**
+     * Runs {@code action} in a new transaction on the primary while holding the lock row
+     * of the file with this hash, so that an upload keeping the file and recording its
+     * attachment and a release checking {@link #isBlobInUse} and deleting the file take
+     * turns. Hashes share 256 lock rows, one per leading byte, created on first use.
+     */
+    public <T> T withBlobLock(String sha256, Supplier<T> action) {
+        NamedParameterJdbcTemplate jdbc = shards.primary();
+        MapSqlParameterSource params = new MapSqlParameterSource("stripe", Integer.parseInt(sha256.substring(0, 2), 16));
+        TransactionTemplate transaction = shards.transactionTemplate(0);
+        // Also when called after another transaction's commit, whose connection is still bound
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Created apart from the locking transaction, so first users wait on the insert instead of deadlocking
+        transaction.executeWithoutResult(_status -> {
+            Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM gtd.blob_locks WHERE stripe = :stripe",
+                    params, Integer.class);
+            if (rows != null && rows == 0) {
+                try {
+                    jdbc.update("INSERT INTO gtd.blob_locks (stripe) VALUES (:stripe)", params);
+                } catch (DuplicateKeyException e) {
+                    logger.debug("Blob lock {} created concurrently", params.getValue("stripe"));
+                }
+            }
+        });
+        return transaction.execute(_status -> {
+            jdbc.queryForList("SELECT stripe FROM gtd.blob_locks WHERE stripe = :stripe FOR UPDATE", params, Integer.class);
+            return action.get();
+        });
+    }
+}
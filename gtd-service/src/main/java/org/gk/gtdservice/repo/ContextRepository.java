@@ -2,32 +2,35 @@ package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateContextDto;
 import org.gk.gtdservice.model.Context;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class ContextRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(ContextRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public ContextRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public ContextRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
     private final RowMapper<Context> mapper = (rs, _rowNum) -> new Context(
@@ -41,23 +44,38 @@ public class ContextRepository {
 
     public List<Context> findAll() {
         logger.info("Finding all contexts");
-        List<Context> contexts = jdbc.query("SELECT id, user_id, name, description, is_location, created_at FROM gtd.contexts", Collections.emptyMap(), mapper);
+        List<Context> contexts = shards.queryAll("SELECT id, user_id, name, description, is_location, created_at FROM gtd.contexts", Collections.emptyMap(), mapper);
         logger.debug("Found {} contexts", contexts.size());
         return contexts;
     }
 
     public List<Context> findByUserId(Long userId) {
         logger.info("Finding contexts by userId: {}", userId);
-        List<Context> contexts = jdbc.query("SELECT id, user_id, name, description, is_location, created_at FROM gtd.contexts WHERE user_id = :user_id", Map.of("user_id", userId), mapper);
+        List<Context> contexts = shards.forUser(userId).query("SELECT id, user_id, name, description, is_location, created_at FROM gtd.contexts WHERE user_id = :user_id", Map.of("user_id", userId), mapper);
         logger.debug("Found {} contexts for userId: {}", contexts.size(), userId);
         return contexts;
     }
 
+    /**
+     * The subset of {@code ids} that are contexts owned by the user, in one query.
+     */
+    public Set<Long> findOwnedIds(Long userId, Collection<Long> ids) {
+        logger.info("Finding contexts owned by userId: {} among {} ids", userId, ids.size());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> found = shards.forUser(userId).queryForList(
+                "SELECT id FROM gtd.contexts WHERE user_id = :user_id AND id IN (:ids)",
+                new MapSqlParameterSource().addValue("user_id", userId).addValue("ids", ids),
+                Long.class
+        );
+        return new HashSet<>(found);
+    }
+
     public Optional<Context> findById(Long id) {
         logger.info("Finding context by id: {}", id);
         Map<String, Object> params = Map.of("id", id);
-        List<Context> l = jdbc.query("SELECT id, user_id, name, description, is_location, created_at FROM gtd.contexts WHERE id = :id", params, mapper);
-        Optional<Context> result = l.stream().findFirst();
+        Optional<Context> result = shards.queryFirst("SELECT id, user_id, name, description, is_location, created_at FROM gtd.contexts WHERE id = :id", params, mapper);
         if (result.isPresent()) {
             logger.debug("Found context with id: {}", id);
         } else {
@@ -76,7 +94,7 @@ public class ContextRepository {
                 .addValue("description", dto.description())
                 .addValue("is_location", dto.isLocation())
                 .addValue("created_at", Timestamp.from(Instant.now()));
-        jdbc.update(sql, params, keyHolder, new String[]{"id"});
+        shards.forUser(dto.userId()).update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
         Long id = key != null ? key.longValue() : null;
         logger.info("Created context with id: {}", id);
@@ -92,7 +110,7 @@ public class ContextRepository {
                 .addValue("description", dto.description())
                 .addValue("is_location", dto.isLocation())
                 .addValue("id", id);
-        int updated = jdbc.update(sql, params);
+        int updated = shards.forUser(dto.userId()).update(sql, params);
         if (updated == 0) {
             logger.warn("No context updated for id: {}", id);
             return null;
@@ -103,7 +121,7 @@ public class ContextRepository {
 
     public boolean delete(Long id) {
         logger.info("Deleting context with id: {}", id);
-        int updated = jdbc.update("DELETE FROM gtd.contexts WHERE id = :id", Map.of("id", id));
+        int updated = shards.updateAll("DELETE FROM gtd.contexts WHERE id = :id", Map.of("id", id));
         boolean deleted = updated > 0;
         if (deleted) {
             logger.info("Deleted context with id: {}", id);
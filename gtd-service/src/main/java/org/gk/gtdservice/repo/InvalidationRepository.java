@@ -0,0 +1,90 @@
+package org.gk.gtdservice.repo;
+
+import org.gk.gtdservice.invalidation.Invalidation;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code gtd.invalidations} on the primary shard: cache invalidations every node
+ * appends and every other node polls for. Rows are only kept long enough for all nodes
+ * to have read them.
+ */
+@Repository
+public class InvalidationRepository {
+
+    private final ShardedJdbc shards;
+
+    public InvalidationRepository(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * @param nodeId the node that published the invalidations
+     */
+    public record StoredInvalidation(long id, long nodeId, Invalidation invalidation) {
+    }
+
+    private final RowMapper<StoredInvalidation> mapper = (rs, _rowNum) -> new StoredInvalidation(
+            rs.getLong("id"),
+            rs.getLong("node_id"),
+            new Invalidation(Invalidation.Type.fromCode(rs.getShort("entity_type")), rs.getLong("user_id"),
+                    rs.getLong("version"))
+    );
+
+    public void append(long nodeId, List<Invalidation> batch) {
+        Timestamp now = Timestamp.from(Instant.now());
+        SqlParameterSource[] params = batch.stream()
+                .map(invalidation -> new MapSqlParameterSource()
+                        .addValue("node_id", nodeId)
+                        .addValue("entity_type", invalidation.type().code())
+                        .addValue("user_id", invalidation.userId())
+                        .addValue("version", invalidation.version())
+                        .addValue("created_at", now))
+                .toArray(SqlParameterSource[]::new);
+        shards.primary().batchUpdate(
+                "INSERT INTO gtd.invalidations (node_id, entity_type, user_id, version, created_at) " +
+                "VALUES (:node_id, :entity_type, :user_id, :version, :created_at)",
+                params);
+    }
+
+    public List<StoredInvalidation> findAfter(long afterId, int limit) {
+        return shards.primary().query(
+                "SELECT id, node_id, entity_type, user_id, version FROM gtd.invalidations " +
+                "WHERE id > :after ORDER BY id LIMIT :limit",
+                Map.of("after", afterId, "limit", limit),
+                mapper);
+    }
+
+    public List<StoredInvalidation> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return shards.primary().query(
+                "SELECT id, node_id, entity_type, user_id, version FROM gtd.invalidations WHERE id IN (:ids)",
+                Map.of("ids", ids),
+                mapper);
+    }
+
+    public long maxId() {
+        Long max = shards.primary().queryForObject("SELECT MAX(id) FROM gtd.invalidations", Map.of(), Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Deletes rows created before {@code cutoff}, except the one with the highest id.
+     */
+    public int deleteOlderThan(Instant cutoff) {
+        // MySQL cannot select from the table a DELETE targets, so the newest id is read first
+        return shards.primary().update("DELETE FROM gtd.invalidations WHERE created_at < :cutoff AND id < :max_id",
+                Map.of("cutoff", Timestamp.from(cutoff), "max_id", maxId()));
+    }
+}
@@ -0,0 +1,112 @@
+package org.gk.gtdservice.repo;
+
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-user task counts by status in {@code gtd.user_list_counters}, kept in step with
+ * {@code gtd.tasks} by {@link TaskRepository} inside the same transaction so badge
+ * counts never have to load or scan a list.
+ */
+@Repository
+public class ListCounterRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListCounterRepository.class);
+
+    private final ShardedJdbc shards;
+
+    public ListCounterRepository(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    public Map<TaskStatus, Long> findByUserId(Long userId) {
+        logger.info("Finding list counts for userId: {}", userId);
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        shards.forUser(userId).query(
+                "SELECT status, task_count FROM gtd.user_list_counters WHERE user_id = :user_id",
+                Map.of("user_id", userId),
+                rs -> {
+                    counts.put(TaskStatus.fromCode(rs.getShort("status")), rs.getLong("task_count"));
+                }
+        );
+        return counts;
+    }
+
+    /**
+     * Adds {@code delta} to the user's count for {@code status} on the given shard,
+     * creating the row on first use.
+     */
+    void adjust(NamedParameterJdbcTemplate jdbc, Long userId, TaskStatus status, long delta) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("user_id", userId)
+                .addValue("status", status.code())
+                .addValue("delta", delta);
+        String update = "UPDATE gtd.user_list_counters SET task_count = task_count + :delta " +
+                        "WHERE user_id = :user_id AND status = :status";
+        if (jdbc.update(update, params) > 0) {
+            return;
+        }
+        try {
+            jdbc.update("INSERT INTO gtd.user_list_counters (user_id, status, task_count) " +
+                        "VALUES (:user_id, :status, :delta)", params);
+        } catch (DuplicateKeyException e) {
+            // Another transaction created the row first
+            jdbc.update(update, params);
+        }
+    }
+
+    /**
+     * Applies several deltas for one user, one statement per status that actually
+     * changed, as bulk operations net out moves between the same lists.
+     */
+    void adjustAll(NamedParameterJdbcTemplate jdbc, Long userId, Map<TaskStatus, Long> deltas) {
+        deltas.forEach((status, delta) -> {
+            if (delta != 0) {
+                adjust(jdbc, userId, status, delta);
+            }
+        });
+    }
+
+    /**
+     * Recomputes every counter on a shard from {@code gtd.tasks}, in one transaction so
+     * that the table is never seen empty and a counter row that {@link #adjust} creates
+     * concurrently cannot land between the delete and the insert.
+     *
+     * @return the number of counter rows written
+     */
+    public int rebuild(int shard) {
+        NamedParameterJdbcTemplate jdbc = shards.forShard(shard);
+        Integer rows = shards.transactionTemplate(shard).execute(_status -> {
+            jdbc.update("DELETE FROM gtd.user_list_counters", Collections.emptyMap());
+            return jdbc.update(
+                    "INSERT INTO gtd.user_list_counters (user_id, status, task_count) " +
+                    "SELECT user_id, status, COUNT(*) FROM gtd.tasks GROUP BY user_id, status",
+                    Collections.emptyMap());
+        });
+        int written = rows != null ? rows : 0;
+        logger.info("Rebuilt {} list counters on shard {}", written, shard);
+        return written;
+    }
+
+    /**
+     * Counters are missing when the table was added to a database that already had
+     * tasks, or when a shard was restored from a tasks-only backup.
+     */
+    public boolean needsRebuild(int shard) {
+        NamedParameterJdbcTemplate jdbc = shards.forShard(shard);
+        Long counted = jdbc.queryForObject(
+                "SELECT COALESCE(SUM(task_count), 0) FROM gtd.user_list_counters", Collections.emptyMap(), Long.class);
+        Long tasks = jdbc.queryForObject("SELECT COUNT(*) FROM gtd.tasks", Collections.emptyMap(), Long.class);
+        return counted == null || !counted.equals(tasks);
+    }
+}
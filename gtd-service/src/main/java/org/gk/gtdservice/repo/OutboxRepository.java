@@ -0,0 +1,78 @@
+package org.gk.gtdservice.repo;
+
+import org.gk.gtdservice.model.OutboxEvent;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code gtd.outbox} lives on every shard; a user's events are written to the user's
+ * shard so they commit atomically with the change they describe.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRepository.class);
+
+    private final ShardedJdbc shards;
+
+    public OutboxRepository(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    private final RowMapper<OutboxEvent> mapper = (rs, _rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getObject("aggregate_id", Long.class),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant()
+    );
+
+    public void append(Long userId, Long aggregateId, String eventType, String payload) {
+        logger.debug("Appending {} for userId: {}", eventType, userId);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("user_id", userId)
+                .addValue("aggregate_id", aggregateId)
+                .addValue("event_type", eventType)
+                .addValue("payload", payload)
+                .addValue("created_at", Timestamp.from(Instant.now()));
+        shards.forUser(userId).update(
+                "INSERT INTO gtd.outbox (user_id, aggregate_id, event_type, payload, created_at) " +
+                "VALUES (:user_id, :aggregate_id, :event_type, :payload, :created_at)",
+                params);
+    }
+
+    /**
+     * Oldest unpublished events on a shard, locked until the surrounding transaction ends
+     * so a second relay cannot publish them concurrently.
+     */
+    public List<OutboxEvent> lockBatch(int shard, int limit) {
+        return shards.forShard(shard).query(
+                "SELECT id, user_id, aggregate_id, event_type, payload, created_at FROM gtd.outbox " +
+                "ORDER BY id LIMIT :limit FOR UPDATE",
+                Map.of("limit", limit),
+                mapper
+        );
+    }
+
+    public int delete(int shard, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return shards.forShard(shard).update("DELETE FROM gtd.outbox WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+
+    public int countPending(int shard) {
+        Integer count = shards.forShard(shard).queryForObject("SELECT COUNT(*) FROM gtd.outbox", Map.of(), Integer.class);
+        return count != null ? count : 0;
+    }
+}
@@ -1,107 +1,153 @@
 package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.ProjectProperty;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public class ProjectRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public ProjectRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public ProjectRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
-    private final RowMapper<Project> mapper = (rs, _rowNum) -> {
-        var areaId = rs.getObject("area_id", Long.class);
-        var dueDate = rs.getDate("due_date");
-        var completedAt = rs.getTimestamp("completed_at");
+    private static final Fieldset<ProjectProperty> ALL = Fieldset.all(ProjectProperty.class);
+
+    private final RowMapper<Project> mapper = (rs, _rowNum) -> map(rs, ALL);
+
+    /**
+     * Reads the project's selected columns; the others are {@code null}.
+     */
+    private static Project map(ResultSet rs, Fieldset<ProjectProperty> fields) throws SQLException {
+        Date dueDate = fields.contains(ProjectProperty.DUE_DATE) ? rs.getDate("due_date") : null;
+        Timestamp createdAt = fields.contains(ProjectProperty.CREATED_AT) ? rs.getTimestamp("created_at") : null;
+        Timestamp completedAt = fields.contains(ProjectProperty.COMPLETED_AT) ? rs.getTimestamp("completed_at") : null;
         return new Project(
-                rs.getLong("id"),
-                rs.getLong("user_id"),
-                areaId,
-                rs.getString("title"),
-                rs.getString("outcome"),
-                rs.getString("notes"),
-                rs.getString("status"),
+                fields.contains(ProjectProperty.ID) ? rs.getLong("id") : null,
+                fields.contains(ProjectProperty.USER_ID) ? rs.getLong("user_id") : null,
+                fields.contains(ProjectProperty.AREA_ID) ? rs.getObject("area_id", Long.class) : null,
+                fields.contains(ProjectProperty.TITLE) ? rs.getString("title") : null,
+                fields.contains(ProjectProperty.OUTCOME) ? rs.getString("outcome") : null,
+                fields.contains(ProjectProperty.NOTES) ? rs.getString("notes") : null,
+                fields.contains(ProjectProperty.STATUS) ? ProjectStatus.fromCode(rs.getShort("status")) : null,
                 dueDate != null ? dueDate.toLocalDate() : null,
-                rs.getTimestamp("created_at").toInstant(),
+                createdAt != null ? createdAt.toInstant() : null,
                 completedAt != null ? completedAt.toInstant() : null
         );
-    };
+    }
 
     public List<Project> findAll() {
+        return findAll(ALL);
+    }
+
+    public List<Project> findAll(Fieldset<ProjectProperty> fields) {
         logger.info("Finding all projects");
-        List<Project> projects = jdbc.query(
-                "SELECT id, user_id, area_id, title, outcome, notes, status, due_date, created_at, completed_at FROM gtd.projects",
+        List<Project> projects = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.projects",
                 Collections.emptyMap(),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} projects", projects.size());
         return projects;
     }
 
     public List<Project> findByUserId(Long userId) {
+        return findByUserId(userId, ALL);
+    }
+
+    public List<Project> findByUserId(Long userId, Fieldset<ProjectProperty> fields) {
         logger.info("Finding projects by userId: {}", userId);
-        List<Project> projects = jdbc.query(
-                "SELECT id, user_id, area_id, title, outcome, notes, status, due_date, created_at, completed_at FROM gtd.projects WHERE user_id = :user_id",
+        List<Project> projects = shards.forUser(userId).query(
+                "SELECT " + fields.columns() + " FROM gtd.projects WHERE user_id = :user_id",
                 Map.of("user_id", userId),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} projects for userId: {}", projects.size(), userId);
         return projects;
     }
 
     public List<Project> findByAreaId(Long areaId) {
+        return findByAreaId(areaId, ALL);
+    }
+
+    public List<Project> findByAreaId(Long areaId, Fieldset<ProjectProperty> fields) {
         logger.info("Finding projects by areaId: {}", areaId);
-        List<Project> projects = jdbc.query(
-                "SELECT id, user_id, area_id, title, outcome, notes, status, due_date, created_at, completed_at FROM gtd.projects WHERE area_id = :area_id",
+        List<Project> projects = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.projects WHERE area_id = :area_id",
                 Map.of("area_id", areaId),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} projects for areaId: {}", projects.size(), areaId);
         return projects;
     }
 
-    public List<Project> findByStatus(String status) {
+    public List<Project> findByStatus(ProjectStatus status) {
+        return findByStatus(status, ALL);
+    }
+
+    public List<Project> findByStatus(ProjectStatus status, Fieldset<ProjectProperty> fields) {
         logger.info("Finding projects by status: {}", status);
-        List<Project> projects = jdbc.query(
-                "SELECT id, user_id, area_id, title, outcome, notes, status, due_date, created_at, completed_at FROM gtd.projects WHERE status = :status",
-                Map.of("status", status),
-                mapper
+        List<Project> projects = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.projects WHERE status = :status",
+                Map.of("status", status.code()),
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} projects with status: {}", projects.size(), status);
         return projects;
     }
 
+    /**
+     * The subset of {@code ids} that are projects owned by the user, in one query.
+     */
+    public Set<Long> findOwnedIds(Long userId, Collection<Long> ids) {
+        logger.info("Finding projects owned by userId: {} among {} ids", userId, ids.size());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> found = shards.forUser(userId).queryForList(
+                "SELECT id FROM gtd.projects WHERE user_id = :user_id AND id IN (:ids)",
+                new MapSqlParameterSource().addValue("user_id", userId).addValue("ids", ids),
+                Long.class
+        );
+        return new HashSet<>(found);
+    }
+
     public Optional<Project> findById(Long id) {
         logger.info("Finding project by id: {}", id);
         Map<String, Object> params = Map.of("id", id);
-        List<Project> l = jdbc.query(
+        Optional<Project> result = shards.queryFirst(
                 "SELECT id, user_id, area_id, title, outcome, notes, status, due_date, created_at, completed_at FROM gtd.projects WHERE id = :id",
                 params,
                 mapper
         );
-        Optional<Project> result = l.stream().findFirst();
         if (result.isPresent()) {
             logger.debug("Found project with id: {}", id);
         } else {
@@ -121,10 +167,10 @@ public class ProjectRepository {
                 .addValue("title", dto.title())
                 .addValue("outcome", dto.outcome())
                 .addValue("notes", dto.notes())
-                .addValue("status", dto.status())
+                .addValue("status", dto.status().code())
                 .addValue("due_date", dto.dueDate() != null ? Date.valueOf(dto.dueDate()) : null)
                 .addValue("created_at", Timestamp.from(Instant.now()));
-        jdbc.update(sql, params, keyHolder, new String[]{"id"});
+        shards.forUser(dto.userId()).update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
         Long id = key != null ? key.longValue() : null;
         logger.info("Created project with id: {}", id);
@@ -140,15 +186,15 @@ public class ProjectRepository {
         if (existing.isPresent()) {
             Project currentProject = existing.get();
             // If status is changing to 'completed', set completed_at
-            if ("completed".equals(dto.status()) && !"completed".equals(currentProject.status())) {
+            if (dto.status() == ProjectStatus.COMPLETED && currentProject.status() != ProjectStatus.COMPLETED) {
                 completedAt = Instant.now();
             }
             // If status is changing from 'completed' to something else, clear completed_at
-            else if (!"completed".equals(dto.status()) && "completed".equals(currentProject.status())) {
+            else if (dto.status() != ProjectStatus.COMPLETED && currentProject.status() == ProjectStatus.COMPLETED) {
                 completedAt = null; // Will be handled by SQL
             }
             // If already completed and staying completed, keep the old timestamp
-            else if ("completed".equals(dto.status()) && "completed".equals(currentProject.status())) {
+            else if (dto.status() == ProjectStatus.COMPLETED && currentProject.status() == ProjectStatus.COMPLETED) {
                 completedAt = currentProject.completedAt();
             }
         }
@@ -162,11 +208,11 @@ public class ProjectRepository {
                 .addValue("title", dto.title())
                 .addValue("outcome", dto.outcome())
                 .addValue("notes", dto.notes())
-                .addValue("status", dto.status())
+                .addValue("status", dto.status().code())
                 .addValue("due_date", dto.dueDate() != null ? Date.valueOf(dto.dueDate()) : null)
                 .addValue("completed_at", completedAt != null ? Timestamp.from(completedAt) : null)
                 .addValue("id", id);
-        int updated = jdbc.update(sql, params);
+        int updated = shards.forUser(dto.userId()).update(sql, params);
         if (updated == 0) {
             logger.warn("No project updated for id: {}", id);
             return null;
@@ -177,7 +223,7 @@ public class ProjectRepository {
 
     public boolean delete(Long id) {
         logger.info("Deleting project with id: {}", id);
-        int updated = jdbc.update("DELETE FROM gtd.projects WHERE id = :id", Map.of("id", id));
+        int updated = shards.updateAll("DELETE FROM gtd.projects WHERE id = :id", Map.of("id", id));
         boolean deleted = updated > 0;
         if (deleted) {
             logger.info("Deleted project with id: {}", id);
@@ -0,0 +1,135 @@
+package org.gk.gtdservice.repo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fractional ordering keys for tasks. A key is a base-36 fraction written with the
+ * digits {@code 0-9a-z} (no upper case, so case-insensitive collations sort them
+ * the same as Java does) and never ends in {@code 0}, which guarantees there is
+ * always room for another key before, after or between any two keys.
+ * <p>
+ * Fresh keys use {@link #LENGTH} digits over the lower half of the key space, so
+ * appends are a fixed increment at that length and inserts between neighbours halve
+ * the gap; keys only grow once the same gap has been split many times, at which
+ * point {@link #needsRebalance} tells the caller to respace the list.
+ */
+public final class RankKeys {
+
+    static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    /** Digits in a key written by {@link #spread} or {@link #after}. */
+    static final int LENGTH = 6;
+
+    /** Keys longer than this get the owner's list respaced in the background. */
+    static final int REBALANCE_LENGTH = 12;
+
+    private static final int BASE = DIGITS.length();
+    private static final long SPACE = pow(BASE, LENGTH);
+    private static final long APPEND_STEP = pow(BASE, 2);
+
+    private RankKeys() {
+    }
+
+    public static boolean needsRebalance(String key) {
+        return key.length() > REBALANCE_LENGTH;
+    }
+
+    /**
+     * A key strictly between {@code lower} and {@code upper}; {@code null} stands for
+     * the start or the end of the list.
+     */
+    public static String between(String lower, String upper) {
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Rank key " + lower + " is not below " + upper);
+        }
+        if (upper == null) {
+            return after(lower);
+        }
+        return midpoint(lower != null ? lower : "", upper);
+    }
+
+    /**
+     * {@code count} evenly spaced keys in ascending order, leaving the upper half of
+     * the key space free for appends.
+     */
+    public static List<String> spread(int count) {
+        List<String> keys = new ArrayList<>(count);
+        long step = (SPACE / 2) / (count + 1L);
+        if (step == 0) {
+            throw new IllegalArgumentException("Too many keys to spread: " + count);
+        }
+        for (int i = 1; i <= count; i++) {
+            keys.add(encode(step * i));
+        }
+        return keys;
+    }
+
+    static String after(String lower) {
+        if (lower == null) {
+            return spread(1).get(0);
+        }
+        long next = decodePrefix(lower) + APPEND_STEP;
+        // At the end of the key space: fall back to halving towards the end, which grows the key
+        return next < SPACE ? encode(next) : midpoint(lower, null);
+    }
+
+    /**
+     * Midpoint of two keys, following the classic fractional indexing construction:
+     * copy the common prefix, then pick a digit between the first differing digits,
+     * or descend one level when they are adjacent.
+     */
+    private static String midpoint(String lower, String upper) {
+        if (upper != null) {
+            int n = 0;
+            while (n < upper.length() && digitAt(lower, n) == upper.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return upper.substring(0, n) + midpoint(lower.length() > n ? lower.substring(n) : "", upper.substring(n));
+            }
+        }
+        int digitLower = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        int digitUpper = upper != null ? DIGITS.indexOf(upper.charAt(0)) : BASE;
+        if (digitUpper - digitLower > 1) {
+            return String.valueOf(DIGITS.charAt((digitLower + digitUpper + 1) / 2));
+        }
+        if (upper != null && upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(digitLower) + midpoint(lower.isEmpty() ? "" : lower.substring(1), null);
+    }
+
+    private static char digitAt(String key, int index) {
+        return index < key.length() ? key.charAt(index) : DIGITS.charAt(0);
+    }
+
+    private static long decodePrefix(String key) {
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            value = value * BASE + DIGITS.indexOf(digitAt(key, i));
+        }
+        return value;
+    }
+
+    private static String encode(long value) {
+        char[] digits = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int end = LENGTH;
+        while (end > 1 && digits[end - 1] == DIGITS.charAt(0)) {
+            end--;
+        }
+        return new String(digits, 0, end);
+    }
+
+    private static long pow(int base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
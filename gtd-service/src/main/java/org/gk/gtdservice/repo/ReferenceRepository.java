@@ -1,75 +1,145 @@
 package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.ReferenceProperty;
 import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.ReferenceBody;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
 public class ReferenceRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(ReferenceRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public ReferenceRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public ReferenceRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
-    private final RowMapper<Reference> mapper = (rs, _rowNum) -> new Reference(
-            rs.getLong("id"),
-            rs.getLong("user_id"),
-            rs.getString("title"),
-            rs.getString("body"),
-            rs.getString("url"),
-            rs.getString("file_hint"),
-            rs.getTimestamp("created_at").toInstant()
-    );
+    private static final Fieldset<ReferenceProperty> ALL = Fieldset.all(ReferenceProperty.class);
+
+    private static final int INLINE_BODY_BATCH = 100;
+
+    /**
+     * Reads the reference's selected columns; the others are {@code null}. The body is
+     * never part of a list row.
+     */
+    private static Reference map(ResultSet rs, Fieldset<ReferenceProperty> fields) throws SQLException {
+        return map(rs, fields, null);
+    }
+
+    private static Reference map(ResultSet rs, Fieldset<ReferenceProperty> fields, String body) throws SQLException {
+        return new Reference(
+                fields.contains(ReferenceProperty.ID) ? rs.getLong("id") : null,
+                fields.contains(ReferenceProperty.USER_ID) ? rs.getLong("user_id") : null,
+                fields.contains(ReferenceProperty.TITLE) ? rs.getString("title") : null,
+                body,
+                fields.contains(ReferenceProperty.SNIPPET) ? rs.getString("snippet") : null,
+                fields.contains(ReferenceProperty.BODY_SIZE) ? rs.getObject("body_size", Integer.class) : null,
+                fields.contains(ReferenceProperty.URL) ? rs.getString("url") : null,
+                fields.contains(ReferenceProperty.FILE_HINT) ? rs.getString("file_hint") : null,
+                fields.contains(ReferenceProperty.CREATED_AT) ? rs.getTimestamp("created_at").toInstant() : null
+        );
+    }
+
+    /**
+     * Maps a row of {@link #WITH_BODY}: {@code content} is {@code null} for a reference
+     * without a body.
+     */
+    private static ReferenceBody body(ResultSet rs) throws SQLException {
+        byte[] content = rs.getBytes("content");
+        return content != null ? new ReferenceBody(rs.getString("body_hash"), rs.getInt("body_size"), content) : null;
+    }
+
+    private static final String WITH_BODY = """
+            SELECT r.*, b.content FROM gtd.references_store r
+            LEFT JOIN gtd.reference_bodies b ON b.user_id = r.user_id AND b.hash = r.body_hash
+            WHERE r.id = :id
+            """;
 
     public List<Reference> findAll() {
+        return findAll(ALL);
+    }
+
+    public List<Reference> findAll(Fieldset<ReferenceProperty> fields) {
         logger.debug("Finding all references");
-        return jdbc.query("SELECT * FROM gtd.references_store ORDER BY created_at DESC", mapper);
+        return shards.queryAll("SELECT " + fields.columns() + " FROM gtd.references_store ORDER BY created_at DESC",
+                Collections.emptyMap(), (rs, _rowNum) -> map(rs, fields));
     }
 
     public List<Reference> findByUserId(Long userId) {
+        return findByUserId(userId, ALL);
+    }
+
+    public List<Reference> findByUserId(Long userId, Fieldset<ReferenceProperty> fields) {
         logger.debug("Finding references for user: {}", userId);
-        return jdbc.query("SELECT * FROM gtd.references_store WHERE user_id = :userId ORDER BY created_at DESC",
-                new MapSqlParameterSource("userId", userId), mapper);
+        return shards.forUser(userId).query(
+                "SELECT " + fields.columns() + " FROM gtd.references_store WHERE user_id = :userId ORDER BY created_at DESC",
+                new MapSqlParameterSource("userId", userId), (rs, _rowNum) -> map(rs, fields));
     }
 
     public Optional<Reference> findById(Long id) {
         logger.debug("Finding reference by id: {}", id);
-        var list = jdbc.query("SELECT * FROM gtd.references_store WHERE id = :id",
-                new MapSqlParameterSource("id", id), mapper);
-        return list.isEmpty() ? Optional.empty() : Optional.of(list.get(0));
+        return shards.queryFirst(WITH_BODY, new MapSqlParameterSource("id", id), (rs, _rowNum) -> {
+            ReferenceBody body = body(rs);
+            return map(rs, ALL, body != null ? body.text() : null);
+        });
+    }
+
+    /**
+     * The owner of a reference, without reading the rest of it.
+     */
+    public Optional<Long> findUserId(Long id) {
+        return shards.queryFirst("SELECT user_id FROM gtd.references_store WHERE id = :id",
+                new MapSqlParameterSource("id", id), (rs, _rowNum) -> rs.getLong("user_id"));
+    }
+
+    /**
+     * The stored body of a reference, still compressed; {@link ReferenceBody#EMPTY} when the
+     * reference has none.
+     */
+    public Optional<ReferenceBody> findBody(Long id) {
+        logger.debug("Finding body of reference: {}", id);
+        return shards.queryFirst(WITH_BODY, new MapSqlParameterSource("id", id), (rs, _rowNum) -> {
+            ReferenceBody body = body(rs);
+            return body != null ? body : ReferenceBody.EMPTY;
+        });
     }
 
     public Reference create(CreateReferenceDto dto) {
         logger.debug("Creating reference: {}", dto);
         String sql = """
-                INSERT INTO gtd.references_store (user_id, title, body, url, file_hint, created_at)
-                VALUES (:userId, :title, :body, :url, :fileHint, :createdAt)
+                INSERT INTO gtd.references_store (user_id, title, body_hash, body_size, snippet, url, file_hint, created_at)
+                VALUES (:userId, :title, :bodyHash, :bodySize, :snippet, :url, :fileHint, :createdAt)
                 """;
+        NamedParameterJdbcTemplate jdbc = shards.forUser(dto.userId());
+        ReferenceBody body = storeBody(jdbc, dto.userId(), dto.body());
         KeyHolder keyHolder = new GeneratedKeyHolder();
         Instant now = Instant.now();
-        MapSqlParameterSource params = new MapSqlParameterSource()
+        MapSqlParameterSource params = bodyParams(dto, body)
                 .addValue("userId", dto.userId())
-                .addValue("title", dto.title())
-                .addValue("body", dto.body())
-                .addValue("url", dto.url())
-                .addValue("fileHint", dto.fileHint())
-                .addValue("createdAt", java.sql.Timestamp.from(now));
+                .addValue("createdAt", Timestamp.from(now));
 
         jdbc.update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
@@ -77,33 +147,199 @@ public class ReferenceRepository {
             throw new DataIntegrityViolationException("Failed to retrieve generated key for reference");
         }
         Long id = key.longValue();
-        return new Reference(id, dto.userId(), dto.title(), dto.body(), dto.url(), dto.fileHint(), now);
+        return new Reference(id, dto.userId(), dto.title(), dto.body(), (String) params.getValue("snippet"),
+                body != null ? body.size() : null, dto.url(), dto.fileHint(), now);
     }
 
     public Optional<Reference> update(Long id, CreateReferenceDto dto) {
         logger.debug("Updating reference id: {} with {}", id, dto);
+        // Route by the current owner: the row is on their shard, not necessarily on the new owner's
+        Optional<Long> owner = findUserId(id);
+        if (owner.isEmpty()) {
+            return Optional.empty();
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(owner.get());
+        List<StoredRef> current = jdbc.query("SELECT user_id, body_hash FROM gtd.references_store WHERE id = :id FOR UPDATE",
+                new MapSqlParameterSource("id", id),
+                (rs, _rowNum) -> new StoredRef(rs.getLong("user_id"), rs.getString("body_hash")));
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        StoredRef stored = current.get(0);
+        NamedParameterJdbcTemplate target = shards.forUser(dto.userId());
+        if (target != jdbc) {
+            return moveToShard(id, dto, stored, jdbc, target);
+        }
         String sql = """
                 UPDATE gtd.references_store
-                SET title = :title, body = :body, url = :url, file_hint = :fileHint
+                SET user_id = :userId, title = :title, body_hash = :bodyHash, body_size = :bodySize, snippet = :snippet,
+                    url = :url, file_hint = :fileHint
                 WHERE id = :id
                 """;
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("id", id)
-                .addValue("title", dto.title())
-                .addValue("body", dto.body())
-                .addValue("url", dto.url())
-                .addValue("fileHint", dto.fileHint());
-
-        int updated = jdbc.update(sql, params);
+        ReferenceBody body = storeBody(jdbc, dto.userId(), dto.body());
+        int updated = jdbc.update(sql, bodyParams(dto, body).addValue("userId", dto.userId()).addValue("id", id));
         if (updated == 0) {
             return Optional.empty();
         }
+        boolean ownerChanged = !dto.userId().equals(stored.userId());
+        if (ownerChanged) {
+            jdbc.update("UPDATE gtd.reference_attachments SET user_id = :userId WHERE reference_id = :id",
+                    new MapSqlParameterSource().addValue("userId", dto.userId()).addValue("id", id));
+        }
+        if (ownerChanged || body == null || !body.hash().equals(stored.bodyHash())) {
+            releaseBody(jdbc, stored.userId(), stored.bodyHash());
+        }
         // Fetch the updated record to return it with correct created_at
         return findById(id);
     }
 
+    /**
+     * Hands a reference to an owner on another shard: the row and its attachments are
+     * written there with the same ids and deleted here, and the body is stored under the
+     * new owner. The copy is written first, so a failure in between leaves a duplicate,
+     * never a loss.
+     */
+    private Optional<Reference> moveToShard(Long id, CreateReferenceDto dto, StoredRef stored,
+                                            NamedParameterJdbcTemplate source, NamedParameterJdbcTemplate target) {
+        logger.info("Moving reference id: {} from user {} to user {} on another shard", id, stored.userId(), dto.userId());
+        MapSqlParameterSource key = new MapSqlParameterSource("id", id);
+        Timestamp createdAt = source.queryForObject("SELECT created_at FROM gtd.references_store WHERE id = :id",
+                key, Timestamp.class);
+        ReferenceBody body = storeBody(target, dto.userId(), dto.body());
+        target.update("""
+                INSERT INTO gtd.references_store (id, user_id, title, body_hash, body_size, snippet, url, file_hint, created_at)
+                VALUES (:id, :userId, :title, :bodyHash, :bodySize, :snippet, :url, :fileHint, :createdAt)
+                """, bodyParams(dto, body)
+                .addValue("id", id)
+                .addValue("userId", dto.userId())
+                .addValue("createdAt", createdAt));
+        for (Map<String, Object> attachment : source.queryForList(
+                "SELECT * FROM gtd.reference_attachments WHERE reference_id = :id", key)) {
+            attachment.put("user_id", dto.userId());
+            List<String> columns = List.copyOf(attachment.keySet());
+            target.update("INSERT INTO gtd.reference_attachments (" + String.join(", ", columns) + ") VALUES (" +
+                    columns.stream().map(c -> ":" + c).collect(Collectors.joining(", ")) + ")",
+                    new MapSqlParameterSource(attachment));
+        }
+        // Attachments go with the reference via ON DELETE CASCADE
+        source.update("DELETE FROM gtd.references_store WHERE id = :id", key);
+        releaseBody(source, stored.userId(), stored.bodyHash());
+        return findById(id);
+    }
+
     public boolean delete(Long id) {
+        Optional<StoredRef> stored = shards.queryFirst(
+                "SELECT user_id, body_hash FROM gtd.references_store WHERE id = :id", new MapSqlParameterSource("id", id),
+                (rs, _rowNum) -> new StoredRef(rs.getLong("user_id"), rs.getString("body_hash")));
+        if (stored.isEmpty()) {
+            return false;
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(stored.get().userId());
         int updated = jdbc.update("DELETE FROM gtd.references_store WHERE id = :id", new MapSqlParameterSource("id", id));
+        releaseBody(jdbc, stored.get().userId(), stored.get().bodyHash());
         return updated > 0;
     }
+
+    /**
+     * Moves the bodies of references on a shard that still hold them inline in the
+     * {@code body} column of databases created before bodies were stored apart, a batch
+     * of references at a time; each converted row's {@code body} is cleared.
+     *
+     * @return the number of bodies moved
+     */
+    public int moveInlineBodies(int shard) {
+        NamedParameterJdbcTemplate jdbc = shards.forShard(shard);
+        int moved = 0;
+        while (true) {
+            List<InlineBody> rows = jdbc.query(
+                    "SELECT id, user_id, body FROM gtd.references_store WHERE body IS NOT NULL ORDER BY id LIMIT "
+                            + INLINE_BODY_BATCH, Collections.emptyMap(),
+                    (rs, _rowNum) -> new InlineBody(rs.getLong("id"), rs.getLong("user_id"), rs.getString("body")));
+            for (InlineBody row : rows) {
+                ReferenceBody body = storeBody(jdbc, row.userId(), row.text());
+                jdbc.update("""
+                        UPDATE gtd.references_store
+                        SET body_hash = :bodyHash, body_size = :bodySize, snippet = :snippet, body = NULL
+                        WHERE id = :id
+                        """, new MapSqlParameterSource()
+                        .addValue("id", row.id())
+                        .addValue("bodyHash", body.hash())
+                        .addValue("bodySize", body.size())
+                        .addValue("snippet", ReferenceBody.snippet(row.text())));
+            }
+            moved += rows.size();
+            if (rows.size() < INLINE_BODY_BATCH) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            logger.info("Moved {} reference bodies to gtd.reference_bodies on shard {}", moved, shard);
+        }
+        return moved;
+    }
+
+    private record StoredRef(Long userId, String bodyHash) {
+    }
+
+    private record InlineBody(Long id, Long userId, String text) {
+    }
+
+    private static MapSqlParameterSource bodyParams(CreateReferenceDto dto, ReferenceBody body) {
+        return new MapSqlParameterSource()
+                .addValue("title", dto.title())
+                .addValue("bodyHash", body != null ? body.hash() : null)
+                .addValue("bodySize", body != null ? body.size() : null)
+                .addValue("snippet", dto.body() != null ? ReferenceBody.snippet(dto.body()) : null)
+                .addValue("url", dto.url())
+                .addValue("fileHint", dto.fileHint());
+    }
+
+    /**
+     * Stores {@code text} as a body of the user unless an identical one is already stored,
+     * in which case that one is locked until the caller's transaction ends, so that
+     * {@link #releaseBody} cannot delete it in between.
+     *
+     * @return the stored body, or {@code null} for a {@code null} text
+     */
+    private static ReferenceBody storeBody(NamedParameterJdbcTemplate jdbc, Long userId, String text) {
+        if (text == null) {
+            return null;
+        }
+        ReferenceBody body = ReferenceBody.of(text);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("hash", body.hash())
+                .addValue("rawSize", body.size())
+                .addValue("content", body.gzip());
+        // Lock the body before reusing it, or a concurrent release could delete it before our reference points at it
+        List<String> existing = jdbc.queryForList(
+                "SELECT hash FROM gtd.reference_bodies WHERE user_id = :userId AND hash = :hash FOR UPDATE", params, String.class);
+        if (!existing.isEmpty()) {
+            logger.debug("Body {} of user {} already stored", body.hash(), userId);
+            return body;
+        }
+        try {
+            jdbc.update("""
+                    INSERT INTO gtd.reference_bodies (user_id, hash, raw_size, content)
+                    VALUES (:userId, :hash, :rawSize, :content)
+                    """, params);
+        } catch (DuplicateKeyException e) {
+            logger.debug("Body {} of user {} stored concurrently", body.hash(), userId);
+        }
+        return body;
+    }
+
+    /**
+     * Deletes a body of the user once no reference points at it any more.
+     */
+    private static void releaseBody(NamedParameterJdbcTemplate jdbc, Long userId, String hash) {
+        if (hash == null) {
+            return;
+        }
+        jdbc.update("""
+                DELETE FROM gtd.reference_bodies
+                WHERE user_id = :userId AND hash = :hash
+                  AND NOT EXISTS (SELECT 1 FROM gtd.references_store WHERE user_id = :userId AND body_hash = :hash)
+                """, new MapSqlParameterSource().addValue("userId", userId).addValue("hash", hash));
+    }
 }
@@ -2,12 +2,12 @@ package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateTagDto;
 import org.gk.gtdservice.model.Tag;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
@@ -24,10 +24,10 @@ public class TagRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(TagRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public TagRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public TagRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
     private final RowMapper<Tag> mapper = (rs, _rowNum) -> new Tag(
@@ -39,14 +39,14 @@ public class TagRepository {
 
     public List<Tag> findAll() {
         logger.info("Finding all tags");
-        List<Tag> tags = jdbc.query("SELECT id, user_id, name, created_at FROM gtd.tags", Collections.emptyMap(), mapper);
+        List<Tag> tags = shards.queryAll("SELECT id, user_id, name, created_at FROM gtd.tags", Collections.emptyMap(), mapper);
         logger.debug("Found {} tags", tags.size());
         return tags;
     }
 
     public List<Tag> findByUserId(Long userId) {
         logger.info("Finding tags by userId: {}", userId);
-        List<Tag> tags = jdbc.query("SELECT id, user_id, name, created_at FROM gtd.tags WHERE user_id = :user_id", Map.of("user_id", userId), mapper);
+        List<Tag> tags = shards.forUser(userId).query("SELECT id, user_id, name, created_at FROM gtd.tags WHERE user_id = :user_id", Map.of("user_id", userId), mapper);
         logger.debug("Found {} tags for userId: {}", tags.size(), userId);
         return tags;
     }
@@ -54,8 +54,7 @@ public class TagRepository {
     public Optional<Tag> findById(Long id) {
         logger.info("Finding tag by id: {}", id);
         Map<String, Object> params = Map.of("id", id);
-        List<Tag> l = jdbc.query("SELECT id, user_id, name, created_at FROM gtd.tags WHERE id = :id", params, mapper);
-        Optional<Tag> result = l.stream().findFirst();
+        Optional<Tag> result = shards.queryFirst("SELECT id, user_id, name, created_at FROM gtd.tags WHERE id = :id", params, mapper);
         if (result.isPresent()) {
             logger.debug("Found tag with id: {}", id);
         } else {
@@ -72,7 +71,7 @@ public class TagRepository {
                 .addValue("user_id", dto.userId())
                 .addValue("name", dto.name())
                 .addValue("created_at", Timestamp.from(Instant.now()));
-        jdbc.update(sql, params, keyHolder, new String[]{"id"});
+        shards.forUser(dto.userId()).update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
         Long id = key != null ? key.longValue() : null;
         logger.info("Created tag with id: {}", id);
@@ -86,7 +85,7 @@ public class TagRepository {
                 .addValue("user_id", dto.userId())
                 .addValue("name", dto.name())
                 .addValue("id", id);
-        int updated = jdbc.update(sql, params);
+        int updated = shards.forUser(dto.userId()).update(sql, params);
         if (updated == 0) {
             logger.warn("No tag updated for id: {}", id);
             return null;
@@ -97,7 +96,7 @@ public class TagRepository {
 
     public boolean delete(Long id) {
         logger.info("Deleting tag with id: {}", id);
-        int updated = jdbc.update("DELETE FROM gtd.tags WHERE id = :id", Map.of("id", id));
+        int updated = shards.updateAll("DELETE FROM gtd.tags WHERE id = :id", Map.of("id", id));
         boolean deleted = updated > 0;
         if (deleted) {
             logger.info("Deleted tag with id: {}", id);
@@ -2,12 +2,12 @@ package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateTaskDependencyDto;
 import org.gk.gtdservice.model.TaskDependency;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collections;
@@ -20,10 +20,10 @@ public class TaskDependencyRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskDependencyRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public TaskDependencyRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public TaskDependencyRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
     private final RowMapper<TaskDependency> mapper = (rs, _rowNum) -> new TaskDependency(
@@ -33,7 +33,7 @@ public class TaskDependencyRepository {
 
     public List<TaskDependency> findAll() {
         logger.info("Finding all task dependencies");
-        List<TaskDependency> dependencies = jdbc.query(
+        List<TaskDependency> dependencies = shards.queryAll(
                 "SELECT task_id, depends_on_task_id FROM gtd.task_dependencies",
                 Collections.emptyMap(),
                 mapper
@@ -44,7 +44,7 @@ public class TaskDependencyRepository {
 
     public List<TaskDependency> findByTaskId(Long taskId) {
         logger.info("Finding task dependencies for taskId: {}", taskId);
-        List<TaskDependency> dependencies = jdbc.query(
+        List<TaskDependency> dependencies = shards.queryAll(
                 "SELECT task_id, depends_on_task_id FROM gtd.task_dependencies WHERE task_id = :task_id",
                 Map.of("task_id", taskId),
                 mapper
@@ -55,7 +55,7 @@ public class TaskDependencyRepository {
 
     public List<TaskDependency> findByDependsOnTaskId(Long dependsOnTaskId) {
         logger.info("Finding tasks depending on taskId: {}", dependsOnTaskId);
-        List<TaskDependency> dependencies = jdbc.query(
+        List<TaskDependency> dependencies = shards.queryAll(
                 "SELECT task_id, depends_on_task_id FROM gtd.task_dependencies WHERE depends_on_task_id = :depends_on_task_id",
                 Map.of("depends_on_task_id", dependsOnTaskId),
                 mapper
@@ -70,12 +70,11 @@ public class TaskDependencyRepository {
                 "task_id", taskId,
                 "depends_on_task_id", dependsOnTaskId
         );
-        List<TaskDependency> l = jdbc.query(
+        Optional<TaskDependency> result = shards.queryFirst(
                 "SELECT task_id, depends_on_task_id FROM gtd.task_dependencies WHERE task_id = :task_id AND depends_on_task_id = :depends_on_task_id",
                 params,
                 mapper
         );
-        Optional<TaskDependency> result = l.stream().findFirst();
         if (result.isPresent()) {
             logger.debug("Found task dependency");
         } else {
@@ -90,7 +89,7 @@ public class TaskDependencyRepository {
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("task_id", dto.taskId())
                 .addValue("depends_on_task_id", dto.dependsOnTaskId());
-        jdbc.update(sql, params);
+        shards.locate("gtd.tasks", dto.taskId()).update(sql, params);
         logger.info("Created task dependency: taskId={}, dependsOnTaskId={}", dto.taskId(), dto.dependsOnTaskId());
         return findById(dto.taskId(), dto.dependsOnTaskId())
                 .orElseThrow(() -> new RuntimeException("Failed to load created task dependency"));
@@ -102,7 +101,7 @@ public class TaskDependencyRepository {
                 "task_id", taskId,
                 "depends_on_task_id", dependsOnTaskId
         );
-        int updated = jdbc.update(
+        int updated = shards.updateAll(
                 "DELETE FROM gtd.task_dependencies WHERE task_id = :task_id AND depends_on_task_id = :depends_on_task_id",
                 params
         );
@@ -117,7 +116,7 @@ public class TaskDependencyRepository {
 
     public int deleteByTaskId(Long taskId) {
         logger.info("Deleting all dependencies for taskId: {}", taskId);
-        int updated = jdbc.update(
+        int updated = shards.updateAll(
                 "DELETE FROM gtd.task_dependencies WHERE task_id = :task_id OR depends_on_task_id = :task_id",
                 Map.of("task_id", taskId)
         );
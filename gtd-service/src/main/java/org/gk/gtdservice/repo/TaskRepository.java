@@ -1,22 +1,41 @@
 package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.dto.TaskProperty;
+import org.gk.gtdservice.mapper.TaskPatchMapper;
+import org.gk.gtdservice.model.RankedTask;
 import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskCompletion;
+import org.gk.gtdservice.model.TaskField;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Repository
@@ -24,134 +43,197 @@ public class TaskRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
+    private final ListCounterRepository counters;
 
-    public TaskRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public TaskRepository(ShardedJdbc shards, ListCounterRepository counters) {
+        this.shards = shards;
+        this.counters = counters;
     }
 
-    private final RowMapper<Task> mapper = (rs, _rowNum) -> {
-        var projectId = rs.getObject("project_id", Long.class);
-        var contextId = rs.getObject("context_id", Long.class);
-        var priority = rs.getObject("priority", Integer.class);
-        var energy = rs.getObject("energy", Integer.class);
-        var durationEstMin = rs.getObject("duration_est_min", Integer.class);
-        var dueAt = rs.getTimestamp("due_at");
-        var deferUntil = rs.getTimestamp("defer_until");
-        var waitingSince = rs.getTimestamp("waiting_since");
-        var completedAt = rs.getTimestamp("completed_at");
-        var orderIndex = rs.getObject("order_index", Integer.class);
-        
+    /** Codes of the statuses that take a task off the user's lists, for {@code NOT IN} filters. */
+    private static final String CLOSED = TaskStatus.DONE.code() + ", " + TaskStatus.DROPPED.code();
+
+    /**
+     * The columns that decide which list counter a task is counted in, plus the
+     * completion time that has to survive an update that keeps the task done.
+     */
+    private record TaskState(Long userId, TaskStatus status, Timestamp completedAt) {
+    }
+
+    private final RowMapper<TaskState> stateMapper = (rs, _rowNum) ->
+            new TaskState(rs.getLong("user_id"), TaskStatus.fromCode(rs.getShort("status")),
+                    rs.getTimestamp("completed_at"));
+
+    private static final Fieldset<TaskProperty> ALL = Fieldset.all(TaskProperty.class);
+
+    private final RowMapper<Task> mapper = (rs, _rowNum) -> map(rs, ALL);
+
+    /**
+     * Reads the task's selected columns; the others are {@code null}.
+     */
+    private static Task map(ResultSet rs, Fieldset<TaskProperty> fields) throws SQLException {
         return new Task(
-                rs.getLong("id"),
-                rs.getLong("user_id"),
-                projectId,
-                contextId,
-                rs.getString("title"),
-                rs.getString("notes"),
-                rs.getString("status"),
-                priority,
-                energy,
-                durationEstMin,
-                dueAt != null ? dueAt.toInstant() : null,
-                deferUntil != null ? deferUntil.toInstant() : null,
-                rs.getString("waiting_on"),
-                waitingSince != null ? waitingSince.toInstant() : null,
-                rs.getTimestamp("created_at").toInstant(),
-                completedAt != null ? completedAt.toInstant() : null,
-                orderIndex
+                fields.contains(TaskProperty.ID) ? rs.getLong("id") : null,
+                fields.contains(TaskProperty.USER_ID) ? rs.getLong("user_id") : null,
+                fields.contains(TaskProperty.PROJECT_ID) ? rs.getObject("project_id", Long.class) : null,
+                fields.contains(TaskProperty.CONTEXT_ID) ? rs.getObject("context_id", Long.class) : null,
+                fields.contains(TaskProperty.TITLE) ? rs.getString("title") : null,
+                fields.contains(TaskProperty.NOTES) ? rs.getString("notes") : null,
+                fields.contains(TaskProperty.STATUS) ? TaskStatus.fromCode(rs.getShort("status")) : null,
+                fields.contains(TaskProperty.PRIORITY) ? rs.getObject("priority", Integer.class) : null,
+                fields.contains(TaskProperty.ENERGY) ? rs.getObject("energy", Integer.class) : null,
+                fields.contains(TaskProperty.DURATION_EST_MIN) ? rs.getObject("duration_est_min", Integer.class) : null,
+                fields.contains(TaskProperty.DUE_AT) ? instant(rs.getTimestamp("due_at")) : null,
+                fields.contains(TaskProperty.DEFER_UNTIL) ? instant(rs.getTimestamp("defer_until")) : null,
+                fields.contains(TaskProperty.WAITING_ON) ? rs.getString("waiting_on") : null,
+                fields.contains(TaskProperty.WAITING_SINCE) ? instant(rs.getTimestamp("waiting_since")) : null,
+                fields.contains(TaskProperty.CREATED_AT) ? instant(rs.getTimestamp("created_at")) : null,
+                fields.contains(TaskProperty.COMPLETED_AT) ? instant(rs.getTimestamp("completed_at")) : null,
+                fields.contains(TaskProperty.ORDER_INDEX) ? rs.getObject("order_index", Integer.class) : null
         );
-    };
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private final RowMapper<RankedTask> rankedMapper = (rs, rowNum) ->
+            new RankedTask(mapper.mapRow(rs, rowNum), rs.getString("rank_key"));
 
     public List<Task> findAll() {
+        return findAll(ALL);
+    }
+
+    public List<Task> findAll(Fieldset<TaskProperty> fields) {
         logger.info("Finding all tasks");
-        List<Task> tasks = jdbc.query(
-                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
-                "FROM gtd.tasks ORDER BY order_index, created_at",
+        List<Task> tasks = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.tasks ORDER BY rank_key, id",
                 Collections.emptyMap(),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} tasks", tasks.size());
         return tasks;
     }
 
     public List<Task> findByUserId(Long userId) {
+        return findByUserId(userId, ALL);
+    }
+
+    public List<Task> findByUserId(Long userId, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by userId: {}", userId);
-        List<Task> tasks = jdbc.query(
-                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
-                "FROM gtd.tasks WHERE user_id = :user_id ORDER BY order_index, created_at",
+        List<Task> tasks = shards.forUser(userId).query(
+                "SELECT " + fields.columns() + " FROM gtd.tasks WHERE user_id = :user_id ORDER BY rank_key, id",
                 Map.of("user_id", userId),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} tasks for userId: {}", tasks.size(), userId);
         return tasks;
     }
 
     public List<Task> findByProjectId(Long projectId) {
+        return findByProjectId(projectId, ALL);
+    }
+
+    public List<Task> findByProjectId(Long projectId, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by projectId: {}", projectId);
-        List<Task> tasks = jdbc.query(
-                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
-                "FROM gtd.tasks WHERE project_id = :project_id ORDER BY order_index, created_at",
+        List<Task> tasks = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.tasks WHERE project_id = :project_id ORDER BY rank_key, id",
                 Map.of("project_id", projectId),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} tasks for projectId: {}", tasks.size(), projectId);
         return tasks;
     }
 
     public List<Task> findByContextId(Long contextId) {
+        return findByContextId(contextId, ALL);
+    }
+
+    public List<Task> findByContextId(Long contextId, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by contextId: {}", contextId);
-        List<Task> tasks = jdbc.query(
-                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
-                "FROM gtd.tasks WHERE context_id = :context_id ORDER BY order_index, created_at",
+        List<Task> tasks = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.tasks WHERE context_id = :context_id ORDER BY rank_key, id",
                 Map.of("context_id", contextId),
-                mapper
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} tasks for contextId: {}", tasks.size(), contextId);
         return tasks;
     }
 
-    public List<Task> findByStatus(String status) {
+    public List<Task> findByStatus(TaskStatus status) {
+        return findByStatus(status, ALL);
+    }
+
+    public List<Task> findByStatus(TaskStatus status, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by status: {}", status);
-        List<Task> tasks = jdbc.query(
-                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
-                "FROM gtd.tasks WHERE status = :status ORDER BY order_index, created_at",
-                Map.of("status", status),
-                mapper
+        List<Task> tasks = shards.queryAll(
+                "SELECT " + fields.columns() + " FROM gtd.tasks WHERE status = :status ORDER BY rank_key, id",
+                Map.of("status", status.code()),
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} tasks with status: {}", tasks.size(), status);
         return tasks;
     }
 
-    public List<Task> findByUserIdAndStatus(Long userId, String status) {
+    public List<Task> findByUserIdAndStatus(Long userId, TaskStatus status) {
+        return findByUserIdAndStatus(userId, status, ALL);
+    }
+
+    public List<Task> findByUserIdAndStatus(Long userId, TaskStatus status, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by userId: {} and status: {}", userId, status);
-        List<Task> tasks = jdbc.query(
-                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
-                "FROM gtd.tasks WHERE user_id = :user_id AND status = :status ORDER BY order_index, created_at",
-                Map.of("user_id", userId, "status", status),
-                mapper
+        List<Task> tasks = shards.forUser(userId).query(
+                "SELECT " + fields.columns() + " FROM gtd.tasks WHERE user_id = :user_id AND status = :status ORDER BY rank_key, id",
+                Map.of("user_id", userId, "status", status.code()),
+                (rs, _rowNum) -> map(rs, fields)
         );
         logger.debug("Found {} tasks for userId: {} with status: {}", tasks.size(), userId, status);
         return tasks;
     }
 
+    /**
+     * The user's tasks that are not done or dropped, with their rank keys, in list order.
+     */
+    public List<RankedTask> findOpenRanked(Long userId) {
+        logger.info("Finding open ranked tasks by userId: {}", userId);
+        List<RankedTask> tasks = shards.forUser(userId).query(
+                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
+                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index, rank_key " +
+                "FROM gtd.tasks WHERE user_id = :user_id AND status NOT IN (" + CLOSED + ") ORDER BY rank_key, id",
+                Map.of("user_id", userId),
+                rankedMapper
+        );
+        logger.debug("Found {} open tasks for userId: {}", tasks.size(), userId);
+        return tasks;
+    }
+
+    /**
+     * Those of {@code ids} that belong to the user, whatever their status, with their rank keys.
+     */
+    public List<RankedTask> findRankedByIds(Long userId, Collection<Long> ids) {
+        logger.info("Finding {} ranked tasks for userId: {}", ids.size(), userId);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return shards.forUser(userId).query(
+                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
+                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index, rank_key " +
+                "FROM gtd.tasks WHERE user_id = :user_id AND id IN (:ids)",
+                new MapSqlParameterSource().addValue("user_id", userId).addValue("ids", ids),
+                rankedMapper
+        );
+    }
+
     public Optional<Task> findById(Long id) {
         logger.info("Finding task by id: {}", id);
         Map<String, Object> params = Map.of("id", id);
-        List<Task> l = jdbc.query(
+        Optional<Task> result = shards.queryFirst(
                 "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
                 "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
                 "FROM gtd.tasks WHERE id = :id",
                 params,
                 mapper
         );
-        Optional<Task> result = l.stream().findFirst();
         if (result.isPresent()) {
             logger.debug("Found task with id: {}", id);
         } else {
@@ -160,12 +242,44 @@ public class TaskRepository {
         return result;
     }
 
+    /**
+     * Like {@link #findById(Long)} but locks the row until the surrounding transaction
+     * ends, so a read-modify-write such as {@link #patch} sees no concurrent change.
+     */
+    public Optional<Task> lockById(Long id) {
+        logger.info("Locking task by id: {}", id);
+        return shards.queryFirst(
+                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
+                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
+                "FROM gtd.tasks WHERE id = :id FOR UPDATE",
+                Map.of("id", id),
+                mapper
+        );
+    }
+
+    /**
+     * Locks and returns those of {@code ids} that belong to the user, in one statement.
+     */
+    public List<Task> lockByIds(Long userId, Collection<Long> ids) {
+        logger.info("Locking {} tasks for userId: {}", ids.size(), userId);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return shards.forUser(userId).query(
+                "SELECT id, user_id, project_id, context_id, title, notes, status, priority, energy, " +
+                "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, completed_at, order_index " +
+                "FROM gtd.tasks WHERE user_id = :user_id AND id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource().addValue("user_id", userId).addValue("ids", ids),
+                mapper
+        );
+    }
+
     public Task create(CreateTaskDto dto) throws DataIntegrityViolationException {
         logger.info("Creating task: {}", dto);
         String sql = "INSERT INTO gtd.tasks (user_id, project_id, context_id, title, notes, status, priority, energy, " +
-                     "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, order_index) " +
+                     "duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, order_index, rank_key) " +
                      "VALUES (:user_id, :project_id, :context_id, :title, :notes, :status, :priority, :energy, " +
-                     ":duration_est_min, :due_at, :defer_until, :waiting_on, :waiting_since, :created_at, :order_index)";
+                     ":duration_est_min, :due_at, :defer_until, :waiting_on, :waiting_since, :created_at, :order_index, :rank_key)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("user_id", dto.userId())
@@ -173,7 +287,7 @@ public class TaskRepository {
                 .addValue("context_id", dto.contextId())
                 .addValue("title", dto.title())
                 .addValue("notes", dto.notes())
-                .addValue("status", dto.status())
+                .addValue("status", dto.status().code())
                 .addValue("priority", dto.priority())
                 .addValue("energy", dto.energy())
                 .addValue("duration_est_min", dto.durationEstMin())
@@ -183,11 +297,16 @@ public class TaskRepository {
                 .addValue("waiting_since", dto.waitingSince() != null ? Timestamp.from(dto.waitingSince()) : null)
                 .addValue("created_at", Timestamp.from(Instant.now()))
                 .addValue("order_index", dto.orderIndex());
+        NamedParameterJdbcTemplate jdbc = shards.forUser(dto.userId());
+        // New tasks go to the end of the user's list
+        params.addValue("rank_key", RankKeys.between(lastRankKey(jdbc, dto.userId()), null));
         jdbc.update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
         Long id = key != null ? key.longValue() : null;
         logger.info("Created task with id: {}", id);
-        return findById(id).orElseThrow(() -> new RuntimeException("Failed to load created task"));
+        Task created = findById(id).orElseThrow(() -> new RuntimeException("Failed to load created task"));
+        counters.adjust(jdbc, created.userId(), created.status(), 1);
+        return created;
     }
 
     public Task update(Long id, CreateTaskDto dto) {
@@ -195,14 +314,15 @@ public class TaskRepository {
         String sql = "UPDATE gtd.tasks SET user_id = :user_id, project_id = :project_id, context_id = :context_id, " +
                      "title = :title, notes = :notes, status = :status, priority = :priority, energy = :energy, " +
                      "duration_est_min = :duration_est_min, due_at = :due_at, defer_until = :defer_until, " +
-                     "waiting_on = :waiting_on, waiting_since = :waiting_since, order_index = :order_index WHERE id = :id";
+                     "waiting_on = :waiting_on, waiting_since = :waiting_since, completed_at = :completed_at, " +
+                     "order_index = :order_index WHERE id = :id";
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("user_id", dto.userId())
                 .addValue("project_id", dto.projectId())
                 .addValue("context_id", dto.contextId())
                 .addValue("title", dto.title())
                 .addValue("notes", dto.notes())
-                .addValue("status", dto.status())
+                .addValue("status", dto.status().code())
                 .addValue("priority", dto.priority())
                 .addValue("energy", dto.energy())
                 .addValue("duration_est_min", dto.durationEstMin())
@@ -212,19 +332,177 @@ public class TaskRepository {
                 .addValue("waiting_since", dto.waitingSince() != null ? Timestamp.from(dto.waitingSince()) : null)
                 .addValue("order_index", dto.orderIndex())
                 .addValue("id", id);
+        // Route by the current owner: the row is on their shard, not necessarily on the new owner's
+        Optional<TaskState> located = shards.queryFirst(
+                "SELECT user_id, status, completed_at FROM gtd.tasks WHERE id = :id", Map.of("id", id), stateMapper);
+        if (located.isEmpty()) {
+            logger.warn("No task updated for id: {}", id);
+            return null;
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(located.get().userId());
+        // Lock the row so concurrent status changes cannot both move the same task between counters
+        Optional<TaskState> previous = lockState(jdbc, id);
+        if (previous.isEmpty()) {
+            logger.warn("No task updated for id: {}", id);
+            return null;
+        }
+        params.addValue("completed_at", completedAt(previous.get(), dto.status()));
+        NamedParameterJdbcTemplate target = shards.forUser(dto.userId());
+        if (target != jdbc) {
+            return moveToShard(id, dto, previous.get(), jdbc, target, params);
+        }
         int updated = jdbc.update(sql, params);
         if (updated == 0) {
             logger.warn("No task updated for id: {}", id);
             return null;
         }
+        moveBetweenCounters(jdbc, previous.get(), dto.userId(), dto.status());
         logger.info("Updated task with id: {}", id);
         return findById(id).orElse(null);
     }
 
+    /**
+     * Hands a task to an owner on another shard: the row is written there with the same
+     * id, at the end of the new owner's list, and deleted here. Its tags and dependencies
+     * point at the previous owner's rows, so they stay behind and go with the delete.
+     * The copy is written first, so a failure in between leaves a duplicate, never a loss.
+     */
+    private Task moveToShard(Long id, CreateTaskDto dto, TaskState previous, NamedParameterJdbcTemplate source,
+                             NamedParameterJdbcTemplate target, MapSqlParameterSource params) {
+        Long userId = dto.userId();
+        logger.info("Moving task with id: {} from user {} to user {} on another shard", id, previous.userId(), userId);
+        Timestamp createdAt = source.queryForObject("SELECT created_at FROM gtd.tasks WHERE id = :id",
+                Map.of("id", id), Timestamp.class);
+        params.addValue("created_at", createdAt)
+                .addValue("rank_key", RankKeys.between(lastRankKey(target, userId), null));
+        target.update("INSERT INTO gtd.tasks (id, user_id, project_id, context_id, title, notes, status, priority, " +
+                      "energy, duration_est_min, due_at, defer_until, waiting_on, waiting_since, created_at, " +
+                      "completed_at, order_index, rank_key) " +
+                      "VALUES (:id, :user_id, :project_id, :context_id, :title, :notes, :status, :priority, " +
+                      ":energy, :duration_est_min, :due_at, :defer_until, :waiting_on, :waiting_since, :created_at, " +
+                      ":completed_at, :order_index, :rank_key)", params);
+        counters.adjust(target, userId, dto.status(), 1);
+        source.update("DELETE FROM gtd.tasks WHERE id = :id", Map.of("id", id));
+        counters.adjust(source, previous.userId(), previous.status(), -1);
+        logger.info("Updated task with id: {}", id);
+        return findById(id).orElse(null);
+    }
+
+    /**
+     * Writes only the columns named in the patch, plus {@code completed_at} when the
+     * status change moves the task into or out of done. {@code current} must have been
+     * read with {@link #lockById(Long)} in the same transaction; the returned task is
+     * derived from it rather than read back.
+     */
+    public Task patch(Task current, TaskPatchDto patch) {
+        logger.info("Patching task with id: {}, fields: {}", current.id(), patch.fields());
+        List<String> assignments = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", current.id());
+        for (TaskField field : patch.fields()) {
+            Object value = patch.get(field);
+            assignments.add(field.column() + " = :" + field.column());
+            params.addValue(field.column(), switch (value) {
+                case Instant instant -> Timestamp.from(instant);
+                case TaskStatus status -> status.code();
+                case null, default -> value;
+            });
+        }
+        TaskState previous = new TaskState(current.userId(), current.status(),
+                current.completedAt() != null ? Timestamp.from(current.completedAt()) : null);
+        TaskStatus status = patch.contains(TaskField.STATUS) ? patch.get(TaskField.STATUS) : current.status();
+        Timestamp completedAt = completedAt(previous, status);
+        if (!Objects.equals(completedAt, previous.completedAt())) {
+            assignments.add("completed_at = :completed_at");
+            params.addValue("completed_at", completedAt);
+        }
+        if (assignments.isEmpty()) {
+            return current;
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(current.userId());
+        jdbc.update("UPDATE gtd.tasks SET " + String.join(", ", assignments) + " WHERE id = :id", params);
+        moveBetweenCounters(jdbc, previous, current.userId(), status);
+        logger.info("Patched task with id: {}", current.id());
+        return TaskPatchMapper.apply(current, patch, completedAt != null ? completedAt.toInstant() : null);
+    }
+
+    /**
+     * Writes the status, project and context of many tasks of one user as a
+     * single JDBC batch, then nets their list counter moves into one adjustment per
+     * status. Every task in {@code after} must have been read with
+     * {@link #lockByIds} in the same transaction and be keyed by id in {@code before}.
+     *
+     * @return the tasks as written, with {@code completed_at} resolved
+     */
+    public List<Task> updateAll(Long userId, Map<Long, Task> before, Collection<Task> after) {
+        logger.info("Updating {} tasks for userId: {}", after.size(), userId);
+        if (after.isEmpty()) {
+            return List.of();
+        }
+        List<Task> saved = new ArrayList<>(after.size());
+        List<MapSqlParameterSource> batch = new ArrayList<>(after.size());
+        Map<TaskStatus, Long> deltas = new EnumMap<>(TaskStatus.class);
+        for (Task task : after) {
+            Task previous = before.get(task.id());
+            Timestamp completedAt = completedAt(new TaskState(previous.userId(), previous.status(),
+                    previous.completedAt() != null ? Timestamp.from(previous.completedAt()) : null), task.status());
+            batch.add(new MapSqlParameterSource()
+                    .addValue("status", task.status().code())
+                    .addValue("completed_at", completedAt)
+                    .addValue("project_id", task.projectId())
+                    .addValue("context_id", task.contextId())
+                    .addValue("id", task.id()));
+            deltas.merge(previous.status(), -1L, Long::sum);
+            deltas.merge(task.status(), 1L, Long::sum);
+            saved.add(new Task(task.id(), task.userId(), task.projectId(), task.contextId(), task.title(),
+                    task.notes(), task.status(), task.priority(), task.energy(), task.durationEstMin(),
+                    task.dueAt(), task.deferUntil(), task.waitingOn(), task.waitingSince(), task.createdAt(),
+                    completedAt != null ? completedAt.toInstant() : null, task.orderIndex()));
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(userId);
+        jdbc.batchUpdate("UPDATE gtd.tasks SET status = :status, completed_at = :completed_at, " +
+                         "project_id = :project_id, context_id = :context_id WHERE id = :id",
+                batch.toArray(SqlParameterSource[]::new));
+        counters.adjustAll(jdbc, userId, deltas);
+        logger.info("Updated {} tasks for userId: {}", saved.size(), userId);
+        return saved;
+    }
+
+    /**
+     * Deletes many tasks of one user in one statement. The tasks must have been read
+     * with {@link #lockByIds} in the same transaction.
+     *
+     * @return the number of rows deleted
+     */
+    public int deleteAll(Long userId, Collection<Task> tasks) {
+        logger.info("Deleting {} tasks for userId: {}", tasks.size(), userId);
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(userId);
+        int deleted = jdbc.update("DELETE FROM gtd.tasks WHERE user_id = :user_id AND id IN (:ids)",
+                new MapSqlParameterSource()
+                        .addValue("user_id", userId)
+                        .addValue("ids", tasks.stream().map(Task::id).toList()));
+        Map<TaskStatus, Long> deltas = new EnumMap<>(TaskStatus.class);
+        tasks.forEach(t -> deltas.merge(t.status(), -1L, Long::sum));
+        counters.adjustAll(jdbc, userId, deltas);
+        logger.info("Deleted {} tasks for userId: {}", deleted, userId);
+        return deleted;
+    }
+
     public boolean delete(Long id) {
         logger.info("Deleting task with id: {}", id);
-        int updated = jdbc.update("DELETE FROM gtd.tasks WHERE id = :id", Map.of("id", id));
-        boolean deleted = updated > 0;
+        Map<String, Object> params = Map.of("id", id);
+        Optional<TaskState> previous = shards.queryFirst(
+                "SELECT user_id, status, completed_at FROM gtd.tasks WHERE id = :id", params, stateMapper);
+        boolean deleted = false;
+        if (previous.isPresent()) {
+            NamedParameterJdbcTemplate jdbc = shards.forUser(previous.get().userId());
+            deleted = jdbc.update("DELETE FROM gtd.tasks WHERE id = :id", params) > 0;
+            if (deleted) {
+                counters.adjust(jdbc, previous.get().userId(), previous.get().status(), -1);
+            }
+        }
         if (deleted) {
             logger.info("Deleted task with id: {}", id);
         } else {
@@ -232,4 +510,203 @@ public class TaskRepository {
         }
         return deleted;
     }
+
+    /**
+     * Marks a task done and stamps {@code completed_at} in one statement. Whether it is
+     * done already is read under the row lock, so completing a task that is done, or
+     * that a concurrent call is completing, changes nothing and keeps its original
+     * completion time.
+     *
+     * @return the task before and after the call, or empty if it does not exist
+     */
+    public Optional<TaskCompletion> complete(Long id, Instant completedAt) {
+        logger.info("Completing task with id: {}", id);
+        Optional<Task> locked = lockById(id);
+        if (locked.isEmpty()) {
+            logger.debug("Task not found with id: {}", id);
+            return Optional.empty();
+        }
+        Task before = locked.get();
+        if (before.status() == TaskStatus.DONE) {
+            logger.debug("Task with id: {} is already done", id);
+            return Optional.of(new TaskCompletion(before, before));
+        }
+        NamedParameterJdbcTemplate jdbc = shards.forUser(before.userId());
+        jdbc.update("UPDATE gtd.tasks SET status = :status, completed_at = :completed_at WHERE id = :id",
+                new MapSqlParameterSource()
+                        .addValue("status", TaskStatus.DONE.code())
+                        .addValue("completed_at", Timestamp.from(completedAt))
+                        .addValue("id", id));
+        moveBetweenCounters(jdbc, new TaskState(before.userId(), before.status(), null), before.userId(), TaskStatus.DONE);
+        logger.info("Completed task with id: {}", id);
+        return findById(id).map(after -> new TaskCompletion(before, after));
+    }
+
+    /**
+     * Dependents of {@code taskId} that are still open and no longer wait on any open
+     * prerequisite. A dropped prerequisite counts as resolved. Both lookups go through
+     * the indexes behind the task_dependencies keys: the one on depends_on_task_id to
+     * find dependents, the primary key to check each dependent's other prerequisites.
+     */
+    public List<Task> findUnblockedDependents(Long userId, Long taskId) {
+        logger.info("Finding tasks unblocked by taskId: {}", taskId);
+        List<Task> tasks = shards.forUser(userId).query(
+                "SELECT t.id, t.user_id, t.project_id, t.context_id, t.title, t.notes, t.status, t.priority, t.energy, " +
+                "t.duration_est_min, t.due_at, t.defer_until, t.waiting_on, t.waiting_since, t.created_at, t.completed_at, t.order_index " +
+                "FROM gtd.task_dependencies d JOIN gtd.tasks t ON t.id = d.task_id " +
+                "WHERE d.depends_on_task_id = :task_id AND t.status NOT IN (" + CLOSED + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM gtd.task_dependencies o JOIN gtd.tasks p ON p.id = o.depends_on_task_id " +
+                "WHERE o.task_id = d.task_id AND p.status NOT IN (" + CLOSED + ")) " +
+                "ORDER BY t.rank_key, t.id",
+                Map.of("task_id", taskId),
+                mapper
+        );
+        logger.debug("Found {} tasks unblocked by taskId: {}", tasks.size(), taskId);
+        return tasks;
+    }
+
+    /**
+     * Places a task between two of the user's tasks by giving it a rank key between
+     * theirs: one row written however long the list is. Either neighbour may be
+     * {@code null} for the start or end of the list. When the neighbours' keys are
+     * not in order (equal keys from concurrent appends) the user's keys are respaced
+     * first; if they are still not in order the caller's view of the list is stale.
+     *
+     * @return the new key, or empty if a neighbour is not one of the user's tasks
+     * @throws IllegalArgumentException if {@code afterId} does not sort before {@code beforeId}
+     */
+    public Optional<String> move(Long userId, Long id, Long afterId, Long beforeId) {
+        logger.info("Moving task with id: {} between {} and {}", id, afterId, beforeId);
+        NamedParameterJdbcTemplate jdbc = shards.forUser(userId);
+        Map<Long, String> keys = rankKeys(jdbc, userId, afterId, beforeId);
+        if ((afterId != null && !keys.containsKey(afterId)) || (beforeId != null && !keys.containsKey(beforeId))) {
+            return Optional.empty();
+        }
+        if (afterId != null && beforeId != null && keys.get(afterId).compareTo(keys.get(beforeId)) >= 0) {
+            rebalanceRanks(userId);
+            keys = rankKeys(jdbc, userId, afterId, beforeId);
+        }
+        String key = RankKeys.between(keys.get(afterId), keys.get(beforeId));
+        jdbc.update("UPDATE gtd.tasks SET rank_key = :rank_key WHERE id = :id",
+                new MapSqlParameterSource().addValue("rank_key", key).addValue("id", id));
+        logger.debug("Moved task with id: {} to rank key {}", id, key);
+        return Optional.of(key);
+    }
+
+    /**
+     * Writes rank keys the caller worked out for some of the user's tasks, e.g. a bulk
+     * reorder, as one batch.
+     */
+    public void updateRankKeys(Long userId, Map<Long, String> keys) {
+        logger.info("Writing {} rank keys for userId: {}", keys.size(), userId);
+        if (keys.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = keys.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("rank_key", e.getValue())
+                        .addValue("id", e.getKey())
+                        .addValue("user_id", userId))
+                .toArray(SqlParameterSource[]::new);
+        shards.forUser(userId).batchUpdate(
+                "UPDATE gtd.tasks SET rank_key = :rank_key WHERE id = :id AND user_id = :user_id", batch);
+    }
+
+    /**
+     * Rewrites the rank keys of all of a user's tasks evenly spaced, keeping their
+     * order. Runs as one locking read and one batch; call inside a transaction on
+     * the user's shard.
+     *
+     * @return the number of tasks rewritten
+     */
+    public int rebalanceRanks(Long userId) {
+        logger.info("Rebalancing rank keys for userId: {}", userId);
+        NamedParameterJdbcTemplate jdbc = shards.forUser(userId);
+        List<Long> ids = jdbc.queryForList(
+                "SELECT id FROM gtd.tasks WHERE user_id = :user_id ORDER BY rank_key, id FOR UPDATE",
+                Map.of("user_id", userId), Long.class);
+        writeRankKeys(jdbc, ids);
+        logger.debug("Rebalanced {} rank keys for userId: {}", ids.size(), userId);
+        return ids.size();
+    }
+
+    /**
+     * Gives every task on a shard that has no rank key one, per user in the order the
+     * list was sorted in before rank keys existed.
+     *
+     * @return the number of tasks given a key
+     */
+    public int backfillRanks(int shard) {
+        NamedParameterJdbcTemplate jdbc = shards.forShard(shard);
+        List<Long> userIds = jdbc.queryForList(
+                "SELECT DISTINCT user_id FROM gtd.tasks WHERE rank_key IS NULL", Collections.emptyMap(), Long.class);
+        int written = 0;
+        for (Long userId : userIds) {
+            List<Long> ids = jdbc.queryForList(
+                    "SELECT id FROM gtd.tasks WHERE user_id = :user_id ORDER BY order_index, created_at, id",
+                    Map.of("user_id", userId), Long.class);
+            writeRankKeys(jdbc, ids);
+            written += ids.size();
+        }
+        if (written > 0) {
+            logger.info("Backfilled {} rank keys for {} users on shard {}", written, userIds.size(), shard);
+        }
+        return written;
+    }
+
+    private String lastRankKey(NamedParameterJdbcTemplate jdbc, Long userId) {
+        return jdbc.queryForObject("SELECT MAX(rank_key) FROM gtd.tasks WHERE user_id = :user_id",
+                Map.of("user_id", userId), String.class);
+    }
+
+    private Map<Long, String> rankKeys(NamedParameterJdbcTemplate jdbc, Long userId, Long... ids) {
+        List<Long> wanted = Arrays.stream(ids).filter(Objects::nonNull).toList();
+        Map<Long, String> keys = new HashMap<>();
+        if (wanted.isEmpty()) {
+            return keys;
+        }
+        jdbc.query("SELECT id, rank_key FROM gtd.tasks WHERE user_id = :user_id AND id IN (:ids)",
+                new MapSqlParameterSource().addValue("user_id", userId).addValue("ids", wanted),
+                rs -> {
+                    keys.put(rs.getLong("id"), rs.getString("rank_key"));
+                });
+        return keys;
+    }
+
+    private void writeRankKeys(NamedParameterJdbcTemplate jdbc, List<Long> ids) {
+        List<String> keys = RankKeys.spread(ids.size());
+        SqlParameterSource[] batch = new SqlParameterSource[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            batch[i] = new MapSqlParameterSource().addValue("rank_key", keys.get(i)).addValue("id", ids.get(i));
+        }
+        jdbc.batchUpdate("UPDATE gtd.tasks SET rank_key = :rank_key WHERE id = :id", batch);
+    }
+
+    private Optional<TaskState> lockState(NamedParameterJdbcTemplate jdbc, Long id) {
+        return jdbc.query("SELECT user_id, status, completed_at FROM gtd.tasks WHERE id = :id FOR UPDATE",
+                Map.of("id", id), stateMapper).stream().findFirst();
+    }
+
+    private void moveBetweenCounters(NamedParameterJdbcTemplate jdbc, TaskState previous, Long userId, TaskStatus status) {
+        if (previous.userId().equals(userId) && previous.status() == status) {
+            return;
+        }
+        counters.adjust(jdbc, previous.userId(), previous.status(), -1);
+        counters.adjust(jdbc, userId, status, 1);
+    }
+
+    /**
+     * Same rules as projects: entering done stamps the time, staying done keeps it and
+     * leaving done clears it. The stamp is in whole seconds, the precision of a MySQL
+     * TIMESTAMP column, so callers that return the written task without reading it
+     * back report what was stored.
+     */
+    private static Timestamp completedAt(TaskState previous, TaskStatus status) {
+        if (status != TaskStatus.DONE) {
+            return null;
+        }
+        return previous.status() == TaskStatus.DONE && previous.completedAt() != null
+                ? previous.completedAt()
+                : Timestamp.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
 }
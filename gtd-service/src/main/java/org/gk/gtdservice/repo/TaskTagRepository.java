@@ -1,11 +1,11 @@
 package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.model.Tag;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collections;
@@ -17,10 +17,10 @@ public class TaskTagRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskTagRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public TaskTagRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public TaskTagRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
     private final RowMapper<Tag> tagMapper = (rs, _rowNum) -> new Tag(
@@ -37,7 +37,7 @@ public class TaskTagRepository {
                 .addValue("task_id", taskId)
                 .addValue("tag_id", tagId);
         try {
-            jdbc.update(sql, params);
+            shards.locate("gtd.tasks", taskId).update(sql, params);
         } catch (Exception e) {
             // Ignore if already exists or handle appropriately
             logger.warn("Failed to add tag {} to task {}: {}", tagId, taskId, e.getMessage());
@@ -50,7 +50,7 @@ public class TaskTagRepository {
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("task_id", taskId)
                 .addValue("tag_id", tagId);
-        jdbc.update(sql, params);
+        shards.updateAll(sql, params);
     }
 
     public List<Tag> findTagsByTaskId(Long taskId) {
@@ -61,7 +61,7 @@ public class TaskTagRepository {
                 JOIN gtd.task_tags tt ON t.id = tt.tag_id
                 WHERE tt.task_id = :task_id
                 """;
-        List<Tag> tags = jdbc.query(sql, Map.of("task_id", taskId), tagMapper);
+        List<Tag> tags = shards.queryAll(sql, Map.of("task_id", taskId), tagMapper);
         logger.debug("Found {} tags for task {}", tags.size(), taskId);
         return tags;
     }
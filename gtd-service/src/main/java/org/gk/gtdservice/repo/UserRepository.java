@@ -2,8 +2,10 @@ package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateUserDto;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardedJdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -13,21 +15,24 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
 public class UserRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(UserRepository.class);
 
-    private final NamedParameterJdbcTemplate jdbc;
+    private final ShardedJdbc shards;
 
-    public UserRepository(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    public UserRepository(ShardedJdbc shards) {
+        this.shards = shards;
     }
 
     private final RowMapper<User> mapper = (rs, _rowNum) ->
@@ -41,7 +46,7 @@ public class UserRepository {
 
     public List<User> findAll() {
         logger.info("Finding all users");
-        List<User> users = jdbc.query("SELECT id, username, email, name, created_at FROM gtd.users", Collections.emptyMap(), mapper);
+        List<User> users = shards.primary().query("SELECT id, username, email, name, created_at FROM gtd.users", Collections.emptyMap(), mapper);
         logger.debug("Found {} users", users.size());
         return users;
     }
@@ -49,7 +54,7 @@ public class UserRepository {
     public Optional<User> findById(Long id) {
         logger.info("Finding user by id: {}", id);
         Map<String, Object> params = Map.of("id", id);
-        List<User> l = jdbc.query("SELECT id, username, email, name, created_at FROM gtd.users WHERE id = :id", params, mapper);
+        List<User> l = shards.primary().query("SELECT id, username, email, name, created_at FROM gtd.users WHERE id = :id", params, mapper);
         Optional<User> result = l.stream().findFirst();
         if (result.isPresent()) {
             logger.debug("Found user with id: {}", id);
@@ -62,7 +67,7 @@ public class UserRepository {
     public Optional<User> findByUsername(String username) {
         logger.info("Finding user by username: {}", username);
         Map<String, Object> params = Map.of("username", username);
-        List<User> l = jdbc.query("SELECT id, username, email, name, created_at FROM gtd.users WHERE username = :username", params, mapper);
+        List<User> l = shards.primary().query("SELECT id, username, email, name, created_at FROM gtd.users WHERE username = :username", params, mapper);
         Optional<User> result = l.stream().findFirst();
         if (result.isPresent()) {
             logger.debug("Found user with username: {}", username);
@@ -75,7 +80,7 @@ public class UserRepository {
     public Optional<User> findByEmail(String email) {
         logger.info("Finding user by email: {}", email);
         Map<String, Object> params = Map.of("email", email);
-        List<User> l = jdbc.query("SELECT id, username, email, name, created_at FROM gtd.users WHERE email = :email", params, mapper);
+        List<User> l = shards.primary().query("SELECT id, username, email, name, created_at FROM gtd.users WHERE email = :email", params, mapper);
         Optional<User> result = l.stream().findFirst();
         if (result.isPresent()) {
             logger.debug("Found user with email: {}", email);
@@ -94,9 +99,10 @@ public class UserRepository {
                 .addValue("email", dto.email())
                 .addValue("name", dto.name())
                 .addValue("created_at", Timestamp.from(Instant.now()));
-        jdbc.update(sql, params, keyHolder, new String[]{"id"});
+        shards.primary().update(sql, params, keyHolder, new String[]{"id"});
         Number key = keyHolder.getKey();
         Long id = key != null ? key.longValue() : null;
+        replicate(id, params);
         logger.info("Created user with id: {}", id);
         return findById(id).orElseThrow(() -> new RuntimeException("Failed to load created user"));
     }
@@ -109,7 +115,7 @@ public class UserRepository {
                 .addValue("email", dto.email())
                 .addValue("name", dto.name())
                 .addValue("id", id);
-        int updated = jdbc.update(sql, params);
+        int updated = shards.updateAll(sql, params);
         if (updated == 0) {
             logger.warn("No user updated for id: {}", id);
             return null;
@@ -120,7 +126,7 @@ public class UserRepository {
 
     public boolean delete(Long id) {
         logger.info("Deleting user with id: {}", id);
-        int updated = jdbc.update("DELETE FROM gtd.users WHERE id = :id", Map.of("id", id));
+        int updated = shards.updateAll("DELETE FROM gtd.users WHERE id = :id", Map.of("id", id));
         boolean deleted = updated > 0;
         if (deleted) {
             logger.info("Deleted user with id: {}", id);
@@ -129,4 +135,107 @@ public class UserRepository {
         }
         return deleted;
     }
+
+    /**
+     * Users are a small reference table copied to every shard so that user-owned
+     * rows keep their foreign key wherever the user is placed. Each copy is written in
+     * its own shard transaction. If one shard fails, the copies already written are
+     * removed and the create fails, so the caller's primary insert rolls back with it.
+     * Anything a failed removal leaves behind is repaired by {@link #reconcileReplicas}.
+     */
+    private void replicate(Long id, MapSqlParameterSource params) {
+        if (shards.shardCount() == 1) {
+            return;
+        }
+        String sql = "INSERT INTO gtd.users (id, username, email, name, created_at) VALUES (:id, :username, :email, :name, :created_at)";
+        params.addValue("id", id);
+        for (int shard = 1; shard < shards.shardCount(); shard++) {
+            NamedParameterJdbcTemplate jdbc = shards.forShard(shard);
+            try {
+                shards.transactionTemplate(shard).executeWithoutResult(_status -> jdbc.update(sql, params));
+            } catch (RuntimeException e) {
+                logger.error("Copying user {} to shard {} failed, removing the copies already made", id, shard, e);
+                for (int written = 1; written < shard; written++) {
+                    removeCopy(written, id);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void removeCopy(int shard, Long id) {
+        try {
+            shards.forShard(shard).update("DELETE FROM gtd.users WHERE id = :id", Map.of("id", id));
+        } catch (RuntimeException e) {
+            logger.warn("Could not remove copy of user {} from shard {}, leaving it to reconciliation", id, shard, e);
+        }
+    }
+
+    /**
+     * Brings the copies of {@code gtd.users} on every other shard in line with the
+     * primary: copies of users the primary no longer has are deleted, missing copies are
+     * inserted and changed ones updated. A copy created less than {@code grace} ago is
+     * left alone, as the create that wrote it may not have committed on the primary yet.
+     *
+     * @return the number of copies changed
+     */
+    public int reconcileReplicas(Duration grace) {
+        if (shards.shardCount() == 1) {
+            return 0;
+        }
+        Map<Long, User> primary = copies(shards.primary());
+        Instant cutoff = Instant.now().minus(grace);
+        int changed = 0;
+        for (int shard = 1; shard < shards.shardCount(); shard++) {
+            Map<Long, User> copies = copies(shards.forShard(shard));
+            // Stale copies go first, as one may hold the username or email of a missing one
+            for (User copy : copies.values()) {
+                if (!primary.containsKey(copy.id()) && copy.createdAt().isBefore(cutoff)) {
+                    changed += repair(shard, copy, "DELETE FROM gtd.users WHERE id = :id");
+                }
+            }
+            for (User user : primary.values()) {
+                User copy = copies.get(user.id());
+                if (copy == null) {
+                    changed += repair(shard, user, "INSERT INTO gtd.users (id, username, email, name, created_at) "
+                            + "VALUES (:id, :username, :email, :name, :created_at)");
+                } else if (!Objects.equals(copy.username(), user.username())
+                        || !Objects.equals(copy.email(), user.email())
+                        || !Objects.equals(copy.name(), user.name())) {
+                    changed += repair(shard, user,
+                            "UPDATE gtd.users SET username = :username, email = :email, name = :name WHERE id = :id");
+                }
+            }
+        }
+        if (changed > 0) {
+            logger.info("Reconciled {} user copies across shards", changed);
+        }
+        return changed;
+    }
+
+    private Map<Long, User> copies(NamedParameterJdbcTemplate jdbc) {
+        return jdbc.query("SELECT id, username, email, name, created_at FROM gtd.users", Collections.emptyMap(), mapper)
+                .stream()
+                .collect(Collectors.toMap(User::id, user -> user));
+    }
+
+    /**
+     * One repair in its own shard transaction. A failure is logged and retried on the
+     * next pass; deleting a copy fails while the user still owns rows on that shard.
+     */
+    private int repair(int shard, User user, String sql) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", user.id())
+                .addValue("username", user.username())
+                .addValue("email", user.email())
+                .addValue("name", user.name())
+                .addValue("created_at", Timestamp.from(user.createdAt()));
+        try {
+            shards.transactionTemplate(shard).executeWithoutResult(_status -> shards.forShard(shard).update(sql, params));
+            return 1;
+        } catch (DataAccessException e) {
+            logger.warn("Could not reconcile copy of user {} on shard {}: {}", user.id(), shard, e.getMessage());
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package org.gk.gtdservice.service;
+
+import org.gk.gtdservice.dto.AttachmentDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+public interface AttachmentService {
+    List<AttachmentDto> findByReferenceId(Long referenceId);
+    AttachmentDto findById(Long referenceId, Long attachmentId);
+
+    /**
+     * The stored file with the attachment's content, for serving straight from disk.
+     */
+    Path file(AttachmentDto attachment);
+
+    /**
+     * Streams {@code content} into the blob store and records it as an attachment of the
+     * reference. Runs outside a transaction so no connection is held during the upload.
+     */
+    AttachmentDto create(Long referenceId, String name, String contentType, InputStream content) throws IOException;
+
+    void delete(Long referenceId, Long attachmentId);
+
+    /**
+     * Removes every attachment of a reference that is about to be deleted.
+     */
+    void deleteByReferenceId(Long referenceId);
+}
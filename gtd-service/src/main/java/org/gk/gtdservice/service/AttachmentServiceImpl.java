@@ -0,0 +1,171 @@
+package org.gk.gtdservice.service;
+
+import org.gk.gtdservice.blob.BlobStore;
+import org.gk.gtdservice.dto.AttachmentDto;
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.mapper.AttachmentMapper;
+import org.gk.gtdservice.model.Attachment;
+import org.gk.gtdservice.repo.AttachmentRepository;
+import org.gk.gtdservice.repo.ReferenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class AttachmentServiceImpl implements AttachmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentServiceImpl.class);
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final AttachmentRepository repository;
+    private final ReferenceRepository referenceRepository;
+    private final BlobStore blobStore;
+
+    public AttachmentServiceImpl(AttachmentRepository repository, ReferenceRepository referenceRepository,
+                                 BlobStore blobStore) {
+        this.repository = repository;
+        this.referenceRepository = referenceRepository;
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttachmentDto> findByReferenceId(Long referenceId) {
+        logger.info("Listing attachments of reference: {}", referenceId);
+        return repository.findByReferenceId(owner(referenceId), referenceId).stream()
+                .map(AttachmentMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AttachmentDto findById(Long referenceId, Long attachmentId) {
+        logger.info("Getting attachment {} of reference {}", attachmentId, referenceId);
+        return AttachmentMapper.toDto(find(owner(referenceId), referenceId, attachmentId));
+    }
+
+    @Override
+    public Path file(AttachmentDto attachment) {
+        if (!blobStore.exists(attachment.sha256())) {
+            logger.error("Blob {} of attachment {} is missing", attachment.sha256(), attachment.id());
+            throw new ResourceNotFoundException("Attachment content not found");
+        }
+        return blobStore.path(attachment.sha256());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AttachmentDto create(Long referenceId, String name, String contentType, InputStream content)
+            throws IOException {
+        logger.info("Uploading attachment {} to reference {}", name, referenceId);
+        if (name == null || name.isBlank() || name.length() > 255) {
+            throw new InvalidRequestException("Attachment name must be 1 to 255 characters");
+        }
+        Long userId = owner(referenceId);
+        String type = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+        try (BlobStore.Upload upload = blobStore.receive(content)) {
+            BlobStore.Blob blob = upload.blob();
+            // The file is put in place and its attachment recorded before a release can check whether it is in use
+            Attachment saved = repository.withBlobLock(blob.sha256(), () -> {
+                keep(upload);
+                return repository.create(userId, referenceId, name, type, blob.size(), blob.sha256());
+            });
+            return AttachmentMapper.toDto(saved);
+        }
+    }
+
+    @Override
+    public void delete(Long referenceId, Long attachmentId) {
+        logger.info("Deleting attachment {} of reference {}", attachmentId, referenceId);
+        Long userId = owner(referenceId);
+        Attachment attachment = find(userId, referenceId, attachmentId);
+        repository.delete(userId, attachmentId);
+        afterCommit(() -> release(Set.of(attachment.sha256())));
+    }
+
+    @Override
+    public void deleteByReferenceId(Long referenceId) {
+        referenceRepository.findUserId(referenceId).ifPresent(userId -> {
+            Set<String> hashes = repository.findByReferenceId(userId, referenceId).stream()
+                    .map(Attachment::sha256)
+                    .collect(Collectors.toSet());
+            if (hashes.isEmpty()) {
+                return;
+            }
+            repository.deleteByReferenceId(userId, referenceId);
+            afterCommit(() -> release(hashes));
+        });
+    }
+
+    private Long owner(Long referenceId) {
+        return referenceRepository.findUserId(referenceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reference not found"));
+    }
+
+    private Attachment find(Long userId, Long referenceId, Long attachmentId) {
+        return repository.findById(userId, attachmentId)
+                .filter(attachment -> attachment.referenceId().equals(referenceId))
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+    }
+
+    private void keep(BlobStore.Upload upload) {
+        try {
+            blobStore.keep(upload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the files no attachment uses any more, each under its blob lock so that an
+     * upload of the same content cannot slip in between the check and the delete.
+     * Failures only leave an unused file behind, so they are logged rather than thrown.
+     */
+    private void release(Set<String> hashes) {
+        for (String sha256 : hashes) {
+            try {
+                repository.withBlobLock(sha256, () -> {
+                    if (repository.isBlobInUse(sha256)) {
+                        return false;
+                    }
+                    try {
+                        blobStore.delete(sha256);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return true;
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Could not delete blob {}", sha256, e);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
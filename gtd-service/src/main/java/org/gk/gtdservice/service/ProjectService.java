@@ -1,15 +1,18 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ProjectDto;
+import org.gk.gtdservice.dto.ProjectProperty;
+import org.gk.gtdservice.model.ProjectStatus;
 
 import java.util.List;
 
 public interface ProjectService {
-    List<ProjectDto> findAll();
-    List<ProjectDto> findByUserId(Long userId);
-    List<ProjectDto> findByAreaId(Long areaId);
-    List<ProjectDto> findByStatus(String status);
+    List<ProjectDto> findAll(Fieldset<ProjectProperty> fields);
+    List<ProjectDto> findByUserId(Long userId, Fieldset<ProjectProperty> fields);
+    List<ProjectDto> findByAreaId(Long areaId, Fieldset<ProjectProperty> fields);
+    List<ProjectDto> findByStatus(ProjectStatus status, Fieldset<ProjectProperty> fields);
     ProjectDto findById(Long id);
     ProjectDto create(CreateProjectDto dto);
     ProjectDto update(Long id, CreateProjectDto dto);
@@ -1,10 +1,17 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ProjectDto;
+import org.gk.gtdservice.dto.ProjectProperty;
+import org.gk.gtdservice.event.LifecycleEvents;
+import org.gk.gtdservice.event.Outbox;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.mapper.ProjectMapper;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
 import org.gk.gtdservice.repo.AreaRepository;
 import org.gk.gtdservice.repo.ProjectRepository;
 import org.gk.gtdservice.repo.UserRepository;
@@ -13,7 +20,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,45 +34,50 @@ public class ProjectServiceImpl implements ProjectService {
     private final ProjectRepository repository;
     private final UserRepository userRepository;
     private final AreaRepository areaRepository;
+    private final Outbox outbox;
+    private final ChangeFeed changes;
 
-    public ProjectServiceImpl(ProjectRepository repository, UserRepository userRepository, AreaRepository areaRepository) {
+    public ProjectServiceImpl(ProjectRepository repository, UserRepository userRepository, AreaRepository areaRepository,
+                              Outbox outbox, ChangeFeed changes) {
         this.repository = repository;
         this.userRepository = userRepository;
         this.areaRepository = areaRepository;
+        this.outbox = outbox;
+        this.changes = changes;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProjectDto> findAll() {
+    public List<ProjectDto> findAll(Fieldset<ProjectProperty> fields) {
         logger.info("Listing all projects");
-        return repository.findAll().stream()
+        return repository.findAll(fields).stream()
                 .map(ProjectMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProjectDto> findByUserId(Long userId) {
+    public List<ProjectDto> findByUserId(Long userId, Fieldset<ProjectProperty> fields) {
         logger.info("Listing projects for userId: {}", userId);
-        return repository.findByUserId(userId).stream()
+        return repository.findByUserId(userId, fields).stream()
                 .map(ProjectMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProjectDto> findByAreaId(Long areaId) {
+    public List<ProjectDto> findByAreaId(Long areaId, Fieldset<ProjectProperty> fields) {
         logger.info("Listing projects for areaId: {}", areaId);
-        return repository.findByAreaId(areaId).stream()
+        return repository.findByAreaId(areaId, fields).stream()
                 .map(ProjectMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProjectDto> findByStatus(String status) {
+    public List<ProjectDto> findByStatus(ProjectStatus status, Fieldset<ProjectProperty> fields) {
         logger.info("Listing projects for status: {}", status);
-        return repository.findByStatus(status).stream()
+        return repository.findByStatus(status, fields).stream()
                 .map(ProjectMapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -87,6 +101,7 @@ public class ProjectServiceImpl implements ProjectService {
             throw new ResourceNotFoundException("Area not found");
         }
         Project saved = repository.create(dto);
+        changes.record(saved.userId(), Change.Entity.PROJECT, saved.id(), Change.Action.CREATED);
         return ProjectMapper.toDto(saved);
     }
 
@@ -99,18 +114,29 @@ public class ProjectServiceImpl implements ProjectService {
         if (dto.areaId() != null && areaRepository.findById(dto.areaId()).isEmpty()) {
             throw new ResourceNotFoundException("Area not found");
         }
+        Project before = repository.findById(id).orElse(null);
         Project saved = repository.update(id, dto);
         if (saved == null) {
             throw new ResourceNotFoundException("Project not found");
         }
+        if (before != null) {
+            LifecycleEvents.projectChanges(before, saved, Instant.now()).forEach(outbox::record);
+            if (!before.userId().equals(saved.userId())) {
+                changes.record(before.userId(), Change.Entity.PROJECT, id, Change.Action.DELETED);
+            }
+        }
+        changes.record(saved.userId(), Change.Entity.PROJECT, id, Change.Action.UPDATED);
         return ProjectMapper.toDto(saved);
     }
 
     @Override
     public void delete(Long id) {
         logger.info("Deleting project with id: {}", id);
+        Optional<Project> before = repository.findById(id);
         if (!repository.delete(id)) {
             throw new ResourceNotFoundException("Project not found");
         }
+        before.ifPresent(project ->
+                changes.record(project.userId(), Change.Entity.PROJECT, id, Change.Action.DELETED));
     }
 }
@@ -1,14 +1,23 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ReferenceDto;
+import org.gk.gtdservice.dto.ReferenceProperty;
+import org.gk.gtdservice.model.ReferenceBody;
 
 import java.util.List;
 
 public interface ReferenceService {
-    List<ReferenceDto> findAll();
-    List<ReferenceDto> findByUserId(Long userId);
+    List<ReferenceDto> findAll(Fieldset<ReferenceProperty> fields);
+    List<ReferenceDto> findByUserId(Long userId, Fieldset<ReferenceProperty> fields);
     ReferenceDto findById(Long id);
+
+    /**
+     * The reference's body as stored, compressed; empty when it has none.
+     */
+    ReferenceBody findBody(Long id);
+
     ReferenceDto create(CreateReferenceDto dto);
     ReferenceDto update(Long id, CreateReferenceDto dto);
     void delete(Long id);
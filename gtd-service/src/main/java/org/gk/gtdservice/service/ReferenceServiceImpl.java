@@ -1,10 +1,13 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ReferenceDto;
+import org.gk.gtdservice.dto.ReferenceProperty;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.mapper.ReferenceMapper;
 import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.ReferenceBody;
 import org.gk.gtdservice.repo.ReferenceRepository;
 import org.gk.gtdservice.repo.UserRepository;
 import org.slf4j.Logger;
@@ -23,26 +26,29 @@ public class ReferenceServiceImpl implements ReferenceService {
 
     private final ReferenceRepository repository;
     private final UserRepository userRepository;
+    private final AttachmentService attachmentService;
 
-    public ReferenceServiceImpl(ReferenceRepository repository, UserRepository userRepository) {
+    public ReferenceServiceImpl(ReferenceRepository repository, UserRepository userRepository,
+                                AttachmentService attachmentService) {
         this.repository = repository;
         this.userRepository = userRepository;
+        this.attachmentService = attachmentService;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ReferenceDto> findAll() {
+    public List<ReferenceDto> findAll(Fieldset<ReferenceProperty> fields) {
         logger.info("Listing all references");
-        return repository.findAll().stream()
+        return repository.findAll(fields).stream()
                 .map(ReferenceMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ReferenceDto> findByUserId(Long userId) {
+    public List<ReferenceDto> findByUserId(Long userId, Fieldset<ReferenceProperty> fields) {
         logger.info("Listing references for userId: {}", userId);
-        return repository.findByUserId(userId).stream()
+        return repository.findByUserId(userId, fields).stream()
                 .map(ReferenceMapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -56,6 +62,14 @@ public class ReferenceServiceImpl implements ReferenceService {
                 .orElseThrow(() -> new ResourceNotFoundException("Reference not found"));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ReferenceBody findBody(Long id) {
+        logger.info("Getting body of reference with id: {}", id);
+        return repository.findBody(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reference not found"));
+    }
+
     @Override
     public ReferenceDto create(CreateReferenceDto dto) {
         logger.info("Creating reference: {}", dto);
@@ -80,6 +94,7 @@ public class ReferenceServiceImpl implements ReferenceService {
     @Override
     public void delete(Long id) {
         logger.info("Deleting reference with id: {}", id);
+        attachmentService.deleteByReferenceId(id);
         if (!repository.delete(id)) {
             throw new ResourceNotFoundException("Reference not found");
         }
@@ -1,5 +1,8 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.cache.QueryResultCache;
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
 import org.gk.gtdservice.dto.CreateTagDto;
 import org.gk.gtdservice.dto.TagDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
@@ -13,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,10 +27,15 @@ public class TagServiceImpl implements TagService {
 
     private final TagRepository repository;
     private final UserRepository userRepository;
+    private final ChangeFeed changes;
+    private final Optional<QueryResultCache> queryCache;
 
-    public TagServiceImpl(TagRepository repository, UserRepository userRepository) {
+    public TagServiceImpl(TagRepository repository, UserRepository userRepository, ChangeFeed changes,
+                          Optional<QueryResultCache> queryCache) {
         this.repository = repository;
         this.userRepository = userRepository;
+        this.changes = changes;
+        this.queryCache = queryCache;
     }
 
     @Override
@@ -63,6 +72,7 @@ public class TagServiceImpl implements TagService {
             throw new ResourceNotFoundException("User not found");
         }
         Tag saved = repository.create(dto);
+        changes.record(saved.userId(), Change.Entity.TAG, saved.id(), Change.Action.CREATED);
         return TagMapper.toDto(saved);
     }
 
@@ -76,14 +86,22 @@ public class TagServiceImpl implements TagService {
         if (saved == null) {
             throw new ResourceNotFoundException("Tag not found");
         }
+        // Cached tag lists of the owner's tasks show the old name.
+        queryCache.ifPresent(cache -> cache.invalidate(saved.userId()));
+        changes.record(saved.userId(), Change.Entity.TAG, id, Change.Action.UPDATED);
         return TagMapper.toDto(saved);
     }
 
     @Override
     public void delete(Long id) {
         logger.info("Deleting tag with id: {}", id);
+        Optional<Long> owner = repository.findById(id).map(Tag::userId);
         if (!repository.delete(id)) {
             throw new ResourceNotFoundException("Tag not found");
         }
+        owner.ifPresent(userId -> {
+            queryCache.ifPresent(cache -> cache.invalidate(userId));
+            changes.record(userId, Change.Entity.TAG, id, Change.Action.DELETED);
+        });
     }
 }
@@ -1,9 +1,13 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.cache.QueryResultCache;
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
 import org.gk.gtdservice.dto.CreateTaskDependencyDto;
 import org.gk.gtdservice.dto.TaskDependencyDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.mapper.TaskDependencyMapper;
+import org.gk.gtdservice.model.Task;
 import org.gk.gtdservice.model.TaskDependency;
 import org.gk.gtdservice.repo.TaskDependencyRepository;
 import org.gk.gtdservice.repo.TaskRepository;
@@ -13,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,10 +28,15 @@ public class TaskDependencyServiceImpl implements TaskDependencyService {
 
     private final TaskDependencyRepository repository;
     private final TaskRepository taskRepository;
+    private final Optional<QueryResultCache> queryCache;
+    private final ChangeFeed changes;
 
-    public TaskDependencyServiceImpl(TaskDependencyRepository repository, TaskRepository taskRepository) {
+    public TaskDependencyServiceImpl(TaskDependencyRepository repository, TaskRepository taskRepository,
+                                     Optional<QueryResultCache> queryCache, ChangeFeed changes) {
         this.repository = repository;
         this.taskRepository = taskRepository;
+        this.queryCache = queryCache;
+        this.changes = changes;
     }
 
     @Override
@@ -69,9 +79,8 @@ public class TaskDependencyServiceImpl implements TaskDependencyService {
     public TaskDependencyDto create(CreateTaskDependencyDto dto) {
         logger.info("Creating task dependency: {}", dto);
         
-        if (taskRepository.findById(dto.taskId()).isEmpty()) {
-            throw new ResourceNotFoundException("Task not found with id: " + dto.taskId());
-        }
+        Task task = taskRepository.findById(dto.taskId())
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + dto.taskId()));
         
         if (taskRepository.findById(dto.dependsOnTaskId()).isEmpty()) {
             throw new ResourceNotFoundException("Task not found with id: " + dto.dependsOnTaskId());
@@ -82,6 +91,7 @@ public class TaskDependencyServiceImpl implements TaskDependencyService {
         }
         
         TaskDependency saved = repository.create(dto);
+        changed(task);
         return TaskDependencyMapper.toDto(saved);
     }
 
@@ -91,6 +101,7 @@ public class TaskDependencyServiceImpl implements TaskDependencyService {
         if (!repository.delete(taskId, dependsOnTaskId)) {
             throw new ResourceNotFoundException("Task dependency not found");
         }
+        changed(taskId);
     }
 
     @Override
@@ -98,6 +109,22 @@ public class TaskDependencyServiceImpl implements TaskDependencyService {
         logger.info("Deleting all dependencies for taskId: {}", taskId);
         int deleted = repository.deleteByTaskId(taskId);
         logger.info("Deleted {} dependencies for taskId: {}", deleted, taskId);
+        if (deleted > 0) {
+            changed(taskId);
+        }
         return deleted;
     }
+
+    private void changed(Long taskId) {
+        taskRepository.findById(taskId).ifPresent(this::changed);
+    }
+
+    /**
+     * Adding or removing a dependency blocks or unblocks the dependent task, so its
+     * owner's cached reads are invalidated and change-feed clients are told to refetch it.
+     */
+    private void changed(Task task) {
+        queryCache.ifPresent(cache -> cache.invalidate(task.userId()));
+        changes.record(task.userId(), Change.Entity.TASK, task.id(), Change.Action.UPDATED);
+    }
 }
@@ -0,0 +1,62 @@
+package org.gk.gtdservice.service;
+
+import org.gk.gtdservice.cache.UserWorkingSets;
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respaces a user's task rank keys off the request path once a reorder has produced
+ * a key longer than {@code RankKeys.REBALANCE_LENGTH}. Requests are coalesced per
+ * user, so a burst of drags into the same gap costs one rewrite.
+ */
+@Component
+public class TaskRankRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRankRebalancer.class);
+
+    private final ShardedJdbc shards;
+    private final TaskRepository taskRepository;
+    private final Optional<UserWorkingSets> workingSets;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public TaskRankRebalancer(ShardedJdbc shards, TaskRepository taskRepository, Optional<UserWorkingSets> workingSets) {
+        this.shards = shards;
+        this.taskRepository = taskRepository;
+        this.workingSets = workingSets;
+    }
+
+    public void request(Long userId) {
+        if (pending.add(userId)) {
+            logger.debug("Rank rebalance requested for userId: {}", userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.ranking.rebalance-interval:5s}")
+    public void rebalancePending() {
+        for (Long userId : List.copyOf(pending)) {
+            pending.remove(userId);
+            try {
+                shards.inUserTransaction(userId, () -> {
+                    taskRepository.rebalanceRanks(userId);
+                    workingSets.ifPresent(sets -> sets.invalidate(userId));
+                });
+            } catch (RuntimeException e) {
+                logger.error("Rebalancing rank keys for userId: {} failed, will retry", userId, e);
+                pending.add(userId);
+            }
+        }
+    }
+
+    boolean isPending(Long userId) {
+        return pending.contains(userId);
+    }
+}
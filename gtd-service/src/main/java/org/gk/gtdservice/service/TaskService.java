@@ -1,32 +1,52 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.dto.BulkTaskRequestDto;
+import org.gk.gtdservice.dto.BulkTaskResultDto;
 import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.TaskCompletionDto;
 import org.gk.gtdservice.dto.TaskDto;
+import org.gk.gtdservice.dto.TaskMoveDto;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.dto.TaskProperty;
+import org.gk.gtdservice.model.TaskStatus;
 
 import java.util.List;
 
 public interface TaskService {
     
-    List<TaskDto> findAll();
+    List<TaskDto> findAll(Fieldset<TaskProperty> fields);
     
-    List<TaskDto> findByUserId(Long userId);
+    List<TaskDto> findByUserId(Long userId, Fieldset<TaskProperty> fields);
     
-    List<TaskDto> findByProjectId(Long projectId);
+    List<TaskDto> findByProjectId(Long projectId, Fieldset<TaskProperty> fields);
     
-    List<TaskDto> findByContextId(Long contextId);
+    List<TaskDto> findByContextId(Long contextId, Fieldset<TaskProperty> fields);
     
-    List<TaskDto> findByStatus(String status);
+    List<TaskDto> findByStatus(TaskStatus status, Fieldset<TaskProperty> fields);
     
-    List<TaskDto> findByUserIdAndStatus(Long userId, String status);
+    /**
+     * Open lists may be served from the working set, which holds whole tasks; {@code fields}
+     * then only narrows the response.
+     */
+    List<TaskDto> findByUserIdAndStatus(Long userId, TaskStatus status, Fieldset<TaskProperty> fields);
     
     TaskDto findById(Long id);
     
     TaskDto create(CreateTaskDto dto);
     
     TaskDto update(Long id, CreateTaskDto dto);
+
+    TaskDto patch(Long id, TaskPatchDto patch);
     
     void delete(Long id);
 
+    TaskCompletionDto complete(Long id);
+
+    TaskDto move(Long id, TaskMoveDto dto);
+
+    List<BulkTaskResultDto> bulk(BulkTaskRequestDto request);
+
     void addTagToTask(Long userId, Long taskId, Long tagId);
 
     void removeTagFromTask(Long userId, Long taskId, Long tagId);
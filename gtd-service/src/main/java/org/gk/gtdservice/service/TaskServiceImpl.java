@@ -1,14 +1,35 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.cache.QueryResultCache;
+import org.gk.gtdservice.cache.UserWorkingSets;
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
+import org.gk.gtdservice.dto.BulkTaskOperationDto;
+import org.gk.gtdservice.dto.BulkTaskRequestDto;
+import org.gk.gtdservice.dto.BulkTaskResultDto;
 import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.TaskCompletionDto;
 import org.gk.gtdservice.dto.TaskDto;
+import org.gk.gtdservice.dto.TaskMoveDto;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.dto.TaskProperty;
+import org.gk.gtdservice.event.LifecycleEvents;
+import org.gk.gtdservice.event.Outbox;
+import org.gk.gtdservice.event.TaskCreated;
+import org.gk.gtdservice.event.TaskDeleted;
+import org.gk.gtdservice.exception.InvalidRequestException;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.mapper.TaskMapper;
 import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskCompletion;
+import org.gk.gtdservice.model.TaskField;
 import org.gk.gtdservice.dto.TagDto;
 import org.gk.gtdservice.mapper.TagMapper;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.repo.ContextRepository;
 import org.gk.gtdservice.repo.ProjectRepository;
+import org.gk.gtdservice.repo.RankKeys;
 import org.gk.gtdservice.repo.TagRepository;
 import org.gk.gtdservice.repo.TaskRepository;
 import org.gk.gtdservice.repo.TaskTagRepository;
@@ -18,8 +39,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -27,76 +61,101 @@ public class TaskServiceImpl implements TaskService {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskServiceImpl.class);
 
+    /** Rough heap cost of a cached task or tag besides its strings: the record, boxed fields and list slot. */
+    private static final long TASK_DTO_BYTES = 200;
+    private static final long TAG_DTO_BYTES = 80;
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
     private final ContextRepository contextRepository;
     private final TaskTagRepository taskTagRepository;
     private final TagRepository tagRepository;
+    private final Outbox outbox;
+    private final TaskRankRebalancer rankRebalancer;
+    private final ChangeFeed changes;
+    private final Optional<UserWorkingSets> workingSets;
+    private final Optional<QueryResultCache> queryCache;
 
     public TaskServiceImpl(TaskRepository taskRepository, UserRepository userRepository,
                            ProjectRepository projectRepository, ContextRepository contextRepository,
-                           TaskTagRepository taskTagRepository, TagRepository tagRepository) {
+                           TaskTagRepository taskTagRepository, TagRepository tagRepository, Outbox outbox,
+                           TaskRankRebalancer rankRebalancer, ChangeFeed changes,
+                           Optional<UserWorkingSets> workingSets, Optional<QueryResultCache> queryCache) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.projectRepository = projectRepository;
         this.contextRepository = contextRepository;
         this.taskTagRepository = taskTagRepository;
         this.tagRepository = tagRepository;
+        this.outbox = outbox;
+        this.rankRebalancer = rankRebalancer;
+        this.changes = changes;
+        this.workingSets = workingSets;
+        this.queryCache = queryCache;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TaskDto> findAll() {
+    public List<TaskDto> findAll(Fieldset<TaskProperty> fields) {
         logger.info("Finding all tasks");
-        List<Task> tasks = taskRepository.findAll();
+        List<Task> tasks = taskRepository.findAll(fields);
         logger.debug("Found {} tasks", tasks.size());
         return tasks.stream().map(TaskMapper::toDto).collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TaskDto> findByUserId(Long userId) {
+    public List<TaskDto> findByUserId(Long userId, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by userId: {}", userId);
-        List<Task> tasks = taskRepository.findByUserId(userId);
-        logger.debug("Found {} tasks for userId: {}", tasks.size(), userId);
-        return tasks.stream().map(TaskMapper::toDto).collect(Collectors.toList());
+        return cached(userId, new TasksQuery(null, fields), () -> {
+            List<Task> tasks = taskRepository.findByUserId(userId, fields);
+            logger.debug("Found {} tasks for userId: {}", tasks.size(), userId);
+            return tasks.stream().map(TaskMapper::toDto).toList();
+        }, TaskServiceImpl::weighTasks);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TaskDto> findByProjectId(Long projectId) {
+    public List<TaskDto> findByProjectId(Long projectId, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by projectId: {}", projectId);
-        List<Task> tasks = taskRepository.findByProjectId(projectId);
+        List<Task> tasks = taskRepository.findByProjectId(projectId, fields);
         logger.debug("Found {} tasks for projectId: {}", tasks.size(), projectId);
         return tasks.stream().map(TaskMapper::toDto).collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TaskDto> findByContextId(Long contextId) {
+    public List<TaskDto> findByContextId(Long contextId, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by contextId: {}", contextId);
-        List<Task> tasks = taskRepository.findByContextId(contextId);
+        List<Task> tasks = taskRepository.findByContextId(contextId, fields);
         logger.debug("Found {} tasks for contextId: {}", tasks.size(), contextId);
         return tasks.stream().map(TaskMapper::toDto).collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TaskDto> findByStatus(String status) {
+    public List<TaskDto> findByStatus(TaskStatus status, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by status: {}", status);
-        List<Task> tasks = taskRepository.findByStatus(status);
+        List<Task> tasks = taskRepository.findByStatus(status, fields);
         logger.debug("Found {} tasks with status: {}", tasks.size(), status);
         return tasks.stream().map(TaskMapper::toDto).collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<TaskDto> findByUserIdAndStatus(Long userId, String status) {
+    public List<TaskDto> findByUserIdAndStatus(Long userId, TaskStatus status, Fieldset<TaskProperty> fields) {
         logger.info("Finding tasks by userId: {} and status: {}", userId, status);
-        List<Task> tasks = taskRepository.findByUserIdAndStatus(userId, status);
-        logger.debug("Found {} tasks for userId: {} with status: {}", tasks.size(), userId, status);
-        return tasks.stream().map(TaskMapper::toDto).collect(Collectors.toList());
+        if (workingSets.isPresent() && UserWorkingSets.serves(status)) {
+            List<Task> tasks = workingSets.get().findByStatus(userId, status);
+            logger.debug("Found {} working-set tasks for userId: {} with status: {}", tasks.size(), userId, status);
+            return TaskMapper.toDtoView(tasks);
+        }
+        return cached(userId, new TasksQuery(status, fields), () -> {
+            List<Task> tasks = taskRepository.findByUserIdAndStatus(userId, status, fields);
+            logger.debug("Found {} tasks for userId: {} with status: {}", tasks.size(), userId, status);
+            return tasks.stream().map(TaskMapper::toDto).toList();
+        }, TaskServiceImpl::weighTasks);
     }
 
     @Override
@@ -129,6 +188,10 @@ public class TaskServiceImpl implements TaskService {
         }
         
         Task saved = taskRepository.create(dto);
+        workingSets.ifPresent(sets -> sets.changed(saved.userId(), List.of(saved.id())));
+        invalidate(saved.userId());
+        changed(saved.userId(), saved.id(), Change.Action.CREATED);
+        outbox.record(new TaskCreated(saved.userId(), saved.id(), saved.projectId(), saved.status(), Instant.now()));
         logger.info("Created task with id: {}", saved.id());
         return TaskMapper.toDto(saved);
     }
@@ -150,27 +213,300 @@ public class TaskServiceImpl implements TaskService {
             validateContextExists(dto.contextId());
         }
         
+        Task before = taskRepository.findById(id).orElse(null);
         Task saved = taskRepository.update(id, dto);
         if (saved == null) {
             logger.warn("Task not found for id: {}", id);
             throw new ResourceNotFoundException("Task not found");
         }
+        if (before != null) {
+            LifecycleEvents.taskChanges(before, saved, Instant.now()).forEach(outbox::record);
+            if (!before.userId().equals(saved.userId())) {
+                workingSets.ifPresent(sets -> sets.changed(before.userId(), List.of(id)));
+                invalidate(before.userId());
+                changed(before.userId(), id, Change.Action.DELETED);
+            }
+        }
+        workingSets.ifPresent(sets -> sets.changed(saved.userId(), List.of(id)));
+        invalidate(saved.userId());
+        changed(saved.userId(), id, Change.Action.UPDATED);
         
         logger.info("Updated task with id: {}", id);
         return TaskMapper.toDto(saved);
     }
 
+    /**
+     * Applies a merge patch. Only foreign keys the patch sets are checked, and the
+     * owner never is since a patch cannot change it.
+     */
+    @Override
+    public TaskDto patch(Long id, TaskPatchDto patch) {
+        logger.info("Patching task with id: {}, fields: {}", id, patch.fields());
+        Task before = taskRepository.lockById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Task not found with id: {}", id);
+                    return new ResourceNotFoundException("Task not found");
+                });
+
+        Long projectId = patch.get(TaskField.PROJECT_ID);
+        if (projectId != null) {
+            validateProjectExists(projectId);
+        }
+        Long contextId = patch.get(TaskField.CONTEXT_ID);
+        if (contextId != null) {
+            validateContextExists(contextId);
+        }
+
+        if (patch.isEmpty()) {
+            return TaskMapper.toDto(before);
+        }
+        Task saved = taskRepository.patch(before, patch);
+        LifecycleEvents.taskChanges(before, saved, Instant.now()).forEach(outbox::record);
+        workingSets.ifPresent(sets -> sets.changed(saved.userId(), List.of(id)));
+        invalidate(saved.userId());
+        changed(saved.userId(), id, Change.Action.UPDATED);
+        logger.info("Patched task with id: {}", id);
+        return TaskMapper.toDto(saved);
+    }
+
     @Override
     public void delete(Long id) {
         logger.info("Deleting task with id: {}", id);
+        Task before = taskRepository.findById(id).orElse(null);
         boolean deleted = taskRepository.delete(id);
         if (!deleted) {
             logger.warn("Task not found for deletion, id: {}", id);
             throw new ResourceNotFoundException("Task not found");
         }
+        if (before != null) {
+            outbox.record(new TaskDeleted(before.userId(), before.id(), before.projectId(), before.status(), Instant.now()));
+            workingSets.ifPresent(sets -> sets.changed(before.userId(), List.of(id)));
+            invalidate(before.userId());
+            changed(before.userId(), id, Change.Action.DELETED);
+        }
         logger.info("Deleted task with id: {}", id);
     }
 
+    @Override
+    public TaskCompletionDto complete(Long id) {
+        logger.info("Completing task with id: {}", id);
+        Instant now = Instant.now();
+        TaskCompletion completion = taskRepository.complete(id, now)
+                .orElseThrow(() -> {
+                    logger.warn("Task not found with id: {}", id);
+                    return new ResourceNotFoundException("Task not found");
+                });
+        Task completed = completion.after();
+        List<Task> unblocked = List.of();
+        if (completion.changed()) {
+            LifecycleEvents.taskChanges(completion.before(), completed, now).forEach(outbox::record);
+            workingSets.ifPresent(sets -> sets.changed(completed.userId(), List.of(id)));
+            invalidate(completed.userId());
+            changed(completed.userId(), id, Change.Action.UPDATED);
+            unblocked = taskRepository.findUnblockedDependents(completed.userId(), id);
+        }
+        logger.info("Completed task with id: {}, unblocked {} tasks", id, unblocked.size());
+        return new TaskCompletionDto(
+                TaskMapper.toDto(completed),
+                unblocked.stream().map(TaskMapper::toDto).collect(Collectors.toList()));
+    }
+
+    @Override
+    public TaskDto move(Long id, TaskMoveDto dto) {
+        logger.info("Moving task with id: {} between {} and {}", id, dto.afterId(), dto.beforeId());
+        if (dto.afterId() == null && dto.beforeId() == null) {
+            throw new InvalidRequestException("afterId or beforeId is required");
+        }
+        if (id.equals(dto.afterId()) || id.equals(dto.beforeId())) {
+            throw new InvalidRequestException("A task cannot be moved next to itself");
+        }
+        Task task = taskRepository.lockById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Task not found with id: {}", id);
+                    return new ResourceNotFoundException("Task not found");
+                });
+        String key;
+        try {
+            key = taskRepository.move(task.userId(), id, dto.afterId(), dto.beforeId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Task " + dto.afterId() + " does not come before task " + dto.beforeId());
+        }
+        workingSets.ifPresent(sets -> sets.moved(task.userId(), id, dto.afterId(), dto.beforeId()));
+        invalidate(task.userId());
+        changed(task.userId(), id, Change.Action.UPDATED);
+        if (RankKeys.needsRebalance(key)) {
+            rankRebalancer.request(task.userId());
+        }
+        Task moved = taskRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+        logger.info("Moved task with id: {}", id);
+        return TaskMapper.toDto(moved);
+    }
+
+    /**
+     * Applies the operations in order against the locked tasks in memory, then writes
+     * the net result: one locking read, one owned-id check each for projects and
+     * contexts, one batched update and one delete, plus one rank key read and one
+     * batch of keys when there are moves, whatever the number of operations.
+     * An operation that fails only gets a failed result; the others still apply.
+     */
+    @Override
+    public List<BulkTaskResultDto> bulk(BulkTaskRequestDto request) {
+        Long userId = request.userId();
+        List<BulkTaskOperationDto> operations = request.operations();
+        logger.info("Applying {} bulk operations for userId: {}", operations.size(), userId);
+        validateUserExists(userId);
+
+        Map<Long, Task> before = taskRepository.lockByIds(userId,
+                        operations.stream().map(BulkTaskOperationDto::taskId).collect(Collectors.toCollection(LinkedHashSet::new)))
+                .stream()
+                .collect(Collectors.toMap(Task::id, Function.identity()));
+        Set<Long> projectIds = projectRepository.findOwnedIds(userId, operations.stream()
+                .filter(op -> "move_to_project".equals(op.op()) && op.projectId() != null)
+                .map(BulkTaskOperationDto::projectId)
+                .collect(Collectors.toSet()));
+        Set<Long> contextIds = contextRepository.findOwnedIds(userId, operations.stream()
+                .filter(op -> "set_context".equals(op.op()) && op.contextId() != null)
+                .map(BulkTaskOperationDto::contextId)
+                .collect(Collectors.toSet()));
+        Map<Long, String> ranks = rankKeys(userId, operations);
+
+        Map<Long, Task> current = new LinkedHashMap<>(before);
+        Set<Long> deleted = new LinkedHashSet<>();
+        Map<Long, String> moved = new LinkedHashMap<>();
+        List<BulkTaskResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(apply(i, operations.get(i), current, deleted, projectIds, contextIds, ranks, moved));
+        }
+
+        List<Task> changed = current.values().stream()
+                .filter(t -> !t.equals(before.get(t.id())))
+                .collect(Collectors.toList());
+        List<Task> removed = deleted.stream().map(before::get).collect(Collectors.toList());
+        List<Task> saved = taskRepository.updateAll(userId, before, changed);
+        taskRepository.deleteAll(userId, removed);
+        taskRepository.updateRankKeys(userId, moved);
+        if (moved.values().stream().anyMatch(RankKeys::needsRebalance)) {
+            rankRebalancer.request(userId);
+        }
+
+        workingSets.ifPresent(sets -> sets.changed(userId, before.keySet()));
+        invalidate(userId);
+        Instant now = Instant.now();
+        Set<Long> updated = new LinkedHashSet<>(moved.keySet());
+        for (Task task : saved) {
+            LifecycleEvents.taskChanges(before.get(task.id()), task, now).forEach(outbox::record);
+            updated.add(task.id());
+        }
+        updated.forEach(id -> changed(userId, id, Change.Action.UPDATED));
+        for (Task task : removed) {
+            outbox.record(new TaskDeleted(task.userId(), task.id(), task.projectId(), task.status(), now));
+            changed(userId, task.id(), Change.Action.DELETED);
+        }
+        logger.info("Applied bulk operations for userId: {}, updated {} and deleted {} tasks",
+                userId, saved.size(), removed.size());
+        return results;
+    }
+
+    /**
+     * Rank keys of the tasks the request moves and of their neighbours, those of the
+     * user's tasks that have one. Moves update the map so later ones see them.
+     */
+    private Map<Long, String> rankKeys(Long userId, List<BulkTaskOperationDto> operations) {
+        Set<Long> ids = operations.stream()
+                .filter(op -> "move".equals(op.op()))
+                .flatMap(op -> Stream.of(op.taskId(), op.afterId(), op.beforeId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> ranks = new HashMap<>();
+        if (!ids.isEmpty()) {
+            taskRepository.findRankedByIds(userId, ids).stream()
+                    .filter(ranked -> ranked.rankKey() != null)
+                    .forEach(ranked -> ranks.put(ranked.task().id(), ranked.rankKey()));
+        }
+        return ranks;
+    }
+
+    private static BulkTaskResultDto apply(int index, BulkTaskOperationDto op, Map<Long, Task> current,
+                                           Set<Long> deleted, Set<Long> projectIds, Set<Long> contextIds,
+                                           Map<Long, String> ranks, Map<Long, String> moved) {
+        Task task = current.get(op.taskId());
+        if (task == null) {
+            return result(index, op, "not_found", "Task not found");
+        }
+        switch (op.op()) {
+            case "set_status" -> {
+                if (op.status() == null) {
+                    return result(index, op, "invalid", "status is required");
+                }
+                task = with(task, op.status(), task.projectId(), task.contextId());
+            }
+            case "move_to_project" -> {
+                if (op.projectId() != null && !projectIds.contains(op.projectId())) {
+                    return result(index, op, "not_found", "Project not found");
+                }
+                task = with(task, task.status(), op.projectId(), task.contextId());
+            }
+            case "set_context" -> {
+                if (op.contextId() != null && !contextIds.contains(op.contextId())) {
+                    return result(index, op, "not_found", "Context not found");
+                }
+                task = with(task, task.status(), task.projectId(), op.contextId());
+            }
+            case "move" -> {
+                if (op.afterId() == null && op.beforeId() == null) {
+                    return result(index, op, "invalid", "afterId or beforeId is required");
+                }
+                if (task.id().equals(op.afterId()) || task.id().equals(op.beforeId())) {
+                    return result(index, op, "invalid", "A task cannot be moved next to itself");
+                }
+                if (!placeable(op.afterId(), ranks, deleted) || !placeable(op.beforeId(), ranks, deleted)) {
+                    return result(index, op, "not_found", "Task not found");
+                }
+                String key;
+                try {
+                    key = RankKeys.between(ranks.get(op.afterId()), ranks.get(op.beforeId()));
+                } catch (IllegalArgumentException e) {
+                    return result(index, op, "invalid",
+                            "Task " + op.afterId() + " does not come before task " + op.beforeId());
+                }
+                ranks.put(task.id(), key);
+                moved.put(task.id(), key);
+                return result(index, op, "ok", null);
+            }
+            case "delete" -> {
+                current.remove(task.id());
+                deleted.add(task.id());
+                moved.remove(task.id());
+                return result(index, op, "ok", null);
+            }
+            default -> {
+                return result(index, op, "invalid", "Unknown operation: " + op.op());
+            }
+        }
+        current.put(task.id(), task);
+        return result(index, op, "ok", null);
+    }
+
+    private static BulkTaskResultDto result(int index, BulkTaskOperationDto op, String outcome, String message) {
+        return new BulkTaskResultDto(index, op.taskId(), outcome, message);
+    }
+
+    /**
+     * Whether a move may use the task as a neighbour: one of the user's, not deleted
+     * earlier in the request, with a rank key. {@code null} is the start or end of the list.
+     */
+    private static boolean placeable(Long neighbourId, Map<Long, String> ranks, Set<Long> deleted) {
+        return neighbourId == null || (ranks.containsKey(neighbourId) && !deleted.contains(neighbourId));
+    }
+
+    private static Task with(Task t, TaskStatus status, Long projectId, Long contextId) {
+        return new Task(t.id(), t.userId(), projectId, contextId, t.title(), t.notes(), status, t.priority(),
+                t.energy(), t.durationEstMin(), t.dueAt(), t.deferUntil(), t.waitingOn(), t.waitingSince(),
+                t.createdAt(), t.completedAt(), t.orderIndex());
+    }
+
     @Override
     public void addTagToTask(Long userId, Long taskId, Long tagId) {
         logger.info("Adding tag {} to task {} for user {}", tagId, taskId, userId);
@@ -187,6 +523,8 @@ public class TaskServiceImpl implements TaskService {
         }
 
         taskTagRepository.addTagToTask(taskId, tagId);
+        invalidate(userId);
+        changed(userId, taskId, Change.Action.UPDATED);
     }
 
     @Override
@@ -199,21 +537,68 @@ public class TaskServiceImpl implements TaskService {
         }
 
         taskTagRepository.removeTagFromTask(taskId, tagId);
+        invalidate(userId);
+        changed(userId, taskId, Change.Action.UPDATED);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<TagDto> getTagsForTask(Long userId, Long taskId) {
         logger.info("Getting tags for task {} for user {}", taskId, userId);
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
-        if (!task.userId().equals(userId)) {
-            throw new ResourceNotFoundException("Task not found");
+        return cached(userId, new TagsQuery(taskId), () -> {
+            Task task = taskRepository.findById(taskId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+            if (!task.userId().equals(userId)) {
+                throw new ResourceNotFoundException("Task not found");
+            }
+
+            return taskTagRepository.findTagsByTaskId(taskId).stream()
+                    .map(TagMapper::toDto)
+                    .toList();
+        }, TaskServiceImpl::weighTags);
+    }
+
+    /**
+     * Reads through the query-result cache when it is enabled. Every write below that
+     * changes what these reads return {@link #invalidate}s the user it belongs to.
+     */
+    private <T> T cached(Long userId, Object query, Supplier<T> load, ToLongFunction<? super T> weigher) {
+        return queryCache.isPresent() ? queryCache.get().get(userId, query, load, weigher) : load.get();
+    }
+
+    private void invalidate(Long userId) {
+        queryCache.ifPresent(cache -> cache.invalidate(userId));
+    }
+
+    private void changed(Long userId, Long taskId, Change.Action action) {
+        changes.record(userId, Change.Entity.TASK, taskId, action);
+    }
+
+    private static long weighTasks(List<TaskDto> tasks) {
+        long bytes = 0;
+        for (TaskDto t : tasks) {
+            bytes += TASK_DTO_BYTES + 2L * (length(t.title()) + length(t.notes()) + length(t.waitingOn()));
         }
+        return bytes;
+    }
 
-        return taskTagRepository.findTagsByTaskId(taskId).stream()
-                .map(TagMapper::toDto)
-                .collect(Collectors.toList());
+    private static long weighTags(List<TagDto> tags) {
+        long bytes = 0;
+        for (TagDto t : tags) {
+            bytes += TAG_DTO_BYTES + 2L * length(t.name());
+        }
+        return bytes;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    /** A user's task list, all of it when {@code status} is null. */
+    private record TasksQuery(TaskStatus status, Fieldset<TaskProperty> fields) {
+    }
+
+    private record TagsQuery(Long taskId) {
     }
 
     private void validateUserExists(Long userId) {
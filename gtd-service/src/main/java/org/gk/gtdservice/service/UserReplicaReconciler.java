@@ -0,0 +1,37 @@
+package org.gk.gtdservice.service;
+
+import org.gk.gtdservice.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Repairs the copies of {@code gtd.users} on secondary shards that a failed create,
+ * update or delete left out of step with the primary.
+ */
+@Component
+public class UserReplicaReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserReplicaReconciler.class);
+
+    /** Longer than any create takes between copying the user and committing it on the primary. */
+    static final Duration GRACE = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+
+    public UserReplicaReconciler(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.sharding.replica-reconcile-interval:60s}")
+    public void reconcile() {
+        try {
+            userRepository.reconcileReplicas(GRACE);
+        } catch (RuntimeException e) {
+            logger.error("Reconciling user copies failed, will retry", e);
+        }
+    }
+}
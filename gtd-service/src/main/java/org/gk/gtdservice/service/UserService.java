@@ -1,6 +1,7 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.ListCountsDto;
 import org.gk.gtdservice.dto.UserDto;
 
 import java.util.List;
@@ -11,4 +12,5 @@ public interface UserService {
     UserDto create(CreateUserDto dto);
     UserDto update(Long id, CreateUserDto dto);
     void delete(Long id);
+    ListCountsDto getListCounts(Long id);
 }
@@ -1,10 +1,13 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.ListCountsDto;
 import org.gk.gtdservice.dto.UserDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.mapper.ListCountsMapper;
 import org.gk.gtdservice.mapper.UserMapper;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.repo.ListCounterRepository;
 import org.gk.gtdservice.repo.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +25,11 @@ public class UserServiceImpl implements UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
     private final UserRepository repository;
+    private final ListCounterRepository listCounterRepository;
 
-    public UserServiceImpl(UserRepository repository) {
+    public UserServiceImpl(UserRepository repository, ListCounterRepository listCounterRepository) {
         this.repository = repository;
+        this.listCounterRepository = listCounterRepository;
     }
 
     @Override
@@ -75,4 +80,14 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User not found");
         }
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ListCountsDto getListCounts(Long id) {
+        logger.info("Getting list counts for user with id: {}", id);
+        if (repository.findById(id).isEmpty()) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return ListCountsMapper.toDto(id, listCounterRepository.findByUserId(id));
+    }
 }
@@ -0,0 +1,61 @@
+package org.gk.gtdservice.shard;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Places users by a mixed hash of their id, with an override directory for users
+ * that were moved by the rebalancer.
+ */
+public class HashShardRouter implements ShardRouter {
+
+    private final int shardCount;
+    private final Map<Long, Integer> overrides = new ConcurrentHashMap<>();
+
+    public HashShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1");
+        }
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public int shardFor(Long userId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        Integer pinned = overrides.get(userId);
+        if (pinned != null) {
+            return pinned;
+        }
+        return homeShard(userId);
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public void assign(Long userId, int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Shard " + shard + " out of range [0, " + shardCount + ")");
+        }
+        if (shard == homeShard(userId)) {
+            overrides.remove(userId);
+        } else {
+            overrides.put(userId, shard);
+        }
+    }
+
+    public Map<Long, Integer> overrides() {
+        return Map.copyOf(overrides);
+    }
+
+    int homeShard(Long userId) {
+        // Sequential ids would otherwise fill shards round-robin in lockstep
+        long h = userId * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) Math.floorMod(h, (long) shardCount);
+    }
+}
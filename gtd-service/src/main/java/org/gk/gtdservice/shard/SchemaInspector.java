@@ -0,0 +1,99 @@
+package org.gk.gtdservice.shard;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Reads the shape of {@code gtd} tables from JDBC metadata, for the startup code that
+ * upgrades databases in place where schema.sql cannot. H2 reports {@code gtd} as a
+ * schema and folds identifiers to upper case; MySQL reports it as a catalog and keeps
+ * them in lower case. Table, column and index names are passed in lower case.
+ */
+public final class SchemaInspector {
+
+    private SchemaInspector() {
+    }
+
+    public static boolean isMySql(DataSource dataSource) {
+        try {
+            return isMySql(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot determine database type", e);
+        }
+    }
+
+    public static boolean hasColumn(DataSource dataSource, String table, String column) {
+        return columnType(dataSource, table, column) != null;
+    }
+
+    /**
+     * Whether {@code gtd.<table>.<column>} exists and holds VARCHAR or CHAR values.
+     */
+    public static boolean isTextColumn(DataSource dataSource, String table, String column) {
+        Integer type = columnType(dataSource, table, column);
+        return type != null && (type == Types.VARCHAR || type == Types.CHAR);
+    }
+
+    public static boolean hasIndex(DataSource dataSource, String table, String index) {
+        return inspect(dataSource, table, (meta, catalog, schema, name) -> {
+            try (ResultSet rs = meta.getIndexInfo(catalog, schema, name, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * The name to give {@code CREATE INDEX}: MySQL index names belong to the table, H2
+     * ones to a schema that must match the table's.
+     */
+    public static String indexName(DataSource dataSource, String index) {
+        return isMySql(dataSource) ? index : "gtd." + index;
+    }
+
+    /**
+     * The {@link Types} code of {@code gtd.<table>.<column>}, or {@code null} when there
+     * is no such column.
+     */
+    private static Integer columnType(DataSource dataSource, String table, String column) {
+        return inspect(dataSource, table, (meta, catalog, schema, name) -> {
+            String columnName = meta.storesUpperCaseIdentifiers() ? column.toUpperCase() : column;
+            try (ResultSet rs = meta.getColumns(catalog, schema, name, columnName)) {
+                return rs.next() ? rs.getInt("DATA_TYPE") : null;
+            }
+        });
+    }
+
+    private static <T> T inspect(DataSource dataSource, String table, TableLookup<T> lookup) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, meta -> {
+                boolean upper = meta.storesUpperCaseIdentifiers();
+                String gtd = upper ? "GTD" : "gtd";
+                boolean catalogs = isMySql(meta.getDatabaseProductName());
+                return lookup.find(meta, catalogs ? gtd : null, catalogs ? null : gtd,
+                        upper ? table.toUpperCase() : table);
+            });
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot inspect gtd." + table, e);
+        }
+    }
+
+    private static boolean isMySql(String product) {
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+
+    @FunctionalInterface
+    private interface TableLookup<T> {
+        T find(DatabaseMetaData meta, String catalog, String schema, String table) throws SQLException;
+    }
+}
@@ -0,0 +1,46 @@
+package org.gk.gtdservice.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Collections;
+
+/**
+ * Keeps the router's overrides in step with {@code gtd.user_shards}. The rebalancer
+ * updates its own node's router as part of a move; every other node picks the move up
+ * on its next refresh, so they stop routing the user to the shard the rows left.
+ * Writes do not depend on it, as they read the user's shard under the user's lock
+ * (see {@link ShardedJdbc}); until the refresh only reads can go to the old shard.
+ */
+public class ShardDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardDirectory.class);
+
+    private final ShardedJdbc shards;
+
+    public ShardDirectory(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Re-reads the whole directory. It only holds users that were ever moved, and a move
+     * back home is an entry for the home shard, which clears the override.
+     */
+    @Scheduled(fixedDelayString = "${gtd.sharding.directory-refresh:5s}")
+    public void refresh() {
+        if (shards.shardCount() == 1) {
+            return;
+        }
+        shards.primary().query("SELECT user_id, shard FROM gtd.user_shards", Collections.emptyMap(), rs -> {
+            long userId = rs.getLong("user_id");
+            int shard = rs.getInt("shard");
+            if (shard >= shards.shardCount()) {
+                logger.warn("Ignoring directory entry for user {} on missing shard {}", userId, shard);
+            } else if (shards.router().shardFor(userId) != shard) {
+                logger.info("User {} was moved to shard {}", userId, shard);
+                shards.router().assign(userId, shard);
+            }
+        });
+    }
+}
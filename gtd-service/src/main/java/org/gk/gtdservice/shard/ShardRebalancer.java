@@ -0,0 +1,230 @@
+package org.gk.gtdservice.shard;
+
+import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Moves all of a user's rows from their current shard to another one.
+ * <p>
+ * The move is online for everyone else. It locks the user's {@code gtd.users} row on
+ * the primary, which every node's write transactions for the user also take (see
+ * {@link ShardedJdbc}): the move starts once the user's writes in flight have committed,
+ * and new ones wait (up to {@code gtd.sharding.freeze-timeout}, then 503) until it
+ * ends. Under the lock the rows are copied in one target transaction and the new shard
+ * is recorded in {@code gtd.user_shards}, together with the shard whose copy is still to
+ * be deleted. That delete runs after the lock is released, again under the lock, and
+ * {@link #finishMoves} retries it until it has succeeded, so a failure at any step
+ * leaves either the old placement or the new one with a cleanup to finish.
+ * Row ids are preserved because every shard allocates ids from its own range.
+ */
+@Component
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    /** User-owned tables in foreign key order, with the query selecting one user's rows. */
+    private static final Map<String, String> USER_ROWS = new LinkedHashMap<>();
+
+    static {
+        USER_ROWS.put("gtd.contexts", "SELECT * FROM gtd.contexts WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.areas", "SELECT * FROM gtd.areas WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.projects", "SELECT * FROM gtd.projects WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.tasks", "SELECT * FROM gtd.tasks WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.task_dependencies", "SELECT d.* FROM gtd.task_dependencies d " +
+                "JOIN gtd.tasks t ON t.id = d.task_id WHERE t.user_id = :user_id");
+        USER_ROWS.put("gtd.tags", "SELECT * FROM gtd.tags WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.task_tags", "SELECT tt.* FROM gtd.task_tags tt " +
+                "JOIN gtd.tags g ON g.id = tt.tag_id WHERE g.user_id = :user_id");
+        USER_ROWS.put("gtd.reference_bodies", "SELECT * FROM gtd.reference_bodies WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.references_store", "SELECT * FROM gtd.references_store WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.reference_attachments", "SELECT * FROM gtd.reference_attachments WHERE user_id = :user_id");
+        USER_ROWS.put("gtd.user_list_counters", "SELECT * FROM gtd.user_list_counters WHERE user_id = :user_id");
+    }
+
+    private final ShardedJdbc shards;
+
+    public ShardRebalancer(ShardedJdbc shards) {
+        this.shards = shards;
+    }
+
+    public int shardOf(Long userId) {
+        return shards.router().shardFor(userId);
+    }
+
+    /**
+     * @return the number of rows moved
+     * @throws IllegalStateException when the calling thread is interrupted before the
+     *                               copy commits; the user then stays where they were
+     */
+    public int moveUser(Long userId, int targetShard) {
+        if (targetShard < 0 || targetShard >= shards.shardCount()) {
+            throw new ResourceNotFoundException("Shard not found");
+        }
+        abortIfInterrupted(userId);
+        Integer moved = shards.transactionTemplate(0).execute(_status -> {
+            Placement placement = lock(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            if (placement.cleanupShard() != null) {
+                cleanUp(userId, placement);
+            }
+            int sourceShard = placement.shard();
+            if (sourceShard == targetShard) {
+                logger.info("User {} already on shard {}", userId, targetShard);
+                return 0;
+            }
+            logger.info("Moving user {} from shard {} to shard {}", userId, sourceShard, targetShard);
+            NamedParameterJdbcTemplate source = shards.forShard(sourceShard);
+            NamedParameterJdbcTemplate target = shards.forShard(targetShard);
+            int copied = shards.transactionTemplate(targetShard).execute(_target -> {
+                // Left by a move that failed after its copy committed; the user is not placed here, so nothing else wrote them
+                deleteRows(userId, target);
+                int rows = copyRows(userId, source, target);
+                abortIfInterrupted(userId);
+                return rows;
+            });
+            recordPlacement(userId, targetShard, sourceShard);
+            return copied;
+        });
+        shards.router().assign(userId, targetShard);
+        try {
+            finishMove(userId);
+        } catch (RuntimeException e) {
+            logger.error("Deleting the old rows of user {} failed, will retry", userId, e);
+        }
+        int rows = moved != null ? moved : 0;
+        logger.info("Moved {} rows of user {} to shard {}", rows, userId, targetShard);
+        return rows;
+    }
+
+    /**
+     * Deletes the rows moves left on their old shard, for moves whose cleanup failed or
+     * whose node stopped before it ran.
+     */
+    @Scheduled(fixedDelayString = "${gtd.sharding.cleanup-interval:60s}")
+    public void finishMoves() {
+        if (shards.shardCount() == 1) {
+            return;
+        }
+        List<Long> userIds = shards.primary().queryForList(
+                "SELECT user_id FROM gtd.user_shards WHERE cleanup_shard IS NOT NULL", Collections.emptyMap(), Long.class);
+        for (Long userId : userIds) {
+            try {
+                finishMove(userId);
+            } catch (RuntimeException e) {
+                logger.error("Deleting the old rows of user {} failed, will retry", userId, e);
+            }
+        }
+    }
+
+    private void finishMove(Long userId) {
+        shards.transactionTemplate(0).executeWithoutResult(_status -> lock(userId)
+                .filter(placement -> placement.cleanupShard() != null)
+                .ifPresent(placement -> cleanUp(userId, placement)));
+    }
+
+    /**
+     * Deletes the user's rows from the shard they were moved off. Only ever runs under the
+     * user's lock, so a move back to that shard cannot be copying into it meanwhile.
+     */
+    private void cleanUp(Long userId, Placement placement) {
+        int staleShard = placement.cleanupShard();
+        if (staleShard != placement.shard()) {
+            NamedParameterJdbcTemplate stale = shards.forShard(staleShard);
+            shards.transactionTemplate(staleShard).executeWithoutResult(_status -> deleteRows(userId, stale));
+        }
+        shards.primary().update("UPDATE gtd.user_shards SET cleanup_shard = NULL WHERE user_id = :user_id",
+                Map.of("user_id", userId));
+        logger.info("Deleted the rows of user {} left on shard {}", userId, staleShard);
+    }
+
+    /**
+     * Locks the user's {@code gtd.users} row on the primary for the current transaction,
+     * the lock {@link ShardedJdbc} takes for the user's writes, and reads their placement.
+     * Empty when the user does not exist.
+     */
+    private Optional<Placement> lock(Long userId) {
+        Map<String, Object> params = Map.of("user_id", userId);
+        NamedParameterJdbcTemplate primary = shards.primary();
+        if (primary.queryForList("SELECT id FROM gtd.users WHERE id = :user_id FOR UPDATE", params, Long.class).isEmpty()) {
+            return Optional.empty();
+        }
+        List<Placement> placed = primary.query(
+                "SELECT shard, cleanup_shard FROM gtd.user_shards WHERE user_id = :user_id FOR UPDATE", params,
+                (rs, _rowNum) -> new Placement(rs.getInt("shard"), rs.getObject("cleanup_shard", Integer.class)));
+        return Optional.of(placed.isEmpty() ? new Placement(shards.router().shardFor(userId), null) : placed.get(0));
+    }
+
+    private static void abortIfInterrupted(Long userId) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Move of user " + userId + " was interrupted");
+        }
+    }
+
+    private int copyRows(Long userId, NamedParameterJdbcTemplate source, NamedParameterJdbcTemplate target) {
+        int moved = 0;
+        Map<String, Object> params = Map.of("user_id", userId);
+        for (Map.Entry<String, String> table : USER_ROWS.entrySet()) {
+            List<Map<String, Object>> rows = source.queryForList(table.getValue(), params);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            List<String> columns = List.copyOf(rows.get(0).keySet());
+            String sql = "INSERT INTO " + table.getKey() + " (" + String.join(", ", columns) + ") VALUES (" +
+                    columns.stream().map(c -> ":" + c).collect(Collectors.joining(", ")) + ")";
+            SqlParameterSource[] batch = rows.stream()
+                    .map(MapSqlParameterSource::new)
+                    .toArray(SqlParameterSource[]::new);
+            target.batchUpdate(sql, batch);
+            moved += rows.size();
+        }
+        return moved;
+    }
+
+    private void deleteRows(Long userId, NamedParameterJdbcTemplate source) {
+        Map<String, Object> params = Map.of("user_id", userId);
+        // Dependencies, task tags and attachments go with their tasks, tags and references via ON DELETE CASCADE
+        source.update("DELETE FROM gtd.user_list_counters WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.references_store WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.reference_bodies WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.tasks WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.tags WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.projects WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.areas WHERE user_id = :user_id", params);
+        source.update("DELETE FROM gtd.contexts WHERE user_id = :user_id", params);
+    }
+
+    private void recordPlacement(Long userId, int shard, int cleanupShard) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("user_id", userId)
+                .addValue("shard", shard)
+                .addValue("cleanup_shard", cleanupShard)
+                .addValue("moved_at", Timestamp.from(Instant.now()));
+        int updated = shards.primary().update(
+                "UPDATE gtd.user_shards SET shard = :shard, cleanup_shard = :cleanup_shard, moved_at = :moved_at " +
+                "WHERE user_id = :user_id", params);
+        if (updated == 0) {
+            shards.primary().update(
+                    "INSERT INTO gtd.user_shards (user_id, shard, cleanup_shard, moved_at) " +
+                    "VALUES (:user_id, :shard, :cleanup_shard, :moved_at)", params);
+        }
+    }
+
+    /** Where a user's rows live, and the shard still holding a copy to delete, if any. */
+    private record Placement(int shard, Integer cleanupShard) {
+    }
+}
@@ -0,0 +1,19 @@
+package org.gk.gtdservice.shard;
+
+/**
+ * Decides which shard holds a user's rows. Every user-owned table (contexts, areas,
+ * projects, tasks, tags, references and their join tables) lives entirely on the
+ * user's shard; {@code gtd.users} is replicated to all shards so foreign keys hold.
+ */
+public interface ShardRouter {
+
+    int shardFor(Long userId);
+
+    int shardCount();
+
+    /**
+     * Pins a user to a shard, overriding the default placement. Used by
+     * {@link ShardRebalancer} once a user's rows have been moved.
+     */
+    void assign(Long userId, int shard);
+}
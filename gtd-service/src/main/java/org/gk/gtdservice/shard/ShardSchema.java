@@ -0,0 +1,48 @@
+package org.gk.gtdservice.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Prepares a secondary shard: creates the schema and moves each identity column into
+ * the shard's own id range, so ids stay unique across shards and rows can be moved
+ * between shards without being renumbered.
+ */
+final class ShardSchema {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchema.class);
+
+    /** Ids of shard {@code n} start at {@code n * ID_SPAN + 1}. */
+    static final long ID_SPAN = 1L << 40;
+
+    /** Tables whose ids are generated per shard; {@code gtd.users} is replicated with explicit ids. */
+    static final List<String> ID_TABLES = List.of(
+            "gtd.contexts", "gtd.areas", "gtd.projects", "gtd.tasks", "gtd.tags", "gtd.references_store",
+            "gtd.reference_attachments", "gtd.outbox");
+
+    private ShardSchema() {
+    }
+
+    static void initialize(DataSource dataSource, int shard) {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        if (shard == 0) {
+            return;
+        }
+        boolean mysql = SchemaInspector.isMySql(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String table : ID_TABLES) {
+            Long maxId = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            long next = Math.max(shard * ID_SPAN + 1, maxId != null ? maxId + 1 : 0);
+            jdbc.execute(mysql
+                    ? "ALTER TABLE " + table + " AUTO_INCREMENT = " + next
+                    : "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+        logger.info("Initialized shard {} with ids starting at {}", shard, shard * ID_SPAN + 1);
+    }
+}
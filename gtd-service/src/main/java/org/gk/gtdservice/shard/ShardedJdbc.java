@@ -0,0 +1,263 @@
+package org.gk.gtdservice.shard;
+
+import org.gk.gtdservice.exception.ShardUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves the {@link NamedParameterJdbcTemplate} for a call. User-scoped statements
+ * go to the user's shard; lookups by a row id that carry no user fan out across
+ * shards, which costs nothing extra when only one shard is configured.
+ * Shard 0 is always the application's primary DataSource.
+ * <p>
+ * With more than one shard, a write transaction on the primary locks the user's
+ * {@code gtd.users} row there the first time it asks for the user's shard, and reads
+ * the shard from {@code gtd.user_shards} under that lock. {@link ShardRebalancer} takes
+ * the same lock for a move, so on every node a move waits for the user's writes in
+ * flight and holds new ones until the user's rows are on their new shard.
+ */
+public class ShardedJdbc {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedJdbc.class);
+
+    private final List<NamedParameterJdbcTemplate> shards;
+    private final ShardRouter router;
+    private final DataSource primaryDataSource;
+    /** Primary statements that wait for a user's lock, bounded by the freeze timeout. */
+    private final NamedParameterJdbcTemplate lockJdbc;
+    /** Transaction resource key for the users locked by the current primary transaction. */
+    private final Object lockedUsersKey = new Object();
+
+    /**
+     * @param freezeTimeout how long a write waits for a move of its user to finish
+     *                      before failing with {@link ShardUnavailableException}
+     */
+    public ShardedJdbc(List<NamedParameterJdbcTemplate> shards, ShardRouter router, Duration freezeTimeout) {
+        if (shards.size() != router.shardCount()) {
+            throw new IllegalArgumentException("Router expects " + router.shardCount() + " shards, got " + shards.size());
+        }
+        this.shards = List.copyOf(shards);
+        this.router = router;
+        this.primaryDataSource = shards.get(0).getJdbcTemplate().getDataSource();
+        JdbcTemplate lockTemplate = new JdbcTemplate(primaryDataSource);
+        if (freezeTimeout.isPositive()) {
+            lockTemplate.setQueryTimeout((int) Math.max(1, freezeTimeout.toSeconds()));
+        }
+        this.lockJdbc = new NamedParameterJdbcTemplate(lockTemplate);
+    }
+
+    public static ShardedJdbc single(NamedParameterJdbcTemplate jdbc) {
+        return new ShardedJdbc(List.of(jdbc), new HashShardRouter(1), Duration.ZERO);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public ShardRouter router() {
+        return router;
+    }
+
+    /**
+     * The catalog shard: holds the authoritative copy of {@code gtd.users} and the
+     * shard directory.
+     */
+    public NamedParameterJdbcTemplate primary() {
+        return shards.get(0);
+    }
+
+    public NamedParameterJdbcTemplate forShard(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<NamedParameterJdbcTemplate> all() {
+        return shards;
+    }
+
+    /**
+     * Local transaction on one shard, for work that is not driven by a service method.
+     */
+    public TransactionTemplate transactionTemplate(int shard) {
+        return new TransactionTemplate(new DataSourceTransactionManager(shards.get(shard).getJdbcTemplate().getDataSource()));
+    }
+
+    public NamedParameterJdbcTemplate forUser(Long userId) {
+        return shards.get(shardFor(userId));
+    }
+
+    /**
+     * The user's shard. Inside a write transaction on the primary it is read under the
+     * user's lock, so a move made by another node is seen before that node's directory
+     * refresh; elsewhere it comes from the router.
+     */
+    int shardFor(Long userId) {
+        if (shards.size() == 1 || !inPrimaryWriteTransaction()) {
+            return router.shardFor(userId);
+        }
+        Map<Long, Integer> locked = lockedUsers();
+        Integer shard = locked.get(userId);
+        if (shard == null) {
+            shard = lockUser(userId);
+            locked.put(userId, shard);
+        }
+        return shard;
+    }
+
+    /**
+     * Runs {@code work} in a primary transaction holding the user's lock and, when the
+     * user lives on another shard, in a transaction on that shard too. For writes made
+     * outside a service method, such as scheduled jobs.
+     */
+    public void inUserTransaction(Long userId, Runnable work) {
+        transactionTemplate(0).executeWithoutResult(_primary -> {
+            int shard = shardFor(userId);
+            if (shard == 0) {
+                work.run();
+            } else {
+                transactionTemplate(shard).executeWithoutResult(_status -> work.run());
+            }
+        });
+    }
+
+    private boolean inPrimaryWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.getResource(primaryDataSource) != null;
+    }
+
+    /**
+     * Users already locked by the current primary transaction. A transaction started
+     * inside it, such as a REQUIRES_NEW one, holds different locks, so it gets its own
+     * set and the outer one is put back when it completes.
+     */
+    private Map<Long, Integer> lockedUsers() {
+        Object connection = TransactionSynchronizationManager.getResource(primaryDataSource);
+        LockedUsers current = (LockedUsers) TransactionSynchronizationManager.getResource(lockedUsersKey);
+        if (current != null && current.connection() == connection) {
+            return current.shards();
+        }
+        LockedUsers locked = new LockedUsers(connection, new HashMap<>());
+        if (current != null) {
+            TransactionSynchronizationManager.unbindResource(lockedUsersKey);
+        }
+        TransactionSynchronizationManager.bindResource(lockedUsersKey, locked);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(lockedUsersKey);
+                if (current != null) {
+                    TransactionSynchronizationManager.bindResource(lockedUsersKey, current);
+                }
+            }
+        });
+        return locked.shards();
+    }
+
+    /**
+     * Locks the user's row on the primary until the current transaction ends and reads
+     * the user's shard under it. Both are locking reads, so they see the latest commit
+     * of a move rather than the transaction's snapshot.
+     */
+    private int lockUser(Long userId) {
+        Map<String, Object> params = Map.of("user_id", userId);
+        try {
+            lockJdbc.queryForList("SELECT id FROM gtd.users WHERE id = :user_id FOR UPDATE", params, Long.class);
+            List<Integer> placed = lockJdbc.queryForList(
+                    "SELECT shard FROM gtd.user_shards WHERE user_id = :user_id FOR UPDATE", params, Integer.class);
+            if (placed.isEmpty() || placed.get(0) >= shards.size()) {
+                return router.shardFor(userId);
+            }
+            int shard = placed.get(0);
+            if (router.shardFor(userId) != shard) {
+                logger.info("User {} was moved to shard {}", userId, shard);
+                router.assign(userId, shard);
+            }
+            return shard;
+        } catch (QueryTimeoutException | PessimisticLockingFailureException e) {
+            throw new ShardUnavailableException("User " + userId + " is being moved between shards");
+        }
+    }
+
+    public <T> List<T> queryAll(String sql, Map<String, ?> params, RowMapper<T> mapper) {
+        return queryAll(sql, new MapSqlParameterSource(params), mapper);
+    }
+
+    public <T> List<T> queryAll(String sql, SqlParameterSource params, RowMapper<T> mapper) {
+        if (shards.size() == 1) {
+            return shards.get(0).query(sql, params, mapper);
+        }
+        List<T> result = new ArrayList<>();
+        for (NamedParameterJdbcTemplate shard : shards) {
+            result.addAll(shard.query(sql, params, mapper));
+        }
+        return result;
+    }
+
+    public <T> Optional<T> queryFirst(String sql, Map<String, ?> params, RowMapper<T> mapper) {
+        return queryFirst(sql, new MapSqlParameterSource(params), mapper);
+    }
+
+    public <T> Optional<T> queryFirst(String sql, SqlParameterSource params, RowMapper<T> mapper) {
+        for (NamedParameterJdbcTemplate shard : shards) {
+            List<T> rows = shard.query(sql, params, mapper);
+            if (!rows.isEmpty()) {
+                return Optional.of(rows.get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int updateAll(String sql, Map<String, ?> params) {
+        return updateAll(sql, new MapSqlParameterSource(params));
+    }
+
+    public int updateAll(String sql, SqlParameterSource params) {
+        int updated = 0;
+        for (NamedParameterJdbcTemplate shard : shards) {
+            updated += shard.update(sql, params);
+        }
+        return updated;
+    }
+
+    /**
+     * Finds the shard for a write to the row with the given id in {@code table}, a
+     * user-owned table: the shard of the row's owner, as {@link #forUser} resolves it.
+     * Falls back to the primary when no shard has it, so the caller's statement fails or
+     * affects no rows exactly as it would unsharded.
+     */
+    public NamedParameterJdbcTemplate locate(String table, Long id) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map<String, Object> params = Map.of("id", id);
+        for (NamedParameterJdbcTemplate shard : shards) {
+            List<Long> owner = shard.queryForList("SELECT user_id FROM " + table + " WHERE id = :id", params, Long.class);
+            if (!owner.isEmpty()) {
+                return forUser(owner.get(0));
+            }
+        }
+        return shards.get(0);
+    }
+
+    private record LockedUsers(Object connection, Map<Long, Integer> shards) {
+    }
+}
@@ -0,0 +1,58 @@
+package org.gk.gtdservice.shard;
+
+import org.gk.gtdservice.datasource.SqlStats;
+import org.gk.gtdservice.datasource.StatementCountingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new HashShardRouter(1 + properties.urls().size());
+    }
+
+    @Bean
+    public ShardedJdbc shardedJdbc(NamedParameterJdbcTemplate primary, ShardRouter router, ShardingProperties properties,
+                                   ObjectProvider<SqlStats> sqlStats) {
+        if (properties.urls().isEmpty()) {
+            return new ShardedJdbc(List.of(primary), router, properties.freezeTimeout());
+        }
+        List<NamedParameterJdbcTemplate> shards = new ArrayList<>();
+        shards.add(primary);
+        for (String url : properties.urls()) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .url(url)
+                    .username(properties.username())
+                    .password(properties.password())
+                    .build();
+            ShardSchema.initialize(dataSource, shards.size());
+            shards.add(new NamedParameterJdbcTemplate(new StatementCountingDataSource(dataSource, sqlStats.getIfAvailable())));
+        }
+        logger.info("Sharding enabled across {} shards", shards.size());
+        return new ShardedJdbc(shards, router, properties.freezeTimeout());
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardedJdbc shards) {
+        ShardDirectory directory = new ShardDirectory(shards);
+        directory.refresh();
+        return directory;
+    }
+}
@@ -0,0 +1,20 @@
+package org.gk.gtdservice.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Additional shards beyond the primary {@code spring.datasource}. With no
+ * {@code gtd.sharding.urls} the service runs unsharded on the primary alone.
+ */
+@ConfigurationProperties("gtd.sharding")
+public record ShardingProperties(
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("5s") Duration freezeTimeout
+) {
+}
@@ -0,0 +1,78 @@
+package org.gk.gtdservice.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.gk.gtdservice.datasource.DbRequestStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Collects {@link DbRequestStats} for each {@code /api/} request and logs them when it
+ * completes. {@link DbStatsResponseAdvice} copies them into a {@code Server-Timing}
+ * header for responses with a body.
+ * <p>
+ * A request that runs more than {@code gtd.datasource.statement-budget.max-statements}
+ * statements, or one statement shape more than {@code max-repeats} times (the usual
+ * N+1 pattern), is logged as a warning.
+ */
+@Component
+public class DbRequestStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DbRequestStatsFilter.class);
+
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    public DbRequestStatsFilter(@Value("${gtd.datasource.statement-budget.max-statements:25}") int maxStatements,
+                                @Value("${gtd.datasource.statement-budget.max-repeats:5}") int maxRepeats) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        DbRequestStats stats = DbRequestStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DbRequestStats.end();
+            withinBudget(request, stats);
+        }
+    }
+
+    boolean withinBudget(HttpServletRequest request, DbRequestStats stats) {
+        boolean within = true;
+        if (stats.statements() > maxStatements) {
+            within = false;
+            logger.warn("{} {} ran {} statements, budget is {}", request.getMethod(), request.getRequestURI(),
+                    stats.statements(), maxStatements);
+        }
+        Map<String, Integer> repeated = stats.repeatedStatements(maxRepeats);
+        if (!repeated.isEmpty()) {
+            within = false;
+        }
+        repeated.forEach((fingerprint, count) -> logger.warn("{} {} ran the same statement {} times (N+1?): {}",
+                request.getMethod(), request.getRequestURI(), count, fingerprint));
+        if (logger.isDebugEnabled() && stats.connections() > 0) {
+            logger.debug("{} {}: {} connections, {} ms waiting for the pool, {} statements in {} ms, {} rows",
+                    request.getMethod(), request.getRequestURI(), stats.connections(),
+                    String.format("%.3f", stats.acquireMillis()), stats.statements(),
+                    String.format("%.3f", stats.statementMillis()), stats.rows());
+        }
+        return within;
+    }
+}
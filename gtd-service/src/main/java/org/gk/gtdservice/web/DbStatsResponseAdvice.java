@@ -0,0 +1,36 @@
+package org.gk.gtdservice.web;
+
+import org.gk.gtdservice.datasource.DbRequestStats;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's {@link DbRequestStats} as a {@code Server-Timing} header. This runs
+ * just before the body is written, the last point at which headers can still be set.
+ */
+@ControllerAdvice
+public class DbStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        DbRequestStats stats = DbRequestStats.current();
+        if (stats != null) {
+            response.getHeaders().add(SERVER_TIMING, stats.serverTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,30 @@
+package org.gk.gtdservice.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Groups API endpoints by cost so each group gets its own rate and concurrency limit.
+ */
+public enum EndpointClass {
+
+    READ,
+    WRITE,
+    BULK,
+    EXPORT;
+
+    static EndpointClass of(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.contains("/export")) {
+            return EXPORT;
+        }
+        if (uri.endsWith("/bulk")) {
+            return BULK;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return READ;
+        }
+        return WRITE;
+    }
+}
@@ -0,0 +1,66 @@
+package org.gk.gtdservice.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte-bounded LRU of gzip-encoded response bodies keyed by their ETag, so a hot
+ * list response is compressed once and then served from memory on every hit.
+ */
+@Component
+public class PrecompressedCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PrecompressedCache(@Value("${gtd.compression.cache-max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized byte[] get(String etag) {
+        byte[] value = entries.get(etag);
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    public synchronized void put(String etag, byte[] compressed) {
+        if (compressed.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(etag, compressed);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += compressed.length;
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,109 @@
+package org.gk.gtdservice.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds {@code /api/**} load with 429 and {@code Retry-After} before a request reaches a
+ * controller, and so before it can wait for a pooled connection. A request first needs
+ * a token from its user's bucket for the endpoint class, then a slot in the server-wide
+ * and per-class concurrency limits; neither step blocks. Requests that name no user
+ * (e.g. {@code PUT /api/tasks/{id}}) are limited per client address instead.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "gtd.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final Map<EndpointClass, TokenBucketLimiter> buckets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Semaphore> inFlight = new EnumMap<>(EndpointClass.class);
+    private final Semaphore globalInFlight;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        properties.limits().forEach((endpointClass, limit) -> {
+            buckets.put(endpointClass, new TokenBucketLimiter(limit.rate(), limit.burst()));
+            inFlight.put(endpointClass, new Semaphore(limit.maxConcurrent()));
+        });
+        this.globalInFlight = new Semaphore(properties.maxConcurrent());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/") || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        String key = limiterKey(request);
+        long waitNanos = buckets.get(endpointClass).tryAcquire(key);
+        if (waitNanos > 0) {
+            logger.debug("Rate limit hit for {} on {} requests", key, endpointClass);
+            reject(response, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                    "Too many " + endpointClass.name().toLowerCase() + " requests");
+            return;
+        }
+        Semaphore classSlots = inFlight.get(endpointClass);
+        if (!globalInFlight.tryAcquire()) {
+            logger.debug("Server at its concurrency limit, shedding {} {}", request.getMethod(), request.getRequestURI());
+            reject(response, 1, "Server is busy");
+            return;
+        }
+        if (!classSlots.tryAcquire()) {
+            globalInFlight.release();
+            logger.debug("Concurrency limit reached for {} requests", endpointClass);
+            reject(response, 1, "Too many concurrent " + endpointClass.name().toLowerCase() + " requests");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            classSlots.release();
+            globalInFlight.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gtd.rate-limit.evict-interval:60s}")
+    public void evictIdleBuckets() {
+        int evicted = buckets.values().stream().mapToInt(TokenBucketLimiter::evictIdle).sum();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    static String limiterKey(HttpServletRequest request) {
+        String userId = ReadYourWritesFilter.userId(request);
+        return userId != null ? "user:" + userId : "client:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_TOO_MANY_REQUESTS);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"too_many_requests\",\"message\":\"" + message + "\"}");
+    }
+}
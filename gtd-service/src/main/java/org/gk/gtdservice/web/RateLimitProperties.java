@@ -0,0 +1,54 @@
+package org.gk.gtdservice.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-user request rates and server-wide concurrency caps for {@code /api/**}.
+ *
+ * @param maxConcurrent requests in flight across all endpoint classes; keep it near the
+ *                      connection pool size so excess load is shed before it queues for a connection
+ * @param classes       limits per endpoint class; classes without an entry use {@link Limit#DEFAULT}
+ */
+@ConfigurationProperties("gtd.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64") int maxConcurrent,
+        Map<EndpointClass, Limit> classes
+) {
+
+    public RateLimitProperties {
+        classes = classes == null ? Map.of() : Map.copyOf(classes);
+    }
+
+    public Limit limit(EndpointClass endpointClass) {
+        return classes.getOrDefault(endpointClass, Limit.DEFAULT);
+    }
+
+    public Map<EndpointClass, Limit> limits() {
+        Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limits.put(endpointClass, limit(endpointClass));
+        }
+        return limits;
+    }
+
+    /**
+     * @param rate          sustained requests per second per user
+     * @param burst         requests a user may make back to back after being idle
+     * @param maxConcurrent requests of this class in flight across all users
+     */
+    public record Limit(double rate, int burst, int maxConcurrent) {
+
+        public static final Limit DEFAULT = new Limit(20, 40, 32);
+
+        public Limit {
+            if (rate <= 0 || burst < 1 || maxConcurrent < 1) {
+                throw new IllegalArgumentException("Rate, burst and max-concurrent must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.gk.gtdservice.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.gk.gtdservice.datasource.ReadYourWritesTracker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Binds the request's read-your-writes key for {@link ReadYourWritesTracker}: the user
+ * the request names, through the {@code X-User-Id} header the app sends on every call,
+ * a {@code userId} parameter or the path. Only requests that name no user are keyed on
+ * the client address, since behind a proxy or load balancer every user shares it and
+ * one write would pin everyone's reads to the primary.
+ */
+@Component
+@ConditionalOnProperty("gtd.datasource.replica.url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String USER_HEADER = "X-User-Id";
+
+    private static final Pattern USER_PATH = Pattern.compile("^/api/users/(\\d+)(/.*)?$");
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesFilter(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        tracker.bind(stickinessKeys(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tracker.unbind();
+        }
+    }
+
+    static List<String> stickinessKeys(HttpServletRequest request) {
+        String userId = userId(request);
+        return List.of(userId != null ? "user:" + userId : "client:" + request.getRemoteAddr());
+    }
+
+    static String userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        String param = request.getParameter("userId");
+        if (param != null && !param.isBlank()) {
+            return param.trim();
+        }
+        Matcher matcher = USER_PATH.matcher(request.getRequestURI());
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+}
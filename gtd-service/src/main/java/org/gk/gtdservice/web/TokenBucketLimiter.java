@@ -0,0 +1,65 @@
+package org.gk.gtdservice.web;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, kept as a single "theoretical arrival time" (GCRA): a request
+ * advances the key's time by one emission interval and is refused when that would put
+ * it more than {@code burst} intervals ahead of now. Each bucket is one
+ * {@link AtomicLong} updated with compare-and-set, so concurrent requests never lock;
+ * the map itself is striped across its bins.
+ */
+public class TokenBucketLimiter {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucketLimiter(double ratePerSecond, int burst, LongSupplier clock) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacityNanos = intervalNanos * burst;
+        this.clock = clock;
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.computeIfAbsent(key, _k -> new AtomicLong(now));
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; they behave exactly like absent ones.
+     *
+     * @return the number of buckets removed
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+        return before - buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
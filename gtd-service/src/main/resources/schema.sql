@@ -38,13 +38,14 @@ CREATE TABLE IF NOT EXISTS gtd.projects
     title        VARCHAR(200) NOT NULL,
     outcome      VARCHAR(500),
     notes        TEXT,
-    status       VARCHAR(20) NOT NULL DEFAULT 'active',
+    -- ProjectStatus code: 0 active, 1 on_hold, 2 someday, 3 completed, 4 dropped
+    status       SMALLINT NOT NULL DEFAULT 0,
     due_date     DATE,
     created_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     completed_at TIMESTAMP,
     CONSTRAINT fk_project_user FOREIGN KEY (user_id) REFERENCES gtd.users (id),
     CONSTRAINT fk_project_area FOREIGN KEY (area_id) REFERENCES gtd.areas (id),
-    CONSTRAINT chk_project_status CHECK (status IN ('active', 'on_hold', 'someday', 'completed', 'dropped'))
+    CONSTRAINT chk_project_status CHECK (status BETWEEN 0 AND 4)
 );
 
 CREATE TABLE IF NOT EXISTS gtd.tasks
@@ -55,7 +56,8 @@ CREATE TABLE IF NOT EXISTS gtd.tasks
     context_id        BIGINT,
     title             VARCHAR(500) NOT NULL,
     notes             TEXT,
-    status            VARCHAR(20)  NOT NULL DEFAULT 'inbox',
+    -- TaskStatus code: 0 inbox, 1 next, 2 waiting, 3 scheduled, 4 someday, 5 reference, 6 done, 7 dropped
+    status            SMALLINT     NOT NULL DEFAULT 0,
     priority          INT,
     energy            INT,
     duration_est_min  INT,
@@ -66,10 +68,11 @@ CREATE TABLE IF NOT EXISTS gtd.tasks
     created_at        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
     completed_at      TIMESTAMP,
     order_index       INT,
+    rank_key          VARCHAR(64),
     CONSTRAINT fk_task_user FOREIGN KEY (user_id) REFERENCES gtd.users (id),
     CONSTRAINT fk_task_project FOREIGN KEY (project_id) REFERENCES gtd.projects (id),
     CONSTRAINT fk_task_context FOREIGN KEY (context_id) REFERENCES gtd.contexts (id),
-    CONSTRAINT chk_task_status CHECK (status IN ('inbox', 'next', 'waiting', 'scheduled', 'someday', 'reference', 'done', 'dropped')),
+    CONSTRAINT chk_task_status CHECK (status BETWEEN 0 AND 7),
     CONSTRAINT chk_task_energy CHECK (energy >= 1 AND energy <= 5)
 );
 
@@ -102,14 +105,82 @@ CREATE TABLE IF NOT EXISTS gtd.task_tags
     CONSTRAINT fk_task_tag_tag FOREIGN KEY (tag_id) REFERENCES gtd.tags (id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS gtd.reference_bodies
+(
+    user_id  BIGINT   NOT NULL,
+    hash     CHAR(64) NOT NULL,
+    raw_size INT      NOT NULL,
+    content  BLOB     NOT NULL,
+    PRIMARY KEY (user_id, hash),
+    CONSTRAINT fk_reference_body_user FOREIGN KEY (user_id) REFERENCES gtd.users (id)
+);
+
 CREATE TABLE IF NOT EXISTS gtd.references_store
 (
     id         BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id    BIGINT NOT NULL,
     title      VARCHAR(200) NOT NULL,
-    body       TEXT,
+    body_hash  CHAR(64),
+    body_size  INT,
+    snippet    VARCHAR(200),
     url        VARCHAR(500),
     file_hint  VARCHAR(500),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    CONSTRAINT fk_reference_user FOREIGN KEY (user_id) REFERENCES gtd.users (id)
+    CONSTRAINT fk_reference_user FOREIGN KEY (user_id) REFERENCES gtd.users (id),
+    CONSTRAINT fk_reference_body FOREIGN KEY (user_id, body_hash) REFERENCES gtd.reference_bodies (user_id, hash)
+);
+
+CREATE TABLE IF NOT EXISTS gtd.reference_attachments
+(
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    reference_id BIGINT       NOT NULL,
+    user_id      BIGINT       NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size_bytes   BIGINT       NOT NULL,
+    sha256       CHAR(64)     NOT NULL,
+    created_at   TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_attachment_reference FOREIGN KEY (reference_id) REFERENCES gtd.references_store (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS gtd.blob_locks
+(
+    stripe INT NOT NULL PRIMARY KEY
+);
+
+CREATE TABLE IF NOT EXISTS gtd.user_shards
+(
+    user_id       BIGINT    NOT NULL PRIMARY KEY,
+    shard         INT       NOT NULL,
+    cleanup_shard INT,
+    moved_at      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS gtd.outbox
+(
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id      BIGINT      NOT NULL,
+    aggregate_id BIGINT,
+    event_type   VARCHAR(50) NOT NULL,
+    payload      TEXT        NOT NULL,
+    created_at   TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS gtd.invalidations
+(
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    node_id     BIGINT    NOT NULL,
+    entity_type SMALLINT  NOT NULL,
+    user_id     BIGINT    NOT NULL,
+    version     BIGINT    NOT NULL,
+    created_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS gtd.user_list_counters
+(
+    user_id    BIGINT      NOT NULL,
+    status     SMALLINT    NOT NULL,
+    task_count BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, status),
+    CONSTRAINT fk_list_counter_user FOREIGN KEY (user_id) REFERENCES gtd.users (id) ON DELETE CASCADE
 );
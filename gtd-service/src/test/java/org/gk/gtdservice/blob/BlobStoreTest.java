@@ -0,0 +1,123 @@
+package org.gk.gtdservice.blob;
+
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private BlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new BlobStore(root, 1024);
+    }
+
+    @Test
+    void store_ShouldWriteFileUnderHashDirectories() throws Exception {
+        byte[] content = "quarterly tax receipt".getBytes(StandardCharsets.UTF_8);
+
+        BlobStore.Blob blob = store(content);
+
+        assertEquals(content.length, blob.size());
+        assertEquals(64, blob.sha256().length());
+        Path path = store.path(blob.sha256());
+        assertEquals(root.resolve(blob.sha256().substring(0, 2)).resolve(blob.sha256().substring(2, 4)),
+                path.getParent());
+        assertArrayEquals(content, Files.readAllBytes(path));
+    }
+
+    @Test
+    void store_SameContentTwice_ShouldKeepOneFile() throws Exception {
+        byte[] content = "same scan".getBytes(StandardCharsets.UTF_8);
+
+        BlobStore.Blob first = store(content);
+        BlobStore.Blob second = store(content);
+
+        assertEquals(first, second);
+        assertEquals(1, storedFiles());
+        assertEquals(0, tmpFiles());
+    }
+
+    @Test
+    void store_TooLarge_ShouldRejectAndRemoveTemporaryFile() {
+        byte[] content = new byte[1025];
+
+        assertThrows(InvalidRequestException.class, () -> store(content));
+
+        assertEquals(0, storedFiles());
+        assertEquals(0, tmpFiles());
+    }
+
+    @Test
+    void receive_ShouldHashWithoutStoringUntilKept() throws Exception {
+        byte[] content = "signed lease".getBytes(StandardCharsets.UTF_8);
+
+        try (BlobStore.Upload upload = store.receive(new ByteArrayInputStream(content))) {
+            assertFalse(store.exists(upload.blob().sha256()));
+            assertEquals(1, tmpFiles());
+
+            store.keep(upload);
+
+            assertTrue(store.exists(upload.blob().sha256()));
+        }
+        assertEquals(0, tmpFiles());
+    }
+
+    @Test
+    void receive_NotKept_ShouldRemoveTemporaryFileOnClose() throws Exception {
+        try (BlobStore.Upload upload = store.receive(new ByteArrayInputStream(new byte[]{1}))) {
+            assertEquals(1, tmpFiles());
+        }
+
+        assertEquals(0, storedFiles());
+        assertEquals(0, tmpFiles());
+    }
+
+    @Test
+    void delete_ShouldRemoveFile() throws Exception {
+        BlobStore.Blob blob = store(new byte[]{1, 2, 3});
+
+        store.delete(blob.sha256());
+
+        assertFalse(store.exists(blob.sha256()));
+    }
+
+    @Test
+    void path_NotAHash_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> store.path("../../etc/passwd"));
+    }
+
+    private BlobStore.Blob store(byte[] content) throws Exception {
+        try (BlobStore.Upload upload = store.receive(new ByteArrayInputStream(content))) {
+            return store.keep(upload);
+        }
+    }
+
+    private long storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).filter(path -> !path.getParent().endsWith("tmp")).count();
+        }
+    }
+
+    private long tmpFiles() throws Exception {
+        if (!Files.isDirectory(root.resolve("tmp"))) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(root.resolve("tmp"))) {
+            return files.count();
+        }
+    }
+}
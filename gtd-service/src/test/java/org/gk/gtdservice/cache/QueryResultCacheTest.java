@@ -0,0 +1,154 @@
+package org.gk.gtdservice.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+    private final UserVersionRegistry versions = new UserVersionRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger primaryLoads = new AtomicInteger();
+    private final TransactionOperations primaryReads = callback -> {
+        primaryLoads.incrementAndGet();
+        return callback.doInTransaction(null);
+    };
+    private final QueryResultCache cache =
+            new QueryResultCache(versions, 10_000, Duration.ofMinutes(10), primaryReads, now::get);
+
+    @Test
+    void get_ShouldLoadOnceUntilUserChanges() {
+        assertEquals(List.of("a"), get(1L, "inbox", () -> List.of("a")));
+        assertEquals(List.of("a"), get(1L, "inbox", () -> List.of("b")));
+        versions.bump(2L);
+        assertEquals(List.of("a"), get(1L, "inbox", () -> List.of("b")));
+
+        versions.bump(1L);
+
+        assertEquals(List.of("b"), get(1L, "inbox", () -> List.of("b")));
+        assertEquals(2, loads.get());
+        QueryResultCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.invalidated());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void get_ChangeCommittedDuringLoad_ShouldNotBeServedAfterIt() {
+        get(1L, "inbox", () -> {
+            versions.bump(1L);
+            return List.of("read before the change");
+        });
+
+        assertEquals(List.of("current"), get(1L, "inbox", () -> List.of("current")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldKeyByUserAndQuery() {
+        get(1L, "inbox", () -> List.of("a"));
+        get(1L, "next", () -> List.of("b"));
+        get(2L, "inbox", () -> List.of("c"));
+
+        assertEquals(List.of("b"), get(1L, "next", () -> List.of("x")));
+        assertEquals(List.of("c"), get(2L, "inbox", () -> List.of("x")));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_InReadWriteTransaction_ShouldBypassCache() {
+        get(1L, "inbox", () -> List.of("committed"));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals(List.of("uncommitted"), get(1L, "inbox", () -> List.of("uncommitted")));
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertEquals(List.of("committed"), get(1L, "inbox", () -> List.of("x")));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(List.of("committed"), get(1L, "inbox", () -> List.of("x")));
+    }
+
+    @Test
+    void get_MissInReadOnlyTransaction_ShouldLoadOutsideIt() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertEquals(List.of("primary"), get(1L, "inbox", () -> List.of("primary")));
+            assertEquals(List.of("primary"), get(1L, "inbox", () -> List.of("x")));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, primaryLoads.get());
+
+        versions.bump(1L);
+        get(1L, "inbox", () -> List.of("no transaction"));
+
+        assertEquals(1, primaryLoads.get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_OverBudget_ShouldEvictLeastRecentlyRead() {
+        for (long user = 1; user <= 20; user++) {
+            long userId = user;
+            now.set(userId);
+            cache.get(userId, "inbox", () -> List.of(userId), _value -> 500);
+        }
+        now.set(100);
+        cache.get(20L, "inbox", () -> List.of(), _value -> 500);
+
+        QueryResultCache.Stats stats = cache.stats();
+        assertTrue(stats.estimatedBytes() <= 10_000);
+        assertTrue(stats.evictions() > 0);
+        assertEquals(List.of(20L), cache.get(20L, "inbox", () -> List.of(), _value -> 500));
+        assertEquals(List.of(), cache.get(1L, "inbox", () -> List.of(), _value -> 500));
+    }
+
+    @Test
+    void get_ValueOverATenthOfBudget_ShouldNotBeCached() {
+        get(1L, "all", () -> List.of("a"), 5_000);
+
+        assertEquals(List.of("b"), get(1L, "all", () -> List.of("b"), 5_000));
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    void evictIdle_ShouldDropUnreadResultsAndForgetOldVersions() {
+        versions.bump(1L);
+        get(1L, "inbox", () -> List.of("a"));
+        cache.evictIdle();
+        now.set(Duration.ofMinutes(5).toNanos());
+        get(2L, "inbox", () -> List.of("b"));
+        now.set(Duration.ofMinutes(11).toNanos());
+
+        cache.evictIdle();
+
+        assertEquals(1, cache.stats().entries());
+        assertEquals(0, versions.trackedUsers());
+        assertEquals(List.of("b"), get(2L, "inbox", () -> List.of("x")));
+    }
+
+    private List<String> get(Long userId, String query, Supplier<List<String>> load) {
+        return get(userId, query, load, 100);
+    }
+
+    private List<String> get(Long userId, String query, Supplier<List<String>> load, long bytes) {
+        return cache.get(userId, query, () -> {
+            loads.incrementAndGet();
+            return load.get();
+        }, _value -> bytes);
+    }
+}
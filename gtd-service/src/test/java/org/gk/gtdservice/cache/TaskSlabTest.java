@@ -0,0 +1,63 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSlabTest {
+
+    @Test
+    void get_ShouldDecodeEveryFieldAsWritten() {
+        RankedTask full = new RankedTask(new Task(7L, 3L, 11L, 12L, "Call Zoë about the 🚲", "Bring notes", TaskStatus.WAITING,
+                2, 4, 30, Instant.parse("2030-05-01T08:15:30.123456Z"), Instant.parse("2030-04-01T00:00:00Z"),
+                "Zoë", Instant.parse("1969-12-31T23:59:59.5Z"), Instant.parse("2024-01-02T03:04:05Z"),
+                null, 0), "a0");
+        RankedTask sparse = new RankedTask(new Task(8L, 3L, null, null, "Empty", null, TaskStatus.INBOX, null, null, null,
+                null, null, null, null, Instant.EPOCH, null, null), null);
+
+        TaskSlab slab = TaskSlab.of(List.of(full, sparse));
+
+        assertEquals(2, slab.size());
+        assertEquals(full, slab.get(0));
+        assertEquals(sparse, slab.get(1));
+        assertEquals(8L, slab.id(1));
+        assertEquals(TaskStatus.WAITING, slab.status(0));
+    }
+
+    @Test
+    void get_ShouldKeepTimestampsToTheMicrosecond() {
+        TaskSlab slab = TaskSlab.of(List.of(task(1L, "Due", null, Instant.parse("2030-01-01T00:00:00.123456789Z"))));
+
+        assertEquals(Instant.parse("2030-01-01T00:00:00.123456Z"), slab.get(0).task().dueAt());
+    }
+
+    @Test
+    void of_ShouldStoreRepeatedStringsOnce() {
+        TaskSlab repeated = TaskSlab.of(List.of(task(1L, "Follow up", "Finance team", null),
+                task(2L, "Follow up", "Finance team", null)));
+        TaskSlab distinct = TaskSlab.of(List.of(task(1L, "Follow up", "Finance team", null),
+                task(2L, "Follow up 2", "Finance team 2", null)));
+
+        assertTrue(repeated.estimatedBytes() < distinct.estimatedBytes());
+        assertEquals("Finance team", repeated.get(1).task().waitingOn());
+    }
+
+    @Test
+    void of_Empty_ShouldHoldNoRows() {
+        TaskSlab slab = TaskSlab.of(List.of());
+
+        assertEquals(0, slab.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> slab.get(0));
+    }
+
+    private static RankedTask task(Long id, String title, String waitingOn, Instant dueAt) {
+        return new RankedTask(new Task(id, 1L, null, null, title, null, TaskStatus.WAITING, null, null, null,
+                dueAt, null, waitingOn, null, Instant.EPOCH, null, null), "k" + id);
+    }
+}
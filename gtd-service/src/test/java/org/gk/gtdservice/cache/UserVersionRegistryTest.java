@@ -0,0 +1,71 @@
+package org.gk.gtdservice.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserVersionRegistryTest {
+
+    private final UserVersionRegistry versions = new UserVersionRegistry();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bump_ShouldMoveOnlyThatUserPastEarlierStamps() {
+        long before = versions.stamp();
+
+        versions.bump(1L);
+
+        assertTrue(versions.version(1L) > before);
+        assertTrue(versions.version(2L) <= before);
+    }
+
+    @Test
+    void bumpAfterCommit_ShouldWaitForCommit() {
+        long before = versions.stamp();
+        TransactionSynchronizationManager.initSynchronization();
+
+        versions.bumpAfterCommit(1L);
+        assertTrue(versions.version(1L) <= before);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertTrue(versions.version(1L) > before);
+    }
+
+    @Test
+    void addCommitListener_ShouldHearLocalCommitsOnly() {
+        List<Long> notified = new ArrayList<>();
+        versions.addCommitListener(notified::add);
+
+        versions.bumpAfterCommit(1L);
+        versions.bump(2L);
+
+        assertEquals(List.of(1L), notified);
+    }
+
+    @Test
+    void forgetUpTo_ShouldNeverLowerAVersion() {
+        versions.bump(1L);
+        long first = versions.version(1L);
+        versions.bump(2L);
+        long second = versions.version(2L);
+
+        assertEquals(1, versions.forgetUpTo(first));
+
+        assertEquals(1, versions.trackedUsers());
+        assertEquals(first, versions.version(1L));
+        assertEquals(second, versions.version(2L));
+        assertEquals(first, versions.version(3L));
+    }
+}
@@ -0,0 +1,89 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.model.RankedTask;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserWorkingSetTest {
+
+    @Test
+    void of_ShouldKeepOpenTasksSortedByRankKeyThenId() {
+        UserWorkingSet set = UserWorkingSet.of(List.of(
+                ranked(1L, TaskStatus.NEXT, "i"), ranked(2L, TaskStatus.NEXT, "c"), ranked(3L, TaskStatus.INBOX, "a"),
+                ranked(4L, TaskStatus.DONE, "b"), ranked(5L, TaskStatus.NEXT, "c")));
+
+        assertEquals(List.of(2L, 5L, 1L), ids(set.byStatus(TaskStatus.NEXT)));
+        assertEquals(List.of(3L), ids(set.byStatus(TaskStatus.INBOX)));
+        assertTrue(set.byStatus(TaskStatus.DONE).isEmpty());
+        assertEquals(4, set.size());
+        assertTrue(set.estimatedBytes() > 0);
+    }
+
+    @Test
+    void apply_ShouldReplaceChangedTasksAndDropClosedOrMissingOnes() {
+        UserWorkingSet set = UserWorkingSet.of(List.of(
+                ranked(1L, TaskStatus.NEXT, "a"), ranked(2L, TaskStatus.NEXT, "b"), ranked(3L, TaskStatus.INBOX, "c")));
+
+        UserWorkingSet next = set.apply(List.of(1L, 2L, 3L, 4L),
+                List.of(ranked(1L, TaskStatus.DONE, "a"), ranked(3L, TaskStatus.NEXT, "0"), ranked(4L, TaskStatus.INBOX, "d")));
+
+        assertEquals(List.of(3L), ids(next.byStatus(TaskStatus.NEXT)));
+        assertEquals(List.of(4L), ids(next.byStatus(TaskStatus.INBOX)));
+        assertEquals(List.of(1L, 2L), ids(set.byStatus(TaskStatus.NEXT)));
+    }
+
+    @Test
+    void inOrder_ShouldCompareWithHeldNeighboursOnly() {
+        UserWorkingSet set = UserWorkingSet.of(List.of(
+                ranked(1L, TaskStatus.NEXT, "a"), ranked(2L, TaskStatus.NEXT, "b"), ranked(3L, TaskStatus.NEXT, "c")));
+
+        assertTrue(set.inOrder(1L, 2L, 3L));
+        assertTrue(set.inOrder(null, 1L, 2L));
+        assertTrue(set.inOrder(2L, 3L, null));
+        assertFalse(set.inOrder(2L, 1L, 3L));
+        assertFalse(set.inOrder(1L, 2L, 99L));
+    }
+
+    @Test
+    void of_OffHeap_ShouldHoldTheSameListsAsOnHeap() {
+        List<RankedTask> tasks = List.of(ranked(1L, TaskStatus.NEXT, "i"), ranked(2L, TaskStatus.NEXT, "c"), ranked(3L, TaskStatus.INBOX, "a"),
+                ranked(4L, TaskStatus.DONE, "b"), ranked(5L, TaskStatus.NEXT, "c"));
+
+        UserWorkingSet heap = UserWorkingSet.of(tasks, WorkingSetStorage.HEAP);
+        UserWorkingSet offHeap = UserWorkingSet.of(tasks, WorkingSetStorage.OFF_HEAP);
+
+        assertEquals(heap.byStatus(TaskStatus.NEXT), offHeap.byStatus(TaskStatus.NEXT));
+        assertEquals(heap.byStatus(TaskStatus.INBOX), offHeap.byStatus(TaskStatus.INBOX));
+        assertTrue(offHeap.byStatus(TaskStatus.DONE).isEmpty());
+        assertEquals(4, offHeap.size());
+        assertTrue(offHeap.estimatedBytes() < heap.estimatedBytes());
+    }
+
+    @Test
+    void apply_OffHeap_ShouldStayOffHeapAndKeepOrder() {
+        UserWorkingSet set = UserWorkingSet.of(List.of(
+                ranked(1L, TaskStatus.NEXT, "a"), ranked(2L, TaskStatus.NEXT, "b"), ranked(3L, TaskStatus.INBOX, "c")), WorkingSetStorage.OFF_HEAP);
+
+        UserWorkingSet next = set.apply(List.of(2L), List.of(ranked(2L, TaskStatus.NEXT, "0")));
+
+        assertEquals(List.of(2L, 1L), ids(next.byStatus(TaskStatus.NEXT)));
+        assertTrue(next.inOrder(null, 2L, 1L));
+        assertFalse(next.inOrder(1L, 2L, null));
+        assertEquals(set.estimatedBytes(), next.estimatedBytes());
+    }
+
+    private static RankedTask ranked(Long id, TaskStatus status, String rankKey) {
+        return new RankedTask(new Task(id, 1L, null, null, "Task " + id, null, status, null, null, null,
+                null, null, null, null, Instant.EPOCH, null, null), rankKey);
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::id).toList();
+    }
+}
@@ -0,0 +1,212 @@
+package org.gk.gtdservice.cache;
+
+import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.repo.ListCounterRepository;
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.repo.UserRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserWorkingSetsTest {
+
+    private EmbeddedDatabase database;
+    private TaskRepository taskRepository;
+    private TransactionTemplate transaction;
+    private ShardedJdbc shards;
+    private User user;
+    private final AtomicLong now = new AtomicLong();
+    private UserWorkingSets workingSets;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:schema.sql").build();
+        shards = ShardedJdbc.single(new NamedParameterJdbcTemplate(database));
+        taskRepository = new TaskRepository(shards, new ListCounterRepository(shards));
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(database));
+        user = new UserRepository(shards).create(new CreateUserDto("cached", "cached@example.com", "Cached"));
+        workingSets = new UserWorkingSets(taskRepository, shards, 1_000_000, Duration.ofMinutes(10),
+                WorkingSetStorage.HEAP, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void findByStatus_ShouldLoadOpenTasksOnceInListOrder() {
+        Task first = create("First", TaskStatus.NEXT);
+        Task second = create("Second", TaskStatus.NEXT);
+        taskRepository.move(user.id(), second.id(), null, first.id());
+
+        assertEquals(List.of(second.id(), first.id()), ids(workingSets.findByStatus(user.id(), TaskStatus.NEXT)));
+        assertEquals(1, workingSets.cachedUsers());
+        assertTrue(UserWorkingSets.serves(TaskStatus.NEXT));
+        assertFalse(UserWorkingSets.serves(TaskStatus.DONE));
+    }
+
+    @Test
+    void findByStatus_WithoutChangeNotice_ShouldKeepServingTheLoadedSet() {
+        workingSets.findByStatus(user.id(), TaskStatus.INBOX);
+
+        create("Unannounced", TaskStatus.INBOX);
+
+        assertTrue(workingSets.findByStatus(user.id(), TaskStatus.INBOX).isEmpty());
+    }
+
+    @Test
+    void changed_ShouldBeAppliedOnlyAfterCommit() {
+        workingSets.findByStatus(user.id(), TaskStatus.INBOX);
+
+        Task committed = transaction.execute(_status -> {
+            Task task = create("Captured", TaskStatus.INBOX);
+            workingSets.changed(user.id(), List.of(task.id()));
+            assertTrue(workingSets.findByStatus(user.id(), TaskStatus.INBOX).isEmpty());
+            return task;
+        });
+        transaction.executeWithoutResult(status -> {
+            Task task = create("Rolled back", TaskStatus.INBOX);
+            workingSets.changed(user.id(), List.of(task.id()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(committed.id()), ids(workingSets.findByStatus(user.id(), TaskStatus.INBOX)));
+    }
+
+    @Test
+    void changed_CompletedTask_ShouldLeaveTheList() {
+        Task task = create("Finish", TaskStatus.NEXT);
+        workingSets.findByStatus(user.id(), TaskStatus.NEXT);
+
+        taskRepository.complete(task.id(), Instant.now());
+        workingSets.changed(user.id(), List.of(task.id()));
+
+        assertTrue(workingSets.findByStatus(user.id(), TaskStatus.NEXT).isEmpty());
+    }
+
+    @Test
+    void moved_AfterRespacedKeys_ShouldReloadInDatabaseOrder() {
+        Task first = create("First", TaskStatus.NEXT);
+        Task second = create("Second", TaskStatus.NEXT);
+        Task third = create("Third", TaskStatus.NEXT);
+        workingSets.findByStatus(user.id(), TaskStatus.NEXT);
+
+        transaction.executeWithoutResult(_status -> taskRepository.rebalanceRanks(user.id()));
+        taskRepository.move(user.id(), first.id(), second.id(), third.id());
+        workingSets.moved(user.id(), first.id(), second.id(), third.id());
+
+        assertEquals(ids(taskRepository.findByUserIdAndStatus(user.id(), TaskStatus.NEXT)),
+                ids(workingSets.findByStatus(user.id(), TaskStatus.NEXT)));
+        assertEquals(List.of(second.id(), first.id(), third.id()), ids(workingSets.findByStatus(user.id(), TaskStatus.NEXT)));
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnNextRead() {
+        workingSets.findByStatus(user.id(), TaskStatus.NEXT);
+        Task task = create("Imported", TaskStatus.NEXT);
+
+        workingSets.invalidate(user.id());
+
+        assertEquals(List.of(task.id()), ids(workingSets.findByStatus(user.id(), TaskStatus.NEXT)));
+    }
+
+    @Test
+    void drop_ShouldReloadOnNextReadWithoutNotifyingListeners() {
+        List<Long> notified = new ArrayList<>();
+        workingSets.addCommitListener(notified::add);
+        workingSets.findByStatus(user.id(), TaskStatus.NEXT);
+        Task task = create("Written on another node", TaskStatus.NEXT);
+
+        workingSets.drop(user.id());
+
+        assertEquals(List.of(task.id()), ids(workingSets.findByStatus(user.id(), TaskStatus.NEXT)));
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    void addCommitListener_ShouldBeCalledOnlyForCommittedChanges() {
+        List<Long> notified = new ArrayList<>();
+        workingSets.addCommitListener(notified::add);
+
+        transaction.executeWithoutResult(_status -> workingSets.changed(user.id(), List.of(1L)));
+        transaction.executeWithoutResult(status -> {
+            workingSets.invalidate(user.id());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(user.id()), notified);
+    }
+
+    @Test
+    void evictIdle_ShouldDropSetsNotReadWithinTimeout() {
+        workingSets.findByStatus(user.id(), TaskStatus.NEXT);
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        workingSets.evictIdle();
+        assertEquals(1, workingSets.cachedUsers());
+
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        workingSets.evictIdle();
+
+        assertEquals(0, workingSets.cachedUsers());
+        assertEquals(0, workingSets.estimatedBytes());
+    }
+
+    @Test
+    void findByStatus_OverMemoryBudget_ShouldServeButNotKeep() {
+        UserWorkingSets tiny = new UserWorkingSets(taskRepository, shards, 1, Duration.ofMinutes(10),
+                WorkingSetStorage.HEAP, now::get);
+        Task task = create("Big", TaskStatus.NEXT);
+
+        assertEquals(List.of(task.id()), ids(tiny.findByStatus(user.id(), TaskStatus.NEXT)));
+        assertEquals(0, tiny.cachedUsers());
+        assertEquals(0, tiny.estimatedBytes());
+    }
+
+    @Test
+    void findByStatus_OffHeap_ShouldServeTheSameTasksAsTheDatabase() {
+        UserWorkingSets offHeap = new UserWorkingSets(taskRepository, shards, 1_000_000, Duration.ofMinutes(10),
+                WorkingSetStorage.OFF_HEAP, now::get);
+        Task plain = create("Plain", TaskStatus.WAITING);
+        Task full = taskRepository.create(new CreateTaskDto(user.id(), null, null, "Call Ana \u00e9", "Notes",
+                TaskStatus.WAITING, 2, 3, 45, Instant.parse("2030-01-01T09:30:00.123456Z"), null, "Ana",
+                Instant.parse("2029-12-01T00:00:00Z"), 7));
+
+        assertEquals(taskRepository.findByUserIdAndStatus(user.id(), TaskStatus.WAITING),
+                offHeap.findByStatus(user.id(), TaskStatus.WAITING));
+
+        taskRepository.complete(plain.id(), Instant.now());
+        offHeap.changed(user.id(), List.of(plain.id()));
+
+        assertEquals(List.of(full.id()), ids(offHeap.findByStatus(user.id(), TaskStatus.WAITING)));
+    }
+
+    private Task create(String title, TaskStatus status) {
+        return taskRepository.create(new CreateTaskDto(user.id(), null, null, title, null, status,
+                null, null, null, null, null, null, null, null));
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::id).toList();
+    }
+}
@@ -0,0 +1,150 @@
+package org.gk.gtdservice.change;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final ChangeFeed feed = new ChangeFeed(3, Duration.ofNanos(100), now::get);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void record_OutsideTransaction_ShouldDeliverRightAway() {
+        List<Change> received = new ArrayList<>();
+        feed.subscribe(1L, null, received::add);
+
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.CREATED);
+        feed.record(2L, Change.Entity.TASK, 20L, Change.Action.CREATED);
+
+        assertEquals(1, received.size());
+        assertEquals(Change.Entity.TASK, received.getFirst().entity());
+        assertEquals(10L, received.getFirst().id());
+        assertEquals(Change.Action.CREATED, received.getFirst().action());
+    }
+
+    @Test
+    void record_InTransaction_ShouldDeliverEachChangeOnceAfterCommit() {
+        List<Change> received = new ArrayList<>();
+        feed.subscribe(1L, null, received::add);
+        TransactionSynchronizationManager.initSynchronization();
+
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.UPDATED);
+        feed.record(1L, Change.Entity.TAG, 5L, Change.Action.DELETED);
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.UPDATED);
+        assertTrue(received.isEmpty());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertEquals(List.of(10L, 5L), received.stream().map(Change::id).toList());
+        assertTrue(received.get(0).sequence() < received.get(1).sequence());
+    }
+
+    @Test
+    void record_RolledBack_ShouldDeliverNothing() {
+        List<Change> received = new ArrayList<>();
+        feed.subscribe(1L, null, received::add);
+        TransactionSynchronizationManager.initSynchronization();
+
+        feed.record(1L, Change.Entity.PROJECT, 3L, Change.Action.UPDATED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReturnChangesMissedSinceIt() {
+        String start = feed.subscribe(1L, null, change -> {
+        }).position();
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.CREATED);
+        feed.record(1L, Change.Entity.TASK, 11L, Change.Action.CREATED);
+
+        ChangeFeed.Subscription fromStart = feed.subscribe(1L, start, change -> {
+        });
+        ChangeFeed.Subscription fromFirst = feed.subscribe(1L, feed.eventId(1), change -> {
+        });
+
+        assertTrue(fromStart.complete());
+        assertEquals(List.of(10L, 11L), fromStart.missed().stream().map(Change::id).toList());
+        assertEquals(List.of(11L), fromFirst.missed().stream().map(Change::id).toList());
+        assertEquals(feed.eventId(2), fromFirst.position());
+    }
+
+    @Test
+    void subscribe_FromBeforeTheBuffer_ShouldBeIncomplete() {
+        String start = feed.subscribe(1L, null, change -> {
+        }).position();
+        for (long id = 10; id < 14; id++) {
+            feed.record(1L, Change.Entity.TASK, id, Change.Action.UPDATED);
+        }
+
+        ChangeFeed.Subscription subscription = feed.subscribe(1L, start, change -> {
+        });
+
+        assertFalse(subscription.complete());
+        assertTrue(subscription.missed().isEmpty());
+        assertEquals(feed.eventId(4), subscription.position());
+    }
+
+    @Test
+    void subscribe_WithIdFromAnotherEpoch_ShouldBeIncomplete() {
+        assertFalse(feed.subscribe(1L, "0-0", change -> {
+        }).complete());
+        assertFalse(feed.subscribe(1L, "garbage", change -> {
+        }).complete());
+        assertTrue(feed.subscribe(1L, null, change -> {
+        }).complete());
+    }
+
+    @Test
+    void close_ShouldStopDeliveries() {
+        List<Change> received = new ArrayList<>();
+        ChangeFeed.Subscription subscription = feed.subscribe(1L, null, received::add);
+
+        subscription.close();
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.DELETED);
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void evictIdle_ShouldKeepBuffersWithSubscribers() {
+        feed.subscribe(1L, null, change -> {
+        });
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.CREATED);
+        now.addAndGet(1_000);
+
+        feed.evictIdle();
+
+        assertEquals(1, feed.bufferedUsers());
+    }
+
+    @Test
+    void evictIdle_ShouldDropIdleBuffersWithoutLosingTrackOfThem() {
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.CREATED);
+        now.addAndGet(1_000);
+
+        feed.evictIdle();
+
+        assertEquals(0, feed.bufferedUsers());
+        // A client that had the dropped change is up to date; one from before it missed it.
+        assertTrue(feed.subscribe(1L, feed.eventId(1), change -> {
+        }).complete());
+        assertFalse(feed.subscribe(1L, feed.eventId(0), change -> {
+        }).complete());
+    }
+}
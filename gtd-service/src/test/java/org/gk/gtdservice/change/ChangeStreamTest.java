@@ -0,0 +1,140 @@
+package org.gk.gtdservice.change;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeStreamTest {
+
+    private final ChangeFeed feed = new ChangeFeed(16, Duration.ofMinutes(10));
+    private final BlockingQueue<ChangeStream> closed = new LinkedBlockingQueue<>();
+
+    @Test
+    void run_FreshClient_ShouldSendReadyThenChanges() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ChangeStream stream = new ChangeStream(emitter, feed, 1L, 16, Duration.ofMinutes(1), closed::add);
+        stream.start(null);
+
+        String ready = emitter.next();
+        assertTrue(ready.contains("event:" + ChangeStream.READY));
+        assertTrue(ready.contains("id:" + feed.eventId(0)));
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.UPDATED);
+        String change = emitter.next();
+        assertTrue(change.contains("event:" + ChangeStream.CHANGE));
+        assertTrue(change.contains("id:" + feed.eventId(1)));
+        stream.close();
+    }
+
+    @Test
+    void run_ResumingClient_ShouldSendMissedChangesFirst() throws Exception {
+        feed.record(1L, Change.Entity.TAG, 5L, Change.Action.CREATED);
+        feed.record(1L, Change.Entity.TAG, 6L, Change.Action.CREATED);
+        RecordingEmitter emitter = new RecordingEmitter();
+        ChangeStream stream = new ChangeStream(emitter, feed, 1L, 16, Duration.ofMinutes(1), closed::add);
+        stream.start(feed.eventId(1));
+
+        assertTrue(emitter.next().contains("id:" + feed.eventId(2)));
+        String ready = emitter.next();
+        assertTrue(ready.contains("event:" + ChangeStream.READY));
+        assertTrue(ready.contains("id:" + feed.eventId(2)));
+        stream.close();
+    }
+
+    @Test
+    void run_UnknownLastEventId_ShouldSendReset() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ChangeStream stream = new ChangeStream(emitter, feed, 1L, 16, Duration.ofMinutes(1), closed::add);
+        stream.start("0-42");
+
+        assertTrue(emitter.next().contains("event:" + ChangeStream.RESET));
+        stream.close();
+    }
+
+    @Test
+    void run_Quiet_ShouldSendHeartbeats() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ChangeStream stream = new ChangeStream(emitter, feed, 1L, 16, Duration.ofMillis(10), closed::add);
+        stream.start(null);
+
+        emitter.next();
+        assertTrue(emitter.next().startsWith(":heartbeat"));
+        stream.close();
+    }
+
+    @Test
+    void run_ClientFallingBehind_ShouldBeDisconnected() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ChangeStream stream = new ChangeStream(emitter, feed, 1L, 1, Duration.ofMinutes(1), closed::add);
+        stream.start(null);
+        emitter.next();
+
+        emitter.gate = new CountDownLatch(1);
+        for (long id = 10; id < 14; id++) {
+            feed.record(1L, Change.Entity.TASK, id, Change.Action.UPDATED);
+        }
+        emitter.gate.countDown();
+
+        assertSame(stream, closed.poll(5, TimeUnit.SECONDS));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void close_ShouldUnsubscribeAndCompleteTheResponse() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ChangeStream stream = new ChangeStream(emitter, feed, 1L, 16, Duration.ofMinutes(1), closed::add);
+        stream.start(null);
+        emitter.next();
+
+        stream.close();
+
+        assertSame(stream, closed.poll(5, TimeUnit.SECONDS));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.UPDATED);
+        assertNull(emitter.events.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Keeps each event as its wire text; {@link #gate}, when set, holds up sending changes.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile CountDownLatch gate;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String text = builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining());
+            CountDownLatch held = gate;
+            if (held != null && text.contains("event:" + ChangeStream.CHANGE)) {
+                try {
+                    held.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(text);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event sent");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.gk.gtdservice.change;
+
+import org.gk.gtdservice.dto.ChangesDto;
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeWaitersTest {
+
+    private final ChangeFeed feed = new ChangeFeed(3, Duration.ofMinutes(10));
+    private final ChangeWaiters waiters = new ChangeWaiters(feed, Duration.ofSeconds(60));
+
+    @Test
+    void await_WithoutVersion_ShouldAnswerWithCurrentVersion() {
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.CREATED);
+
+        ChangesDto answer = answer(waiters.await(1L, null, "30s"));
+
+        assertEquals(feed.eventId(1), answer.version());
+        assertFalse(answer.reset());
+        assertTrue(answer.changes().isEmpty());
+    }
+
+    @Test
+    void await_WithMissedChanges_ShouldAnswerRightAway() {
+        String since = answer(waiters.await(1L, null, "30s")).version();
+        feed.record(1L, Change.Entity.TASK, 10L, Change.Action.CREATED);
+        feed.record(1L, Change.Entity.TAG, 5L, Change.Action.UPDATED);
+
+        ChangesDto answer = answer(waiters.await(1L, since, "30s"));
+
+        assertEquals(feed.eventId(2), answer.version());
+        assertEquals(List.of(10L, 5L), answer.changes().stream().map(Change::id).toList());
+    }
+
+    @Test
+    void await_WithUnknownVersion_ShouldAnswerWithReset() {
+        ChangesDto answer = answer(waiters.await(1L, "0-42", "30s"));
+
+        assertTrue(answer.reset());
+        assertTrue(answer.changes().isEmpty());
+    }
+
+    @Test
+    void await_UpToDate_ShouldAnswerWithNextChangeOnly() {
+        String since = answer(waiters.await(1L, null, "30s")).version();
+
+        DeferredResult<ChangesDto> result = waiters.await(1L, since, "30s");
+        assertFalse(result.hasResult());
+        feed.record(2L, Change.Entity.TASK, 20L, Change.Action.CREATED);
+        assertFalse(result.hasResult());
+        feed.record(1L, Change.Entity.PROJECT, 3L, Change.Action.DELETED);
+        feed.record(1L, Change.Entity.PROJECT, 4L, Change.Action.DELETED);
+
+        ChangesDto answer = answer(result);
+        assertEquals(List.of(3L), answer.changes().stream().map(Change::id).toList());
+        assertEquals(feed.eventId(2), answer.version());
+        // The next wait picks up the change that came after the answer.
+        assertEquals(List.of(4L), answer(waiters.await(1L, answer.version(), "30s")).changes().stream()
+                .map(Change::id).toList());
+    }
+
+    @Test
+    void waitTime_ShouldReadBareNumbersAsSecondsAndCapAtMaxWait() {
+        assertEquals(Duration.ofSeconds(30), waiters.waitTime("30"));
+        assertEquals(Duration.ofMillis(500), waiters.waitTime("500ms"));
+        assertEquals(Duration.ofSeconds(60), waiters.waitTime("5m"));
+    }
+
+    @Test
+    void waitTime_Invalid_ShouldThrow() {
+        assertThrows(InvalidRequestException.class, () -> waiters.waitTime("soon"));
+        assertThrows(InvalidRequestException.class, () -> waiters.waitTime("0s"));
+        assertThrows(InvalidRequestException.class, () -> waiters.waitTime("-5s"));
+    }
+
+    private static ChangesDto answer(DeferredResult<ChangesDto> result) {
+        assertTrue(result.hasResult(), "not answered");
+        return (ChangesDto) result.getResult();
+    }
+}
@@ -0,0 +1,181 @@
+package org.gk.gtdservice.controller;
+
+import org.gk.gtdservice.dto.AttachmentDto;
+import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.service.AttachmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentControllerTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private AttachmentService attachmentService;
+
+    @InjectMocks
+    private AttachmentController attachmentController;
+
+    @TempDir
+    Path dir;
+
+    private AttachmentDto testAttachment;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.write(dir.resolve("blob"), CONTENT);
+        testAttachment = new AttachmentDto(3L, 2L, "notes.txt", "text/plain", (long) CONTENT.length,
+                "cd".repeat(32), Instant.now());
+    }
+
+    @Test
+    void list_ShouldReturnAttachments() {
+        when(attachmentService.findByReferenceId(2L)).thenReturn(List.of(testAttachment));
+
+        List<AttachmentDto> result = attachmentController.list(2L);
+
+        assertEquals(List.of(testAttachment), result);
+    }
+
+    @Test
+    void upload_ShouldStreamRequestBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/references/2/attachments");
+        request.setContentType("text/plain");
+        request.setContent(CONTENT);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(attachmentService.create(eq(2L), eq("notes.txt"), eq("text/plain"), any())).thenReturn(testAttachment);
+
+        ResponseEntity<AttachmentDto> response = attachmentController.upload(2L, "notes.txt", request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertTrue(response.getHeaders().getLocation().getPath().endsWith("/api/references/2/attachments/3"));
+    }
+
+    @Test
+    void download_ShouldSendWholeFileWithETag() throws Exception {
+        MockHttpServletResponse response = download(get());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + testAttachment.sha256() + "\"", response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(CONTENT.length, response.getContentLength());
+        assertTrue(response.getHeader("Content-Disposition").contains("notes.txt"));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void download_Range_ShouldSendPartialContent() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=5-9");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 5-9/20", response.getHeader("Content-Range"));
+        assertEquals("56789", response.getContentAsString());
+    }
+
+    @Test
+    void download_SuffixRange_ShouldSendTail() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=-3");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("hij", response.getContentAsString());
+    }
+
+    @Test
+    void download_RangeBeyondEnd_ShouldReturnNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=20-");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void download_IfRangeOfOtherVersion_ShouldSendWholeFile() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=5-9");
+        request.addHeader("If-Range", "\"stale\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void download_MatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", "\"" + testAttachment.sha256() + "\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void download_SendfileSupported_ShouldHandFileRegionToContainer() throws Exception {
+        MockHttpServletRequest request = get();
+        request.setAttribute(AttachmentController.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(file.toRealPath().toString(), request.getAttribute(AttachmentController.SENDFILE_FILENAME));
+        assertEquals(10L, request.getAttribute(AttachmentController.SENDFILE_START));
+        assertEquals(20L, request.getAttribute(AttachmentController.SENDFILE_END));
+        assertEquals(10, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void delete_NonExistingAttachment_ShouldThrowException() {
+        doThrow(new ResourceNotFoundException("Attachment not found")).when(attachmentService).delete(2L, 99L);
+
+        assertThrows(ResourceNotFoundException.class, () -> attachmentController.delete(2L, 99L));
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/references/2/attachments/3");
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+        when(attachmentService.findById(2L, 3L)).thenReturn(testAttachment);
+        when(attachmentService.file(testAttachment)).thenReturn(file);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        attachmentController.download(2L, 3L, request, response);
+        return response;
+    }
+}
@@ -1,8 +1,11 @@
 package org.gk.gtdservice.controller;
 
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ProjectDto;
+import org.gk.gtdservice.dto.ProjectProperty;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.model.ProjectStatus;
 import org.gk.gtdservice.service.ProjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +31,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ProjectControllerTest {
 
+    private static final Fieldset<ProjectProperty> FIELDS = Fieldset.parse(null, ProjectProperty.class);
+
     @Mock
     private ProjectService service;
 
@@ -49,7 +54,7 @@ class ProjectControllerTest {
                 "Redesign website",
                 "Modern responsive site",
                 "Use React",
-                "active",
+                ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31),
                 Instant.now(),
                 null
@@ -60,16 +65,16 @@ class ProjectControllerTest {
                 "Redesign website",
                 "Modern responsive site",
                 "Use React",
-                "active",
+                ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31)
         );
     }
 
     @Test
     void list_AllProjects_ShouldReturnAllProjects() {
-        when(service.findAll()).thenReturn(List.of(testProjectDto));
+        when(service.findAll(FIELDS)).thenReturn(List.of(testProjectDto));
 
-        List<ProjectDto> result = projectController.list(null, null, null);
+        List<ProjectDto> result = projectController.list(null, null, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -78,9 +83,9 @@ class ProjectControllerTest {
 
     @Test
     void list_ProjectsByUserId_ShouldReturnProjectsForUser() {
-        when(service.findByUserId(1L)).thenReturn(List.of(testProjectDto));
+        when(service.findByUserId(1L, FIELDS)).thenReturn(List.of(testProjectDto));
 
-        List<ProjectDto> result = projectController.list(1L, null, null);
+        List<ProjectDto> result = projectController.list(1L, null, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -89,9 +94,9 @@ class ProjectControllerTest {
 
     @Test
     void list_ProjectsByAreaId_ShouldReturnProjectsForArea() {
-        when(service.findByAreaId(2L)).thenReturn(List.of(testProjectDto));
+        when(service.findByAreaId(2L, FIELDS)).thenReturn(List.of(testProjectDto));
 
-        List<ProjectDto> result = projectController.list(null, 2L, null);
+        List<ProjectDto> result = projectController.list(null, 2L, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -100,9 +105,9 @@ class ProjectControllerTest {
 
     @Test
     void list_ProjectsByStatus_ShouldReturnProjectsWithStatus() {
-        when(service.findByStatus("active")).thenReturn(List.of(testProjectDto));
+        when(service.findByStatus(ProjectStatus.ACTIVE, FIELDS)).thenReturn(List.of(testProjectDto));
 
-        List<ProjectDto> result = projectController.list(null, null, "active");
+        List<ProjectDto> result = projectController.list(null, null, ProjectStatus.ACTIVE, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -145,7 +150,7 @@ class ProjectControllerTest {
                 "Project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
         ProjectDto projectWithoutArea = new ProjectDto(
@@ -155,7 +160,7 @@ class ProjectControllerTest {
                 "Project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null,
                 Instant.now(),
                 null
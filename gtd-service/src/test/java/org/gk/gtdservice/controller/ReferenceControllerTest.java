@@ -1,10 +1,13 @@
 package org.gk.gtdservice.controller;
 
 import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ReferenceDto;
+import org.gk.gtdservice.dto.ReferenceProperty;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.mapper.ReferenceMapper;
 import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.ReferenceBody;
 import org.gk.gtdservice.service.ReferenceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,12 +15,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 
@@ -30,6 +35,8 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class ReferenceControllerTest {
 
+    private static final Fieldset<ReferenceProperty> FIELDS = Fieldset.parse(null, ReferenceProperty.class);
+
     @Mock
     private ReferenceService referenceService;
 
@@ -49,6 +56,8 @@ class ReferenceControllerTest {
                 1L,
                 "GTD Weekly Review Checklist",
                 "Checklist content...",
+                "Checklist content...",
+                20,
                 "http://example.com/checklist",
                 "/docs/checklist.pdf",
                 Instant.now()
@@ -65,9 +74,9 @@ class ReferenceControllerTest {
 
     @Test
     void list_AllReferences_ShouldReturnAllReferences() {
-        when(referenceService.findAll()).thenReturn(List.of(testReferenceDto));
+        when(referenceService.findAll(FIELDS)).thenReturn(List.of(testReferenceDto));
 
-        List<ReferenceDto> result = referenceController.list(null);
+        List<ReferenceDto> result = referenceController.list(null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -76,9 +85,9 @@ class ReferenceControllerTest {
 
     @Test
     void list_ReferencesByUserId_ShouldReturnReferencesForUser() {
-        when(referenceService.findByUserId(1L)).thenReturn(List.of(testReferenceDto));
+        when(referenceService.findByUserId(1L, FIELDS)).thenReturn(List.of(testReferenceDto));
 
-        List<ReferenceDto> result = referenceController.list(1L);
+        List<ReferenceDto> result = referenceController.list(1L, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -102,6 +111,38 @@ class ReferenceControllerTest {
         assertThrows(ResourceNotFoundException.class, () -> referenceController.get(99L));
     }
 
+    @Test
+    void body_AcceptsGzip_ShouldReturnStoredBytes() {
+        ReferenceBody body = ReferenceBody.of("Checklist content...");
+        when(referenceService.findBody(1L)).thenReturn(body);
+
+        ResponseEntity<byte[]> response = referenceController.body(1L, "gzip, deflate");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"" + body.hash() + "-gzip\"", response.getHeaders().getETag());
+        assertArrayEquals(body.gzip(), response.getBody());
+    }
+
+    @Test
+    void body_NoGzip_ShouldReturnText() {
+        ReferenceBody body = ReferenceBody.of("Checklist content...");
+        when(referenceService.findBody(1L)).thenReturn(body);
+
+        ResponseEntity<byte[]> response = referenceController.body(1L, null);
+
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"" + body.hash() + "\"", response.getHeaders().getETag());
+        assertEquals("Checklist content...", new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void body_NonExistingId_ShouldThrowException() {
+        when(referenceService.findBody(99L)).thenThrow(new ResourceNotFoundException("Reference not found"));
+
+        assertThrows(ResourceNotFoundException.class, () -> referenceController.body(99L, null));
+    }
+
     @Test
     void create_ValidDto_ShouldReturnCreatedReference() {
         when(referenceService.create(any(CreateReferenceDto.class))).thenReturn(testReferenceDto);
@@ -0,0 +1,53 @@
+package org.gk.gtdservice.controller;
+
+import org.gk.gtdservice.dto.UserShardDto;
+import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.shard.ShardRebalancer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardControllerTest {
+
+    @Mock
+    private ShardRebalancer rebalancer;
+
+    @InjectMocks
+    private ShardController shardController;
+
+    @Test
+    void get_ShouldReturnCurrentShard() {
+        when(rebalancer.shardOf(7L)).thenReturn(1);
+
+        UserShardDto result = shardController.get(7L);
+
+        assertEquals(7L, result.userId());
+        assertEquals(1, result.shard());
+        assertEquals(0, result.rowsMoved());
+    }
+
+    @Test
+    void move_ShouldReturnNewPlacementAndRowsMoved() {
+        when(rebalancer.moveUser(7L, 2)).thenReturn(12);
+        when(rebalancer.shardOf(7L)).thenReturn(2);
+
+        UserShardDto result = shardController.move(7L, 2);
+
+        assertEquals(2, result.shard());
+        assertEquals(12, result.rowsMoved());
+        verify(rebalancer).moveUser(7L, 2);
+    }
+
+    @Test
+    void move_UnknownShard_ShouldThrowNotFound() {
+        when(rebalancer.moveUser(7L, 9)).thenThrow(new ResourceNotFoundException("Shard not found"));
+
+        assertThrows(ResourceNotFoundException.class, () -> shardController.move(7L, 9));
+    }
+}
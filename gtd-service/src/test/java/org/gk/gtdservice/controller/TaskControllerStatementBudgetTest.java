@@ -0,0 +1,147 @@
+package org.gk.gtdservice.controller;
+
+import org.gk.gtdservice.change.ChangeFeed;
+import org.gk.gtdservice.datasource.DbRequestStats;
+import org.gk.gtdservice.datasource.StatementCountingPostProcessor;
+import org.gk.gtdservice.dto.BulkTaskOperationDto;
+import org.gk.gtdservice.dto.BulkTaskRequestDto;
+import org.gk.gtdservice.dto.CreateTagDto;
+import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.event.Outbox;
+import org.gk.gtdservice.model.Tag;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.repo.ContextRepository;
+import org.gk.gtdservice.repo.ListCounterRepository;
+import org.gk.gtdservice.repo.ProjectRepository;
+import org.gk.gtdservice.repo.TagRepository;
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.repo.TaskTagRepository;
+import org.gk.gtdservice.repo.UserRepository;
+import org.gk.gtdservice.service.TaskRankRebalancer;
+import org.gk.gtdservice.service.TaskServiceImpl;
+import org.gk.gtdservice.shard.ShardingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets per task endpoint, counted by the same DataSource wrapper that runs in
+ * production. Counts must not grow with the number of rows involved.
+ */
+@JdbcTest
+@Import({TaskController.class, TaskServiceImpl.class, TaskRepository.class, ListCounterRepository.class,
+        UserRepository.class, ProjectRepository.class, ContextRepository.class, TagRepository.class,
+        TaskTagRepository.class, ShardingConfig.class, StatementCountingPostProcessor.class})
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:schema.sql"})
+class TaskControllerStatementBudgetTest {
+
+    @MockitoBean
+    private Outbox outbox;
+
+    @MockitoBean
+    private TaskRankRebalancer rankRebalancer;
+
+    @MockitoBean
+    private ChangeFeed changes;
+
+    @Autowired
+    private TaskController taskController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.create(new CreateUserDto("budget", "budget@example.com", "Budget"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        DbRequestStats.end();
+    }
+
+    @Test
+    void list_ShouldRunOneQueryRegardlessOfTaskCount() {
+        createTasks(1);
+        DbRequestStats one = measure(() -> taskController.list(user.id(), null, null, null, null));
+        createTasks(19);
+        DbRequestStats twenty = measure(() -> taskController.list(user.id(), null, null, null, null));
+
+        assertEquals(1, one.statements());
+        assertEquals(one.statements(), twenty.statements());
+        assertEquals(20, twenty.rows());
+    }
+
+    @Test
+    void addTag_ShouldStayWithinTwoLookupsAndAnInsert() {
+        Task task = createTasks(1).get(0);
+        Tag tag = tagRepository.create(new CreateTagDto(user.id(), "urgent"));
+
+        DbRequestStats stats = measure(() -> taskController.addTag(task.id(), tag.id(), user.id()));
+
+        assertTrue(stats.statements() <= 3, "addTag ran " + stats.statements() + " statements");
+        assertTrue(stats.repeatedStatements(1).isEmpty());
+    }
+
+    @Test
+    void bulk_ShouldRunTheSameStatementsForTwoAndTwentyOperations() {
+        // The first completion creates the user's "done" counter row; measure after it exists
+        taskController.bulk(completeAll(createTasks(1)));
+
+        DbRequestStats two = measure(() -> taskController.bulk(completeAll(createTasks(2))));
+        DbRequestStats twenty = measure(() -> taskController.bulk(completeAll(createTasks(20))));
+
+        assertEquals(two.statements(), twenty.statements());
+        assertTrue(twenty.repeatedStatements(1).isEmpty());
+    }
+
+    private static DbRequestStats measure(Runnable call) {
+        DbRequestStats stats = DbRequestStats.begin();
+        try {
+            call.run();
+        } finally {
+            DbRequestStats.end();
+        }
+        return stats;
+    }
+
+    private BulkTaskRequestDto completeAll(List<Task> tasks) {
+        List<BulkTaskOperationDto> operations = new ArrayList<>();
+        for (Task task : tasks) {
+            operations.add(new BulkTaskOperationDto(task.id(), "set_status", TaskStatus.DONE, null, null, null, null));
+        }
+        return new BulkTaskRequestDto(user.id(), operations);
+    }
+
+    private List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(taskRepository.create(new CreateTaskDto(user.id(), null, null, "Task " + i, null, TaskStatus.NEXT,
+                    null, null, null, null, null, null, null, null)));
+        }
+        return tasks;
+    }
+}
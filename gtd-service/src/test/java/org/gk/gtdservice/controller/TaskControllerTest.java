@@ -1,9 +1,21 @@
 package org.gk.gtdservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gk.gtdservice.dto.BulkTaskOperationDto;
+import org.gk.gtdservice.dto.BulkTaskRequestDto;
+import org.gk.gtdservice.dto.BulkTaskResultDto;
 import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.TaskCompletionDto;
 import org.gk.gtdservice.dto.TagDto;
 import org.gk.gtdservice.dto.TaskDto;
+import org.gk.gtdservice.dto.TaskMoveDto;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.dto.TaskProperty;
+import org.gk.gtdservice.exception.InvalidRequestException;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.model.TaskField;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.service.TaskService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +31,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +41,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TaskControllerTest {
 
+    private static final Fieldset<TaskProperty> FIELDS = Fieldset.parse(null, TaskProperty.class);
+
     @Mock
     private TaskService taskService;
 
@@ -49,7 +64,7 @@ class TaskControllerTest {
                 3L,
                 "Buy running shoes",
                 "Check sports store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -68,7 +83,7 @@ class TaskControllerTest {
                 3L,
                 "Buy running shoes",
                 "Check sports store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -82,62 +97,62 @@ class TaskControllerTest {
 
     @Test
     void list_AllTasks_ShouldReturnAllTasks() {
-        when(taskService.findAll()).thenReturn(List.of(testTaskDto));
+        when(taskService.findAll(FIELDS)).thenReturn(List.of(testTaskDto));
 
-        List<TaskDto> result = taskController.list(null, null, null, null);
+        List<TaskDto> result = taskController.list(null, null, null, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTaskDto.title(), result.get(0).title());
-        verify(taskService).findAll();
+        verify(taskService).findAll(FIELDS);
     }
 
     @Test
     void list_TasksByUserId_ShouldReturnTasksForUser() {
-        when(taskService.findByUserId(1L)).thenReturn(List.of(testTaskDto));
+        when(taskService.findByUserId(1L, FIELDS)).thenReturn(List.of(testTaskDto));
 
-        List<TaskDto> result = taskController.list(1L, null, null, null);
+        List<TaskDto> result = taskController.list(1L, null, null, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTaskDto.title(), result.get(0).title());
-        verify(taskService).findByUserId(1L);
+        verify(taskService).findByUserId(1L, FIELDS);
     }
 
     @Test
     void list_TasksByProjectId_ShouldReturnTasksForProject() {
-        when(taskService.findByProjectId(2L)).thenReturn(List.of(testTaskDto));
+        when(taskService.findByProjectId(2L, FIELDS)).thenReturn(List.of(testTaskDto));
 
-        List<TaskDto> result = taskController.list(null, 2L, null, null);
+        List<TaskDto> result = taskController.list(null, 2L, null, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTaskDto.title(), result.get(0).title());
-        verify(taskService).findByProjectId(2L);
+        verify(taskService).findByProjectId(2L, FIELDS);
     }
 
     @Test
     void list_TasksByContextId_ShouldReturnTasksForContext() {
-        when(taskService.findByContextId(3L)).thenReturn(List.of(testTaskDto));
+        when(taskService.findByContextId(3L, FIELDS)).thenReturn(List.of(testTaskDto));
 
-        List<TaskDto> result = taskController.list(null, null, 3L, null);
+        List<TaskDto> result = taskController.list(null, null, 3L, null, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTaskDto.title(), result.get(0).title());
-        verify(taskService).findByContextId(3L);
+        verify(taskService).findByContextId(3L, FIELDS);
     }
 
     @Test
     void list_TasksByStatus_ShouldReturnTasksWithStatus() {
-        when(taskService.findByStatus("inbox")).thenReturn(List.of(testTaskDto));
+        when(taskService.findByStatus(TaskStatus.INBOX, FIELDS)).thenReturn(List.of(testTaskDto));
 
-        List<TaskDto> result = taskController.list(null, null, null, "inbox");
+        List<TaskDto> result = taskController.list(null, null, null, TaskStatus.INBOX, null).items();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTaskDto.title(), result.get(0).title());
-        verify(taskService).findByStatus("inbox");
+        verify(taskService).findByStatus(TaskStatus.INBOX, FIELDS);
     }
 
     @Test
@@ -179,7 +194,7 @@ class TaskControllerTest {
                 null,
                 "Simple task",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -190,7 +205,7 @@ class TaskControllerTest {
                 null
         );
         TaskDto taskDtoWithoutRefs = new TaskDto(
-                1L, 1L, null, null, "Simple task", null, "inbox", null, null, null, 
+                1L, 1L, null, null, "Simple task", null, TaskStatus.INBOX, null, null, null, 
                 null, null, null, null, Instant.now(), null, null
         );
         when(taskService.create(any(CreateTaskDto.class))).thenReturn(taskDtoWithoutRefs);
@@ -303,4 +318,53 @@ class TaskControllerTest {
         assertEquals(tagDto.name(), result.get(0).name());
         verify(taskService).getTagsForTask(1L, 1L);
     }
+
+    @Test
+    void complete_ShouldReturnCompletedTaskAndUnblocked() {
+        TaskCompletionDto completion = new TaskCompletionDto(testTaskDto, List.of());
+        when(taskService.complete(1L)).thenReturn(completion);
+
+        TaskCompletionDto result = taskController.complete(1L);
+
+        assertSame(completion, result);
+        verify(taskService).complete(1L);
+    }
+
+    @Test
+    void patch_ShouldPassOnlySentFieldsToService() throws Exception {
+        when(taskService.patch(eq(1L), any(TaskPatchDto.class))).thenReturn(testTaskDto);
+
+        TaskDto result = taskController.patch(1L, new ObjectMapper().readTree("{\"status\":\"next\"}"));
+
+        assertSame(testTaskDto, result);
+        verify(taskService).patch(1L, new TaskPatchDto(Map.of(TaskField.STATUS, TaskStatus.NEXT)));
+    }
+
+    @Test
+    void patch_UnknownField_ShouldThrowBeforeCallingService() throws Exception {
+        var body = new ObjectMapper().readTree("{\"userId\":2}");
+
+        assertThrows(InvalidRequestException.class, () -> taskController.patch(1L, body));
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void bulk_ShouldReturnServiceResults() {
+        BulkTaskRequestDto request = new BulkTaskRequestDto(1L,
+                List.of(new BulkTaskOperationDto(1L, "set_status", TaskStatus.NEXT, null, null, null, null)));
+        List<BulkTaskResultDto> results = List.of(new BulkTaskResultDto(0, 1L, "ok", null));
+        when(taskService.bulk(request)).thenReturn(results);
+
+        assertSame(results, taskController.bulk(request));
+        verify(taskService).bulk(request);
+    }
+
+    @Test
+    void move_ShouldDelegateToService() {
+        TaskMoveDto move = new TaskMoveDto(4L, 5L);
+        when(taskService.move(1L, move)).thenReturn(testTaskDto);
+
+        assertSame(testTaskDto, taskController.move(1L, move));
+        verify(taskService).move(1L, move);
+    }
 }
@@ -1,6 +1,10 @@
 package org.gk.gtdservice.controller;
 
+import org.gk.gtdservice.change.ChangeStreams;
+import org.gk.gtdservice.change.ChangeWaiters;
+import org.gk.gtdservice.dto.ChangesDto;
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.ListCountsDto;
 import org.gk.gtdservice.dto.UserDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.service.UserService;
@@ -16,12 +20,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +37,12 @@ class UserControllerTest {
     @Mock
     private UserService service;
 
+    @Mock
+    private ChangeStreams changeStreams;
+
+    @Mock
+    private ChangeWaiters changeWaiters;
+
     @InjectMocks
     private UserController userController;
 
@@ -97,4 +110,49 @@ class UserControllerTest {
 
         assertThrows(DataIntegrityViolationException.class, () -> userController.create(createUserDto));
     }
+
+    @Test
+    void counts_ShouldReturnListCounts() {
+        ListCountsDto counts = new ListCountsDto(1L, 4, 2, 1, 0, 3, 0, 10, 0);
+        when(service.getListCounts(1L)).thenReturn(counts);
+
+        ListCountsDto result = userController.counts(1L);
+
+        assertEquals(4, result.inbox());
+        assertEquals(10, result.done());
+    }
+
+    @Test
+    void events_ShouldOpenStreamWithLastEventId() {
+        SseEmitter emitter = new SseEmitter();
+        when(service.findById(1L)).thenReturn(testUserDto);
+        when(changeStreams.open(1L, "abc-7")).thenReturn(emitter);
+
+        assertSame(emitter, userController.events(1L, "abc-7"));
+    }
+
+    @Test
+    void events_NonExistingUser_ShouldThrowBeforeOpeningStream() {
+        when(service.findById(1L)).thenThrow(new ResourceNotFoundException("User not found"));
+
+        assertThrows(ResourceNotFoundException.class, () -> userController.events(1L, null));
+        verifyNoInteractions(changeStreams);
+    }
+
+    @Test
+    void waitForChanges_ShouldWaitFromGivenVersion() {
+        DeferredResult<ChangesDto> result = new DeferredResult<>();
+        when(service.findById(1L)).thenReturn(testUserDto);
+        when(changeWaiters.await(1L, "abc-7", "30s")).thenReturn(result);
+
+        assertSame(result, userController.waitForChanges(1L, "abc-7", "30s"));
+    }
+
+    @Test
+    void waitForChanges_NonExistingUser_ShouldThrowBeforeWaiting() {
+        when(service.findById(1L)).thenThrow(new ResourceNotFoundException("User not found"));
+
+        assertThrows(ResourceNotFoundException.class, () -> userController.waitForChanges(1L, "abc-7", "30s"));
+        verifyNoInteractions(changeWaiters);
+    }
 }
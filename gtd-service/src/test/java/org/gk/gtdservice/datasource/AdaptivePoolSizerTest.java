@@ -0,0 +1,66 @@
+package org.gk.gtdservice.datasource;
+
+import org.gk.gtdservice.datasource.PoolMetrics.PoolSample;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePoolSizerTest {
+
+    private static final PoolTuningProperties.Adaptive CONFIG = new PoolTuningProperties.Adaptive(
+            true, 2, 20, Duration.ofSeconds(10), Duration.ofMillis(5), 2.0, 1.5, 4);
+
+    @Test
+    void nextSize_CallersWaitingAndDatabaseHealthy_ShouldGrow() {
+        // 10 s window, 1000 borrows held 40 ms each: ~4 connections busy, callers waited 20 ms
+        PoolSample sample = new PoolSample(1000, 1000 * 20_000_000L, 1000, 1000 * 40L, 0, 3);
+
+        assertEquals(9, AdaptivePoolSizer.nextSize(6, sample, 10, 40, CONFIG));
+    }
+
+    @Test
+    void nextSize_Growth_ShouldBeLimitedToMaxStep() {
+        PoolSample sample = new PoolSample(1000, 1000 * 20_000_000L, 1000, 1000 * 40L, 0, 12);
+
+        assertEquals(10, AdaptivePoolSizer.nextSize(6, sample, 10, 40, CONFIG));
+    }
+
+    @Test
+    void nextSize_Timeouts_ShouldGrowEvenWithShortWaits() {
+        PoolSample sample = new PoolSample(100, 100_000, 100, 100, 2, 0);
+
+        assertEquals(7, AdaptivePoolSizer.nextSize(6, sample, 10, 1, CONFIG));
+    }
+
+    @Test
+    void nextSize_DatabaseSlowedDown_ShouldShrinkDespiteWaiting() {
+        // Hold time went from 10 ms to 40 ms: gradient 0.25, past the 2x tolerance
+        PoolSample sample = new PoolSample(1000, 1000 * 20_000_000L, 1000, 1000 * 40L, 0, 8);
+
+        assertEquals(6, AdaptivePoolSizer.nextSize(12, sample, 10, 10, CONFIG));
+    }
+
+    @Test
+    void nextSize_OversizedPool_ShouldShrinkByOne() {
+        PoolSample sample = new PoolSample(100, 100_000, 100, 100, 0, 0);
+
+        assertEquals(9, AdaptivePoolSizer.nextSize(10, sample, 10, 1, CONFIG));
+    }
+
+    @Test
+    void nextSize_ShouldStayWithinBounds() {
+        PoolSample idle = new PoolSample(10, 10_000, 10, 10, 0, 0);
+        PoolSample starved = new PoolSample(1000, 1000 * 50_000_000L, 1000, 1000 * 40L, 5, 30);
+
+        assertEquals(2, AdaptivePoolSizer.nextSize(2, idle, 10, 1, CONFIG));
+        assertEquals(20, AdaptivePoolSizer.nextSize(19, starved, 10, 40, CONFIG));
+    }
+
+    @Test
+    void updateBaseline_ShouldFollowDropsAtOnceAndRisesSlowly() {
+        assertEquals(5.0, AdaptivePoolSizer.updateBaseline(10, 5), 1e-9);
+        assertEquals(10.5, AdaptivePoolSizer.updateBaseline(10, 20), 1e-9);
+    }
+}
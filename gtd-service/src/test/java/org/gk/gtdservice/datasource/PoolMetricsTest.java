@@ -0,0 +1,62 @@
+package org.gk.gtdservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.gk.gtdservice.datasource.PoolMetrics.PoolSample;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolMetricsTest {
+
+    private final PoolMetrics metrics = new PoolMetrics();
+
+    @AfterEach
+    void tearDown() {
+        DbRequestStats.end();
+    }
+
+    @Test
+    void sample_ShouldReturnRecordedTimesAndReset() {
+        IMetricsTracker tracker = metrics.create("primary", null);
+        tracker.recordConnectionAcquiredNanos(2_000_000);
+        tracker.recordConnectionAcquiredNanos(4_000_000);
+        tracker.recordConnectionUsageMillis(10);
+        tracker.recordConnectionTimeout();
+
+        PoolSample sample = metrics.sample("primary");
+
+        assertEquals(2, sample.acquires());
+        assertEquals(3.0, sample.meanAcquireMillis(), 1e-9);
+        assertEquals(10.0, sample.meanUsageMillis(), 1e-9);
+        assertEquals(1, sample.timeouts());
+        assertEquals(0, metrics.sample("primary").acquires());
+        assertNull(metrics.sample("replica"));
+    }
+
+    @Test
+    void acquire_DuringRequest_ShouldBeAttributedToIt() {
+        IMetricsTracker tracker = metrics.create("primary", null);
+        tracker.recordConnectionAcquiredNanos(1_000_000);
+        DbRequestStats stats = DbRequestStats.begin();
+
+        tracker.recordConnectionAcquiredNanos(1_500_000);
+        tracker.recordConnectionAcquiredNanos(500_000);
+
+        assertEquals(2, stats.connections());
+        assertEquals(2.0, stats.acquireMillis(), 1e-9);
+        assertEquals("db-acquire;dur=2.000;desc=\"2 connections\"", stats.serverTiming());
+    }
+
+    @Test
+    void postProcess_ShouldInstrumentHikariPoolsOnly() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            metrics.postProcessBeforeInitialization(dataSource, "dataSource");
+            metrics.postProcessBeforeInitialization("not a pool", "other");
+
+            assertSame(metrics, dataSource.getMetricsTrackerFactory());
+            assertEquals(1, metrics.pools().size());
+        }
+    }
+}
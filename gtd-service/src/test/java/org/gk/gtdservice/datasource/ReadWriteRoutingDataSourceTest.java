@@ -0,0 +1,137 @@
+package org.gk.gtdservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private MutableClock clock;
+    private ReadYourWritesTracker tracker;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        clock = new MutableClock();
+        tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), clock);
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, tracker));
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(txManager);
+        readTx = new TransactionTemplate(txManager);
+        readTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.unbind();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        assertEquals("replica", readTx.execute(_status -> whichDatabase()));
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertEquals("primary", writeTx.execute(_status -> whichDatabase()));
+    }
+
+    @Test
+    void withoutTransaction_ShouldUsePrimary() {
+        assertEquals("primary", whichDatabase());
+    }
+
+    @Test
+    void readAfterWrite_SameClient_ShouldStayOnPrimaryWithinWindow() {
+        tracker.bind(List.of("client:10.0.0.1", "user:1"));
+        writeTx.executeWithoutResult(_status -> jdbc.update("INSERT INTO marker (name) VALUES ('written')"));
+
+        assertEquals("primary", readTx.execute(_status -> whichDatabase()));
+
+        clock.advance(Duration.ofSeconds(6));
+        assertEquals("replica", readTx.execute(_status -> whichDatabase()));
+    }
+
+    @Test
+    void readAfterWrite_SameUserOtherClient_ShouldStayOnPrimary() {
+        tracker.bind(List.of("client:10.0.0.1", "user:1"));
+        writeTx.executeWithoutResult(_status -> jdbc.update("INSERT INTO marker (name) VALUES ('written')"));
+
+        tracker.bind(List.of("client:10.0.0.2", "user:1"));
+        assertEquals("primary", readTx.execute(_status -> whichDatabase()));
+    }
+
+    @Test
+    void readAfterWrite_OtherClient_ShouldUseReplica() {
+        tracker.bind(List.of("client:10.0.0.1", "user:1"));
+        writeTx.executeWithoutResult(_status -> jdbc.update("INSERT INTO marker (name) VALUES ('written')"));
+
+        tracker.bind(List.of("client:10.0.0.2", "user:2"));
+        assertEquals("replica", readTx.execute(_status -> whichDatabase()));
+    }
+
+    private String whichDatabase() {
+        return jdbc.queryForObject("SELECT name FROM marker ORDER BY id LIMIT 1", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("CREATE TABLE marker (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return database;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-19T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.gk.gtdservice.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLogTest {
+
+    @Test
+    void format_WithSampledParams_ShouldIncludeSqlAndTruncatedValues() {
+        String longNote = "x".repeat(100);
+        SlowQueryLog.Entry entry = new SlowQueryLog.Entry("SELECT * FROM gtd.tasks WHERE id = ?",
+                "SELECT * FROM gtd.tasks WHERE id = ?", 250_000_000L, 1, Arrays.asList(7L, longNote, null));
+
+        String line = SlowQueryLog.format(entry);
+
+        assertTrue(line.startsWith("250.000 ms rows=1 fingerprint=[SELECT * FROM gtd.tasks WHERE id = ?]"));
+        assertTrue(line.contains("params=[7, '" + "x".repeat(SlowQueryLog.MAX_PARAM_LENGTH) + "...', null]"));
+    }
+
+    @Test
+    void format_WithoutSampledParams_ShouldOmitSqlAndParams() {
+        String line = SlowQueryLog.format(new SlowQueryLog.Entry("UPDATE gtd.tasks SET title = ?",
+                "UPDATE gtd.tasks SET title = 'secret'", 300_000_000L, 1, null));
+
+        assertFalse(line.contains("secret"));
+        assertFalse(line.contains("params="));
+    }
+
+    @Test
+    void submit_ShouldOnlyReadParamsWhenSampled() {
+        AtomicInteger reads = new AtomicInteger();
+        try (SlowQueryLog never = new SlowQueryLog(10, 0); SlowQueryLog always = new SlowQueryLog(10, 1)) {
+            never.submit("q", "q", 1, 0, () -> {
+                reads.incrementAndGet();
+                return List.of();
+            });
+            assertEquals(0, reads.get());
+
+            always.submit("q", "q", 1, 0, () -> {
+                reads.incrementAndGet();
+                return List.of();
+            });
+            assertEquals(1, reads.get());
+        }
+    }
+
+    @Test
+    void submit_WhenWriterIsBehind_ShouldDropInsteadOfBlocking() {
+        try (SlowQueryLog log = new SlowQueryLog(1, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                log.submit("q", "q", 1, 0, List::of);
+            }
+
+            assertTrue(log.dropped() > 0);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.gk.gtdservice.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlFingerprintTest {
+
+    @Test
+    void of_ShouldReplaceLiteralsAndCollapseWhitespace() {
+        assertEquals("SELECT * FROM gtd.tasks WHERE id = ? AND status = ?",
+                SqlFingerprint.of("SELECT *\n  FROM gtd.tasks WHERE id = 42 AND status = 'it''s next'"));
+    }
+
+    @Test
+    void of_ShouldCollapseExpandedInLists() {
+        assertEquals(SqlFingerprint.of("SELECT id FROM gtd.tags WHERE id IN (?)"),
+                SqlFingerprint.of("SELECT id FROM gtd.tags WHERE id IN (?, ?, ?)"));
+    }
+
+    @Test
+    void of_ShouldKeepDigitsInIdentifiers() {
+        assertEquals("SELECT t1.id FROM gtd.tasks t1 LIMIT ?", SqlFingerprint.of("SELECT t1.id FROM gtd.tasks t1 LIMIT 10"));
+    }
+
+    @Test
+    void of_Null_ShouldBeEmpty() {
+        assertEquals("", SqlFingerprint.of(null));
+    }
+}
@@ -0,0 +1,43 @@
+package org.gk.gtdservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatsEndpointTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(10, 0);
+    private final SqlStats sqlStats = new SqlStats(100, Long.MAX_VALUE, slowQueryLog);
+    private final SqlStatsEndpoint endpoint = new SqlStatsEndpoint(sqlStats, slowQueryLog);
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.close();
+    }
+
+    @Test
+    void top_ShouldApplyLimitAndDefault() {
+        for (int i = 0; i < 30; i++) {
+            sqlStats.record("q" + i, "q" + i, (i + 1) * 1_000_000L, 0, List::of);
+        }
+
+        SqlStatsEndpoint.SqlStatsReport limited = endpoint.top(3);
+        SqlStatsEndpoint.SqlStatsReport defaulted = endpoint.top(null);
+
+        assertEquals(30, limited.fingerprints());
+        assertEquals(List.of("q29", "q28", "q27"), limited.top().stream().map(SqlStats.FingerprintStats::fingerprint).toList());
+        assertEquals(SqlStatsEndpoint.DEFAULT_LIMIT, defaulted.top().size());
+    }
+
+    @Test
+    void reset_ShouldClearStats() {
+        sqlStats.record("q", "q", 1_000_000L, 0, List::of);
+
+        endpoint.reset();
+
+        assertEquals(0, endpoint.top(null).fingerprints());
+    }
+}
@@ -0,0 +1,81 @@
+package org.gk.gtdservice.datasource;
+
+import org.gk.gtdservice.datasource.SqlStats.FingerprintStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatsTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void top_ShouldRankByTotalTime() {
+        SqlStats stats = new SqlStats(100, Long.MAX_VALUE, null);
+        for (int i = 0; i < 100; i++) {
+            stats.record("SELECT fast", "SELECT fast", MILLI / 10, 1, List::of);
+        }
+        stats.record("SELECT slow", "SELECT slow", 50 * MILLI, 3, List::of);
+        stats.record("SELECT slow", "SELECT slow", 30 * MILLI, 2, List::of);
+
+        List<FingerprintStats> top = stats.top(1);
+
+        assertEquals(1, top.size());
+        assertEquals("SELECT slow", top.get(0).fingerprint());
+        assertEquals(2, top.get(0).calls());
+        assertEquals(80.0, top.get(0).totalMillis(), 1e-9);
+        assertEquals(40.0, top.get(0).meanMillis(), 1e-9);
+        assertEquals(50.0, top.get(0).maxMillis(), 1e-9);
+        assertEquals(5, top.get(0).rows());
+    }
+
+    @Test
+    void percentiles_ShouldBoundLatenciesWithinABucket() {
+        SqlStats stats = new SqlStats(100, Long.MAX_VALUE, null);
+        for (int i = 0; i < 99; i++) {
+            stats.record("q", "q", 3 * MILLI, 0, List::of);
+        }
+        stats.record("q", "q", 900 * MILLI, 0, List::of);
+
+        FingerprintStats q = stats.top(1).get(0);
+
+        // 3 ms falls in the [2.048, 4.096) ms bucket
+        assertEquals(4.096, q.p50Millis(), 1e-9);
+        assertEquals(4.096, q.p95Millis(), 1e-9);
+        assertEquals(4.096, q.p99Millis(), 1e-9);
+        assertEquals(900.0, q.maxMillis(), 1e-9);
+    }
+
+    @Test
+    void recordRows_ShouldAddToTheFingerprint() {
+        SqlStats stats = new SqlStats(100, Long.MAX_VALUE, null);
+        stats.record("q", "q", MILLI, 0, List::of);
+
+        stats.recordRows("q", 42);
+
+        assertEquals(42, stats.top(1).get(0).rows());
+    }
+
+    @Test
+    void record_BeyondMaxFingerprints_ShouldPoolIntoOther() {
+        SqlStats stats = new SqlStats(2, Long.MAX_VALUE, null);
+
+        stats.record("a", "a", MILLI, 0, List::of);
+        stats.record("b", "b", MILLI, 0, List::of);
+        stats.record("c", "c", MILLI, 0, List::of);
+        stats.record("d", "d", MILLI, 0, List::of);
+
+        assertEquals(3, stats.size());
+        assertTrue(stats.top(10).stream().anyMatch(s -> s.fingerprint().equals(SqlStats.OTHER) && s.calls() == 2));
+    }
+
+    @Test
+    void bucket_ShouldBePowersOfTwoMicroseconds() {
+        assertEquals(0, SqlStats.bucket(500));
+        assertEquals(1, SqlStats.bucket(1_000));
+        assertEquals(11, SqlStats.bucket(1_024_000));
+        assertEquals(SqlStats.BUCKETS - 1, SqlStats.bucket(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,111 @@
+package org.gk.gtdservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCountingDataSourceTest {
+
+    private EmbeddedDatabase database;
+    private SqlStats sqlStats;
+    private NamedParameterJdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+        sqlStats = new SqlStats(100, Long.MAX_VALUE, null);
+        jdbc = new NamedParameterJdbcTemplate(new StatementCountingDataSource(database, sqlStats));
+        jdbc.getJdbcTemplate().execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(20))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        DbRequestStats.end();
+        database.shutdown();
+    }
+
+    @Test
+    void queriesAndUpdates_ShouldBeCountedWithTheirRows() {
+        DbRequestStats stats = DbRequestStats.begin();
+
+        jdbc.update("INSERT INTO items (id, name) VALUES (:id, :name)", Map.of("id", 1, "name", "a"));
+        jdbc.update("INSERT INTO items (id, name) VALUES (:id, :name)", Map.of("id", 2, "name", "b"));
+        jdbc.queryForList("SELECT name FROM items", Map.of(), String.class);
+
+        assertEquals(3, stats.statements());
+        assertEquals(4, stats.rows());
+        assertTrue(stats.statementMillis() >= 0);
+    }
+
+    @Test
+    void batch_ShouldCountAsOneStatement() {
+        DbRequestStats stats = DbRequestStats.begin();
+
+        jdbc.batchUpdate("INSERT INTO items (id, name) VALUES (:id, :name)", new SqlParameterSource[]{
+                new MapSqlParameterSource(Map.of("id", 1, "name", "a")),
+                new MapSqlParameterSource(Map.of("id", 2, "name", "b")),
+                new MapSqlParameterSource(Map.of("id", 3, "name", "c"))});
+
+        assertEquals(1, stats.statements());
+        assertEquals(3, stats.rows());
+    }
+
+    @Test
+    void repeatedShape_ShouldBeReportedOverTheLimit() {
+        DbRequestStats stats = DbRequestStats.begin();
+
+        for (int id = 1; id <= 4; id++) {
+            jdbc.queryForList("SELECT name FROM items WHERE id = :id", Map.of("id", id), String.class);
+        }
+        jdbc.getJdbcTemplate().queryForList("SELECT name FROM items WHERE id = 7", String.class);
+
+        assertEquals(Map.of("SELECT name FROM items WHERE id = ?", 5), stats.repeatedStatements(3));
+        assertTrue(stats.repeatedStatements(5).isEmpty());
+    }
+
+    @Test
+    void outsideRequest_ShouldStillFeedSqlStats() {
+        jdbc.update("INSERT INTO items (id, name) VALUES (:id, :name)", Map.of("id", 1, "name", "a"));
+        jdbc.update("INSERT INTO items (id, name) VALUES (:id, :name)", Map.of("id", 2, "name", "b"));
+        jdbc.queryForList("SELECT name FROM items WHERE id > :id", Map.of("id", 0), String.class);
+
+        assertNull(DbRequestStats.current());
+        Map<String, SqlStats.FingerprintStats> byFingerprint = new HashMap<>();
+        sqlStats.top(10).forEach(s -> byFingerprint.put(s.fingerprint(), s));
+        assertEquals(2, byFingerprint.get("INSERT INTO items (id, name) VALUES (?, ?)").calls());
+        assertEquals(2, byFingerprint.get("INSERT INTO items (id, name) VALUES (?, ?)").rows());
+        assertEquals(2, byFingerprint.get("SELECT name FROM items WHERE id > ?").rows());
+    }
+
+    @Test
+    void slowStatement_ShouldBeLoggedWithItsBindParameters() {
+        List<List<Object>> logged = new ArrayList<>();
+        SlowQueryLog slowQueryLog = new SlowQueryLog(10, 1) {
+            @Override
+            public void submit(String fingerprint, String sql, long nanos, long rows, Supplier<List<Object>> params) {
+                logged.add(params.get());
+            }
+        };
+        NamedParameterJdbcTemplate slowJdbc = new NamedParameterJdbcTemplate(
+                new StatementCountingDataSource(database, new SqlStats(100, 0, slowQueryLog)));
+
+        slowJdbc.update("INSERT INTO items (id, name) VALUES (:id, :name)", Map.of("id", 9, "name", "nine"));
+        slowQueryLog.close();
+
+        assertEquals(List.of(List.of(9, "nine")), logged);
+    }
+}
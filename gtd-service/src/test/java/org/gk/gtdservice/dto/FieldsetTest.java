@@ -0,0 +1,48 @@
+package org.gk.gtdservice.dto;
+
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldsetTest {
+
+    @Test
+    void parse_NoFields_ShouldLeaveOutLargeProperties() {
+        Fieldset<TaskProperty> fields = Fieldset.parse(null, TaskProperty.class);
+
+        assertFalse(fields.contains(TaskProperty.NOTES));
+        assertEquals(EnumSet.complementOf(EnumSet.of(TaskProperty.NOTES)), fields.fields());
+    }
+
+    @Test
+    void parse_Fields_ShouldAlwaysIncludeId() {
+        Fieldset<TaskProperty> fields = Fieldset.parse("title, dueAt", TaskProperty.class);
+
+        assertEquals(EnumSet.of(TaskProperty.ID, TaskProperty.TITLE, TaskProperty.DUE_AT), fields.fields());
+    }
+
+    @Test
+    void parse_LargeFieldByName_ShouldIncludeIt() {
+        Fieldset<TaskProperty> fields = Fieldset.parse("title,notes", TaskProperty.class);
+
+        assertTrue(fields.contains(TaskProperty.NOTES));
+    }
+
+    @Test
+    void parse_UnknownField_ShouldThrowInvalidRequest() {
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> Fieldset.parse("title,colour", TaskProperty.class));
+
+        assertTrue(e.getMessage().contains("colour"));
+    }
+
+    @Test
+    void columns_ShouldFollowDeclarationOrder() {
+        Fieldset<TaskProperty> fields = Fieldset.parse("dueAt,status,title", TaskProperty.class);
+
+        assertEquals("id, title, status, due_at", fields.columns());
+    }
+}
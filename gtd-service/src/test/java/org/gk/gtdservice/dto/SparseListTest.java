@@ -0,0 +1,33 @@
+package org.gk.gtdservice.dto;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseListTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Test
+    void serialize_ShouldWriteOnlySelectedProperties() throws Exception {
+        ReferenceDto reference = new ReferenceDto(7L, 1L, "Manual", null, "Start of a long body", 4096, null,
+                null, Instant.parse("2024-01-01T00:00:00Z"));
+
+        String json = mapper.writeValueAsString(
+                SparseList.of(List.of(reference), Fieldset.parse("title,bodySize,url", ReferenceProperty.class)));
+
+        assertEquals("[{\"id\":7,\"title\":\"Manual\",\"bodySize\":4096,\"url\":null}]", json);
+    }
+
+    @Test
+    void serialize_Empty_ShouldWriteEmptyArray() throws Exception {
+        String json = mapper.writeValueAsString(
+                SparseList.of(List.of(), Fieldset.parse(null, ReferenceProperty.class)));
+
+        assertEquals("[]", json);
+    }
+}
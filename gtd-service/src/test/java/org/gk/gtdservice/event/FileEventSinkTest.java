@@ -0,0 +1,41 @@
+package org.gk.gtdservice.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.gk.gtdservice.model.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void publish_ShouldAppendOneJsonLinePerEvent() throws Exception {
+        JsonMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        Path file = dir.resolve("events/outbox.jsonl");
+        Instant createdAt = Instant.parse("2026-10-19T08:00:00Z");
+
+        try (FileEventSink sink = new FileEventSink(file, mapper)) {
+            sink.publish(List.of(new OutboxEvent(1L, 9L, 7L, "TaskCompleted", "{\"taskId\":7}", createdAt)));
+            sink.publish(List.of(new OutboxEvent(2L, 9L, 8L, "TaskDeferred", "{\"taskId\":8}", createdAt)));
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = mapper.readTree(lines.get(0));
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("TaskCompleted", first.get("type").asText());
+        assertEquals(9L, first.get("userId").asLong());
+        assertEquals(7L, first.get("payload").get("taskId").asLong());
+        assertEquals("TaskDeferred", mapper.readTree(lines.get(1)).get("type").asText());
+    }
+}
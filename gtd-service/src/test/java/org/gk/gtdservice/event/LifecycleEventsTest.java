@@ -0,0 +1,77 @@
+package org.gk.gtdservice.event;
+
+import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LifecycleEventsTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T08:00:00Z");
+
+    @Test
+    void taskChanges_ToDone_ShouldEmitStatusChangeAndCompletion() {
+        List<DomainEvent> events = LifecycleEvents.taskChanges(task(TaskStatus.NEXT, null), task(TaskStatus.DONE, null), NOW);
+
+        assertEquals(List.of(
+                new TaskStatusChanged(1L, 10L, TaskStatus.NEXT, TaskStatus.DONE, NOW),
+                new TaskCompleted(1L, 10L, 5L, NOW)), events);
+    }
+
+    @Test
+    void taskChanges_OtherTransition_ShouldOnlyEmitStatusChange() {
+        List<DomainEvent> events = LifecycleEvents.taskChanges(task(TaskStatus.INBOX, null), task(TaskStatus.NEXT, null), NOW);
+
+        assertEquals(List.of(new TaskStatusChanged(1L, 10L, TaskStatus.INBOX, TaskStatus.NEXT, NOW)), events);
+    }
+
+    @Test
+    void taskChanges_DeferDatePushedLater_ShouldEmitDeferred() {
+        Instant monday = Instant.parse("2026-10-26T08:00:00Z");
+        Instant friday = Instant.parse("2026-10-30T08:00:00Z");
+
+        assertEquals(List.of(new TaskDeferred(1L, 10L, null, monday, NOW)),
+                LifecycleEvents.taskChanges(task(TaskStatus.NEXT, null), task(TaskStatus.NEXT, monday), NOW));
+        assertEquals(List.of(new TaskDeferred(1L, 10L, monday, friday, NOW)),
+                LifecycleEvents.taskChanges(task(TaskStatus.NEXT, monday), task(TaskStatus.NEXT, friday), NOW));
+    }
+
+    @Test
+    void taskChanges_DeferDateBroughtForwardOrCleared_ShouldEmitNothing() {
+        Instant monday = Instant.parse("2026-10-26T08:00:00Z");
+        Instant friday = Instant.parse("2026-10-30T08:00:00Z");
+
+        assertTrue(LifecycleEvents.taskChanges(task(TaskStatus.NEXT, friday), task(TaskStatus.NEXT, monday), NOW).isEmpty());
+        assertTrue(LifecycleEvents.taskChanges(task(TaskStatus.NEXT, friday), task(TaskStatus.NEXT, null), NOW).isEmpty());
+    }
+
+    @Test
+    void projectChanges_ToCompleted_ShouldEmitStatusChangeAndCompletion() {
+        List<DomainEvent> events = LifecycleEvents.projectChanges(project(ProjectStatus.ACTIVE), project(ProjectStatus.COMPLETED), NOW);
+
+        assertEquals(List.of(
+                new ProjectStatusChanged(1L, 5L, ProjectStatus.ACTIVE, ProjectStatus.COMPLETED, NOW),
+                new ProjectCompleted(1L, 5L, NOW)), events);
+    }
+
+    @Test
+    void projectChanges_SameStatus_ShouldEmitNothing() {
+        assertTrue(LifecycleEvents.projectChanges(project(ProjectStatus.ACTIVE), project(ProjectStatus.ACTIVE), NOW).isEmpty());
+    }
+
+    private static Task task(TaskStatus status, Instant deferUntil) {
+        return new Task(10L, 1L, 5L, null, "Write report", null, status, null, null, null,
+                null, deferUntil, null, null, NOW, null, null);
+    }
+
+    private static Project project(ProjectStatus status) {
+        return new Project(5L, 1L, null, "Launch", null, null, status, LocalDate.of(2026, 12, 31), NOW, null);
+    }
+}
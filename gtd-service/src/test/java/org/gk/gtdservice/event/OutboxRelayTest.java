@@ -0,0 +1,122 @@
+package org.gk.gtdservice.event;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.model.OutboxEvent;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.repo.OutboxRepository;
+import org.gk.gtdservice.repo.UserRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxRelayTest {
+
+    private EmbeddedDatabase database;
+    private ShardedJdbc shards;
+    private OutboxRepository repository;
+    private Outbox outbox;
+    private EventCodec codec;
+    private List<OutboxEvent> sunk;
+    private List<Object> delivered;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:schema.sql")
+                .build();
+        shards = ShardedJdbc.single(new NamedParameterJdbcTemplate(database));
+        repository = new OutboxRepository(shards);
+        codec = new EventCodec(JsonMapper.builder().findAndAddModules().build());
+        outbox = new Outbox(repository, codec);
+        sunk = new ArrayList<>();
+        delivered = new ArrayList<>();
+        user = new UserRepository(shards).create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void relay_ShouldPublishInOrderAndDrainOutbox() {
+        Instant now = Instant.parse("2026-10-19T08:00:00Z");
+        TaskCompleted completed = new TaskCompleted(user.id(), 7L, 3L, now);
+        TaskDeferred deferred = new TaskDeferred(user.id(), 8L, null, now.plusSeconds(86400), now);
+        outbox.record(completed);
+        outbox.record(deferred);
+
+        relay(10).relay();
+
+        assertEquals(List.of("TaskCompleted", "TaskDeferred"), sunk.stream().map(OutboxEvent::eventType).toList());
+        assertEquals(List.of(completed, deferred), delivered);
+        assertEquals(0, repository.countPending(0));
+    }
+
+    @Test
+    void relay_MoreThanOneBatch_ShouldDrainEverything() {
+        for (long i = 1; i <= 5; i++) {
+            outbox.record(new TaskCreated(user.id(), i, null, TaskStatus.INBOX, Instant.now()));
+        }
+
+        relay(2).relay();
+
+        assertEquals(5, delivered.size());
+        assertEquals(0, repository.countPending(0));
+    }
+
+    @Test
+    void relay_SinkFailure_ShouldKeepEventsForRetry() {
+        outbox.record(new TaskCreated(user.id(), 1L, null, TaskStatus.INBOX, Instant.now()));
+        OutboxRelay failing = new OutboxRelay(shards, repository, codec, _events -> {
+            throw new IllegalStateException("broker down");
+        }, delivered::add, 10);
+
+        failing.relay();
+
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, repository.countPending(0));
+
+        relay(10).relay();
+        assertEquals(1, delivered.size());
+        assertEquals(0, repository.countPending(0));
+    }
+
+    @Test
+    void relay_ListenerFailure_ShouldNotBlockStream() {
+        outbox.record(new TaskCreated(user.id(), 1L, null, TaskStatus.INBOX, Instant.now()));
+        outbox.record(new TaskCreated(user.id(), 2L, null, TaskStatus.INBOX, Instant.now()));
+        OutboxRelay relay = new OutboxRelay(shards, repository, codec, sunk::addAll, event -> {
+            if (((DomainEvent) event).aggregateId() == 1L) {
+                throw new IllegalStateException("listener bug");
+            }
+            delivered.add(event);
+        }, 10);
+
+        relay.relay();
+
+        assertEquals(2, sunk.size());
+        assertEquals(1, delivered.size());
+        assertEquals(0, repository.countPending(0));
+    }
+
+    private OutboxRelay relay(int batchSize) {
+        return new OutboxRelay(shards, repository, codec, sunk::addAll, delivered::add, batchSize);
+    }
+}
@@ -0,0 +1,164 @@
+package org.gk.gtdservice.fixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+
+    private static final DatasetSpec SPEC = DatasetSpec.defaults().withUsers(20).withMeanTasksPerUser(30);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        database = newDatabase();
+        jdbc = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void load_ShouldInsertTheReportedRows() {
+        Dataset dataset = new DatasetGenerator(SPEC).load(jdbc);
+
+        assertEquals(20, dataset.userIds().size());
+        assertEquals(20, count("SELECT COUNT(*) FROM gtd.users"));
+        assertEquals(dataset.projects(), count("SELECT COUNT(*) FROM gtd.projects"));
+        assertEquals(dataset.tags(), count("SELECT COUNT(*) FROM gtd.tags"));
+        assertEquals(dataset.tasks(), count("SELECT COUNT(*) FROM gtd.tasks"));
+        assertEquals(dataset.taskTags(), count("SELECT COUNT(*) FROM gtd.task_tags"));
+        assertEquals(dataset.dependencies(), count("SELECT COUNT(*) FROM gtd.task_dependencies"));
+        assertTrue(dataset.dependencies() > 0);
+        assertEquals(0, count("SELECT COUNT(*) FROM gtd.tasks WHERE rank_key IS NULL"));
+    }
+
+    @Test
+    void load_ShouldSkewTasksTowardsTheFirstUsers() {
+        Dataset dataset = new DatasetGenerator(SPEC).load(jdbc);
+
+        long busiest = count("SELECT COUNT(*) FROM gtd.tasks WHERE user_id = " + dataset.userIds().getFirst());
+        long quietest = count("SELECT COUNT(*) FROM gtd.tasks WHERE user_id = " + dataset.userIds().getLast());
+        assertTrue(busiest > 3 * SPEC.meanTasksPerUser(), "busiest user has " + busiest);
+        assertTrue(quietest < SPEC.meanTasksPerUser(), "quietest user has " + quietest);
+    }
+
+    @Test
+    void tasksPerUser_NoSkew_ShouldGiveEveryoneTheMean() {
+        long[] counts = new DatasetGenerator(SPEC.withTasksPerUserSkew(0)).tasksPerUser();
+
+        for (long count : counts) {
+            assertEquals(30, count);
+        }
+    }
+
+    @Test
+    void load_ListCountersShouldMatchTasks() {
+        new DatasetGenerator(SPEC).load(jdbc);
+
+        assertEquals(
+                jdbc.queryForList("SELECT user_id, status, COUNT(*) AS task_count FROM gtd.tasks GROUP BY user_id, status ORDER BY user_id, status"),
+                jdbc.queryForList("SELECT user_id, status, task_count FROM gtd.user_list_counters ORDER BY user_id, status"));
+    }
+
+    @Test
+    void load_DependenciesShouldStayInProjectAndWithinMaxDepth() {
+        DatasetSpec spec = SPEC.withDependencies(0.8, 3);
+        new DatasetGenerator(spec).load(jdbc);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM gtd.task_dependencies d " +
+                "JOIN gtd.tasks t ON t.id = d.task_id JOIN gtd.tasks p ON p.id = d.depends_on_task_id " +
+                "WHERE t.project_id <> p.project_id OR p.project_id IS NULL OR d.depends_on_task_id >= d.task_id"));
+
+        Map<Long, List<Long>> dependsOn = new HashMap<>();
+        jdbc.query("SELECT task_id, depends_on_task_id FROM gtd.task_dependencies ORDER BY task_id", rs -> {
+            dependsOn.computeIfAbsent(rs.getLong(1), _k -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        Map<Long, Integer> depth = new HashMap<>();
+        int deepest = 0;
+        for (Long taskId : dependsOn.keySet().stream().sorted().toList()) {
+            int taskDepth = 1 + dependsOn.get(taskId).stream().mapToInt(parent -> depth.getOrDefault(parent, 0)).max().orElse(0);
+            depth.put(taskId, taskDepth);
+            deepest = Math.max(deepest, taskDepth);
+        }
+        assertTrue(deepest <= 3, "deepest chain is " + deepest);
+        assertTrue(deepest >= 2, "deepest chain is " + deepest);
+    }
+
+    @Test
+    void load_ShouldIncludeLongNotes() {
+        new DatasetGenerator(SPEC.withNotes(0.3, 0.1)).load(jdbc);
+
+        assertTrue(count("SELECT COUNT(*) FROM gtd.tasks WHERE LENGTH(notes) > 1000") > 0);
+        assertEquals(0, count("SELECT COUNT(*) FROM gtd.tasks WHERE LENGTH(notes) > 2000"));
+        assertTrue(count("SELECT COUNT(*) FROM gtd.tasks WHERE notes IS NULL") > 0);
+    }
+
+    @Test
+    void load_LaterInsertsShouldGetFreshIds() {
+        Dataset dataset = new DatasetGenerator(SPEC).load(jdbc);
+
+        jdbc.update("INSERT INTO gtd.users (username, email) VALUES ('after', 'after@example.com')");
+
+        long id = count("SELECT id FROM gtd.users WHERE username = 'after'");
+        assertTrue(id > dataset.userIds().stream().mapToLong(Long::longValue).max().orElseThrow());
+    }
+
+    @Test
+    void load_Twice_ShouldAppendWithoutCollisions() {
+        new DatasetGenerator(SPEC).load(jdbc);
+        Dataset second = new DatasetGenerator(SPEC.withSeed(7)).load(jdbc);
+
+        assertEquals(40, count("SELECT COUNT(*) FROM gtd.users"));
+        assertEquals(second.tasks(), count("SELECT COUNT(*) FROM gtd.tasks WHERE user_id IN (" +
+                String.join(",", second.userIds().stream().map(String::valueOf).toList()) + ")"));
+    }
+
+    @Test
+    void loadCsv_ShouldLoadTheSameDataAsBatches(@TempDir Path directory) {
+        Dataset batch = new DatasetGenerator(SPEC).load(jdbc);
+        String checksum = checksum(jdbc);
+
+        EmbeddedDatabase csvDatabase = newDatabase();
+        try {
+            JdbcTemplate csvJdbc = new JdbcTemplate(csvDatabase);
+            Dataset csv = new DatasetGenerator(SPEC).loadCsv(csvJdbc, directory);
+
+            assertEquals(batch, csv);
+            assertEquals(checksum, checksum(csvJdbc));
+        } finally {
+            csvDatabase.shutdown();
+        }
+    }
+
+    private static EmbeddedDatabase newDatabase() {
+        return new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:schema.sql").build();
+    }
+
+    private long count(String sql) {
+        return jdbc.queryForObject(sql, Long.class);
+    }
+
+    private static String checksum(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT CONCAT(COUNT(notes), '/', SUM(LENGTH(notes)), '/', SUM(COALESCE(project_id, 0)), '/', " +
+                "COUNT(completed_at), '/', MAX(created_at), '/', SUM(LENGTH(title))) FROM gtd.tasks", String.class);
+    }
+}
@@ -0,0 +1,45 @@
+package org.gk.gtdservice.fixtures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfDistributionTest {
+
+    @Test
+    void probability_ShouldFallWithRankAndSumToOne() {
+        ZipfDistribution zipf = new ZipfDistribution(50, 1.0);
+
+        double total = 0;
+        for (int rank = 1; rank <= 50; rank++) {
+            total += zipf.probability(rank);
+            if (rank > 1) {
+                assertTrue(zipf.probability(rank) < zipf.probability(rank - 1));
+            }
+        }
+        assertEquals(1.0, total, 1e-9);
+        assertEquals(2.0, zipf.probability(1) / zipf.probability(2), 1e-9);
+    }
+
+    @Test
+    void sample_ShouldStayInRangeAndFavourLowRanks() {
+        ZipfDistribution zipf = new ZipfDistribution(10, 1.2);
+        SplittableRandom random = new SplittableRandom(1);
+
+        int[] hits = new int[11];
+        for (int i = 0; i < 10_000; i++) {
+            int rank = zipf.sample(random);
+            assertTrue(rank >= 1 && rank <= 10);
+            hits[rank]++;
+        }
+        assertTrue(hits[1] > hits[2]);
+        assertTrue(hits[2] > hits[10]);
+    }
+
+    @Test
+    void constructor_NoRanks_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(0, 1.0));
+    }
+}
@@ -0,0 +1,82 @@
+package org.gk.gtdservice.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingInvalidationBusTest {
+
+    private final RecordingBus bus = new RecordingBus();
+
+    @Test
+    void flush_ShouldCoalescePerUserAndType() {
+        bus.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        bus.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        bus.publish(Invalidation.Type.WORKING_SET, 1L);
+        bus.publish(Invalidation.Type.QUERY_RESULTS, 2L);
+        bus.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+
+        bus.flush();
+
+        assertEquals(1, bus.sent.size());
+        List<Invalidation> batch = bus.sent.get(0);
+        assertEquals(3, batch.size());
+        Invalidation user1 = batch.stream()
+                .filter(i -> i.userId() == 1L && i.type() == Invalidation.Type.QUERY_RESULTS)
+                .findFirst().orElseThrow();
+        assertEquals(5, user1.version());
+    }
+
+    @Test
+    void flush_NothingPublished_ShouldNotSend() {
+        bus.flush();
+
+        assertTrue(bus.sent.isEmpty());
+    }
+
+    @Test
+    void flush_SendFails_ShouldRetryWithLaterChanges() {
+        bus.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        bus.failing = true;
+        bus.flush();
+        bus.failing = false;
+        bus.publish(Invalidation.Type.QUERY_RESULTS, 2L);
+
+        bus.flush();
+
+        assertEquals(2, bus.sent.get(0).size());
+        assertEquals(0, bus.pendingCount());
+    }
+
+    @Test
+    void deliver_ShouldSkipOwnMessagesAndFailingListeners() {
+        List<Invalidation> received = new ArrayList<>();
+        bus.subscribe(_invalidation -> {
+            throw new IllegalStateException("broken listener");
+        });
+        bus.subscribe(received::add);
+        Invalidation invalidation = new Invalidation(Invalidation.Type.QUERY_RESULTS, 1L, 1L);
+
+        bus.deliver(bus.nodeId, List.of(invalidation));
+        bus.deliver(bus.nodeId + 1, List.of(invalidation));
+
+        assertEquals(List.of(invalidation), received);
+    }
+
+    private static final class RecordingBus extends BatchingInvalidationBus {
+
+        final List<List<Invalidation>> sent = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        protected void send(List<Invalidation> batch) {
+            if (failing) {
+                throw new IllegalStateException("transport down");
+            }
+            sent.add(batch);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.gk.gtdservice.invalidation;
+
+import org.gk.gtdservice.cache.UserVersionRegistry;
+import org.gk.gtdservice.cache.UserWorkingSets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationRelayTest {
+
+    @Mock
+    private InvalidationBus bus;
+
+    @Mock
+    private UserWorkingSets workingSets;
+
+    @Captor
+    private ArgumentCaptor<Consumer<Invalidation>> listener;
+
+    @Captor
+    private ArgumentCaptor<Consumer<Long>> workingSetListener;
+
+    private final UserVersionRegistry versions = new UserVersionRegistry();
+
+    @Test
+    void localCommit_ShouldBePublished() {
+        new CacheInvalidationRelay(bus, Optional.of(versions), Optional.of(workingSets));
+        verify(workingSets).addCommitListener(workingSetListener.capture());
+
+        versions.bumpAfterCommit(1L);
+        workingSetListener.getValue().accept(2L);
+
+        verify(bus).publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        verify(bus).publish(Invalidation.Type.WORKING_SET, 2L);
+    }
+
+    @Test
+    void remoteChange_ShouldBeAppliedWithoutRepublishing() {
+        new CacheInvalidationRelay(bus, Optional.of(versions), Optional.of(workingSets));
+        verify(bus).subscribe(listener.capture());
+        long before = versions.stamp();
+
+        listener.getValue().accept(new Invalidation(Invalidation.Type.QUERY_RESULTS, 1L, 7L));
+        listener.getValue().accept(new Invalidation(Invalidation.Type.WORKING_SET, 2L, 8L));
+
+        assertTrue(versions.version(1L) > before);
+        verify(workingSets).drop(2L);
+        verify(bus, never()).publish(any(), anyLong());
+    }
+
+    @Test
+    void remoteChange_CacheDisabled_ShouldBeIgnored() {
+        new CacheInvalidationRelay(bus, Optional.empty(), Optional.empty());
+        verify(bus).subscribe(listener.capture());
+
+        listener.getValue().accept(new Invalidation(Invalidation.Type.WORKING_SET, 2L, 8L));
+
+        verifyNoMoreInteractions(bus);
+    }
+}
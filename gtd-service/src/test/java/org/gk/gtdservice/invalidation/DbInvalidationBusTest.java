@@ -0,0 +1,196 @@
+package org.gk.gtdservice.invalidation;
+
+import org.gk.gtdservice.repo.InvalidationRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbInvalidationBusTest {
+
+    private EmbeddedDatabase database;
+    private InvalidationRepository repository;
+    private DbInvalidationBus first;
+    private DbInvalidationBus second;
+    private final List<Invalidation> receivedByFirst = new ArrayList<>();
+    private final List<Invalidation> receivedBySecond = new ArrayList<>();
+    private final MutableClock clock = new MutableClock();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("classpath:schema.sql").build();
+        repository = new InvalidationRepository(ShardedJdbc.single(new NamedParameterJdbcTemplate(database)));
+        first = new DbInvalidationBus(repository, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        second = new DbInvalidationBus(repository, Duration.ofMinutes(5), Duration.ofMinutes(1), clock);
+        first.subscribe(receivedByFirst::add);
+        second.subscribe(receivedBySecond::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void poll_ShouldDeliverOtherNodesChangesOnce() {
+        first.poll();
+        second.poll();
+
+        first.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        first.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        first.publish(Invalidation.Type.WORKING_SET, 2L);
+        first.flush();
+        first.poll();
+        second.poll();
+        second.poll();
+
+        assertTrue(receivedByFirst.isEmpty());
+        assertEquals(2, receivedBySecond.size());
+        assertEquals(List.of(1L, 2L), receivedBySecond.stream().map(Invalidation::userId).sorted().toList());
+    }
+
+    @Test
+    void poll_FirstPoll_ShouldSkipEarlierRows() {
+        first.publish(Invalidation.Type.QUERY_RESULTS, 1L);
+        first.flush();
+
+        second.poll();
+        second.poll();
+
+        assertTrue(receivedBySecond.isEmpty());
+    }
+
+    @Test
+    void poll_RowCommittedBelowHighestIdRead_ShouldStillBeDelivered() {
+        second.poll();
+        insert(5, 2L, Instant.now());
+        second.poll();
+        // A transaction that took a lower id but committed after the last poll.
+        insert(3, 3L, Instant.now());
+
+        second.poll();
+        second.poll();
+
+        assertEquals(List.of(2L, 3L), receivedBySecond.stream().map(Invalidation::userId).toList());
+    }
+
+    @Test
+    void poll_RowCommittedFarBelowHighestIdRead_ShouldStillBeDelivered() {
+        second.poll();
+        insert(1, 1L, Instant.now());
+        second.poll();
+        insert(2_000, 2L, Instant.now());
+        second.poll();
+        for (long id = 2_001; id <= 4_000; id++) {
+            insert(id, 4L, Instant.now());
+        }
+        second.poll();
+
+        insert(2, 3L, Instant.now());
+        second.poll();
+
+        assertEquals(1, receivedBySecond.stream().filter(invalidation -> invalidation.userId() == 3L).count());
+    }
+
+    @Test
+    void poll_GapOpenPastTimeout_ShouldStopLookingForIt() {
+        second.poll();
+        insert(1, 1L, Instant.now());
+        second.poll();
+        insert(3, 3L, Instant.now());
+        second.poll();
+        assertEquals(1, second.openGaps());
+
+        clock.advance(Duration.ofMinutes(2));
+        second.poll();
+
+        assertEquals(0, second.openGaps());
+        insert(2, 2L, Instant.now());
+        second.poll();
+        assertEquals(List.of(1L, 3L), receivedBySecond.stream().map(Invalidation::userId).toList());
+    }
+
+    @Test
+    void poll_TableEmptyAtStart_RowCommittedBelowFirstIdRead_ShouldStillBeDelivered() {
+        second.poll();
+        insert(3, 3L, Instant.now());
+        second.poll();
+        assertEquals(2, second.openGaps());
+
+        insert(1, 1L, Instant.now());
+        second.poll();
+
+        assertEquals(List.of(3L, 1L), receivedBySecond.stream().map(Invalidation::userId).toList());
+        assertEquals(1, second.openGaps());
+    }
+
+    @Test
+    void purge_ShouldDeleteOnlyRowsOlderThanRetention() {
+        insert(1, 1L, Instant.now().minus(Duration.ofMinutes(10)));
+        insert(2, 2L, Instant.now());
+
+        first.purge();
+
+        assertEquals(List.of(2L), repository.findAfter(0, 10).stream()
+                .map(row -> row.invalidation().userId())
+                .toList());
+    }
+
+    @Test
+    void purge_AllRowsOlderThanRetention_ShouldKeepNewest() {
+        insert(1, 1L, Instant.now().minus(Duration.ofMinutes(10)));
+        insert(2, 2L, Instant.now().minus(Duration.ofMinutes(10)));
+
+        first.purge();
+
+        assertEquals(2, repository.maxId());
+    }
+
+    private void insert(long id, long userId, Instant createdAt) {
+        new NamedParameterJdbcTemplate(database).update(
+                "INSERT INTO gtd.invalidations (id, node_id, entity_type, user_id, version, created_at) " +
+                "VALUES (:id, 1, 0, :userId, 1, :createdAt)",
+                Map.of("id", id, "userId", userId, "createdAt", Timestamp.from(createdAt)));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
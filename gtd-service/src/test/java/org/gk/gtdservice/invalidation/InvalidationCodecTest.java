@@ -0,0 +1,51 @@
+package org.gk.gtdservice.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationCodecTest {
+
+    @Test
+    void encode_ShouldRoundTrip() {
+        List<Invalidation> batch = List.of(
+                new Invalidation(Invalidation.Type.QUERY_RESULTS, 7L, 1L),
+                new Invalidation(Invalidation.Type.WORKING_SET, Long.MAX_VALUE, 42L));
+
+        List<ByteBuffer> datagrams = InvalidationCodec.encode(-5L, batch);
+
+        assertEquals(1, datagrams.size());
+        assertEquals(InvalidationCodec.HEADER_BYTES + 2 * InvalidationCodec.ENTRY_BYTES, datagrams.get(0).remaining());
+        InvalidationCodec.Datagram decoded = InvalidationCodec.decode(datagrams.get(0));
+        assertEquals(-5L, decoded.nodeId());
+        assertEquals(batch, decoded.invalidations());
+    }
+
+    @Test
+    void encode_LargeBatch_ShouldSplitIntoDatagramsThatFitTheLimit() {
+        List<Invalidation> batch = LongStream.rangeClosed(1, 200)
+                .mapToObj(userId -> new Invalidation(Invalidation.Type.QUERY_RESULTS, userId, userId))
+                .toList();
+
+        List<ByteBuffer> datagrams = InvalidationCodec.encode(1L, batch);
+
+        assertEquals(3, datagrams.size());
+        assertTrue(datagrams.stream().allMatch(d -> d.remaining() <= InvalidationCodec.MAX_DATAGRAM_BYTES));
+        assertEquals(batch, datagrams.stream()
+                .flatMap(d -> InvalidationCodec.decode(d).invalidations().stream())
+                .toList());
+    }
+
+    @Test
+    void decode_MalformedDatagram_ShouldThrow() {
+        ByteBuffer truncated = InvalidationCodec.encode(1L,
+                List.of(new Invalidation(Invalidation.Type.QUERY_RESULTS, 7L, 1L))).get(0).limit(20);
+
+        assertThrows(IllegalArgumentException.class, () -> InvalidationCodec.decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> InvalidationCodec.decode(ByteBuffer.wrap("hello".getBytes())));
+    }
+}
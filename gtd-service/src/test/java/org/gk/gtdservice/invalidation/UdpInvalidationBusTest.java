@@ -0,0 +1,44 @@
+package org.gk.gtdservice.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UdpInvalidationBusTest {
+
+    private UdpInvalidationBus receiver;
+    private UdpInvalidationBus sender;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (receiver != null) {
+            receiver.close();
+        }
+        if (sender != null) {
+            sender.close();
+        }
+    }
+
+    @Test
+    void flush_ShouldReachPeers() throws Exception {
+        receiver = new UdpInvalidationBus(new InetSocketAddress("127.0.0.1", 0), List.of());
+        sender = new UdpInvalidationBus(new InetSocketAddress("127.0.0.1", 0), List.of(receiver.localAddress()));
+        BlockingQueue<Invalidation> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        sender.publish(Invalidation.Type.WORKING_SET, 9L);
+        sender.flush();
+
+        Invalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(invalidation);
+        assertEquals(Invalidation.Type.WORKING_SET, invalidation.type());
+        assertEquals(9L, invalidation.userId());
+    }
+}
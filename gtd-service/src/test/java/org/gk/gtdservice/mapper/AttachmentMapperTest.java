@@ -0,0 +1,28 @@
+package org.gk.gtdservice.mapper;
+
+import org.gk.gtdservice.dto.AttachmentDto;
+import org.gk.gtdservice.model.Attachment;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttachmentMapperTest {
+
+    @Test
+    void toDto_ShouldMapAllFields() {
+        Attachment attachment = new Attachment(3L, 2L, 1L, "receipt.pdf", "application/pdf", 2048L,
+                "a".repeat(64), Instant.now());
+
+        AttachmentDto dto = AttachmentMapper.toDto(attachment);
+
+        assertEquals(attachment.id(), dto.id());
+        assertEquals(attachment.referenceId(), dto.referenceId());
+        assertEquals(attachment.name(), dto.name());
+        assertEquals(attachment.contentType(), dto.contentType());
+        assertEquals(attachment.size(), dto.size());
+        assertEquals(attachment.sha256(), dto.sha256());
+        assertEquals(attachment.createdAt(), dto.createdAt());
+    }
+}
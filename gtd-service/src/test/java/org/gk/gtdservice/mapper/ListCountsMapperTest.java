@@ -0,0 +1,28 @@
+package org.gk.gtdservice.mapper;
+
+import org.gk.gtdservice.dto.ListCountsDto;
+import org.gk.gtdservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListCountsMapperTest {
+
+    @Test
+    void toDto_ShouldMapEachStatus() {
+        ListCountsDto dto = ListCountsMapper.toDto(1L, Map.of(
+                TaskStatus.INBOX, 1L, TaskStatus.NEXT, 2L, TaskStatus.WAITING, 3L, TaskStatus.SCHEDULED, 4L,
+                TaskStatus.SOMEDAY, 5L, TaskStatus.REFERENCE, 6L, TaskStatus.DONE, 7L, TaskStatus.DROPPED, 8L));
+
+        assertEquals(new ListCountsDto(1L, 1, 2, 3, 4, 5, 6, 7, 8), dto);
+    }
+
+    @Test
+    void toDto_MissingStatuses_ShouldBeZero() {
+        ListCountsDto dto = ListCountsMapper.toDto(1L, Map.of(TaskStatus.INBOX, 3L));
+
+        assertEquals(new ListCountsDto(1L, 3, 0, 0, 0, 0, 0, 0, 0), dto);
+    }
+}
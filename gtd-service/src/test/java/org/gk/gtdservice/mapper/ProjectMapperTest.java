@@ -3,6 +3,7 @@ package org.gk.gtdservice.mapper;
 import org.gk.gtdservice.dto.CreateProjectDto;
 import org.gk.gtdservice.dto.ProjectDto;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
@@ -24,7 +25,7 @@ class ProjectMapperTest {
                 "Redesign website",
                 "Modern responsive site",
                 "Use React",
-                "active",
+                ProjectStatus.ACTIVE,
                 dueDate,
                 now,
                 completed
@@ -60,7 +61,7 @@ class ProjectMapperTest {
                 "Project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null,
                 now,
                 null
@@ -84,7 +85,7 @@ class ProjectMapperTest {
                 "Redesign website",
                 "Modern site",
                 "Notes here",
-                "active",
+                ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31)
         );
 
@@ -116,7 +117,7 @@ class ProjectMapperTest {
                 "Project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
         Instant before = Instant.now();
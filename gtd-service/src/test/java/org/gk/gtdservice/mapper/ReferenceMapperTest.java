@@ -18,6 +18,8 @@ class ReferenceMapperTest {
                 1L,
                 "GTD Weekly Review Checklist",
                 "Checklist content...",
+                "Checklist content...",
+                20,
                 "http://example.com/checklist",
                 "/docs/checklist.pdf",
                 now
@@ -29,6 +31,8 @@ class ReferenceMapperTest {
         assertEquals(reference.userId(), dto.userId());
         assertEquals(reference.title(), dto.title());
         assertEquals(reference.body(), dto.body());
+        assertEquals(reference.snippet(), dto.snippet());
+        assertEquals(reference.bodySize(), dto.bodySize());
         assertEquals(reference.url(), dto.url());
         assertEquals(reference.fileHint(), dto.fileHint());
         assertEquals(reference.createdAt(), dto.createdAt());
@@ -3,9 +3,12 @@ package org.gk.gtdservice.mapper;
 import org.gk.gtdservice.dto.CreateTaskDto;
 import org.gk.gtdservice.dto.TaskDto;
 import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,7 +29,7 @@ class TaskMapperTest {
                 3L,
                 "Buy running shoes",
                 "Check sports store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -60,6 +63,21 @@ class TaskMapperTest {
         assertEquals(task.orderIndex(), dto.orderIndex());
     }
 
+    @Test
+    void toDtoView_ShouldMapEachTaskWhenRead() {
+        Task task = new Task(1L, 1L, null, null, "Viewed", null, TaskStatus.NEXT, null, null, null,
+                null, null, null, null, Instant.now(), null, null);
+        List<Task> tasks = new ArrayList<>(List.of(task));
+
+        List<TaskDto> view = TaskMapper.toDtoView(tasks);
+        tasks.add(new Task(2L, 1L, null, null, "Added later", null, TaskStatus.NEXT, null, null, null,
+                null, null, null, null, Instant.now(), null, null));
+
+        assertEquals(2, view.size());
+        assertEquals(TaskMapper.toDto(task), view.get(0));
+        assertEquals("Added later", view.get(1).title());
+    }
+
     @Test
     void toDto_NullInput_ShouldReturnNull() {
         TaskDto dto = TaskMapper.toDto(null);
@@ -76,7 +94,7 @@ class TaskMapperTest {
                 null,
                 "Simple task",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -115,7 +133,7 @@ class TaskMapperTest {
                 3L,
                 "Buy running shoes",
                 "Check store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -158,7 +176,7 @@ class TaskMapperTest {
                 null,
                 "Task",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -0,0 +1,91 @@
+package org.gk.gtdservice.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskField;
+import org.gk.gtdservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskPatchMapperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void fromJson_ShouldKeepOnlySentFields() throws Exception {
+        TaskPatchDto patch = TaskPatchMapper.fromJson(json(
+                "{\"title\":\"Renamed\",\"energy\":2,\"dueAt\":\"2026-10-19T08:00:00Z\",\"notes\":null}"));
+
+        assertEquals(Set.of(TaskField.TITLE, TaskField.ENERGY, TaskField.DUE_AT, TaskField.NOTES), patch.fields());
+        assertEquals("Renamed", patch.get(TaskField.TITLE));
+        assertEquals(Integer.valueOf(2), patch.get(TaskField.ENERGY));
+        assertEquals(Instant.parse("2026-10-19T08:00:00Z"), patch.get(TaskField.DUE_AT));
+        assertTrue(patch.contains(TaskField.NOTES));
+        assertNull(patch.get(TaskField.NOTES));
+        assertFalse(patch.contains(TaskField.PRIORITY));
+    }
+
+    @Test
+    void fromJson_Status_ShouldReadEnumValue() throws Exception {
+        assertEquals(TaskStatus.WAITING, TaskPatchMapper.fromJson(json("{\"status\":\"waiting\"}")).get(TaskField.STATUS));
+    }
+
+    @Test
+    void fromJson_EmptyObject_ShouldBeEmptyPatch() throws Exception {
+        assertTrue(TaskPatchMapper.fromJson(json("{}")).isEmpty());
+    }
+
+    @Test
+    void fromJson_UnknownOrOwnerField_ShouldThrow() {
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"titel\":\"x\"}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"userId\":2}")));
+    }
+
+    @Test
+    void fromJson_InvalidValues_ShouldThrow() {
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"status\":\"later\"}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"status\":null}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"title\":\" \"}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"energy\":6}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"priority\":\"1\"}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("{\"dueAt\":\"tomorrow\"}")));
+        assertThrows(InvalidRequestException.class, () -> TaskPatchMapper.fromJson(json("[]")));
+    }
+
+    @Test
+    void apply_ShouldOverlayPatchedFields() {
+        Instant createdAt = Instant.now();
+        Task task = new Task(1L, 1L, 2L, 3L, "Buy running shoes", "Check sports store", TaskStatus.INBOX,
+                1, 3, 30, null, null, null, null, createdAt, null, 100);
+        Map<TaskField, Object> changes = new HashMap<>();
+        changes.put(TaskField.STATUS, TaskStatus.DONE);
+        changes.put(TaskField.CONTEXT_ID, null);
+        Instant completedAt = Instant.now();
+
+        Task patched = TaskPatchMapper.apply(task, new TaskPatchDto(changes), completedAt);
+
+        assertEquals(new Task(1L, 1L, 2L, null, "Buy running shoes", "Check sports store", TaskStatus.DONE,
+                1, 3, 30, null, null, null, null, createdAt, completedAt, 100), patched);
+    }
+
+    @Test
+    void apply_EmptyPatch_ShouldKeepTask() {
+        Task task = new Task(1L, 1L, null, null, "Task", null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, Instant.now(), null, null);
+
+        assertEquals(task, TaskPatchMapper.apply(task, new TaskPatchDto(Map.of()), null));
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+}
@@ -0,0 +1,27 @@
+package org.gk.gtdservice.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectStatusTest {
+
+    @Test
+    void fromCode_ShouldRoundTripEveryStatus() {
+        for (ProjectStatus status : ProjectStatus.values()) {
+            assertEquals(status, ProjectStatus.fromCode(status.code()));
+        }
+    }
+
+    @Test
+    void fromValue_ShouldAcceptKnownValuesOnly() {
+        assertEquals(ProjectStatus.ON_HOLD, ProjectStatus.fromValue("on_hold"));
+        assertThrows(IllegalArgumentException.class, () -> ProjectStatus.fromValue("paused"));
+    }
+
+    @Test
+    void json_ShouldUseLowerCaseValue() throws Exception {
+        assertEquals("\"on_hold\"", new ObjectMapper().writeValueAsString(ProjectStatus.ON_HOLD));
+    }
+}
@@ -0,0 +1,50 @@
+package org.gk.gtdservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceBodyTest {
+
+    @Test
+    void of_ShouldRoundTripText() {
+        String text = "Über-Checkliste: 🗂 file it\n".repeat(50);
+
+        ReferenceBody body = ReferenceBody.of(text);
+
+        assertEquals(text, body.text());
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, body.size());
+    }
+
+    @Test
+    void of_SameText_ShouldHaveSameHash() {
+        assertEquals(ReferenceBody.of("Checklist").hash(), ReferenceBody.of("Checklist").hash());
+        assertNotEquals(ReferenceBody.of("Checklist").hash(), ReferenceBody.of("Checklist.").hash());
+        assertEquals(64, ReferenceBody.of("Checklist").hash().length());
+    }
+
+    @Test
+    void snippet_ShouldCollapseWhitespace() {
+        assertEquals("Call the bank about the card", ReferenceBody.snippet("  Call the\n\tbank  about the card \n"));
+    }
+
+    @Test
+    void snippet_LongText_ShouldBeCutAtSnippetLength() {
+        String snippet = ReferenceBody.snippet("word ".repeat(100));
+
+        assertTrue(snippet.length() <= ReferenceBody.SNIPPET_LENGTH);
+        assertTrue(snippet.startsWith("word word"));
+        assertFalse(snippet.endsWith(" "));
+    }
+
+    @Test
+    void snippet_ShouldNotSplitSurrogatePair() {
+        String text = "a".repeat(ReferenceBody.SNIPPET_LENGTH - 1) + "🗂 more";
+
+        String snippet = ReferenceBody.snippet(text);
+
+        assertEquals(ReferenceBody.SNIPPET_LENGTH - 1, snippet.length());
+    }
+}
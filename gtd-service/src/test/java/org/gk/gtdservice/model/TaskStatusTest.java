@@ -0,0 +1,44 @@
+package org.gk.gtdservice.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskStatusTest {
+
+    @Test
+    void fromCode_ShouldRoundTripEveryStatus() {
+        for (TaskStatus status : TaskStatus.values()) {
+            assertEquals(status, TaskStatus.fromCode(status.code()));
+        }
+    }
+
+    @Test
+    void fromCode_UnknownCode_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.fromCode(-1));
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.fromCode(TaskStatus.values().length));
+    }
+
+    @Test
+    void fromValue_ShouldAcceptLowerCaseValuesOnly() {
+        assertEquals(TaskStatus.SOMEDAY, TaskStatus.fromValue("someday"));
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.fromValue("SOMEDAY"));
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.fromValue("archived"));
+    }
+
+    @Test
+    void isOpen_ShouldExcludeDoneAndDropped() {
+        assertTrue(TaskStatus.SOMEDAY.isOpen());
+        assertFalse(TaskStatus.DONE.isOpen());
+        assertFalse(TaskStatus.DROPPED.isOpen());
+    }
+
+    @Test
+    void json_ShouldUseLowerCaseValue() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertEquals("\"next\"", mapper.writeValueAsString(TaskStatus.NEXT));
+        assertEquals(TaskStatus.WAITING, mapper.readValue("\"waiting\"", TaskStatus.class));
+    }
+}
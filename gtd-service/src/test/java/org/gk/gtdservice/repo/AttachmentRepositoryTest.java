@@ -0,0 +1,107 @@
+package org.gk.gtdservice.repo;
+
+import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.model.Attachment;
+import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@Import({AttachmentRepository.class, ReferenceRepository.class, UserRepository.class, ShardingConfig.class})
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:schema.sql"})
+class AttachmentRepositoryTest {
+
+    private static final String SHA256 = "0f".repeat(32);
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private ReferenceRepository referenceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+    private Reference testReference;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.create(new CreateUserDto("testuser", "test@example.com", "Test User"));
+        testReference = referenceRepository.create(
+                new CreateReferenceDto(testUser.id(), "Tax 2025", null, null, "/docs/tax"));
+    }
+
+    @Test
+    void create_ShouldInsertAttachment() {
+        Attachment attachment = attachmentRepository.create(testUser.id(), testReference.id(), "receipt.pdf",
+                "application/pdf", 2048, SHA256);
+
+        assertNotNull(attachment.id());
+        Optional<Attachment> found = attachmentRepository.findById(testUser.id(), attachment.id());
+        assertTrue(found.isPresent());
+        assertEquals("receipt.pdf", found.get().name());
+        assertEquals("application/pdf", found.get().contentType());
+        assertEquals(2048L, found.get().size());
+        assertEquals(SHA256, found.get().sha256());
+        assertEquals(testReference.id(), found.get().referenceId());
+    }
+
+    @Test
+    void findByReferenceId_ShouldReturnAttachmentsInUploadOrder() {
+        attachmentRepository.create(testUser.id(), testReference.id(), "a.pdf", "application/pdf", 1, SHA256);
+        attachmentRepository.create(testUser.id(), testReference.id(), "b.pdf", "application/pdf", 1, SHA256);
+
+        List<Attachment> attachments = attachmentRepository.findByReferenceId(testUser.id(), testReference.id());
+
+        assertEquals(List.of("a.pdf", "b.pdf"), attachments.stream().map(Attachment::name).toList());
+    }
+
+    @Test
+    void isBlobInUse_ShouldFollowAttachments() {
+        Attachment attachment = attachmentRepository.create(testUser.id(), testReference.id(), "a.pdf",
+                "application/pdf", 1, SHA256);
+        assertTrue(attachmentRepository.isBlobInUse(SHA256));
+
+        assertTrue(attachmentRepository.delete(testUser.id(), attachment.id()));
+
+        assertFalse(attachmentRepository.isBlobInUse(SHA256));
+    }
+
+    @Test
+    void withBlobLock_ShouldRunActionOnceTheLockRowExists() {
+        assertEquals("first", attachmentRepository.withBlobLock(SHA256, () -> "first"));
+        assertEquals("again", attachmentRepository.withBlobLock(SHA256, () -> "again"));
+    }
+
+    @Test
+    void deleteReference_ShouldCascadeToAttachments() {
+        attachmentRepository.create(testUser.id(), testReference.id(), "a.pdf", "application/pdf", 1, SHA256);
+
+        referenceRepository.delete(testReference.id());
+
+        assertTrue(attachmentRepository.findByReferenceId(testUser.id(), testReference.id()).isEmpty());
+    }
+
+    @Test
+    void deleteByReferenceId_ShouldDeleteAll() {
+        attachmentRepository.create(testUser.id(), testReference.id(), "a.pdf", "application/pdf", 1, SHA256);
+        attachmentRepository.create(testUser.id(), testReference.id(), "b.pdf", "application/pdf", 1, SHA256);
+
+        assertEquals(2, attachmentRepository.deleteByReferenceId(testUser.id(), testReference.id()));
+    }
+}
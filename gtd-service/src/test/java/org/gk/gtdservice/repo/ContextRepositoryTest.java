@@ -4,6 +4,7 @@ import org.gk.gtdservice.dto.CreateContextDto;
 import org.gk.gtdservice.dto.CreateUserDto;
 import org.gk.gtdservice.model.Context;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +15,12 @@ import org.springframework.test.context.jdbc.Sql;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({ContextRepository.class, UserRepository.class})
+@Import({ContextRepository.class, UserRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class ContextRepositoryTest {
@@ -135,4 +137,15 @@ class ContextRepositoryTest {
 
         assertFalse(deleted);
     }
+
+    @Test
+    void findOwnedIds_ShouldReturnOnlyUsersExistingContexts() {
+        Context own = contextRepository.create(createContextDto);
+        User other = userRepository.create(new CreateUserDto("other", "other@example.com", "Other"));
+        Context foreign = contextRepository.create(new CreateContextDto(other.id(), "@Office", null, false));
+
+        Set<Long> owned = contextRepository.findOwnedIds(testUser.id(), List.of(own.id(), foreign.id(), 999L));
+
+        assertEquals(Set.of(own.id()), owned);
+    }
 }
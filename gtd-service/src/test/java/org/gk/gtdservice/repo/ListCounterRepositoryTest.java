@@ -0,0 +1,102 @@
+package org.gk.gtdservice.repo;
+
+import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@Import({ListCounterRepository.class, TaskRepository.class, UserRepository.class, ShardingConfig.class})
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:schema.sql"})
+class ListCounterRepositoryTest {
+
+    @Autowired
+    private ListCounterRepository listCounterRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.create(new CreateUserDto("testuser", "test@example.com", "Test User"));
+    }
+
+    @Test
+    void findByUserId_NoTasks_ShouldReturnEmpty() {
+        assertTrue(listCounterRepository.findByUserId(testUser.id()).isEmpty());
+    }
+
+    @Test
+    void create_ShouldIncrementStatusCounter() {
+        taskRepository.create(task("First", TaskStatus.INBOX));
+        taskRepository.create(task("Second", TaskStatus.INBOX));
+        taskRepository.create(task("Third", TaskStatus.NEXT));
+
+        assertEquals(Map.of(TaskStatus.INBOX, 2L, TaskStatus.NEXT, 1L), listCounterRepository.findByUserId(testUser.id()));
+    }
+
+    @Test
+    void update_StatusChange_ShouldMoveTaskBetweenCounters() {
+        Task task = taskRepository.create(task("First", TaskStatus.INBOX));
+
+        taskRepository.update(task.id(), task("First", TaskStatus.NEXT));
+
+        assertEquals(Map.of(TaskStatus.INBOX, 0L, TaskStatus.NEXT, 1L), listCounterRepository.findByUserId(testUser.id()));
+    }
+
+    @Test
+    void update_SameStatus_ShouldLeaveCountersUnchanged() {
+        Task task = taskRepository.create(task("First", TaskStatus.INBOX));
+
+        taskRepository.update(task.id(), task("Renamed", TaskStatus.INBOX));
+
+        assertEquals(Map.of(TaskStatus.INBOX, 1L), listCounterRepository.findByUserId(testUser.id()));
+    }
+
+    @Test
+    void delete_ShouldDecrementCounter() {
+        Task task = taskRepository.create(task("First", TaskStatus.WAITING));
+        taskRepository.create(task("Second", TaskStatus.WAITING));
+
+        taskRepository.delete(task.id());
+
+        assertEquals(Map.of(TaskStatus.WAITING, 1L), listCounterRepository.findByUserId(testUser.id()));
+    }
+
+    @Test
+    void rebuild_ShouldMatchIncrementalCounts() {
+        Task task = taskRepository.create(task("First", TaskStatus.INBOX));
+        taskRepository.create(task("Second", TaskStatus.NEXT));
+        taskRepository.update(task.id(), task("First", TaskStatus.DONE));
+        assertFalse(listCounterRepository.needsRebuild(0));
+
+        listCounterRepository.rebuild(0);
+
+        assertEquals(Map.of(TaskStatus.NEXT, 1L, TaskStatus.DONE, 1L), listCounterRepository.findByUserId(testUser.id()));
+        assertFalse(listCounterRepository.needsRebuild(0));
+    }
+
+    private CreateTaskDto task(String title, TaskStatus status) {
+        return new CreateTaskDto(testUser.id(), null, null, title, null, status,
+                null, null, null, null, null, null, null, null);
+    }
+}
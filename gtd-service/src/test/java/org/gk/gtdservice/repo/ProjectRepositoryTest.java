@@ -5,7 +5,9 @@ import org.gk.gtdservice.dto.CreateProjectDto;
 import org.gk.gtdservice.dto.CreateUserDto;
 import org.gk.gtdservice.model.Area;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,11 +19,12 @@ import org.springframework.test.context.jdbc.Sql;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({ProjectRepository.class, UserRepository.class, AreaRepository.class})
+@Import({ProjectRepository.class, UserRepository.class, AreaRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class ProjectRepositoryTest {
@@ -53,7 +56,7 @@ class ProjectRepositoryTest {
                 "Redesign website",
                 "Modern, responsive website",
                 "Use React and Tailwind",
-                "active",
+                ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31)
         );
     }
@@ -83,7 +86,7 @@ class ProjectRepositoryTest {
                 "Personal goal",
                 "Achieve something",
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
 
@@ -119,7 +122,7 @@ class ProjectRepositoryTest {
                 "Another project",
                 "Another outcome",
                 null,
-                "someday",
+                ProjectStatus.SOMEDAY,
                 null
         );
         Project project2 = projectRepository.create(dto2);
@@ -140,7 +143,7 @@ class ProjectRepositoryTest {
                 "Another project",
                 "Another outcome",
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
         Project project2 = projectRepository.create(dto2);
@@ -153,7 +156,7 @@ class ProjectRepositoryTest {
                 "Other user project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
         projectRepository.create(dto3);
@@ -174,7 +177,7 @@ class ProjectRepositoryTest {
                 "Another project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
         Project project2 = projectRepository.create(dto2);
@@ -185,7 +188,7 @@ class ProjectRepositoryTest {
                 "Project without area",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
         projectRepository.create(dto3);
@@ -206,13 +209,13 @@ class ProjectRepositoryTest {
                 "Someday project",
                 null,
                 null,
-                "someday",
+                ProjectStatus.SOMEDAY,
                 null
         );
         Project project2 = projectRepository.create(dto2);
 
-        List<Project> activeProjects = projectRepository.findByStatus("active");
-        List<Project> somedayProjects = projectRepository.findByStatus("someday");
+        List<Project> activeProjects = projectRepository.findByStatus(ProjectStatus.ACTIVE);
+        List<Project> somedayProjects = projectRepository.findByStatus(ProjectStatus.SOMEDAY);
 
         assertEquals(1, activeProjects.size());
         assertEquals(project1.id(), activeProjects.get(0).id());
@@ -229,7 +232,7 @@ class ProjectRepositoryTest {
                 "Updated title",
                 "Updated outcome",
                 "Updated notes",
-                "on_hold",
+                ProjectStatus.ON_HOLD,
                 LocalDate.of(2026, 6, 30)
         );
 
@@ -253,14 +256,14 @@ class ProjectRepositoryTest {
                 "Completed project",
                 "Done",
                 null,
-                "completed",
+                ProjectStatus.COMPLETED,
                 null
         );
 
         Project updated = projectRepository.update(created.id(), updateDto);
 
         assertNotNull(updated);
-        assertEquals("completed", updated.status());
+        assertEquals(ProjectStatus.COMPLETED, updated.status());
         assertNotNull(updated.completedAt());
     }
 
@@ -272,7 +275,7 @@ class ProjectRepositoryTest {
                 "Project",
                 null,
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 null
         );
 
@@ -297,4 +300,17 @@ class ProjectRepositoryTest {
 
         assertFalse(deleted);
     }
+
+    @Test
+    void findOwnedIds_ShouldReturnOnlyUsersExistingProjects() {
+        Project own = projectRepository.create(createProjectDto);
+        User other = userRepository.create(new CreateUserDto("other", "other@example.com", "Other"));
+        Project foreign = projectRepository.create(new CreateProjectDto(
+                other.id(), null, "Other project", null, null, ProjectStatus.ACTIVE, null));
+
+        Set<Long> owned = projectRepository.findOwnedIds(testUser.id(), List.of(own.id(), foreign.id(), 999L));
+
+        assertEquals(Set.of(own.id()), owned);
+        assertTrue(projectRepository.findOwnedIds(testUser.id(), List.of()).isEmpty());
+    }
 }
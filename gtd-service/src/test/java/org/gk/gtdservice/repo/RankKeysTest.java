@@ -0,0 +1,71 @@
+package org.gk.gtdservice.repo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankKeysTest {
+
+    @Test
+    void spread_ShouldReturnAscendingShortKeys() {
+        List<String> keys = RankKeys.spread(1000);
+
+        assertEquals(1000, keys.size());
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0);
+        }
+        assertTrue(keys.stream().allMatch(k -> k.length() <= RankKeys.LENGTH && !k.endsWith("0")));
+    }
+
+    @Test
+    void between_ShouldSortStrictlyBetweenNeighbours() {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>(RankKeys.spread(50));
+        for (int i = 0; i < 5000; i++) {
+            int position = random.nextInt(keys.size() + 1);
+            String lower = position > 0 ? keys.get(position - 1) : null;
+            String upper = position < keys.size() ? keys.get(position) : null;
+
+            String key = RankKeys.between(lower, upper);
+
+            assertTrue(lower == null || lower.compareTo(key) < 0, lower + " < " + key);
+            assertTrue(upper == null || key.compareTo(upper) < 0, key + " < " + upper);
+            assertFalse(key.endsWith("0"));
+            keys.add(position, key);
+        }
+    }
+
+    @Test
+    void between_Appending_ShouldKeepKeysShort() {
+        String key = null;
+        for (int i = 0; i < 100_000; i++) {
+            String next = RankKeys.between(key, null);
+            assertTrue(key == null || key.compareTo(next) < 0);
+            key = next;
+        }
+        assertTrue(key.length() <= RankKeys.LENGTH);
+    }
+
+    @Test
+    void between_RepeatedSplitOfOneGap_ShouldEventuallyNeedRebalance() {
+        String lower = "9";
+        String upper = "a";
+        String key = lower;
+        int splits = 0;
+        while (!RankKeys.needsRebalance(key)) {
+            key = RankKeys.between(key, upper);
+            splits++;
+        }
+        assertTrue(splits > 20);
+    }
+
+    @Test
+    void between_UnorderedNeighbours_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a", "a"));
+    }
+}
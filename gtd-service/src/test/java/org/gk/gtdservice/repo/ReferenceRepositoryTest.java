@@ -2,23 +2,29 @@ package org.gk.gtdservice.repo;
 
 import org.gk.gtdservice.dto.CreateReferenceDto;
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.ReferenceProperty;
 import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.ReferenceBody;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({ReferenceRepository.class, UserRepository.class})
+@Import({ReferenceRepository.class, UserRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class ReferenceRepositoryTest {
@@ -29,6 +35,9 @@ class ReferenceRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
     private CreateReferenceDto createReferenceDto;
     private User testUser;
 
@@ -116,6 +125,77 @@ class ReferenceRepositoryTest {
         assertEquals(testUser.id(), references.get(0).userId());
     }
 
+    @Test
+    void findByUserId_DefaultFields_ShouldReturnSnippetWithoutBody() {
+        Reference created = referenceRepository.create(createReferenceDto);
+
+        List<Reference> references = referenceRepository.findByUserId(testUser.id(),
+                Fieldset.parse(null, ReferenceProperty.class));
+
+        assertEquals(created.id(), references.get(0).id());
+        assertEquals(created.title(), references.get(0).title());
+        assertNull(references.get(0).body());
+        assertEquals("Checklist content...", references.get(0).snippet());
+        assertEquals(20, references.get(0).bodySize());
+    }
+
+    @Test
+    void findBody_ShouldReturnCompressedBody() {
+        String text = "Step 1. Collect loose papers.\n".repeat(200);
+        Reference created = referenceRepository.create(new CreateReferenceDto(testUser.id(), "Review", text, null, null));
+
+        Optional<ReferenceBody> body = referenceRepository.findBody(created.id());
+
+        assertTrue(body.isPresent());
+        assertEquals(text, body.get().text());
+        assertEquals(text.length(), body.get().size());
+        assertTrue(body.get().gzip().length < text.length() / 10);
+    }
+
+    @Test
+    void findBody_ReferenceWithoutBody_ShouldReturnEmptyBody() {
+        Reference created = referenceRepository.create(new CreateReferenceDto(testUser.id(), "Link", null, "http://x", null));
+
+        assertEquals(ReferenceBody.EMPTY.hash(), referenceRepository.findBody(created.id()).orElseThrow().hash());
+        assertNull(created.bodySize());
+    }
+
+    @Test
+    void findBody_NonExistingReference_ShouldReturnEmpty() {
+        assertTrue(referenceRepository.findBody(999L).isEmpty());
+    }
+
+    @Test
+    void create_SameBodyTwice_ShouldStoreItOnce() {
+        referenceRepository.create(createReferenceDto);
+        referenceRepository.create(createReferenceDto);
+
+        assertEquals(1, storedBodies());
+    }
+
+    @Test
+    void update_NewBody_ShouldReleaseOldBody() {
+        Reference created = referenceRepository.create(createReferenceDto);
+        CreateReferenceDto updateDto = new CreateReferenceDto(testUser.id(), created.title(), "New content", null, null);
+
+        referenceRepository.update(created.id(), updateDto);
+
+        assertEquals(1, storedBodies());
+        assertEquals("New content", referenceRepository.findBody(created.id()).orElseThrow().text());
+    }
+
+    @Test
+    void delete_SharedBody_ShouldKeepItUntilLastReference() {
+        Reference first = referenceRepository.create(createReferenceDto);
+        Reference second = referenceRepository.create(createReferenceDto);
+
+        referenceRepository.delete(first.id());
+        assertEquals(1, storedBodies());
+
+        referenceRepository.delete(second.id());
+        assertEquals(0, storedBodies());
+    }
+
     @Test
     void update_ShouldUpdateReference() {
         Reference created = referenceRepository.create(createReferenceDto);
@@ -136,6 +216,20 @@ class ReferenceRepositoryTest {
         assertEquals("/docs/updated.pdf", updated.get().fileHint());
     }
 
+    @Test
+    void update_NewOwner_ShouldMoveReferenceAndBodyToThem() {
+        Reference created = referenceRepository.create(createReferenceDto);
+        User other = userRepository.create(new CreateUserDto("other", "other@example.com", "Other"));
+
+        Optional<Reference> updated = referenceRepository.update(created.id(),
+                new CreateReferenceDto(other.id(), created.title(), created.body(), null, null));
+
+        assertEquals(other.id(), updated.orElseThrow().userId());
+        assertEquals(created.body(), updated.get().body());
+        assertEquals(0, storedBodies());
+        assertEquals(List.of(created.id()), referenceRepository.findByUserId(other.id()).stream().map(Reference::id).toList());
+    }
+
     @Test
     void update_NonExistingReference_ShouldReturnEmpty() {
         Optional<Reference> updated = referenceRepository.update(999L, createReferenceDto);
@@ -159,4 +253,9 @@ class ReferenceRepositoryTest {
 
         assertFalse(deleted);
     }
+
+    private int storedBodies() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM gtd.reference_bodies WHERE user_id = :userId",
+                Map.of("userId", testUser.id()), Integer.class);
+    }
 }
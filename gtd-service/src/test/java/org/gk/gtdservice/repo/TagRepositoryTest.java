@@ -4,6 +4,7 @@ import org.gk.gtdservice.dto.CreateTagDto;
 import org.gk.gtdservice.dto.CreateUserDto;
 import org.gk.gtdservice.model.Tag;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +19,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({TagRepository.class, UserRepository.class})
+@Import({TagRepository.class, UserRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class TagRepositoryTest {
@@ -5,7 +5,9 @@ import org.gk.gtdservice.dto.CreateTaskDto;
 import org.gk.gtdservice.dto.CreateUserDto;
 import org.gk.gtdservice.model.Task;
 import org.gk.gtdservice.model.TaskDependency;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,7 +23,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({TaskDependencyRepository.class, TaskRepository.class, UserRepository.class})
+@Import({TaskDependencyRepository.class, TaskRepository.class, ListCounterRepository.class, UserRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class TaskDependencyRepositoryTest {
@@ -46,12 +48,12 @@ class TaskDependencyRepositoryTest {
         testUser = userRepository.create(createUserDto);
         
         CreateTaskDto taskDto1 = new CreateTaskDto(
-                testUser.id(), null, null, "Task 1", null, "inbox", null, null, null, null, null, null, null, null
+                testUser.id(), null, null, "Task 1", null, TaskStatus.INBOX, null, null, null, null, null, null, null, null
         );
         testTask1 = taskRepository.create(taskDto1);
         
         CreateTaskDto taskDto2 = new CreateTaskDto(
-                testUser.id(), null, null, "Task 2", null, "inbox", null, null, null, null, null, null, null, null
+                testUser.id(), null, null, "Task 2", null, TaskStatus.INBOX, null, null, null, null, null, null, null, null
         );
         testTask2 = taskRepository.create(taskDto2);
         
@@ -104,7 +106,7 @@ class TaskDependencyRepositoryTest {
         TaskDependency dep1 = dependencyRepository.create(createDependencyDto);
         
         CreateTaskDto taskDto3 = new CreateTaskDto(
-                testUser.id(), null, null, "Task 3", null, "inbox", null, null, null, null, null, null, null, null
+                testUser.id(), null, null, "Task 3", null, TaskStatus.INBOX, null, null, null, null, null, null, null, null
         );
         Task testTask3 = taskRepository.create(taskDto3);
         CreateTaskDependencyDto dto2 = new CreateTaskDependencyDto(testTask3.id(), testTask2.id());
@@ -122,7 +124,7 @@ class TaskDependencyRepositoryTest {
         dependencyRepository.create(createDependencyDto);
         
         CreateTaskDto taskDto3 = new CreateTaskDto(
-                testUser.id(), null, null, "Task 3", null, "inbox", null, null, null, null, null, null, null, null
+                testUser.id(), null, null, "Task 3", null, TaskStatus.INBOX, null, null, null, null, null, null, null, null
         );
         Task testTask3 = taskRepository.create(taskDto3);
         CreateTaskDependencyDto dto2 = new CreateTaskDependencyDto(testTask2.id(), testTask3.id());
@@ -139,7 +141,7 @@ class TaskDependencyRepositoryTest {
         dependencyRepository.create(createDependencyDto);
         
         CreateTaskDto taskDto3 = new CreateTaskDto(
-                testUser.id(), null, null, "Task 3", null, "inbox", null, null, null, null, null, null, null, null
+                testUser.id(), null, null, "Task 3", null, TaskStatus.INBOX, null, null, null, null, null, null, null, null
         );
         Task testTask3 = taskRepository.create(taskDto3);
         CreateTaskDependencyDto dto2 = new CreateTaskDependencyDto(testTask3.id(), testTask1.id());
@@ -173,7 +175,7 @@ class TaskDependencyRepositoryTest {
         dependencyRepository.create(createDependencyDto);
         
         CreateTaskDto taskDto3 = new CreateTaskDto(
-                testUser.id(), null, null, "Task 3", null, "inbox", null, null, null, null, null, null, null, null
+                testUser.id(), null, null, "Task 3", null, TaskStatus.INBOX, null, null, null, null, null, null, null, null
         );
         Task testTask3 = taskRepository.create(taskDto3);
         CreateTaskDependencyDto dto2 = new CreateTaskDependencyDto(testTask3.id(), testTask1.id());
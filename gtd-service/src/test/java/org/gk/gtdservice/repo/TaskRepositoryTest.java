@@ -3,30 +3,43 @@ package org.gk.gtdservice.repo;
 import org.gk.gtdservice.dto.CreateAreaDto;
 import org.gk.gtdservice.dto.CreateContextDto;
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.CreateTaskDependencyDto;
 import org.gk.gtdservice.dto.CreateTaskDto;
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.dto.TaskProperty;
 import org.gk.gtdservice.model.Area;
 import org.gk.gtdservice.model.Context;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.RankedTask;
 import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskCompletion;
+import org.gk.gtdservice.model.TaskField;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({TaskRepository.class, UserRepository.class, ProjectRepository.class, ContextRepository.class, AreaRepository.class})
+@Import({TaskRepository.class, ListCounterRepository.class, TaskDependencyRepository.class, UserRepository.class, ProjectRepository.class, ContextRepository.class, AreaRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class TaskRepositoryTest {
@@ -46,6 +59,15 @@ class TaskRepositoryTest {
     @Autowired
     private AreaRepository areaRepository;
 
+    @Autowired
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Autowired
+    private ListCounterRepository listCounterRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
     private CreateTaskDto createTaskDto;
     private User testUser;
     private Project testProject;
@@ -65,7 +87,7 @@ class TaskRepositoryTest {
                 "Test Project",
                 "Test outcome",
                 null,
-                "active",
+                ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31)
         );
         testProject = projectRepository.create(createProjectDto);
@@ -79,7 +101,7 @@ class TaskRepositoryTest {
                 testContext.id(),
                 "Buy new running shoes",
                 "Check sports store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -118,7 +140,7 @@ class TaskRepositoryTest {
                 null,
                 "Simple task",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -163,7 +185,7 @@ class TaskRepositoryTest {
                 null,
                 "Another task",
                 null,
-                "next",
+                TaskStatus.NEXT,
                 null,
                 null,
                 null,
@@ -191,7 +213,7 @@ class TaskRepositoryTest {
                 null,
                 "Another task",
                 null,
-                "next",
+                TaskStatus.NEXT,
                 null,
                 null,
                 null,
@@ -211,7 +233,7 @@ class TaskRepositoryTest {
                 null,
                 "Other user task",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -230,6 +252,23 @@ class TaskRepositoryTest {
         assertTrue(tasks.stream().anyMatch(t -> t.id().equals(task2.id())));
     }
 
+    @Test
+    void findByUserId_SelectedFields_ShouldReadOnlyThoseColumns() {
+        Task created = taskRepository.create(createTaskDto);
+
+        List<Task> tasks = taskRepository.findByUserId(testUser.id(),
+                Fieldset.parse("title,status,dueAt", TaskProperty.class));
+
+        assertEquals(1, tasks.size());
+        Task task = tasks.get(0);
+        assertEquals(created.id(), task.id());
+        assertEquals(created.title(), task.title());
+        assertEquals(created.status(), task.status());
+        assertNull(task.userId());
+        assertNull(task.notes());
+        assertNull(task.createdAt());
+    }
+
     @Test
     void findByProjectId_ShouldReturnTasksForProject() {
         Task task1 = taskRepository.create(createTaskDto);
@@ -239,7 +278,7 @@ class TaskRepositoryTest {
                 null,
                 "Another project task",
                 null,
-                "next",
+                TaskStatus.NEXT,
                 null,
                 null,
                 null,
@@ -257,7 +296,7 @@ class TaskRepositoryTest {
                 null,
                 "Task without project",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -285,7 +324,7 @@ class TaskRepositoryTest {
                 testContext.id(),
                 "Another context task",
                 null,
-                "next",
+                TaskStatus.NEXT,
                 null,
                 null,
                 null,
@@ -303,7 +342,7 @@ class TaskRepositoryTest {
                 null,
                 "Task without context",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
@@ -331,7 +370,7 @@ class TaskRepositoryTest {
                 null,
                 "Next action task",
                 null,
-                "next",
+                TaskStatus.NEXT,
                 null,
                 null,
                 null,
@@ -343,8 +382,8 @@ class TaskRepositoryTest {
         );
         Task task2 = taskRepository.create(dto2);
 
-        List<Task> inboxTasks = taskRepository.findByStatus("inbox");
-        List<Task> nextTasks = taskRepository.findByStatus("next");
+        List<Task> inboxTasks = taskRepository.findByStatus(TaskStatus.INBOX);
+        List<Task> nextTasks = taskRepository.findByStatus(TaskStatus.NEXT);
 
         assertEquals(1, inboxTasks.size());
         assertEquals(task1.id(), inboxTasks.get(0).id());
@@ -361,7 +400,7 @@ class TaskRepositoryTest {
                 testContext.id(),
                 "Updated title",
                 "Updated notes",
-                "next",
+                TaskStatus.NEXT,
                 2,
                 4,
                 45,
@@ -394,7 +433,7 @@ class TaskRepositoryTest {
                 null,
                 "Completed task",
                 "Done",
-                "done",
+                TaskStatus.DONE,
                 null,
                 null,
                 null,
@@ -408,8 +447,297 @@ class TaskRepositoryTest {
         Task updated = taskRepository.update(created.id(), updateDto);
 
         assertNotNull(updated);
-        assertEquals("done", updated.status());
+        assertEquals(TaskStatus.DONE, updated.status());
         assertEquals("Completed task", updated.title());
+        assertNotNull(updated.completedAt());
+    }
+
+    @Test
+    void update_StayingDone_ShouldKeepCompletedAt() {
+        Task created = taskRepository.create(createTaskDto);
+        Task done = taskRepository.update(created.id(), taskDto("Completed task", TaskStatus.DONE));
+
+        Task renamed = taskRepository.update(created.id(), taskDto("Renamed task", TaskStatus.DONE));
+
+        assertEquals(done.completedAt(), renamed.completedAt());
+    }
+
+    @Test
+    void update_LeavingDone_ShouldClearCompletedAt() {
+        Task created = taskRepository.create(createTaskDto);
+        taskRepository.update(created.id(), taskDto("Completed task", TaskStatus.DONE));
+
+        Task reopened = taskRepository.update(created.id(), taskDto("Reopened task", TaskStatus.NEXT));
+
+        assertNull(reopened.completedAt());
+    }
+
+    @Test
+    void complete_OpenTask_ShouldSetStatusAndCompletedAt() {
+        Task created = taskRepository.create(createTaskDto);
+        Instant completedAt = Instant.parse("2026-10-19T08:00:00Z");
+
+        TaskCompletion completion = taskRepository.complete(created.id(), completedAt).orElseThrow();
+
+        assertTrue(completion.changed());
+        assertEquals(created.status(), completion.before().status());
+        assertEquals(TaskStatus.DONE, completion.after().status());
+        assertEquals(completedAt, completion.after().completedAt());
+    }
+
+    @Test
+    void complete_AlreadyDone_ShouldKeepOriginalCompletedAt() {
+        Task created = taskRepository.create(createTaskDto);
+        Instant first = Instant.parse("2026-10-19T08:00:00Z");
+        taskRepository.complete(created.id(), first);
+
+        TaskCompletion again = taskRepository.complete(created.id(), first.plusSeconds(3600)).orElseThrow();
+
+        assertFalse(again.changed());
+        assertEquals(first, again.after().completedAt());
+    }
+
+    @Test
+    void complete_NonExistingTask_ShouldReturnEmpty() {
+        assertTrue(taskRepository.complete(999L, Instant.now()).isEmpty());
+    }
+
+    @Test
+    void patch_ShouldWriteOnlyPatchedColumns() {
+        Task created = taskRepository.create(createTaskDto);
+        Task locked = taskRepository.lockById(created.id()).orElseThrow();
+
+        Task patched = taskRepository.patch(locked, new TaskPatchDto(Map.of(TaskField.TITLE, "Renamed")));
+
+        assertEquals("Renamed", patched.title());
+        assertEquals(created.notes(), patched.notes());
+        assertEquals(created.projectId(), patched.projectId());
+        assertEquals(patched, taskRepository.findById(created.id()).orElseThrow());
+    }
+
+    @Test
+    void patch_WithNull_ShouldClearColumn() {
+        Task created = taskRepository.create(createTaskDto);
+        Map<TaskField, Object> changes = new HashMap<>();
+        changes.put(TaskField.CONTEXT_ID, null);
+
+        taskRepository.patch(taskRepository.lockById(created.id()).orElseThrow(), new TaskPatchDto(changes));
+
+        Task found = taskRepository.findById(created.id()).orElseThrow();
+        assertNull(found.contextId());
+        assertEquals(created.title(), found.title());
+    }
+
+    @Test
+    void patch_StatusToDone_ShouldStampCompletedAtAndMoveCounters() {
+        Task created = taskRepository.create(taskDto("Draft", TaskStatus.NEXT));
+
+        Task patched = taskRepository.patch(taskRepository.lockById(created.id()).orElseThrow(),
+                new TaskPatchDto(Map.of(TaskField.STATUS, TaskStatus.DONE)));
+
+        assertEquals(TaskStatus.DONE, patched.status());
+        assertNotNull(patched.completedAt());
+        assertEquals(patched.completedAt(), taskRepository.findById(created.id()).orElseThrow().completedAt());
+        Map<TaskStatus, Long> counts = listCounterRepository.findByUserId(testUser.id());
+        assertEquals(0L, counts.get(TaskStatus.NEXT));
+        assertEquals(1L, counts.get(TaskStatus.DONE));
+    }
+
+    @Test
+    void lockByIds_ShouldReturnOnlyUsersTasks() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        User other = userRepository.create(new CreateUserDto("other", "other@example.com", "Other"));
+        Task foreign = taskRepository.create(new CreateTaskDto(other.id(), null, null, "Foreign", null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, null));
+
+        List<Task> locked = taskRepository.lockByIds(testUser.id(), List.of(first.id(), second.id(), foreign.id()));
+
+        assertEquals(List.of(first, second), locked);
+    }
+
+    @Test
+    void updateAll_ShouldWriteEveryTaskAndNetCounters() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.INBOX));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.INBOX));
+        Map<Long, Task> before = Map.of(first.id(), first, second.id(), second);
+        Task firstDone = new Task(first.id(), first.userId(), testProject.id(), null, "First", null, TaskStatus.DONE,
+                null, null, null, null, null, null, null, first.createdAt(), null, 2);
+        Task secondMoved = new Task(second.id(), second.userId(), null, testContext.id(), "Second", null, TaskStatus.INBOX,
+                null, null, null, null, null, null, null, second.createdAt(), null, 1);
+
+        List<Task> saved = taskRepository.updateAll(testUser.id(), before, List.of(firstDone, secondMoved));
+
+        assertNotNull(saved.get(0).completedAt());
+        assertEquals(saved.get(0), taskRepository.findById(first.id()).orElseThrow());
+        assertEquals(saved.get(1), taskRepository.findById(second.id()).orElseThrow());
+        Map<TaskStatus, Long> counts = listCounterRepository.findByUserId(testUser.id());
+        assertEquals(1L, counts.get(TaskStatus.INBOX));
+        assertEquals(1L, counts.get(TaskStatus.DONE));
+    }
+
+    @Test
+    void deleteAll_ShouldDeleteTasksAndAdjustCounters() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        Task kept = taskRepository.create(taskDto("Kept", TaskStatus.NEXT));
+
+        int deleted = taskRepository.deleteAll(testUser.id(), List.of(first, second));
+
+        assertEquals(2, deleted);
+        assertEquals(List.of(kept), taskRepository.findByUserId(testUser.id()));
+        assertEquals(1L, listCounterRepository.findByUserId(testUser.id()).get(TaskStatus.NEXT));
+    }
+
+    @Test
+    void create_ShouldAppendToEndOfUsersList() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        Task third = taskRepository.create(taskDto("Third", TaskStatus.NEXT));
+
+        assertEquals(List.of(first.id(), second.id(), third.id()), ids(taskRepository.findByUserId(testUser.id())));
+    }
+
+    @Test
+    void move_ShouldPlaceTaskBetweenNeighbours() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        Task third = taskRepository.create(taskDto("Third", TaskStatus.NEXT));
+
+        Optional<String> key = taskRepository.move(testUser.id(), third.id(), first.id(), second.id());
+
+        assertTrue(key.isPresent());
+        assertEquals(List.of(first.id(), third.id(), second.id()), ids(taskRepository.findByUserId(testUser.id())));
+    }
+
+    @Test
+    void move_ToTopAndBottom_ShouldUseOneNeighbour() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        Task third = taskRepository.create(taskDto("Third", TaskStatus.NEXT));
+
+        taskRepository.move(testUser.id(), third.id(), null, first.id());
+        taskRepository.move(testUser.id(), first.id(), second.id(), null);
+
+        assertEquals(List.of(third.id(), second.id(), first.id()), ids(taskRepository.findByUserId(testUser.id())));
+    }
+
+    @Test
+    void updateRankKeys_ShouldReorderListInOneBatch() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        Task third = taskRepository.create(taskDto("Third", TaskStatus.NEXT));
+
+        taskRepository.updateRankKeys(testUser.id(), Map.of(first.id(), "x", second.id(), "w", third.id(), "v"));
+
+        assertEquals(List.of(third.id(), second.id(), first.id()), ids(taskRepository.findByUserId(testUser.id())));
+    }
+
+    @Test
+    void move_NeighbourOfOtherUser_ShouldReturnEmpty() {
+        Task task = taskRepository.create(taskDto("Mine", TaskStatus.NEXT));
+        User other = userRepository.create(new CreateUserDto("other", "other@example.com", "Other"));
+        Task foreign = taskRepository.create(new CreateTaskDto(other.id(), null, null, "Foreign", null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, null));
+
+        assertTrue(taskRepository.move(testUser.id(), task.id(), foreign.id(), null).isEmpty());
+    }
+
+    @Test
+    void rebalanceRanks_ShouldKeepOrderAndShortenKeys() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.NEXT));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        Task moving = taskRepository.create(taskDto("Moving", TaskStatus.NEXT));
+        String key = "";
+        while (!RankKeys.needsRebalance(key)) {
+            key = taskRepository.move(testUser.id(), moving.id(), first.id(), second.id()).orElseThrow();
+            taskRepository.move(testUser.id(), second.id(), first.id(), moving.id());
+            Task swap = second;
+            second = moving;
+            moving = swap;
+        }
+        List<Long> before = ids(taskRepository.findByUserId(testUser.id()));
+
+        assertEquals(3, taskRepository.rebalanceRanks(testUser.id()));
+
+        assertEquals(before, ids(taskRepository.findByUserId(testUser.id())));
+        Optional<String> fresh = taskRepository.move(testUser.id(), before.get(0), before.get(1), before.get(2));
+        assertTrue(fresh.orElseThrow().length() <= RankKeys.LENGTH);
+    }
+
+    @Test
+    void backfillRanks_ShouldKeyTasksInOrderIndexOrder() {
+        Task late = taskRepository.create(new CreateTaskDto(testUser.id(), null, null, "Late", null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, 2));
+        Task early = taskRepository.create(new CreateTaskDto(testUser.id(), null, null, "Early", null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, 1));
+        jdbcTemplate.update("UPDATE gtd.tasks SET rank_key = NULL", Map.of());
+
+        assertEquals(2, taskRepository.backfillRanks(0));
+
+        assertEquals(List.of(early.id(), late.id()), ids(taskRepository.findByUserId(testUser.id())));
+        assertEquals(0, taskRepository.backfillRanks(0));
+    }
+
+    @Test
+    void findOpenRanked_ShouldSkipDoneAndDroppedAndReturnKeysInListOrder() {
+        Task first = taskRepository.create(taskDto("First", TaskStatus.INBOX));
+        Task second = taskRepository.create(taskDto("Second", TaskStatus.NEXT));
+        taskRepository.create(taskDto("Done", TaskStatus.DONE));
+        taskRepository.create(taskDto("Dropped", TaskStatus.DROPPED));
+        taskRepository.move(testUser.id(), second.id(), null, first.id());
+
+        List<RankedTask> open = taskRepository.findOpenRanked(testUser.id());
+
+        assertEquals(List.of(second.id(), first.id()), open.stream().map(ranked -> ranked.task().id()).toList());
+        assertTrue(open.get(0).rankKey().compareTo(open.get(1).rankKey()) < 0);
+    }
+
+    @Test
+    void findRankedByIds_ShouldReturnOnlyUsersTasksWhateverTheirStatus() {
+        Task done = taskRepository.create(taskDto("Done", TaskStatus.DONE));
+        User other = userRepository.create(new CreateUserDto("other", "other@example.com", "Other"));
+        Task foreign = taskRepository.create(new CreateTaskDto(other.id(), null, null, "Foreign", null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, null));
+
+        List<RankedTask> found = taskRepository.findRankedByIds(testUser.id(), List.of(done.id(), foreign.id()));
+
+        assertEquals(1, found.size());
+        assertEquals(done, found.getFirst().task());
+        assertNotNull(found.getFirst().rankKey());
+        assertTrue(taskRepository.findRankedByIds(testUser.id(), List.of()).isEmpty());
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::id).toList();
+    }
+
+    @Test
+    void lockById_NonExistingTask_ShouldReturnEmpty() {
+        assertTrue(taskRepository.lockById(999L).isEmpty());
+    }
+
+    @Test
+    void findUnblockedDependents_ShouldReturnOnlyTasksWithNoOpenPrerequisite() {
+        Task draft = taskRepository.create(taskDto("Draft", TaskStatus.NEXT));
+        Task review = taskRepository.create(taskDto("Review", TaskStatus.NEXT));
+        Task publish = taskRepository.create(taskDto("Publish", TaskStatus.WAITING));
+        Task announce = taskRepository.create(taskDto("Announce", TaskStatus.WAITING));
+        Task archived = taskRepository.create(taskDto("Archive", TaskStatus.DROPPED));
+        taskDependencyRepository.create(new CreateTaskDependencyDto(publish.id(), draft.id()));
+        taskDependencyRepository.create(new CreateTaskDependencyDto(announce.id(), draft.id()));
+        taskDependencyRepository.create(new CreateTaskDependencyDto(announce.id(), review.id()));
+        taskDependencyRepository.create(new CreateTaskDependencyDto(archived.id(), draft.id()));
+
+        taskRepository.complete(draft.id(), Instant.now());
+        List<Task> unblocked = taskRepository.findUnblockedDependents(testUser.id(), draft.id());
+
+        assertEquals(List.of(publish.id()), unblocked.stream().map(Task::id).toList());
+    }
+
+    private CreateTaskDto taskDto(String title, TaskStatus status) {
+        return new CreateTaskDto(testUser.id(), null, null, title, null, status,
+                null, null, null, null, null, null, null, null);
     }
 
     @Test
@@ -420,7 +748,7 @@ class TaskRepositoryTest {
                 null,
                 "Task",
                 null,
-                "inbox",
+                TaskStatus.INBOX,
                 null,
                 null,
                 null,
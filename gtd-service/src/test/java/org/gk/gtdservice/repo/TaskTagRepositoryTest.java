@@ -5,7 +5,9 @@ import org.gk.gtdservice.dto.CreateTaskDto;
 import org.gk.gtdservice.dto.CreateUserDto;
 import org.gk.gtdservice.model.Tag;
 import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.shard.ShardingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +22,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
-@Import({TaskTagRepository.class, TaskRepository.class, TagRepository.class, UserRepository.class})
+@Import({TaskTagRepository.class, TaskRepository.class, ListCounterRepository.class, TagRepository.class, UserRepository.class, ShardingConfig.class})
 @ActiveProfiles("test")
 @Sql(scripts = {"classpath:schema.sql"})
 class TaskTagRepositoryTest {
@@ -52,7 +54,7 @@ class TaskTagRepositoryTest {
                 null,
                 "Test Task",
                 "Notes",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -0,0 +1,177 @@
+package org.gk.gtdservice.service;
+
+import org.gk.gtdservice.blob.BlobStore;
+import org.gk.gtdservice.dto.AttachmentDto;
+import org.gk.gtdservice.exception.InvalidRequestException;
+import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.model.Attachment;
+import org.gk.gtdservice.repo.AttachmentRepository;
+import org.gk.gtdservice.repo.ReferenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentServiceImplTest {
+
+    private static final String SHA256 = "ab".repeat(32);
+
+    @Mock
+    private AttachmentRepository repository;
+
+    @Mock
+    private ReferenceRepository referenceRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @InjectMocks
+    private AttachmentServiceImpl service;
+
+    private Attachment testAttachment;
+
+    @BeforeEach
+    void setUp() {
+        testAttachment = new Attachment(3L, 2L, 1L, "receipt.pdf", "application/pdf", 2048L, SHA256, Instant.now());
+    }
+
+    @Test
+    void findByReferenceId_ShouldReturnAttachments() {
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.of(1L));
+        when(repository.findByReferenceId(1L, 2L)).thenReturn(List.of(testAttachment));
+
+        List<AttachmentDto> result = service.findByReferenceId(2L);
+
+        assertEquals(1, result.size());
+        assertEquals("receipt.pdf", result.get(0).name());
+    }
+
+    @Test
+    void findByReferenceId_NonExistingReference_ShouldThrowException() {
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.findByReferenceId(2L));
+    }
+
+    @Test
+    void findById_AttachmentOfOtherReference_ShouldThrowException() {
+        when(referenceRepository.findUserId(5L)).thenReturn(Optional.of(1L));
+        when(repository.findById(1L, 3L)).thenReturn(Optional.of(testAttachment));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.findById(5L, 3L));
+    }
+
+    @Test
+    void create_ShouldStoreBlobAndRecordAttachment() throws Exception {
+        InputStream content = new ByteArrayInputStream(new byte[2048]);
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.of(1L));
+        BlobStore.Upload upload = upload(2048);
+        when(blobStore.receive(content)).thenReturn(upload);
+        underBlobLock();
+        when(repository.create(1L, 2L, "receipt.pdf", "application/pdf", 2048, SHA256)).thenReturn(testAttachment);
+
+        AttachmentDto result = service.create(2L, "receipt.pdf", "application/pdf", content);
+
+        assertEquals(3L, result.id());
+        assertEquals(SHA256, result.sha256());
+        InOrder order = inOrder(repository, blobStore);
+        order.verify(repository).withBlobLock(eq(SHA256), any());
+        order.verify(blobStore).keep(upload);
+        order.verify(repository).create(1L, 2L, "receipt.pdf", "application/pdf", 2048, SHA256);
+    }
+
+    @Test
+    void create_NoContentType_ShouldDefaultToOctetStream() throws Exception {
+        InputStream content = new ByteArrayInputStream(new byte[1]);
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.of(1L));
+        when(blobStore.receive(content)).thenReturn(upload(1));
+        underBlobLock();
+        when(repository.create(1L, 2L, "scan", "application/octet-stream", 1, SHA256)).thenReturn(testAttachment);
+
+        service.create(2L, "scan", null, content);
+
+        verify(repository).create(1L, 2L, "scan", "application/octet-stream", 1, SHA256);
+    }
+
+    @Test
+    void create_BlankName_ShouldThrowWithoutStoring() throws Exception {
+        assertThrows(InvalidRequestException.class,
+                () -> service.create(2L, " ", "application/pdf", new ByteArrayInputStream(new byte[1])));
+
+        verify(blobStore, never()).receive(any());
+    }
+
+    @Test
+    void delete_LastUse_ShouldDeleteBlob() throws Exception {
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.of(1L));
+        when(repository.findById(1L, 3L)).thenReturn(Optional.of(testAttachment));
+        underBlobLock();
+        when(repository.isBlobInUse(SHA256)).thenReturn(false);
+
+        service.delete(2L, 3L);
+
+        verify(repository).delete(1L, 3L);
+        InOrder order = inOrder(repository, blobStore);
+        order.verify(repository).withBlobLock(eq(SHA256), any());
+        order.verify(repository).isBlobInUse(SHA256);
+        order.verify(blobStore).delete(SHA256);
+    }
+
+    @Test
+    void delete_BlobStillInUse_ShouldKeepBlob() throws Exception {
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.of(1L));
+        when(repository.findById(1L, 3L)).thenReturn(Optional.of(testAttachment));
+        underBlobLock();
+        when(repository.isBlobInUse(SHA256)).thenReturn(true);
+
+        service.delete(2L, 3L);
+
+        verify(blobStore, never()).delete(any());
+    }
+
+    @Test
+    void deleteByReferenceId_ShouldDeleteRowsAndUnusedBlobs() throws Exception {
+        when(referenceRepository.findUserId(2L)).thenReturn(Optional.of(1L));
+        when(repository.findByReferenceId(1L, 2L)).thenReturn(List.of(testAttachment));
+        underBlobLock();
+        when(repository.isBlobInUse(SHA256)).thenReturn(false);
+
+        service.deleteByReferenceId(2L);
+
+        verify(repository).deleteByReferenceId(1L, 2L);
+        verify(blobStore).delete(SHA256);
+    }
+
+    @Test
+    void file_MissingBlob_ShouldThrowException() {
+        when(blobStore.exists(SHA256)).thenReturn(false);
+        AttachmentDto dto = new AttachmentDto(3L, 2L, "receipt.pdf", "application/pdf", 2048L, SHA256, Instant.now());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.file(dto));
+    }
+
+    private static BlobStore.Upload upload(long size) {
+        return new BlobStore.Upload(Path.of("missing-upload"), new BlobStore.Blob(SHA256, size));
+    }
+
+    private void underBlobLock() {
+        when(repository.withBlobLock(eq(SHA256), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+    }
+}
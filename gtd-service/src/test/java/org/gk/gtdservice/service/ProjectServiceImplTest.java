@@ -1,10 +1,17 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
 import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ProjectDto;
+import org.gk.gtdservice.dto.ProjectProperty;
+import org.gk.gtdservice.event.Outbox;
+import org.gk.gtdservice.event.ProjectCompleted;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.model.Area;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
 import org.gk.gtdservice.model.User;
 import org.gk.gtdservice.repo.AreaRepository;
 import org.gk.gtdservice.repo.ProjectRepository;
@@ -29,6 +36,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ProjectServiceImplTest {
 
+    private static final Fieldset<ProjectProperty> FIELDS = Fieldset.parse(null, ProjectProperty.class);
+
     @Mock
     private ProjectRepository repository;
 
@@ -38,6 +47,12 @@ class ProjectServiceImplTest {
     @Mock
     private AreaRepository areaRepository;
 
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private ChangeFeed changes;
+
     @InjectMocks
     private ProjectServiceImpl service;
 
@@ -50,17 +65,17 @@ class ProjectServiceImplTest {
     void setUp() {
         testUser = new User(1L, "testuser", "test@example.com", "Test User", Instant.now());
         testArea = new Area(1L, 1L, "Work", "Work area", Instant.now());
-        testProject = new Project(1L, 1L, 1L, "Test Project", "Outcome", null, "active",
+        testProject = new Project(1L, 1L, 1L, "Test Project", "Outcome", null, ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31), Instant.now(), null);
-        createProjectDto = new CreateProjectDto(1L, 1L, "Test Project", "Outcome", null, "active",
+        createProjectDto = new CreateProjectDto(1L, 1L, "Test Project", "Outcome", null, ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31));
     }
 
     @Test
     void findAll_ShouldReturnAllProjects() {
-        when(repository.findAll()).thenReturn(List.of(testProject));
+        when(repository.findAll(FIELDS)).thenReturn(List.of(testProject));
 
-        List<ProjectDto> result = service.findAll();
+        List<ProjectDto> result = service.findAll(FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -69,9 +84,9 @@ class ProjectServiceImplTest {
 
     @Test
     void findByUserId_ShouldReturnProjectsForUser() {
-        when(repository.findByUserId(1L)).thenReturn(List.of(testProject));
+        when(repository.findByUserId(1L, FIELDS)).thenReturn(List.of(testProject));
 
-        List<ProjectDto> result = service.findByUserId(1L);
+        List<ProjectDto> result = service.findByUserId(1L, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -80,9 +95,9 @@ class ProjectServiceImplTest {
 
     @Test
     void findByAreaId_ShouldReturnProjectsForArea() {
-        when(repository.findByAreaId(1L)).thenReturn(List.of(testProject));
+        when(repository.findByAreaId(1L, FIELDS)).thenReturn(List.of(testProject));
 
-        List<ProjectDto> result = service.findByAreaId(1L);
+        List<ProjectDto> result = service.findByAreaId(1L, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -91,9 +106,9 @@ class ProjectServiceImplTest {
 
     @Test
     void findByStatus_ShouldReturnProjectsForStatus() {
-        when(repository.findByStatus("active")).thenReturn(List.of(testProject));
+        when(repository.findByStatus(ProjectStatus.ACTIVE, FIELDS)).thenReturn(List.of(testProject));
 
-        List<ProjectDto> result = service.findByStatus("active");
+        List<ProjectDto> result = service.findByStatus(ProjectStatus.ACTIVE, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -127,6 +142,7 @@ class ProjectServiceImplTest {
 
         assertNotNull(result);
         assertEquals(testProject.title(), result.title());
+        verify(changes).record(testProject.userId(), Change.Entity.PROJECT, testProject.id(), Change.Action.CREATED);
     }
 
     @Test
@@ -156,6 +172,20 @@ class ProjectServiceImplTest {
         assertEquals(testProject.title(), result.title());
     }
 
+    @Test
+    void update_StatusToCompleted_ShouldRecordCompletion() {
+        Project completed = new Project(1L, 1L, 1L, "Test Project", "Outcome", null, ProjectStatus.COMPLETED,
+                LocalDate.of(2025, 12, 31), testProject.createdAt(), Instant.now());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(areaRepository.findById(1L)).thenReturn(Optional.of(testArea));
+        when(repository.findById(1L)).thenReturn(Optional.of(testProject));
+        when(repository.update(eq(1L), any())).thenReturn(completed);
+
+        service.update(1L, createProjectDto);
+
+        verify(outbox).record(argThat(e -> e instanceof ProjectCompleted done && done.projectId().equals(1L)));
+    }
+
     @Test
     void update_NonExistingUser_ShouldThrowException() {
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
@@ -189,10 +219,21 @@ class ProjectServiceImplTest {
         verify(repository).delete(1L);
     }
 
+    @Test
+    void delete_ExistingProject_ShouldRecordDeletedChangeForOwner() {
+        when(repository.findById(1L)).thenReturn(Optional.of(testProject));
+        when(repository.delete(1L)).thenReturn(true);
+
+        service.delete(1L);
+
+        verify(changes).record(testProject.userId(), Change.Entity.PROJECT, 1L, Change.Action.DELETED);
+    }
+
     @Test
     void delete_NonExistingProject_ShouldThrowException() {
         when(repository.delete(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> service.delete(1L));
+        verifyNoInteractions(changes);
     }
 }
@@ -1,9 +1,12 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.Fieldset;
 import org.gk.gtdservice.dto.ReferenceDto;
+import org.gk.gtdservice.dto.ReferenceProperty;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.ReferenceBody;
 import org.gk.gtdservice.model.User;
 import org.gk.gtdservice.repo.ReferenceRepository;
 import org.gk.gtdservice.repo.UserRepository;
@@ -26,12 +29,17 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ReferenceServiceImplTest {
 
+    private static final Fieldset<ReferenceProperty> FIELDS = Fieldset.parse(null, ReferenceProperty.class);
+
     @Mock
     private ReferenceRepository repository;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AttachmentService attachmentService;
+
     @InjectMocks
     private ReferenceServiceImpl service;
 
@@ -42,15 +50,16 @@ class ReferenceServiceImplTest {
     @BeforeEach
     void setUp() {
         testUser = new User(1L, "testuser", "test@example.com", "Test User", Instant.now());
-        testReference = new Reference(1L, 1L, "Docs", "Documentation", "http://example.com", null, Instant.now());
+        testReference = new Reference(1L, 1L, "Docs", "Documentation", "Documentation", 13, "http://example.com", null,
+                Instant.now());
         createReferenceDto = new CreateReferenceDto(1L, "Docs", "Documentation", "http://example.com", null);
     }
 
     @Test
     void findAll_ShouldReturnAllReferences() {
-        when(repository.findAll()).thenReturn(List.of(testReference));
+        when(repository.findAll(FIELDS)).thenReturn(List.of(testReference));
 
-        List<ReferenceDto> result = service.findAll();
+        List<ReferenceDto> result = service.findAll(FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -59,9 +68,9 @@ class ReferenceServiceImplTest {
 
     @Test
     void findByUserId_ShouldReturnReferencesForUser() {
-        when(repository.findByUserId(1L)).thenReturn(List.of(testReference));
+        when(repository.findByUserId(1L, FIELDS)).thenReturn(List.of(testReference));
 
-        List<ReferenceDto> result = service.findByUserId(1L);
+        List<ReferenceDto> result = service.findByUserId(1L, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -85,6 +94,21 @@ class ReferenceServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> service.findById(1L));
     }
 
+    @Test
+    void findBody_ExistingReference_ShouldReturnBody() {
+        ReferenceBody body = ReferenceBody.of("Documentation");
+        when(repository.findBody(1L)).thenReturn(Optional.of(body));
+
+        assertSame(body, service.findBody(1L));
+    }
+
+    @Test
+    void findBody_NonExistingReference_ShouldThrowException() {
+        when(repository.findBody(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.findBody(1L));
+    }
+
     @Test
     void create_ValidReference_ShouldReturnCreated() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
@@ -135,6 +159,7 @@ class ReferenceServiceImplTest {
 
         service.delete(1L);
 
+        verify(attachmentService).deleteByReferenceId(1L);
         verify(repository).delete(1L);
     }
 
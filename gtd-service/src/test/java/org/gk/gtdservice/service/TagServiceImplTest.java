@@ -1,5 +1,8 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.cache.QueryResultCache;
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
 import org.gk.gtdservice.dto.CreateTagDto;
 import org.gk.gtdservice.dto.TagDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
@@ -10,7 +13,6 @@ import org.gk.gtdservice.repo.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -32,7 +34,12 @@ class TagServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private ChangeFeed changes;
+
+    @Mock
+    private QueryResultCache queryCache;
+
     private TagServiceImpl service;
 
     private Tag testTag;
@@ -41,6 +48,7 @@ class TagServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        service = new TagServiceImpl(repository, userRepository, changes, Optional.empty());
         testUser = new User(1L, "testuser", "test@example.com", "Test User", Instant.now());
         testTag = new Tag(1L, 1L, "Urgent", Instant.now());
         createTagDto = new CreateTagDto(1L, "Urgent");
@@ -144,4 +152,46 @@ class TagServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class, () -> service.delete(1L));
     }
+
+    @Test
+    void update_WithQueryCache_ShouldInvalidateOwner() {
+        service = new TagServiceImpl(repository, userRepository, changes, Optional.of(queryCache));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(repository.update(eq(1L), any())).thenReturn(testTag);
+
+        service.update(1L, createTagDto);
+
+        verify(queryCache).invalidate(1L);
+    }
+
+    @Test
+    void delete_WithQueryCache_ShouldInvalidateOwner() {
+        service = new TagServiceImpl(repository, userRepository, changes, Optional.of(queryCache));
+        when(repository.findById(1L)).thenReturn(Optional.of(testTag));
+        when(repository.delete(1L)).thenReturn(true);
+
+        service.delete(1L);
+
+        verify(queryCache).invalidate(1L);
+    }
+
+    @Test
+    void update_ShouldRecordUpdatedChange() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(repository.update(eq(1L), any())).thenReturn(testTag);
+
+        service.update(1L, createTagDto);
+
+        verify(changes).record(1L, Change.Entity.TAG, 1L, Change.Action.UPDATED);
+    }
+
+    @Test
+    void delete_ExistingTag_ShouldRecordDeletedChangeForOwner() {
+        when(repository.findById(1L)).thenReturn(Optional.of(testTag));
+        when(repository.delete(1L)).thenReturn(true);
+
+        service.delete(1L);
+
+        verify(changes).record(1L, Change.Entity.TAG, 1L, Change.Action.DELETED);
+    }
 }
@@ -1,16 +1,19 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.cache.QueryResultCache;
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
 import org.gk.gtdservice.dto.CreateTaskDependencyDto;
 import org.gk.gtdservice.dto.TaskDependencyDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.model.Task;
 import org.gk.gtdservice.model.TaskDependency;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.repo.TaskDependencyRepository;
 import org.gk.gtdservice.repo.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -31,7 +34,12 @@ class TaskDependencyServiceImplTest {
     @Mock
     private TaskRepository taskRepository;
 
-    @InjectMocks
+    @Mock
+    private QueryResultCache queryCache;
+
+    @Mock
+    private ChangeFeed changes;
+
     private TaskDependencyServiceImpl service;
 
     private TaskDependency testDependency;
@@ -41,8 +49,9 @@ class TaskDependencyServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        task1 = new Task(1L, 1L, 1L, 1L, "Task 1", "Desc 1", "inbox", 1, 1, 1, Instant.now(), null, null, null, Instant.now(), null, null);
-        task2 = new Task(2L, 1L, 1L, 1L, "Task 2", "Desc 2", "inbox", 1, 1, 1, Instant.now(), null, null, null, Instant.now(), null, null);
+        service = new TaskDependencyServiceImpl(repository, taskRepository, Optional.empty(), changes);
+        task1 = new Task(1L, 1L, 1L, 1L, "Task 1", "Desc 1", TaskStatus.INBOX, 1, 1, 1, Instant.now(), null, null, null, Instant.now(), null, null);
+        task2 = new Task(2L, 1L, 1L, 1L, "Task 2", "Desc 2", TaskStatus.INBOX, 1, 1, 1, Instant.now(), null, null, null, Instant.now(), null, null);
         testDependency = new TaskDependency(1L, 2L);
         createDependencyDto = new CreateTaskDependencyDto(1L, 2L);
     }
@@ -141,6 +150,27 @@ class TaskDependencyServiceImplTest {
         verify(repository).delete(1L, 2L);
     }
 
+    @Test
+    void create_ValidDependency_ShouldRecordTaskUpdated() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task1));
+        when(taskRepository.findById(2L)).thenReturn(Optional.of(task2));
+        when(repository.create(any())).thenReturn(testDependency);
+
+        service.create(createDependencyDto);
+
+        verify(changes).record(task1.userId(), Change.Entity.TASK, task1.id(), Change.Action.UPDATED);
+    }
+
+    @Test
+    void delete_ExistingDependency_ShouldRecordTaskUpdated() {
+        when(repository.delete(1L, 2L)).thenReturn(true);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task1));
+
+        service.delete(1L, 2L);
+
+        verify(changes).record(task1.userId(), Change.Entity.TASK, task1.id(), Change.Action.UPDATED);
+    }
+
     @Test
     void delete_NonExistingDependency_ShouldThrowException() {
         when(repository.delete(1L, 2L)).thenReturn(false);
@@ -151,10 +181,35 @@ class TaskDependencyServiceImplTest {
     @Test
     void deleteByTaskId_ShouldReturnCount() {
         when(repository.deleteByTaskId(1L)).thenReturn(5);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task1));
 
         int count = service.deleteByTaskId(1L);
 
         assertEquals(5, count);
         verify(repository).deleteByTaskId(1L);
+        verify(changes).record(task1.userId(), Change.Entity.TASK, task1.id(), Change.Action.UPDATED);
+    }
+
+    @Test
+    void create_WithQueryCache_ShouldInvalidateOwner() {
+        service = new TaskDependencyServiceImpl(repository, taskRepository, Optional.of(queryCache), changes);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task1));
+        when(taskRepository.findById(2L)).thenReturn(Optional.of(task2));
+        when(repository.create(any())).thenReturn(testDependency);
+
+        service.create(createDependencyDto);
+
+        verify(queryCache).invalidate(task1.userId());
+    }
+
+    @Test
+    void delete_WithQueryCache_ShouldInvalidateOwner() {
+        service = new TaskDependencyServiceImpl(repository, taskRepository, Optional.of(queryCache), changes);
+        when(repository.delete(1L, 2L)).thenReturn(true);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task1));
+
+        service.delete(1L, 2L);
+
+        verify(queryCache).invalidate(task1.userId());
     }
 }
@@ -0,0 +1,72 @@
+package org.gk.gtdservice.service;
+
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.shard.ShardedJdbc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskRankRebalancerTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private EmbeddedDatabase database;
+    private TaskRankRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2).build();
+        rebalancer = new TaskRankRebalancer(ShardedJdbc.single(new NamedParameterJdbcTemplate(database)), taskRepository,
+                Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void rebalancePending_ShouldRebalanceEachRequestedUserOnce() {
+        rebalancer.request(1L);
+        rebalancer.request(1L);
+        rebalancer.request(2L);
+
+        rebalancer.rebalancePending();
+
+        verify(taskRepository, times(1)).rebalanceRanks(1L);
+        verify(taskRepository, times(1)).rebalanceRanks(2L);
+        assertFalse(rebalancer.isPending(1L));
+    }
+
+    @Test
+    void rebalancePending_Failure_ShouldKeepUserPending() {
+        when(taskRepository.rebalanceRanks(1L)).thenThrow(new IllegalStateException("boom"));
+        rebalancer.request(1L);
+
+        rebalancer.rebalancePending();
+
+        assertTrue(rebalancer.isPending(1L));
+    }
+
+    @Test
+    void rebalancePending_NothingRequested_ShouldDoNothing() {
+        rebalancer.rebalancePending();
+
+        verifyNoInteractions(taskRepository);
+    }
+}
@@ -1,11 +1,34 @@
 package org.gk.gtdservice.service;
 
+import org.gk.gtdservice.cache.QueryResultCache;
+import org.gk.gtdservice.cache.UserVersionRegistry;
+import org.gk.gtdservice.change.Change;
+import org.gk.gtdservice.change.ChangeFeed;
+import org.gk.gtdservice.dto.BulkTaskOperationDto;
+import org.gk.gtdservice.dto.BulkTaskRequestDto;
+import org.gk.gtdservice.dto.BulkTaskResultDto;
 import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.Fieldset;
+import org.gk.gtdservice.dto.TaskCompletionDto;
 import org.gk.gtdservice.dto.TaskDto;
+import org.gk.gtdservice.dto.TaskMoveDto;
+import org.gk.gtdservice.dto.TaskPatchDto;
+import org.gk.gtdservice.dto.TaskProperty;
+import org.gk.gtdservice.event.Outbox;
+import org.gk.gtdservice.event.TaskCompleted;
+import org.gk.gtdservice.event.TaskCreated;
+import org.gk.gtdservice.event.TaskDeleted;
+import org.gk.gtdservice.event.TaskStatusChanged;
+import org.gk.gtdservice.exception.InvalidRequestException;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
 import org.gk.gtdservice.model.Context;
 import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.RankedTask;
 import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskCompletion;
+import org.gk.gtdservice.model.TaskField;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.model.User;
 import org.gk.gtdservice.repo.ContextRepository;
 import org.gk.gtdservice.repo.ProjectRepository;
@@ -16,14 +39,18 @@ import org.gk.gtdservice.repo.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +60,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TaskServiceImplTest {
 
+    private static final Fieldset<TaskProperty> FIELDS = Fieldset.parse(null, TaskProperty.class);
+
     @Mock
     private TaskRepository taskRepository;
 
@@ -51,7 +80,15 @@ class TaskServiceImplTest {
     @Mock
     private TagRepository tagRepository;
 
-    @InjectMocks
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private TaskRankRebalancer rankRebalancer;
+
+    @Mock
+    private ChangeFeed changes;
+
     private TaskServiceImpl taskService;
 
     private Task testTask;
@@ -62,8 +99,9 @@ class TaskServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        taskService = service(Optional.empty());
         testUser = new User(1L, "testuser", "test@example.com", "Test User", Instant.now());
-        testProject = new Project(2L, 1L, null, "Test Project", "Outcome", null, "active",
+        testProject = new Project(2L, 1L, null, "Test Project", "Outcome", null, ProjectStatus.ACTIVE,
                 LocalDate.of(2025, 12, 31), Instant.now(), null);
         testContext = new Context(3L, 1L, "Office", "Office context", false, Instant.now());
 
@@ -74,7 +112,7 @@ class TaskServiceImplTest {
                 3L,
                 "Buy running shoes",
                 "Check sports store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -93,7 +131,7 @@ class TaskServiceImplTest {
                 3L,
                 "Buy running shoes",
                 "Check sports store",
-                "inbox",
+                TaskStatus.INBOX,
                 1,
                 3,
                 30,
@@ -108,77 +146,77 @@ class TaskServiceImplTest {
     // FindAll tests
     @Test
     void findAll_ShouldReturnAllTasks() {
-        when(taskRepository.findAll()).thenReturn(List.of(testTask));
+        when(taskRepository.findAll(FIELDS)).thenReturn(List.of(testTask));
 
-        List<TaskDto> result = taskService.findAll();
+        List<TaskDto> result = taskService.findAll(FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTask.title(), result.get(0).title());
-        verify(taskRepository).findAll();
+        verify(taskRepository).findAll(FIELDS);
     }
 
     @Test
     void findAll_EmptyList_ShouldReturnEmptyList() {
-        when(taskRepository.findAll()).thenReturn(List.of());
+        when(taskRepository.findAll(FIELDS)).thenReturn(List.of());
 
-        List<TaskDto> result = taskService.findAll();
+        List<TaskDto> result = taskService.findAll(FIELDS);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(taskRepository).findAll();
+        verify(taskRepository).findAll(FIELDS);
     }
 
     // FindByUserId tests
     @Test
     void findByUserId_ShouldReturnTasksForUser() {
-        when(taskRepository.findByUserId(1L)).thenReturn(List.of(testTask));
+        when(taskRepository.findByUserId(1L, FIELDS)).thenReturn(List.of(testTask));
 
-        List<TaskDto> result = taskService.findByUserId(1L);
+        List<TaskDto> result = taskService.findByUserId(1L, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTask.title(), result.get(0).title());
-        verify(taskRepository).findByUserId(1L);
+        verify(taskRepository).findByUserId(1L, FIELDS);
     }
 
     // FindByProjectId tests
     @Test
     void findByProjectId_ShouldReturnTasksForProject() {
-        when(taskRepository.findByProjectId(2L)).thenReturn(List.of(testTask));
+        when(taskRepository.findByProjectId(2L, FIELDS)).thenReturn(List.of(testTask));
 
-        List<TaskDto> result = taskService.findByProjectId(2L);
+        List<TaskDto> result = taskService.findByProjectId(2L, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTask.title(), result.get(0).title());
-        verify(taskRepository).findByProjectId(2L);
+        verify(taskRepository).findByProjectId(2L, FIELDS);
     }
 
     // FindByContextId tests
     @Test
     void findByContextId_ShouldReturnTasksForContext() {
-        when(taskRepository.findByContextId(3L)).thenReturn(List.of(testTask));
+        when(taskRepository.findByContextId(3L, FIELDS)).thenReturn(List.of(testTask));
 
-        List<TaskDto> result = taskService.findByContextId(3L);
+        List<TaskDto> result = taskService.findByContextId(3L, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTask.title(), result.get(0).title());
-        verify(taskRepository).findByContextId(3L);
+        verify(taskRepository).findByContextId(3L, FIELDS);
     }
 
     // FindByStatus tests
     @Test
     void findByStatus_ShouldReturnTasksWithStatus() {
-        when(taskRepository.findByStatus("inbox")).thenReturn(List.of(testTask));
+        when(taskRepository.findByStatus(TaskStatus.INBOX, FIELDS)).thenReturn(List.of(testTask));
 
-        List<TaskDto> result = taskService.findByStatus("inbox");
+        List<TaskDto> result = taskService.findByStatus(TaskStatus.INBOX, FIELDS);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testTask.title(), result.get(0).title());
-        verify(taskRepository).findByStatus("inbox");
+        verify(taskRepository).findByStatus(TaskStatus.INBOX, FIELDS);
     }
 
     // FindById tests
@@ -223,11 +261,11 @@ class TaskServiceImplTest {
     @Test
     void create_WithoutProjectAndContext_ShouldCreateTask() {
         CreateTaskDto dtoWithoutRefs = new CreateTaskDto(
-                1L, null, null, "Simple task", null, "inbox",
+                1L, null, null, "Simple task", null, TaskStatus.INBOX,
                 null, null, null, null, null, null, null, null
         );
         Task taskWithoutRefs = new Task(
-                1L, 1L, null, null, "Simple task", null, "inbox", null, null, null,
+                1L, 1L, null, null, "Simple task", null, TaskStatus.INBOX, null, null, null,
                 null, null, null, null, Instant.now(), null, null
         );
 
@@ -280,11 +318,11 @@ class TaskServiceImplTest {
     @Test
     void create_WithOnlyProject_ShouldCreateTask() {
         CreateTaskDto dtoWithProject = new CreateTaskDto(
-                1L, 2L, null, "Task with project", null, "inbox",
+                1L, 2L, null, "Task with project", null, TaskStatus.INBOX,
                 null, null, null, null, null, null, null, null
         );
         Task taskWithProject = new Task(
-                1L, 1L, 2L, null, "Task with project", null, "inbox", null, null, null,
+                1L, 1L, 2L, null, "Task with project", null, TaskStatus.INBOX, null, null, null,
                 null, null, null, null, Instant.now(), null, null
         );
 
@@ -367,11 +405,11 @@ class TaskServiceImplTest {
     @Test
     void update_RemovingProjectAndContext_ShouldUpdateTask() {
         CreateTaskDto dtoWithoutRefs = new CreateTaskDto(
-                1L, null, null, "Updated task", null, "inbox",
+                1L, null, null, "Updated task", null, TaskStatus.INBOX,
                 null, null, null, null, null, null, null, null
         );
         Task updatedTask = new Task(
-                1L, 1L, null, null, "Updated task", null, "inbox", null, null, null,
+                1L, 1L, null, null, "Updated task", null, TaskStatus.INBOX, null, null, null,
                 null, null, null, null, Instant.now(), null, null
         );
 
@@ -390,6 +428,54 @@ class TaskServiceImplTest {
         verify(taskRepository).update(eq(1L), any(CreateTaskDto.class));
     }
 
+    @Test
+    void update_StatusToDone_ShouldRecordCompletion() {
+        CreateTaskDto doneDto = new CreateTaskDto(
+                1L, null, null, "Buy running shoes", null, TaskStatus.DONE,
+                null, null, null, null, null, null, null, null
+        );
+        Task doneTask = new Task(
+                1L, 1L, 2L, 3L, "Buy running shoes", null, TaskStatus.DONE, null, null, null,
+                null, null, null, null, testTask.createdAt(), Instant.now(), null
+        );
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.update(eq(1L), any(CreateTaskDto.class))).thenReturn(doneTask);
+
+        taskService.update(1L, doneDto);
+
+        verify(outbox).record(argThat(e -> e instanceof TaskStatusChanged changed
+                && TaskStatus.INBOX.equals(changed.fromStatus()) && TaskStatus.DONE.equals(changed.toStatus())));
+        verify(outbox).record(argThat(e -> e instanceof TaskCompleted completed && completed.taskId().equals(1L)));
+    }
+
+    @Test
+    void update_StatusUnchanged_ShouldRecordNothing() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(projectRepository.findById(2L)).thenReturn(Optional.of(testProject));
+        when(contextRepository.findById(3L)).thenReturn(Optional.of(testContext));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.update(eq(1L), any(CreateTaskDto.class))).thenReturn(testTask);
+
+        taskService.update(1L, createTaskDto);
+
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void create_ShouldRecordTaskCreated() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(projectRepository.findById(2L)).thenReturn(Optional.of(testProject));
+        when(contextRepository.findById(3L)).thenReturn(Optional.of(testContext));
+        when(taskRepository.create(any(CreateTaskDto.class))).thenReturn(testTask);
+
+        taskService.create(createTaskDto);
+
+        verify(outbox).record(argThat(e -> e instanceof TaskCreated created
+                && created.taskId().equals(1L) && TaskStatus.INBOX.equals(created.status())));
+        verify(changes).record(1L, Change.Entity.TASK, 1L, Change.Action.CREATED);
+    }
+
     // Delete tests
     @Test
     void delete_ExistingTask_ShouldDeleteTask() {
@@ -399,6 +485,26 @@ class TaskServiceImplTest {
         verify(taskRepository).delete(1L);
     }
 
+    @Test
+    void delete_ExistingTask_ShouldRecordTaskDeleted() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.delete(1L)).thenReturn(true);
+
+        taskService.delete(1L);
+
+        verify(outbox).record(argThat(e -> e instanceof TaskDeleted deleted && deleted.taskId().equals(1L)));
+    }
+
+    @Test
+    void delete_ExistingTask_ShouldRecordDeletedChange() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.delete(1L)).thenReturn(true);
+
+        taskService.delete(1L);
+
+        verify(changes).record(1L, Change.Entity.TASK, 1L, Change.Action.DELETED);
+    }
+
     @Test
     void delete_NonExistingTask_ShouldThrowException() {
         when(taskRepository.delete(1L)).thenReturn(false);
@@ -407,6 +513,255 @@ class TaskServiceImplTest {
         verify(taskRepository).delete(1L);
     }
 
+    // Patch tests
+    @Test
+    void patch_StatusOnly_ShouldNotValidateReferences() {
+        TaskPatchDto patch = new TaskPatchDto(Map.of(TaskField.STATUS, TaskStatus.NEXT));
+        Task patched = new Task(1L, 1L, 2L, 3L, "Buy running shoes", "Check sports store", TaskStatus.NEXT, 1, 3, 30,
+                testTask.dueAt(), null, null, null, testTask.createdAt(), null, null);
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.patch(testTask, patch)).thenReturn(patched);
+
+        TaskDto result = taskService.patch(1L, patch);
+
+        assertEquals(TaskStatus.NEXT, result.status());
+        verifyNoInteractions(userRepository, projectRepository, contextRepository);
+        verify(outbox).record(argThat(e -> e instanceof TaskStatusChanged changed
+                && TaskStatus.INBOX.equals(changed.fromStatus()) && TaskStatus.NEXT.equals(changed.toStatus())));
+    }
+
+    @Test
+    void patch_NewProject_ShouldValidateOnlyProject() {
+        TaskPatchDto patch = new TaskPatchDto(Map.of(TaskField.PROJECT_ID, 2L));
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(projectRepository.findById(2L)).thenReturn(Optional.of(testProject));
+        when(taskRepository.patch(testTask, patch)).thenReturn(testTask);
+
+        taskService.patch(1L, patch);
+
+        verify(projectRepository).findById(2L);
+        verifyNoInteractions(userRepository, contextRepository);
+    }
+
+    @Test
+    void patch_NonExistingContext_ShouldThrowException() {
+        TaskPatchDto patch = new TaskPatchDto(Map.of(TaskField.CONTEXT_ID, 999L));
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(contextRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.patch(1L, patch));
+        verify(taskRepository, never()).patch(any(), any());
+    }
+
+    @Test
+    void patch_NonExistingTask_ShouldThrowException() {
+        when(taskRepository.lockById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> taskService.patch(999L, new TaskPatchDto(Map.of(TaskField.TITLE, "New"))));
+    }
+
+    @Test
+    void patch_EmptyPatch_ShouldWriteNothing() {
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+
+        TaskDto result = taskService.patch(1L, new TaskPatchDto(Map.of()));
+
+        assertEquals(testTask.title(), result.title());
+        verify(taskRepository, never()).patch(any(), any());
+        verifyNoInteractions(outbox);
+    }
+
+    // Move tests
+    @Test
+    void move_ShouldWriteOnlyRankKey() {
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.move(1L, 1L, 4L, 5L)).thenReturn(Optional.of("9i"));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+
+        TaskDto result = taskService.move(1L, new TaskMoveDto(4L, 5L));
+
+        assertEquals(1L, result.id());
+        InOrder order = inOrder(taskRepository);
+        order.verify(taskRepository).move(1L, 1L, 4L, 5L);
+        order.verify(taskRepository).findById(1L);
+        verify(taskRepository, never()).update(any(), any());
+        verifyNoInteractions(rankRebalancer);
+    }
+
+    @Test
+    void move_LongKey_ShouldRequestRebalance() {
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.move(1L, 1L, 4L, 5L)).thenReturn(Optional.of("9iiiiiiiiiiiiii"));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+
+        taskService.move(1L, new TaskMoveDto(4L, 5L));
+
+        verify(rankRebalancer).request(1L);
+    }
+
+    @Test
+    void move_UnknownNeighbour_ShouldThrowNotFound() {
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.move(1L, 1L, 99L, null)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.move(1L, new TaskMoveDto(99L, null)));
+    }
+
+    @Test
+    void move_NeighboursOutOfOrder_ShouldThrowInvalidRequest() {
+        when(taskRepository.lockById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.move(1L, 1L, 5L, 4L)).thenThrow(new IllegalArgumentException("not below"));
+
+        assertThrows(InvalidRequestException.class, () -> taskService.move(1L, new TaskMoveDto(5L, 4L)));
+    }
+
+    @Test
+    void move_WithoutNeighboursOrNextToItself_ShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class, () -> taskService.move(1L, new TaskMoveDto(null, null)));
+        assertThrows(InvalidRequestException.class, () -> taskService.move(1L, new TaskMoveDto(1L, null)));
+        verifyNoInteractions(taskRepository);
+    }
+
+    // Bulk tests
+    @Test
+    void bulk_Reorder_ShouldWriteRankKeysOnceWithoutPerTaskLookups() {
+        Task other = new Task(4L, 1L, 2L, null, "Pack bag", null, TaskStatus.NEXT, null, null, null,
+                null, null, null, null, Instant.now(), null, 1);
+        Task third = new Task(5L, 1L, 2L, null, "Fill bottle", null, TaskStatus.NEXT, null, null, null,
+                null, null, null, null, Instant.now(), null, 2);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(taskRepository.lockByIds(eq(1L), any())).thenReturn(List.of(testTask, other, third));
+        when(projectRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+        when(contextRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+        when(taskRepository.findRankedByIds(1L, Set.of(1L, 4L, 5L))).thenReturn(List.of(
+                new RankedTask(testTask, "a"), new RankedTask(other, "b"), new RankedTask(third, "c")));
+        when(taskRepository.updateAll(eq(1L), any(), any())).thenAnswer(inv -> List.copyOf(inv.<List<Task>>getArgument(2)));
+
+        // Reverse the list: each task after the one before it
+        List<BulkTaskResultDto> results = taskService.bulk(new BulkTaskRequestDto(1L, List.of(
+                new BulkTaskOperationDto(5L, "move", null, null, null, null, 1L),
+                new BulkTaskOperationDto(4L, "move", null, null, null, 5L, null),
+                new BulkTaskOperationDto(1L, "move", null, null, null, 4L, null))));
+
+        assertEquals(List.of("ok", "ok", "ok"), results.stream().map(BulkTaskResultDto::outcome).toList());
+        verify(taskRepository).updateRankKeys(eq(1L), argThat(keys -> keys.size() == 3
+                && keys.get(5L).compareTo(keys.get(4L)) < 0 && keys.get(4L).compareTo(keys.get(1L)) < 0));
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).move(any(), any(), any(), any());
+        verify(changes).record(1L, Change.Entity.TASK, 5L, Change.Action.UPDATED);
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void bulk_MoveNextToUnknownOrDeletedTask_ShouldReportNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(taskRepository.lockByIds(eq(1L), any())).thenReturn(List.of(testTask));
+        when(projectRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+        when(contextRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+        when(taskRepository.findRankedByIds(eq(1L), any())).thenReturn(List.of(new RankedTask(testTask, "a")));
+
+        List<BulkTaskResultDto> results = taskService.bulk(new BulkTaskRequestDto(1L, List.of(
+                new BulkTaskOperationDto(1L, "move", null, null, null, 99L, null),
+                new BulkTaskOperationDto(1L, "move", null, null, null, 1L, null))));
+
+        assertEquals(List.of("not_found", "invalid"), results.stream().map(BulkTaskResultDto::outcome).toList());
+        verify(taskRepository).updateRankKeys(1L, Map.of());
+    }
+
+    @Test
+    void bulk_MixedOperations_ShouldReportPerItemResults() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(taskRepository.lockByIds(eq(1L), any())).thenReturn(List.of(testTask));
+        when(projectRepository.findOwnedIds(eq(1L), eq(Set.of(99L)))).thenReturn(Set.of());
+        when(contextRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+        when(taskRepository.updateAll(eq(1L), any(), any())).thenAnswer(inv -> List.copyOf(inv.<List<Task>>getArgument(2)));
+
+        List<BulkTaskResultDto> results = taskService.bulk(new BulkTaskRequestDto(1L, List.of(
+                new BulkTaskOperationDto(1L, "set_status", TaskStatus.NEXT, null, null, null, null),
+                new BulkTaskOperationDto(1L, "move_to_project", null, 99L, null, null, null),
+                new BulkTaskOperationDto(1L, "move", null, null, null, null, null),
+                new BulkTaskOperationDto(7L, "delete", null, null, null, null, null))));
+
+        assertEquals(List.of("ok", "not_found", "invalid", "not_found"),
+                results.stream().map(BulkTaskResultDto::outcome).toList());
+        verify(taskRepository).updateAll(eq(1L), any(), argThat(tasks -> tasks.size() == 1
+                && TaskStatus.NEXT.equals(tasks.iterator().next().status())
+                && Long.valueOf(2L).equals(tasks.iterator().next().projectId())));
+        verify(outbox).record(argThat(e -> e instanceof TaskStatusChanged));
+    }
+
+    @Test
+    void bulk_UpdateThenDelete_ShouldOnlyDelete() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(taskRepository.lockByIds(eq(1L), any())).thenReturn(List.of(testTask));
+        when(projectRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+        when(contextRepository.findOwnedIds(eq(1L), any())).thenReturn(Set.of());
+
+        List<BulkTaskResultDto> results = taskService.bulk(new BulkTaskRequestDto(1L, List.of(
+                new BulkTaskOperationDto(1L, "set_status", TaskStatus.DONE, null, null, null, null),
+                new BulkTaskOperationDto(1L, "delete", null, null, null, null, null),
+                new BulkTaskOperationDto(1L, "set_status", TaskStatus.NEXT, null, null, null, null))));
+
+        assertEquals(List.of("ok", "ok", "not_found"), results.stream().map(BulkTaskResultDto::outcome).toList());
+        verify(taskRepository).updateAll(eq(1L), any(), argThat(tasks -> tasks.isEmpty()));
+        verify(taskRepository).deleteAll(1L, List.of(testTask));
+        verify(outbox).record(argThat(e -> e instanceof TaskDeleted deleted && deleted.taskId().equals(1L)));
+        verify(changes).record(1L, Change.Entity.TASK, 1L, Change.Action.DELETED);
+        verify(changes, never()).record(1L, Change.Entity.TASK, 1L, Change.Action.UPDATED);
+    }
+
+    @Test
+    void bulk_NonExistingUser_ShouldThrowException() {
+        when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.bulk(new BulkTaskRequestDto(9L,
+                List.of(new BulkTaskOperationDto(1L, "delete", null, null, null, null, null)))));
+        verifyNoInteractions(taskRepository);
+    }
+
+    // Complete tests
+    @Test
+    void complete_OpenTask_ShouldReturnUnblockedDependents() {
+        Task done = new Task(1L, 1L, 2L, 3L, "Buy running shoes", null, TaskStatus.DONE, null, null, null,
+                null, null, null, null, testTask.createdAt(), Instant.now(), null);
+        Task dependent = new Task(5L, 1L, 2L, null, "Go for a run", null, TaskStatus.WAITING, null, null, null,
+                null, null, null, null, Instant.now(), null, null);
+        when(taskRepository.complete(eq(1L), any(Instant.class)))
+                .thenReturn(Optional.of(new TaskCompletion(testTask, done)));
+        when(taskRepository.findUnblockedDependents(1L, 1L)).thenReturn(List.of(dependent));
+
+        TaskCompletionDto result = taskService.complete(1L);
+
+        assertEquals(TaskStatus.DONE, result.task().status());
+        assertEquals(1, result.unblocked().size());
+        assertEquals(5L, result.unblocked().get(0).id());
+        verify(outbox).record(argThat(e -> e instanceof TaskCompleted));
+    }
+
+    @Test
+    void complete_AlreadyDoneUnderLock_ShouldNotRecordOrUnblockAgain() {
+        Task done = new Task(1L, 1L, 2L, 3L, "Buy running shoes", null, TaskStatus.DONE, null, null, null,
+                null, null, null, null, testTask.createdAt(), Instant.now(), null);
+        when(taskRepository.complete(eq(1L), any(Instant.class)))
+                .thenReturn(Optional.of(new TaskCompletion(done, done)));
+
+        TaskCompletionDto result = taskService.complete(1L);
+
+        assertTrue(result.unblocked().isEmpty());
+        verify(taskRepository, never()).findUnblockedDependents(any(), any());
+        verifyNoInteractions(outbox);
+        verifyNoInteractions(changes);
+    }
+
+    @Test
+    void complete_NonExistingTask_ShouldThrowException() {
+        when(taskRepository.complete(eq(999L), any(Instant.class))).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.complete(999L));
+        verifyNoInteractions(outbox);
+    }
+
     // Tag tests
     @Test
     void addTagToTask_ShouldAddTag() {
@@ -455,4 +810,68 @@ class TaskServiceImplTest {
         assertEquals(1, tags.size());
         assertEquals(tag.id(), tags.get(0).id());
     }
+
+    // Query cache tests
+    @Test
+    void findByUserIdAndStatus_WithQueryCache_ShouldQueryOnceUntilUserWrites() {
+        TaskServiceImpl cachedService = service(Optional.of(
+                new QueryResultCache(new UserVersionRegistry(), 1_000_000, Duration.ofMinutes(10),
+                        TransactionOperations.withoutTransaction())));
+        when(taskRepository.findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS)).thenReturn(List.of(testTask));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(projectRepository.findById(2L)).thenReturn(Optional.of(testProject));
+        when(contextRepository.findById(3L)).thenReturn(Optional.of(testContext));
+        when(taskRepository.create(any(CreateTaskDto.class))).thenReturn(testTask);
+
+        cachedService.findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+        List<TaskDto> cached = cachedService.findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+        verify(taskRepository, times(1)).findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+        assertEquals(testTask.title(), cached.get(0).title());
+
+        cachedService.create(createTaskDto);
+        cachedService.findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+        verify(taskRepository, times(2)).findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+    }
+
+    @Test
+    void findByUserIdAndStatus_WithQueryCache_ShouldKeySeparatelyByQuery() {
+        TaskServiceImpl cachedService = service(Optional.of(
+                new QueryResultCache(new UserVersionRegistry(), 1_000_000, Duration.ofMinutes(10),
+                        TransactionOperations.withoutTransaction())));
+        Fieldset<TaskProperty> titles = Fieldset.parse("title", TaskProperty.class);
+
+        cachedService.findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+        cachedService.findByUserIdAndStatus(1L, TaskStatus.INBOX, titles);
+        cachedService.findByUserIdAndStatus(1L, TaskStatus.INBOX, Fieldset.parse("title,id,title", TaskProperty.class));
+        cachedService.findByUserIdAndStatus(1L, TaskStatus.NEXT, FIELDS);
+        cachedService.findByUserIdAndStatus(2L, TaskStatus.INBOX, FIELDS);
+
+        verify(taskRepository).findByUserIdAndStatus(1L, TaskStatus.INBOX, FIELDS);
+        verify(taskRepository).findByUserIdAndStatus(1L, TaskStatus.INBOX, titles);
+        verify(taskRepository).findByUserIdAndStatus(1L, TaskStatus.NEXT, FIELDS);
+        verify(taskRepository).findByUserIdAndStatus(2L, TaskStatus.INBOX, FIELDS);
+    }
+
+    @Test
+    void getTagsForTask_WithQueryCache_ShouldBeInvalidatedByAddTagToTask() {
+        TaskServiceImpl cachedService = service(Optional.of(
+                new QueryResultCache(new UserVersionRegistry(), 1_000_000, Duration.ofMinutes(10),
+                        TransactionOperations.withoutTransaction())));
+        org.gk.gtdservice.model.Tag tag = new org.gk.gtdservice.model.Tag(10L, 1L, "Tag", Instant.now());
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(tagRepository.findById(10L)).thenReturn(Optional.of(tag));
+        when(taskTagRepository.findTagsByTaskId(1L)).thenReturn(List.of(), List.of(tag));
+
+        assertTrue(cachedService.getTagsForTask(1L, 1L).isEmpty());
+        assertTrue(cachedService.getTagsForTask(1L, 1L).isEmpty());
+        cachedService.addTagToTask(1L, 1L, 10L);
+
+        assertEquals(1, cachedService.getTagsForTask(1L, 1L).size());
+        verify(taskTagRepository, times(2)).findTagsByTaskId(1L);
+    }
+
+    private TaskServiceImpl service(Optional<QueryResultCache> queryCache) {
+        return new TaskServiceImpl(taskRepository, userRepository, projectRepository, contextRepository,
+                taskTagRepository, tagRepository, outbox, rankRebalancer, changes, Optional.empty(), queryCache);
+    }
 }
@@ -1,9 +1,12 @@
 package org.gk.gtdservice.service;
 
 import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.dto.ListCountsDto;
 import org.gk.gtdservice.dto.UserDto;
 import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.model.TaskStatus;
 import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.repo.ListCounterRepository;
 import org.gk.gtdservice.repo.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +18,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +32,9 @@ class UserServiceImplTest {
     @Mock
     private UserRepository repository;
 
+    @Mock
+    private ListCounterRepository listCounterRepository;
+
     @InjectMocks
     private UserServiceImpl service;
 
@@ -127,4 +134,24 @@ class UserServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class, () -> service.delete(1L));
     }
+
+    @Test
+    void getListCounts_ExistingUser_ShouldFillMissingListsWithZero() {
+        when(repository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(listCounterRepository.findByUserId(1L)).thenReturn(Map.of(TaskStatus.INBOX, 4L, TaskStatus.NEXT, 2L));
+
+        ListCountsDto result = service.getListCounts(1L);
+
+        assertEquals(4L, result.inbox());
+        assertEquals(2L, result.next());
+        assertEquals(0L, result.waiting());
+    }
+
+    @Test
+    void getListCounts_NonExistingUser_ShouldThrowException() {
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getListCounts(1L));
+        verify(listCounterRepository, never()).findByUserId(any());
+    }
 }
@@ -0,0 +1,60 @@
+package org.gk.gtdservice.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashShardRouterTest {
+
+    @Test
+    void shardFor_SingleShard_ShouldAlwaysReturnZero() {
+        HashShardRouter router = new HashShardRouter(1);
+
+        assertTrue(LongStream.rangeClosed(1, 100).allMatch(id -> router.shardFor(id) == 0));
+    }
+
+    @Test
+    void shardFor_ShouldSpreadSequentialIdsAcrossShards() {
+        HashShardRouter router = new HashShardRouter(4);
+        int[] perShard = new int[4];
+
+        LongStream.rangeClosed(1, 4000).forEach(id -> perShard[router.shardFor(id)]++);
+
+        for (int count : perShard) {
+            assertTrue(count > 800, "shard got only " + count + " of 4000 users");
+        }
+    }
+
+    @Test
+    void assign_ShouldOverrideHomeShard() {
+        HashShardRouter router = new HashShardRouter(3);
+        int home = router.shardFor(42L);
+        int other = (home + 1) % 3;
+
+        router.assign(42L, other);
+
+        assertEquals(other, router.shardFor(42L));
+        assertEquals(other, router.overrides().get(42L));
+    }
+
+    @Test
+    void assign_BackToHomeShard_ShouldDropOverride() {
+        HashShardRouter router = new HashShardRouter(3);
+        int home = router.shardFor(42L);
+        router.assign(42L, (home + 1) % 3);
+
+        router.assign(42L, home);
+
+        assertEquals(home, router.shardFor(42L));
+        assertTrue(router.overrides().isEmpty());
+    }
+
+    @Test
+    void assign_OutOfRange_ShouldThrow() {
+        HashShardRouter router = new HashShardRouter(2);
+
+        assertThrows(IllegalArgumentException.class, () -> router.assign(1L, 2));
+    }
+}
@@ -0,0 +1,56 @@
+package org.gk.gtdservice.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaInspectorTest {
+
+    private EmbeddedDatabase dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+        ShardSchema.initialize(dataSource, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void hasColumn_ShouldFindColumnsOfGtdTables() {
+        assertTrue(SchemaInspector.hasColumn(dataSource, "tasks", "rank_key"));
+        assertFalse(SchemaInspector.hasColumn(dataSource, "references_store", "body"));
+    }
+
+    @Test
+    void isTextColumn_ShouldTellStatusCodesFromText() {
+        assertFalse(SchemaInspector.isTextColumn(dataSource, "tasks", "status"));
+        assertTrue(SchemaInspector.isTextColumn(dataSource, "tasks", "title"));
+        assertFalse(SchemaInspector.isTextColumn(dataSource, "tasks", "missing"));
+    }
+
+    @Test
+    void hasIndex_IndexCreatedUnderIndexName_ShouldBeFound() {
+        assertFalse(SchemaInspector.hasIndex(dataSource, "tasks", "idx_tasks_inspected"));
+
+        new JdbcTemplate(dataSource).execute("CREATE INDEX " + SchemaInspector.indexName(dataSource, "idx_tasks_inspected")
+                + " ON gtd.tasks (title)");
+
+        assertTrue(SchemaInspector.hasIndex(dataSource, "tasks", "idx_tasks_inspected"));
+    }
+
+    @Test
+    void isMySql_H2_ShouldBeFalse() {
+        assertFalse(SchemaInspector.isMySql(dataSource));
+        assertEquals("gtd.idx_x", SchemaInspector.indexName(dataSource, "idx_x"));
+    }
+}
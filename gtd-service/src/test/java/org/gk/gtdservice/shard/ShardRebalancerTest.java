@@ -0,0 +1,349 @@
+package org.gk.gtdservice.shard;
+
+import org.gk.gtdservice.dto.CreateProjectDto;
+import org.gk.gtdservice.dto.CreateReferenceDto;
+import org.gk.gtdservice.dto.CreateTagDto;
+import org.gk.gtdservice.dto.CreateTaskDependencyDto;
+import org.gk.gtdservice.dto.CreateTaskDto;
+import org.gk.gtdservice.dto.CreateUserDto;
+import org.gk.gtdservice.exception.ResourceNotFoundException;
+import org.gk.gtdservice.model.Project;
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.Reference;
+import org.gk.gtdservice.model.Tag;
+import org.gk.gtdservice.model.Task;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.model.User;
+import org.gk.gtdservice.repo.ListCounterRepository;
+import org.gk.gtdservice.repo.ProjectRepository;
+import org.gk.gtdservice.repo.ReferenceRepository;
+import org.gk.gtdservice.repo.TagRepository;
+import org.gk.gtdservice.repo.TaskDependencyRepository;
+import org.gk.gtdservice.repo.TaskRepository;
+import org.gk.gtdservice.repo.TaskTagRepository;
+import org.gk.gtdservice.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRebalancerTest {
+
+    private EmbeddedDatabase shard0;
+    private EmbeddedDatabase shard1;
+    private ShardedJdbc shards;
+
+    private UserRepository userRepository;
+    private ProjectRepository projectRepository;
+    private TaskRepository taskRepository;
+    private ReferenceRepository referenceRepository;
+    private TagRepository tagRepository;
+    private TaskTagRepository taskTagRepository;
+    private TaskDependencyRepository taskDependencyRepository;
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        shard0 = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+        shard1 = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+        ShardSchema.initialize(shard0, 0);
+        ShardSchema.initialize(shard1, 1);
+        shards = new ShardedJdbc(
+                List.of(new NamedParameterJdbcTemplate(shard0), new NamedParameterJdbcTemplate(shard1)),
+                new HashShardRouter(2),
+                Duration.ofSeconds(1));
+
+        userRepository = new UserRepository(shards);
+        projectRepository = new ProjectRepository(shards);
+        taskRepository = new TaskRepository(shards, new ListCounterRepository(shards));
+        referenceRepository = new ReferenceRepository(shards);
+        tagRepository = new TagRepository(shards);
+        taskTagRepository = new TaskTagRepository(shards);
+        taskDependencyRepository = new TaskDependencyRepository(shards);
+        rebalancer = new ShardRebalancer(shards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shard0.shutdown();
+        shard1.shutdown();
+    }
+
+    @Test
+    void createUser_ShouldReplicateToEveryShard() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+
+        assertEquals(1, count(0, "SELECT COUNT(*) FROM gtd.users WHERE id = :id", user.id()));
+        assertEquals(1, count(1, "SELECT COUNT(*) FROM gtd.users WHERE id = :id", user.id()));
+    }
+
+    @Test
+    void createUser_CopyFails_ShouldFailCreate() {
+        shards.forShard(1).update("INSERT INTO gtd.users (id, username, email, name) "
+                + "VALUES (999, 'alice', 'old@example.com', 'Old')", Map.of());
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice")));
+    }
+
+    @Test
+    void reconcileReplicas_ShouldRepairCopiesOutOfStepWithPrimary() {
+        User missing = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        User renamed = userRepository.create(new CreateUserDto("bob", "bob@example.com", "Bob"));
+        shards.forShard(1).update("DELETE FROM gtd.users WHERE id = :id", Map.of("id", missing.id()));
+        shards.forShard(1).update("UPDATE gtd.users SET name = 'Robert' WHERE id = :id", Map.of("id", renamed.id()));
+        shards.forShard(1).update("INSERT INTO gtd.users (id, username, email, name, created_at) "
+                + "VALUES (999, 'carol', 'carol@example.com', 'Carol', TIMESTAMP '2020-01-01 00:00:00')", Map.of());
+
+        assertEquals(3, userRepository.reconcileReplicas(Duration.ZERO));
+
+        assertEquals(1, count(1, "SELECT COUNT(*) FROM gtd.users WHERE id = :id", missing.id()));
+        assertEquals("Bob", shards.forShard(1).queryForObject("SELECT name FROM gtd.users WHERE id = :id",
+                Map.of("id", renamed.id()), String.class));
+        assertEquals(0, count(1, "SELECT COUNT(*) FROM gtd.users WHERE id = :id", 999L));
+        assertEquals(0, userRepository.reconcileReplicas(Duration.ZERO));
+    }
+
+    @Test
+    void createTask_ShouldLiveOnlyOnUsersShard() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        int home = shards.router().shardFor(user.id());
+
+        Task task = taskRepository.create(task(user.id(), null, "Write report"));
+
+        assertEquals(1, count(home, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        assertEquals(0, count(1 - home, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        assertEquals(task, taskRepository.findById(task.id()).orElseThrow());
+    }
+
+    @Test
+    void secondaryShard_ShouldAllocateIdsFromItsOwnRange() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        int home = shards.router().shardFor(user.id());
+
+        Task task = taskRepository.create(task(user.id(), null, "Write report"));
+
+        assertTrue(task.id() > home * ShardSchema.ID_SPAN);
+        assertTrue(task.id() <= (home + 1) * ShardSchema.ID_SPAN);
+    }
+
+    @Test
+    void moveUser_ShouldMoveAllRowsAndKeepIds() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        User other = userRepository.create(new CreateUserDto("bob", "bob@example.com", "Bob"));
+        int source = shards.router().shardFor(user.id());
+        int target = 1 - source;
+
+        Project project = projectRepository.create(new CreateProjectDto(user.id(), null, "Launch", null, null, ProjectStatus.ACTIVE, null));
+        Task first = taskRepository.create(task(user.id(), project.id(), "Draft plan"));
+        Task second = taskRepository.create(task(user.id(), project.id(), "Review plan"));
+        taskDependencyRepository.create(new CreateTaskDependencyDto(second.id(), first.id()));
+        Tag tag = tagRepository.create(new CreateTagDto(user.id(), "urgent"));
+        taskTagRepository.addTagToTask(first.id(), tag.id());
+        Task untouched = taskRepository.create(task(other.id(), null, "Bob's task"));
+
+        int moved = rebalancer.moveUser(user.id(), target);
+
+        // project, 2 tasks, dependency, tag, task tag and the "next" list counter
+        assertEquals(7, moved);
+        assertEquals(target, shards.router().shardFor(user.id()));
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.tasks WHERE user_id = :id", user.id()));
+        assertEquals(2, count(target, "SELECT COUNT(*) FROM gtd.tasks WHERE user_id = :id", user.id()));
+        List<Task> tasks = taskRepository.findByUserId(user.id());
+        assertEquals(2, tasks.size());
+        assertTrue(tasks.containsAll(List.of(first, second)));
+        assertEquals(1, taskDependencyRepository.findByTaskId(second.id()).size());
+        assertEquals(List.of(tag), taskTagRepository.findTagsByTaskId(first.id()));
+        assertEquals(project, projectRepository.findById(project.id()).orElseThrow());
+        assertEquals(untouched, taskRepository.findById(untouched.id()).orElseThrow());
+        assertEquals(target, count(0, "SELECT shard FROM gtd.user_shards WHERE user_id = :id", user.id()));
+        assertEquals(0, count(0, "SELECT COUNT(*) FROM gtd.user_shards WHERE user_id = :id AND cleanup_shard IS NOT NULL",
+                user.id()));
+        assertEquals(2, count(target, "SELECT task_count FROM gtd.user_list_counters WHERE user_id = :id", user.id()));
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.user_list_counters WHERE user_id = :id", user.id()));
+    }
+
+    @Test
+    void moveUser_ThenCreate_ShouldWriteToNewShard() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        int target = 1 - shards.router().shardFor(user.id());
+
+        rebalancer.moveUser(user.id(), target);
+        Task task = taskRepository.create(task(user.id(), null, "After move"));
+
+        assertEquals(1, count(target, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+    }
+
+    @Test
+    void moveUser_WriteInFlight_ShouldWaitForItToCommit() throws Exception {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        int source = shards.router().shardFor(user.id());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Task> write = executor.submit(() -> shards.transactionTemplate(0).execute(_status -> {
+                shards.forUser(user.id());
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return taskRepository.create(task(user.id(), null, "In flight"));
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            Future<Integer> move = executor.submit(() -> rebalancer.moveUser(user.id(), 1 - source));
+            assertThrows(TimeoutException.class, () -> move.get(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            Task task = write.get(5, TimeUnit.SECONDS);
+
+            // the task and the "next" list counter
+            assertEquals(2, move.get(5, TimeUnit.SECONDS));
+            assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+            assertEquals(1, count(1 - source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void write_OnAnotherNodeBeforeRefresh_ShouldGoToNewShard() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        ShardedJdbc otherNode = new ShardedJdbc(shards.all(), new HashShardRouter(2), Duration.ofSeconds(1));
+        int target = 1 - shards.router().shardFor(user.id());
+
+        rebalancer.moveUser(user.id(), target);
+
+        assertEquals(1 - target, otherNode.router().shardFor(user.id()));
+        assertEquals(target, otherNode.transactionTemplate(0).execute(_status -> otherNode.shardFor(user.id())));
+        assertEquals(target, otherNode.router().shardFor(user.id()));
+    }
+
+    @Test
+    void moveUser_Interrupted_ShouldLeaveUserInPlace() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        int source = shards.router().shardFor(user.id());
+        Task task = taskRepository.create(task(user.id(), null, "Stay"));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(IllegalStateException.class, () -> rebalancer.moveUser(user.id(), 1 - source));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(source, shards.router().shardFor(user.id()));
+        assertEquals(1, count(source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        assertEquals(0, count(1 - source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+    }
+
+    @Test
+    void finishMoves_CleanupPending_ShouldDeleteRowsLeftOnOldShard() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        int source = shards.router().shardFor(user.id());
+        Task task = taskRepository.create(task(user.id(), null, "Left behind"));
+        // A move that recorded its placement but stopped before deleting the old rows
+        shards.primary().update("INSERT INTO gtd.user_shards (user_id, shard, cleanup_shard) VALUES (:id, :shard, :cleanup)",
+                Map.of("id", user.id(), "shard", 1 - source, "cleanup", source));
+
+        rebalancer.finishMoves();
+
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        assertEquals(0, count(0, "SELECT COUNT(*) FROM gtd.user_shards WHERE user_id = :id AND cleanup_shard IS NOT NULL",
+                user.id()));
+    }
+
+    @Test
+    void moveUser_ToCurrentShard_ShouldMoveNothing() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        taskRepository.create(task(user.id(), null, "Stay"));
+
+        assertEquals(0, rebalancer.moveUser(user.id(), shards.router().shardFor(user.id())));
+    }
+
+    @Test
+    void moveUser_ToUnknownShard_ShouldThrow() {
+        assertThrows(ResourceNotFoundException.class, () -> rebalancer.moveUser(1L, 5));
+    }
+
+    @Test
+    void refresh_OnAnotherNode_ShouldRouteMovedUserToNewShard() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        ShardedJdbc otherNode = new ShardedJdbc(shards.all(), new HashShardRouter(2), Duration.ofSeconds(1));
+        int target = 1 - shards.router().shardFor(user.id());
+
+        rebalancer.moveUser(user.id(), target);
+        assertEquals(1 - target, otherNode.router().shardFor(user.id()));
+        new ShardDirectory(otherNode).refresh();
+
+        assertEquals(target, otherNode.router().shardFor(user.id()));
+    }
+
+    @Test
+    void updateTask_ToOwnerOnAnotherShard_ShouldMoveTheRow() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        User other = userRepository.create(new CreateUserDto("bob", "bob@example.com", "Bob"));
+        int source = shards.router().shardFor(user.id());
+        shards.router().assign(other.id(), 1 - source);
+        Task task = taskRepository.create(task(user.id(), null, "Hand over"));
+
+        Task updated = taskRepository.update(task.id(), task(other.id(), null, "Handed over"));
+
+        assertNotNull(updated);
+        assertEquals(other.id(), updated.userId());
+        assertEquals("Handed over", updated.title());
+        assertEquals(task.createdAt(), updated.createdAt());
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        assertEquals(1, count(1 - source, "SELECT COUNT(*) FROM gtd.tasks WHERE id = :id", task.id()));
+        assertEquals(0, count(source, "SELECT task_count FROM gtd.user_list_counters WHERE user_id = :id", user.id()));
+        assertEquals(1, count(1 - source, "SELECT task_count FROM gtd.user_list_counters WHERE user_id = :id", other.id()));
+    }
+
+    @Test
+    void updateReference_ToOwnerOnAnotherShard_ShouldMoveTheRowAndBody() {
+        User user = userRepository.create(new CreateUserDto("alice", "alice@example.com", "Alice"));
+        User other = userRepository.create(new CreateUserDto("bob", "bob@example.com", "Bob"));
+        int source = shards.router().shardFor(user.id());
+        shards.router().assign(other.id(), 1 - source);
+        Reference reference = referenceRepository.create(new CreateReferenceDto(user.id(), "Manual", "Body", null, null));
+
+        Reference updated = referenceRepository.update(reference.id(),
+                new CreateReferenceDto(other.id(), "Handed over", "Body", null, null)).orElseThrow();
+
+        assertEquals(other.id(), updated.userId());
+        assertEquals("Body", updated.body());
+        assertEquals(reference.createdAt(), updated.createdAt());
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.references_store WHERE id = :id", reference.id()));
+        assertEquals(1, count(1 - source, "SELECT COUNT(*) FROM gtd.references_store WHERE id = :id", reference.id()));
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM gtd.reference_bodies WHERE user_id = :id", user.id()));
+        assertEquals(1, count(1 - source, "SELECT COUNT(*) FROM gtd.reference_bodies WHERE user_id = :id", other.id()));
+    }
+
+    private int count(int shard, String sql, Long id) {
+        Integer value = shards.forShard(shard).queryForObject(sql, Map.of("id", id), Integer.class);
+        return value != null ? value : 0;
+    }
+
+    private static CreateTaskDto task(Long userId, Long projectId, String title) {
+        return new CreateTaskDto(userId, projectId, null, title, null, TaskStatus.NEXT,
+                null, null, null, null, null, null, null, null);
+    }
+}
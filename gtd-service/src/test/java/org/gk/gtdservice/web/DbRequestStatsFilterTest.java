@@ -0,0 +1,95 @@
+package org.gk.gtdservice.web;
+
+import org.gk.gtdservice.datasource.DbRequestStats;
+import org.gk.gtdservice.datasource.StatementCountingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbRequestStatsFilterTest {
+
+    private final DbRequestStatsFilter filter = new DbRequestStatsFilter(5, 2);
+
+    @Test
+    void doFilter_ShouldBindStatsOnlyForTheRequest() throws Exception {
+        AtomicReference<DbRequestStats> inside = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks"), new MockHttpServletResponse(),
+                (req, res) -> inside.set(DbRequestStats.current()));
+
+        assertNotNull(inside.get());
+        assertNull(DbRequestStats.current());
+    }
+
+    @Test
+    void doFilter_NonApiRequest_ShouldNotBindStats() throws Exception {
+        AtomicReference<DbRequestStats> inside = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/h2-console"), new MockHttpServletResponse(),
+                (req, res) -> inside.set(DbRequestStats.current()));
+
+        assertNull(inside.get());
+    }
+
+    @Test
+    void responseAdvice_ShouldAddServerTimingInsideRequest() throws Exception {
+        DbStatsResponseAdvice advice = new DbStatsResponseAdvice();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks"), response, (req, res) -> {
+            ServletServerHttpResponse output = new ServletServerHttpResponse(response);
+            advice.beforeBodyWrite("[]", null, null, null, null, output);
+            output.flush();
+        });
+
+        assertTrue(response.getHeader(DbStatsResponseAdvice.SERVER_TIMING).startsWith("db-acquire;dur=0.000;desc=\"0 connections\", db;dur=0.000"));
+    }
+
+    @Test
+    void withinBudget_ShouldFlagTooManyStatementsAndRepeatedShapes() throws Exception {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2).build();
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(new StatementCountingDataSource(database));
+            DbRequestStats few = run(() -> {
+                jdbc.queryForObject("SELECT 1", Integer.class);
+                jdbc.queryForObject("SELECT 2", Integer.class);
+            });
+            DbRequestStats repeated = run(() -> {
+                for (int i = 0; i < 3; i++) {
+                    jdbc.queryForObject("SELECT " + i, Integer.class);
+                }
+            });
+            DbRequestStats many = run(() -> {
+                for (int i = 0; i < 6; i++) {
+                    jdbc.queryForObject("SELECT " + i + " AS c" + i, Integer.class);
+                }
+            });
+
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+            assertTrue(filter.withinBudget(request, few));
+            assertFalse(filter.withinBudget(request, repeated));
+            assertFalse(filter.withinBudget(request, many));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private DbRequestStats run(Runnable queries) throws Exception {
+        AtomicReference<DbRequestStats> inside = new AtomicReference<>();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks"), new MockHttpServletResponse(), (req, res) -> {
+            inside.set(DbRequestStats.current());
+            queries.run();
+        });
+        return inside.get();
+    }
+}
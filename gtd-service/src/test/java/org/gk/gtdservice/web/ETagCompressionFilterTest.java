@@ -0,0 +1,166 @@
+package org.gk.gtdservice.web;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagCompressionFilterTest {
+
+    private PrecompressedCache cache;
+    private ETagCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrecompressedCache(1024 * 1024);
+        filter = new ETagCompressionFilter(cache, 1024);
+    }
+
+    @Test
+    void get_WithGzipAccepted_ShouldCompressAndTagRepresentation() throws Exception {
+        byte[] json = taskListJson(50);
+        MockHttpServletResponse response = execute(get("gzip, deflate"), json);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertTrue(response.getHeader("ETag").endsWith("-gzip\""));
+        assertArrayEquals(json, gunzip(response.getContentAsByteArray()));
+        // Representative task list with notes: bytes on the wire drop to well under a third
+        assertTrue(response.getContentAsByteArray().length < json.length * 0.3);
+    }
+
+    @Test
+    void get_RepeatedIdenticalBody_ShouldReuseCompressedBytes() throws Exception {
+        byte[] json = taskListJson(20);
+
+        execute(get("gzip"), json);
+        execute(get("gzip"), json);
+
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertTrue(cache.sizeInBytes() > 0);
+    }
+
+    @Test
+    void get_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        byte[] json = taskListJson(20);
+        String etag = execute(get("gzip"), json).getHeader("ETag");
+
+        MockHttpServletRequest conditional = get("gzip");
+        conditional.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = execute(conditional, json);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void get_SmallBody_ShouldNotCompress() throws Exception {
+        byte[] json = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = execute(get("gzip"), json);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertNotNull(response.getHeader("ETag"));
+        assertArrayEquals(json, response.getContentAsByteArray());
+    }
+
+    @Test
+    void get_WithoutGzipAccepted_ShouldSendIdentity() throws Exception {
+        byte[] json = taskListJson(20);
+        MockHttpServletResponse response = execute(get("gzip;q=0, identity"), json);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertArrayEquals(json, response.getContentAsByteArray());
+    }
+
+    @Test
+    void post_ShouldPassThroughUntouched() throws Exception {
+        byte[] json = taskListJson(20);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = execute(request, json);
+
+        assertNull(response.getHeader("ETag"));
+        assertArrayEquals(json, response.getContentAsByteArray());
+    }
+
+    @Test
+    void get_AttachmentDownload_ShouldPassThroughUntouched() throws Exception {
+        byte[] json = taskListJson(20);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/references/1/attachments/2");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = execute(request, json);
+
+        assertNull(response.getHeader("ETag"));
+        assertNull(response.getHeader("Content-Encoding"));
+        assertArrayEquals(json, response.getContentAsByteArray());
+    }
+
+    @Test
+    void get_EventStream_ShouldNotBeFiltered() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1/events");
+        request.addHeader("Accept-Encoding", "gzip");
+
+        assertTrue(filter.shouldNotFilter(request));
+    }
+
+    @Test
+    void get_LongPoll_ShouldNotBeFiltered() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1/changes/wait");
+        request.addHeader("Accept-Encoding", "gzip");
+
+        assertTrue(filter.shouldNotFilter(request));
+    }
+
+    @Test
+    void matches_ShouldAcceptWeakAndGzipVariants() {
+        assertTrue(ETagCompressionFilter.matches("W/\"abc\"", "\"abc\""));
+        assertTrue(ETagCompressionFilter.matches("\"x\", \"abc-gzip\"", "\"abc\""));
+        assertTrue(ETagCompressionFilter.matches("*", "\"abc\""));
+        assertFalse(ETagCompressionFilter.matches("\"abd\"", "\"abc\""));
+    }
+
+    private MockHttpServletRequest get(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        return request;
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request, byte[] body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(body);
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] taskListJson(int count) {
+        String notes = "Follow up with the team about the quarterly budget review and send the draft report. ".repeat(12);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) sb.append(',');
+            sb.append("{\"id\":").append(i)
+                    .append(",\"userId\":1,\"projectId\":2,\"contextId\":3,\"title\":\"Task ").append(i)
+                    .append("\",\"notes\":\"").append(notes)
+                    .append("\",\"status\":\"next\",\"priority\":1,\"energy\":3,\"durationEstMin\":30,")
+                    .append("\"dueAt\":null,\"deferUntil\":null,\"waitingOn\":null,\"waitingSince\":null,")
+                    .append("\"createdAt\":\"2026-10-19T08:00:00Z\",\"completedAt\":null,\"orderIndex\":").append(i).append('}');
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
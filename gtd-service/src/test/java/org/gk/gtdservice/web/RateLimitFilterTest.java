@@ -0,0 +1,107 @@
+package org.gk.gtdservice.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    @Test
+    void endpointClass_ShouldClassifyByMethodAndPath() {
+        assertEquals(EndpointClass.READ, EndpointClass.of(new MockHttpServletRequest("GET", "/api/tasks")));
+        assertEquals(EndpointClass.WRITE, EndpointClass.of(new MockHttpServletRequest("PUT", "/api/tasks/5")));
+        assertEquals(EndpointClass.BULK, EndpointClass.of(new MockHttpServletRequest("POST", "/api/tasks/bulk")));
+        assertEquals(EndpointClass.EXPORT, EndpointClass.of(new MockHttpServletRequest("GET", "/api/users/1/export")));
+    }
+
+    @Test
+    void limiterKey_ShouldPreferUserAndFallBackToClient() {
+        MockHttpServletRequest user = new MockHttpServletRequest("GET", "/api/users/7/tasks");
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("PUT", "/api/tasks/5");
+        anonymous.setRemoteAddr("10.0.0.1");
+
+        assertEquals("user:7", RateLimitFilter.limiterKey(user));
+        assertEquals("client:10.0.0.1", RateLimitFilter.limiterKey(anonymous));
+    }
+
+    @Test
+    void doFilter_OverUserRate_ShouldReturn429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(1, 2, 10), 10);
+        AtomicInteger passed = new AtomicInteger();
+
+        execute(filter, write(1), passed);
+        execute(filter, write(1), passed);
+        MockHttpServletResponse rejected = execute(filter, write(1), passed);
+        MockHttpServletResponse otherUser = execute(filter, write(2), passed);
+
+        assertEquals(3, passed.get());
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("\"too_many_requests\""));
+        assertEquals(200, otherUser.getStatus());
+    }
+
+    @Test
+    void doFilter_AtConcurrencyLimit_ShouldShedWithoutCallingChain() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(100, 100, 1), 10);
+        AtomicInteger nested = new AtomicInteger();
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        MockHttpServletResponse[] inner = new MockHttpServletResponse[1];
+        filter.doFilter(write(1), outer, (req, res) -> inner[0] = execute(filter, write(2), nested));
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(429, inner[0].getStatus());
+        assertEquals(0, nested.get());
+        // The slot is released once the outer request completes
+        assertEquals(200, execute(filter, write(2), nested).getStatus());
+    }
+
+    @Test
+    void doFilter_AtGlobalLimit_ShouldShedOtherClasses() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(100, 100, 10), 1);
+        AtomicInteger nested = new AtomicInteger();
+
+        MockHttpServletResponse[] inner = new MockHttpServletResponse[1];
+        filter.doFilter(write(1), new MockHttpServletResponse(),
+                (req, res) -> inner[0] = execute(filter, new MockHttpServletRequest("GET", "/api/tasks"), nested));
+
+        assertEquals(429, inner[0].getStatus());
+        assertEquals(0, nested.get());
+    }
+
+    @Test
+    void doFilter_NonApiRequest_ShouldNotBeLimited() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(1, 1, 1), 1);
+        AtomicInteger passed = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            execute(filter, new MockHttpServletRequest("GET", "/actuator/health"), passed);
+        }
+
+        assertEquals(3, passed.get());
+    }
+
+    private static RateLimitFilter filter(RateLimitProperties.Limit limit, int maxConcurrent) {
+        return new RateLimitFilter(new RateLimitProperties(true, maxConcurrent,
+                Map.of(EndpointClass.READ, limit, EndpointClass.WRITE, limit)));
+    }
+
+    private static MockHttpServletRequest write(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks");
+        request.addHeader(ReadYourWritesFilter.USER_HEADER, Long.toString(userId));
+        return request;
+    }
+
+    private static MockHttpServletResponse execute(RateLimitFilter filter, MockHttpServletRequest request,
+                                                   AtomicInteger passed) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> passed.incrementAndGet());
+        return response;
+    }
+}
@@ -0,0 +1,85 @@
+package org.gk.gtdservice.web;
+
+import org.gk.gtdservice.datasource.ReadYourWritesTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    @Test
+    void stickinessKeys_UserPath_ShouldOnlyIncludeUser() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/7/tasks");
+        request.setRemoteAddr("10.0.0.1");
+
+        assertEquals(List.of("user:7"), ReadYourWritesFilter.stickinessKeys(request));
+    }
+
+    @Test
+    void stickinessKeys_UserIdParameter_ShouldIncludeUser() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.setRemoteAddr("10.0.0.1");
+        request.setParameter("userId", "3");
+
+        assertEquals(List.of("user:3"), ReadYourWritesFilter.stickinessKeys(request));
+    }
+
+    @Test
+    void stickinessKeys_HeaderTakesPrecedence() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/7");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(ReadYourWritesFilter.USER_HEADER, "9");
+
+        assertEquals(List.of("user:9"), ReadYourWritesFilter.stickinessKeys(request));
+    }
+
+    @Test
+    void stickinessKeys_NoUser_ShouldOnlyIncludeClient() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/tasks/5");
+        request.setRemoteAddr("10.0.0.1");
+
+        assertEquals(List.of("client:10.0.0.1"), ReadYourWritesFilter.stickinessKeys(request));
+    }
+
+    @Test
+    void doFilter_UsersBehindOneProxy_ShouldNotPinEachOther() throws Exception {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(tracker);
+        AtomicBoolean otherUserSticky = new AtomicBoolean(true);
+
+        filter.doFilter(fromProxy("PUT", "/api/tasks/5", "1"), new MockHttpServletResponse(),
+                (req, res) -> tracker.recordWrite());
+        filter.doFilter(fromProxy("GET", "/api/tasks", "2"), new MockHttpServletResponse(),
+                (req, res) -> otherUserSticky.set(tracker.recentlyWrote()));
+
+        assertFalse(otherUserSticky.get());
+    }
+
+    @Test
+    void doFilter_ShouldBindKeysOnlyForTheRequest() throws Exception {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(tracker);
+        AtomicBoolean stickyInside = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/tasks/5"), new MockHttpServletResponse(), (req, res) -> {
+            tracker.recordWrite();
+            stickyInside.set(tracker.recentlyWrote());
+        });
+
+        assertTrue(stickyInside.get());
+        assertFalse(tracker.recentlyWrote());
+    }
+
+    private static MockHttpServletRequest fromProxy(String method, String uri, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.254");
+        request.addHeader(ReadYourWritesFilter.USER_HEADER, userId);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package org.gk.gtdservice.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(5 * SECOND);
+
+    @Test
+    void tryAcquire_WithinBurst_ShouldAllow() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 3, now::get);
+
+        assertEquals(0, limiter.tryAcquire("user:1"));
+        assertEquals(0, limiter.tryAcquire("user:1"));
+        assertEquals(0, limiter.tryAcquire("user:1"));
+    }
+
+    @Test
+    void tryAcquire_BeyondBurst_ShouldReturnWaitUntilNextToken() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 2, now::get);
+        limiter.tryAcquire("user:1");
+        limiter.tryAcquire("user:1");
+
+        assertEquals(SECOND / 10, limiter.tryAcquire("user:1"));
+    }
+
+    @Test
+    void tryAcquire_AfterRefill_ShouldAllowAgain() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 1, now::get);
+        limiter.tryAcquire("user:1");
+        assertTrue(limiter.tryAcquire("user:1") > 0);
+
+        now.addAndGet(SECOND / 10);
+
+        assertEquals(0, limiter.tryAcquire("user:1"));
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepUsersSeparate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, now::get);
+        limiter.tryAcquire("user:1");
+
+        assertTrue(limiter.tryAcquire("user:1") > 0);
+        assertEquals(0, limiter.tryAcquire("user:2"));
+    }
+
+    @Test
+    void tryAcquire_Concurrently_ShouldGrantExactlyTheBurst() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 50, now::get);
+        AtomicInteger granted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> {
+                    if (limiter.tryAcquire("user:1") == 0) {
+                        granted.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void evictIdle_ShouldDropOnlyRefilledBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 5, now::get);
+        limiter.tryAcquire("user:1");
+        now.addAndGet(2 * SECOND);
+        limiter.tryAcquire("user:2");
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+    }
+}
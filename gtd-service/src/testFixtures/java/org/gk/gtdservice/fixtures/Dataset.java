@@ -0,0 +1,22 @@
+package org.gk.gtdservice.fixtures;
+
+import java.util.List;
+
+/**
+ * What {@link DatasetGenerator} loaded.
+ *
+ * @param userIds ids of the generated users, busiest first
+ */
+public record Dataset(
+        List<Long> userIds,
+        long projects,
+        long tags,
+        long tasks,
+        long taskTags,
+        long dependencies
+) {
+
+    public long rows() {
+        return userIds.size() + projects + tags + tasks + taskTags + dependencies;
+    }
+}
@@ -0,0 +1,441 @@
+package org.gk.gtdservice.fixtures;
+
+import org.gk.gtdservice.model.ProjectStatus;
+import org.gk.gtdservice.model.TaskStatus;
+import org.gk.gtdservice.repo.RankKeys;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a skewed, GTD-shaped dataset from a {@link DatasetSpec} and bulk-loads it
+ * into the {@code gtd} schema: users, projects, tags, tasks with notes and rank keys,
+ * task tags, dependency DAGs and the per-user list counters.
+ * <p>
+ * Rows are generated a user at a time and streamed to the database, so memory use does
+ * not grow with the dataset. Ids are assigned here, above the current maximum of each
+ * table, so no generated key has to be read back; on H2 the identity columns are moved
+ * past the loaded ids afterwards. {@link #load} uses JDBC batches and works on any
+ * supported database; {@link #loadCsv} writes CSV files and reads them with H2's
+ * {@code CSVREAD}, which is several times faster for millions of rows.
+ */
+public class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 2_000;
+
+    /** Cap on one user's tasks as a multiple of the mean, so large skewed datasets stay plausible. */
+    static final int MAX_TASKS_PER_USER_FACTOR = 100;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] WORDS = ("call email draft review plan book buy fix read write send check schedule "
+            + "update prepare clean pay renew order ask follow up with about the for and on team client report budget "
+            + "invoice meeting agenda slides garden car dentist groceries taxes insurance contract proposal notes idea "
+            + "research trip tickets gift birthday backup laptop printer kitchen garage library project weekly monthly")
+            .split(" ");
+
+    enum Table {
+        USERS("gtd.users", "id, username, email, name"),
+        PROJECTS("gtd.projects", "id, user_id, title, status"),
+        TAGS("gtd.tags", "id, user_id, name"),
+        TASKS("gtd.tasks", "id, user_id, project_id, title, notes, status, priority, energy, created_at, completed_at, order_index, rank_key"),
+        TASK_TAGS("gtd.task_tags", "task_id, tag_id"),
+        TASK_DEPENDENCIES("gtd.task_dependencies", "task_id, depends_on_task_id"),
+        USER_LIST_COUNTERS("gtd.user_list_counters", "user_id, status, task_count");
+
+        final String name;
+        final String columns;
+
+        Table(String name, String columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+
+        String insert() {
+            int count = columns.split(",").length;
+            return "INSERT INTO " + name + " (" + columns + ") VALUES (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+        }
+    }
+
+    private final DatasetSpec spec;
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Loads the dataset with JDBC batches of {@value #BATCH_SIZE} rows.
+     */
+    public Dataset load(JdbcTemplate jdbc) {
+        try (BatchSink sink = new BatchSink(jdbc)) {
+            return generate(jdbc, sink);
+        }
+    }
+
+    /**
+     * Writes the dataset as CSV files to {@code directory} and loads each table with one
+     * {@code INSERT ... SELECT * FROM CSVREAD(...)}. H2 only.
+     */
+    public Dataset loadCsv(JdbcTemplate jdbc, Path directory) {
+        if (!isH2(jdbc)) {
+            throw new IllegalStateException("CSV loading uses H2's CSVREAD; use load() for other databases");
+        }
+        try (CsvSink sink = new CsvSink(directory)) {
+            Dataset dataset = generate(jdbc, sink);
+            sink.close();
+            for (Table table : Table.values()) {
+                jdbc.update("INSERT INTO " + table.name + " (" + table.columns + ") SELECT * FROM CSVREAD('"
+                        + sink.file(table).toAbsolutePath().toString().replace("'", "''") + "', NULL, 'charset=UTF-8')");
+            }
+            return dataset;
+        }
+    }
+
+    private Dataset generate(JdbcTemplate jdbc, Sink sink) {
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        Map<Table, Long> nextIds = new EnumMap<>(Table.class);
+        for (Table table : List.of(Table.USERS, Table.PROJECTS, Table.TAGS, Table.TASKS)) {
+            nextIds.put(table, jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table.name, Long.class));
+        }
+        long[] taskCounts = tasksPerUser();
+        TaskStatus[] statuses = new TreeMap<>(spec.statusWeights()).keySet().toArray(TaskStatus[]::new);
+        double[] statusCumulative = cumulative(statuses);
+        ZipfDistribution tagPopularity = spec.tagsPerUser() > 0 ? new ZipfDistribution(spec.tagsPerUser(), 1.0) : null;
+
+        List<Long> userIds = new ArrayList<>(spec.users());
+        long projects = 0;
+        long tags = 0;
+        long taskTags = 0;
+        long dependencies = 0;
+        for (long taskCount : taskCounts) {
+            long userId = nextIds.merge(Table.USERS, 1L, Long::sum) - 1;
+            userIds.add(userId);
+            sink.row(Table.USERS, userId, "user" + userId, "user" + userId + "@dataset.test", "Dataset User " + userId);
+
+            int projectCount = (int) Math.max(1, taskCount / spec.tasksPerProject());
+            long firstProject = nextIds.get(Table.PROJECTS);
+            nextIds.put(Table.PROJECTS, firstProject + projectCount);
+            for (int p = 0; p < projectCount; p++) {
+                sink.row(Table.PROJECTS, firstProject + p, userId, sentence(random, 2, 5), (p % 7 == 6 ? ProjectStatus.SOMEDAY : ProjectStatus.ACTIVE).code());
+            }
+            projects += projectCount;
+
+            long firstTag = nextIds.get(Table.TAGS);
+            nextIds.put(Table.TAGS, firstTag + spec.tagsPerUser());
+            for (int t = 0; t < spec.tagsPerUser(); t++) {
+                sink.row(Table.TAGS, firstTag + t, userId, "tag-" + t);
+            }
+            tags += spec.tagsPerUser();
+
+            // Dependency levels per project: a task at level d depends on tasks at level d - 1,
+            // so every edge points at an earlier task and no chain is longer than the maximum depth.
+            List<List<List<Long>>> levels = new ArrayList<>(projectCount);
+            for (int p = 0; p < projectCount; p++) {
+                levels.add(new ArrayList<>(List.of(new ArrayList<>())));
+            }
+            Map<TaskStatus, Long> counters = new EnumMap<>(TaskStatus.class);
+            List<String> rankKeys = RankKeys.spread((int) taskCount);
+            long firstTask = nextIds.get(Table.TASKS);
+            nextIds.put(Table.TASKS, firstTask + taskCount);
+            for (int t = 0; t < taskCount; t++) {
+                long taskId = firstTask + t;
+                TaskStatus status = statuses[pick(statusCumulative, random.nextDouble())];
+                counters.merge(status, 1L, Long::sum);
+                Integer project = status != TaskStatus.INBOX && random.nextDouble() < 0.6 ? random.nextInt(projectCount) : null;
+                LocalDateTime created = EPOCH.minus(random.nextLong(365 * 24 * 60), ChronoUnit.MINUTES);
+                LocalDateTime completed = status == TaskStatus.DONE ? created.plus(random.nextLong(30 * 24 * 60), ChronoUnit.MINUTES) : null;
+                sink.row(Table.TASKS, taskId, userId, project != null ? firstProject + project : null,
+                        sentence(random, 3, 8), notes(random), status.code(), 1 + random.nextInt(4),
+                        random.nextDouble() < 0.5 ? 1 + random.nextInt(5) : null,
+                        created, completed, t, rankKeys.get(t));
+
+                if (tagPopularity != null) {
+                    for (long tagId : tagsFor(random, tagPopularity, firstTag)) {
+                        sink.row(Table.TASK_TAGS, taskId, tagId);
+                        taskTags++;
+                    }
+                }
+
+                if (project != null) {
+                    List<List<Long>> projectLevels = levels.get(project);
+                    int level = 0;
+                    if (!projectLevels.getFirst().isEmpty() && random.nextDouble() < spec.dependencyRatio()) {
+                        int deepest = Math.min(spec.maxDependencyDepth(), projectLevels.size());
+                        level = 1 + random.nextInt(deepest);
+                        List<Long> parents = projectLevels.get(level - 1);
+                        Set<Long> dependsOn = new LinkedHashSet<>();
+                        dependsOn.add(parents.get(random.nextInt(parents.size())));
+                        if (random.nextDouble() < 0.25) {
+                            dependsOn.add(parents.get(random.nextInt(parents.size())));
+                        }
+                        for (Long parent : dependsOn) {
+                            sink.row(Table.TASK_DEPENDENCIES, taskId, parent);
+                            dependencies++;
+                        }
+                    }
+                    if (level == projectLevels.size()) {
+                        projectLevels.add(new ArrayList<>());
+                    }
+                    projectLevels.get(level).add(taskId);
+                }
+            }
+            counters.forEach((status, count) -> sink.row(Table.USER_LIST_COUNTERS, userId, status.code(), count));
+            sink.endUser();
+        }
+        sink.flush();
+        if (isH2(jdbc)) {
+            nextIds.forEach((table, next) ->
+                    jdbc.execute("ALTER TABLE " + table.name + " ALTER COLUMN id RESTART WITH " + next));
+        }
+        long tasks = Arrays.stream(taskCounts).sum();
+        return new Dataset(List.copyOf(userIds), projects, tags, tasks, taskTags, dependencies);
+    }
+
+    /**
+     * Splits {@code users * meanTasksPerUser} tasks over the users by Zipf rank, at
+     * least one and at most {@value #MAX_TASKS_PER_USER_FACTOR} times the mean each,
+     * busiest user first.
+     */
+    long[] tasksPerUser() {
+        long total = (long) spec.users() * spec.meanTasksPerUser();
+        long[] counts = new long[spec.users()];
+        if (spec.tasksPerUserSkew() == 0) {
+            Arrays.fill(counts, spec.meanTasksPerUser());
+            return counts;
+        }
+        ZipfDistribution zipf = new ZipfDistribution(spec.users(), spec.tasksPerUserSkew());
+        for (int rank = 1; rank <= spec.users(); rank++) {
+            long share = Math.round(total * zipf.probability(rank));
+            counts[rank - 1] = Math.clamp(share, 1, (long) spec.meanTasksPerUser() * MAX_TASKS_PER_USER_FACTOR);
+        }
+        return counts;
+    }
+
+    private double[] cumulative(TaskStatus[] statuses) {
+        double[] cumulative = new double[statuses.length];
+        double sum = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            sum += spec.statusWeights().get(statuses[i]);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double roll) {
+        for (int i = 0; i < cumulative.length; i++) {
+            if (roll < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    /**
+     * Up to three tags: a popular one, often its partner (tags pair up as 0-1, 2-3, ...),
+     * and sometimes another.
+     */
+    private Set<Long> tagsFor(SplittableRandom random, ZipfDistribution popularity, long firstTag) {
+        Set<Long> chosen = new LinkedHashSet<>();
+        double roll = random.nextDouble();
+        if (roll < 0.35) {
+            return chosen;
+        }
+        int tag = popularity.sample(random) - 1;
+        chosen.add(firstTag + tag);
+        int partner = tag ^ 1;
+        if (partner < spec.tagsPerUser() && random.nextDouble() < spec.tagCoOccurrence()) {
+            chosen.add(firstTag + partner);
+        }
+        if (random.nextDouble() < 0.2) {
+            chosen.add(firstTag + popularity.sample(random) - 1);
+        }
+        return chosen;
+    }
+
+    private String notes(SplittableRandom random) {
+        double roll = random.nextDouble();
+        if (roll < spec.longNotesRatio()) {
+            String text = sentence(random, 180, 320);
+            return text.length() > 2000 ? text.substring(0, 2000) : text;
+        }
+        if (roll < spec.longNotesRatio() + spec.notesRatio()) {
+            return sentence(random, 5, 30);
+        }
+        return null;
+    }
+
+    private static String sentence(SplittableRandom random, int minWords, int maxWords) {
+        int count = random.nextInt(minWords, maxWords + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setCharAt(0, Character.toUpperCase(text.charAt(0)));
+        return text.toString();
+    }
+
+    private static boolean isH2(JdbcTemplate jdbc) {
+        String product = jdbc.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "H2".equals(product);
+    }
+
+    private interface Sink extends AutoCloseable {
+
+        void row(Table table, Object... values);
+
+        /** Called between users, when every row written so far can be loaded without breaking a foreign key. */
+        void endUser();
+
+        void flush();
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Buffers rows per table and sends them as JDBC batches, parents before children,
+     * once enough rows are waiting.
+     */
+    private static final class BatchSink implements Sink {
+
+        private final JdbcTemplate jdbc;
+        private final Map<Table, List<Object[]>> buffers = new EnumMap<>(Table.class);
+        private int buffered;
+
+        BatchSink(JdbcTemplate jdbc) {
+            this.jdbc = jdbc;
+            for (Table table : Table.values()) {
+                buffers.put(table, new ArrayList<>());
+            }
+        }
+
+        @Override
+        public void row(Table table, Object... values) {
+            buffers.get(table).add(values);
+            buffered++;
+        }
+
+        @Override
+        public void endUser() {
+            if (buffered >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() {
+            for (Table table : Table.values()) {
+                List<Object[]> rows = buffers.get(table);
+                for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                    jdbc.batchUpdate(table.insert(), rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+                }
+                rows.clear();
+            }
+            buffered = 0;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Streams rows to one CSV file per table. Strings are always quoted and nulls are
+     * left empty, which {@code CSVREAD} reads back as {@code NULL}.
+     */
+    private static final class CsvSink implements Sink {
+
+        private final Path directory;
+        private final Map<Table, BufferedWriter> writers = new EnumMap<>(Table.class);
+
+        CsvSink(Path directory) {
+            this.directory = directory;
+            try {
+                Files.createDirectories(directory);
+                for (Table table : Table.values()) {
+                    BufferedWriter writer = Files.newBufferedWriter(file(table), StandardCharsets.UTF_8);
+                    writer.write(Arrays.stream(table.columns.split(",")).map(String::trim).map(String::toUpperCase)
+                            .collect(Collectors.joining(",")));
+                    writer.newLine();
+                    writers.put(table, writer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Path file(Table table) {
+            return directory.resolve(table.name().toLowerCase() + ".csv");
+        }
+
+        @Override
+        public void row(Table table, Object... values) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                switch (values[i]) {
+                    case null -> {
+                    }
+                    case String text -> line.append('"').append(text.replace("\"", "\"\"")).append('"');
+                    case LocalDateTime timestamp -> line.append(CSV_TIMESTAMP.format(timestamp));
+                    default -> line.append(values[i]);
+                }
+            }
+            try {
+                BufferedWriter writer = writers.get(table);
+                writer.write(line.toString());
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void endUser() {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            try {
+                for (BufferedWriter writer : writers.values()) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
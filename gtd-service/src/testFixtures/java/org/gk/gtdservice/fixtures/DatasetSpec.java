@@ -0,0 +1,111 @@
+package org.gk.gtdservice.fixtures;
+
+import org.gk.gtdservice.model.TaskStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The shape of a generated dataset. Start from {@link #defaults()} and override what a
+ * benchmark or test cares about.
+ *
+ * @param users              users to create
+ * @param meanTasksPerUser   average tasks per user; the total is spread over users by a
+ *                           Zipf distribution, so a few users have far more than this
+ * @param tasksPerUserSkew   Zipf exponent for tasks per user, {@code 0} for an even spread
+ * @param tasksPerProject    average tasks per project, which sets the projects per user
+ * @param tagsPerUser        tags each user has
+ * @param tagCoOccurrence    chance that a task with a tag also has that tag's partner
+ *                           ({@code @home} with {@code @evening}, say)
+ * @param dependencyRatio    share of project tasks that depend on other tasks
+ * @param maxDependencyDepth longest chain of dependencies, in edges
+ * @param notesRatio         share of tasks with a short note
+ * @param longNotesRatio     share of tasks with a long note of one to two thousand characters
+ * @param statusWeights      relative share of each task status
+ * @param seed               random seed; equal specs with equal seeds produce equal data
+ */
+public record DatasetSpec(
+        int users,
+        int meanTasksPerUser,
+        double tasksPerUserSkew,
+        int tasksPerProject,
+        int tagsPerUser,
+        double tagCoOccurrence,
+        double dependencyRatio,
+        int maxDependencyDepth,
+        double notesRatio,
+        double longNotesRatio,
+        Map<TaskStatus, Double> statusWeights,
+        long seed
+) {
+
+    /**
+     * Status shares of a lived-in system: a small inbox, a larger next-actions list and
+     * a long tail of completed work.
+     */
+    public static final Map<TaskStatus, Double> DEFAULT_STATUS_WEIGHTS = defaultStatusWeights();
+
+    public DatasetSpec {
+        if (users < 1 || meanTasksPerUser < 1 || tasksPerProject < 1 || maxDependencyDepth < 1) {
+            throw new IllegalArgumentException("Dataset needs at least one user, task, task per project and dependency level");
+        }
+        statusWeights = Map.copyOf(statusWeights);
+    }
+
+    public static DatasetSpec defaults() {
+        return new DatasetSpec(100, 200, 1.1, 12, 12, 0.4, 0.3, 4, 0.3, 0.05, DEFAULT_STATUS_WEIGHTS, 42L);
+    }
+
+    public DatasetSpec withUsers(int users) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withMeanTasksPerUser(int meanTasksPerUser) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withTasksPerUserSkew(double tasksPerUserSkew) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withTagsPerUser(int tagsPerUser) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withDependencies(double dependencyRatio, int maxDependencyDepth) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withNotes(double notesRatio, double longNotesRatio) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withStatusWeights(Map<TaskStatus, Double> statusWeights) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    public DatasetSpec withSeed(long seed) {
+        return new DatasetSpec(users, meanTasksPerUser, tasksPerUserSkew, tasksPerProject, tagsPerUser, tagCoOccurrence,
+                dependencyRatio, maxDependencyDepth, notesRatio, longNotesRatio, statusWeights, seed);
+    }
+
+    private static Map<TaskStatus, Double> defaultStatusWeights() {
+        Map<TaskStatus, Double> weights = new EnumMap<>(TaskStatus.class);
+        weights.put(TaskStatus.INBOX, 0.08);
+        weights.put(TaskStatus.NEXT, 0.20);
+        weights.put(TaskStatus.WAITING, 0.06);
+        weights.put(TaskStatus.SCHEDULED, 0.06);
+        weights.put(TaskStatus.SOMEDAY, 0.10);
+        weights.put(TaskStatus.REFERENCE, 0.04);
+        weights.put(TaskStatus.DONE, 0.41);
+        weights.put(TaskStatus.DROPPED, 0.05);
+        return weights;
+    }
+}
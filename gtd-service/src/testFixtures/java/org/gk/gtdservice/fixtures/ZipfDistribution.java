@@ -0,0 +1,49 @@
+package org.gk.gtdservice.fixtures;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ranks {@code 1..n} where rank {@code k} has weight {@code 1 / k^exponent}: a few
+ * ranks take most of the mass and a long tail takes the rest, as with tasks per user
+ * or uses per tag. Sampling is a binary search over the cumulative weights.
+ */
+public final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipf distribution needs at least one rank, got " + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cumulative[k - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    /**
+     * @return the share of the total weight held by {@code rank} (1-based)
+     */
+    public double probability(int rank) {
+        return rank == 1 ? cumulative[0] : cumulative[rank - 1] - cumulative[rank - 2];
+    }
+
+    /**
+     * @return a 1-based rank
+     */
+    public int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index + 1 : -index;
+        return Math.min(rank, cumulative.length);
+    }
+}
@@ -3,6 +3,8 @@ class Reference {
   final int userId;
   final String title;
   final String? body;
+  final String? snippet;
+  final int? bodySize;
   final String? url;
   final String? fileHint;
   final DateTime createdAt;
@@ -12,17 +14,38 @@ class Reference {
     required this.userId,
     required this.title,
     this.body,
+    this.snippet,
+    this.bodySize,
     this.url,
     this.fileHint,
     required this.createdAt,
   });
 
+  /// Whether the body still has to be fetched: lists carry only its snippet.
+  bool get hasUnloadedBody => body == null && (bodySize ?? 0) > 0;
+
+  Reference withBody(String body) {
+    return Reference(
+      id: id,
+      userId: userId,
+      title: title,
+      body: body,
+      snippet: snippet,
+      bodySize: bodySize,
+      url: url,
+      fileHint: fileHint,
+      createdAt: createdAt,
+    );
+  }
+
   factory Reference.fromJson(Map<String, dynamic> json) {
     return Reference(
       id: json['id'] as int,
       userId: json['userId'] as int,
       title: json['title'] as String,
       body: json['body'] as String?,
+      snippet: json['snippet'] as String?,
+      bodySize: json['bodySize'] as int?,
       url: json['url'] as String?,
       fileHint: json['fileHint'] as String?,
       createdAt: DateTime.parse(json['createdAt'] as String),
@@ -35,6 +58,8 @@ class Reference {
       'userId': userId,
       'title': title,
       'body': body,
+      'snippet': snippet,
+      'bodySize': bodySize,
       'url': url,
       'fileHint': fileHint,
       'createdAt': createdAt.toIso8601String(),
@@ -1,6 +1,8 @@
+import 'dart:async';
 import 'package:flutter/material.dart';
 import '../models/task.dart';
 import '../models/tag.dart';
+import '../services/change_stream_service.dart';
 import '../services/task_service.dart';
 import '../services/task_dependency_service.dart';
 import '../services/tag_service.dart';
@@ -42,11 +44,29 @@ class _InboxScreenState extends State<InboxScreen> {
   List<Tag> _allTags = []; // All available tags for the user
   bool _isLoading = false;
   String? _errorMessage;
+  StreamSubscription<ChangeEvent>? _changes;
+  Timer? _reloadTimer;
 
   @override
   void initState() {
     super.initState();
     _loadInboxTasks();
+    // Reload when tasks or tags change elsewhere; a burst of changes reloads once.
+    _changes = ChangeStreamService.forUser(widget.userId).changes.listen((event) {
+      if (event.affects(const {'task', 'tag'})) {
+        _reloadTimer?.cancel();
+        _reloadTimer = Timer(const Duration(milliseconds: 300), () {
+          if (mounted) _loadInboxTasks();
+        });
+      }
+    });
+  }
+
+  @override
+  void dispose() {
+    _changes?.cancel();
+    _reloadTimer?.cancel();
+    super.dispose();
   }
 
   Future<void> _loadInboxTasks() async {
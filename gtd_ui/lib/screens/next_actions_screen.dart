@@ -1,5 +1,7 @@
+import 'dart:async';
 import 'package:flutter/material.dart';
 import '../models/task.dart';
+import '../services/change_stream_service.dart';
 import '../services/task_service.dart';
 import 'task_detail_screen.dart';
 
@@ -17,11 +19,29 @@ class _NextActionsScreenState extends State<NextActionsScreen> {
   List<Task> _tasks = [];
   bool _isLoading = false;
   String? _errorMessage;
+  StreamSubscription<ChangeEvent>? _changes;
+  Timer? _reloadTimer;
 
   @override
   void initState() {
     super.initState();
     _loadNextActions();
+    // Reload when tasks change elsewhere; a burst of changes reloads once.
+    _changes = ChangeStreamService.forUser(widget.userId).changes.listen((event) {
+      if (event.affects(const {'task'})) {
+        _reloadTimer?.cancel();
+        _reloadTimer = Timer(const Duration(milliseconds: 300), () {
+          if (mounted) _loadNextActions();
+        });
+      }
+    });
+  }
+
+  @override
+  void dispose() {
+    _changes?.cancel();
+    _reloadTimer?.cancel();
+    super.dispose();
   }
 
   Future<void> _loadNextActions() async {
@@ -166,7 +166,33 @@ class _ReferencesScreenState extends State<ReferencesScreen> {
     }
   }
 
-  Future<void> _showEditReferenceDialog(Reference reference) async {
+  /// Lists only carry a snippet of each body, so the full text is fetched before a
+  /// reference is shown or edited. Returns null when it could not be loaded.
+  Future<Reference?> _withBody(Reference reference) async {
+    if (!reference.hasUnloadedBody) {
+      return reference;
+    }
+    try {
+      final body = await _referenceService.getReferenceBody(reference.id);
+      return reference.withBody(body);
+    } catch (e) {
+      if (mounted) {
+        ScaffoldMessenger.of(context).showSnackBar(
+          SnackBar(
+            content: Text('Failed to load reference: $e'),
+            backgroundColor: Colors.red,
+          ),
+        );
+      }
+      return null;
+    }
+  }
+
+  Future<void> _showEditReferenceDialog(Reference summary) async {
+    final reference = await _withBody(summary);
+    if (reference == null || !mounted) {
+      return;
+    }
     final titleController = TextEditingController(text: reference.title);
     final bodyController = TextEditingController(text: reference.body ?? '');
     final urlController = TextEditingController(text: reference.url ?? '');
@@ -354,7 +380,11 @@ class _ReferencesScreenState extends State<ReferencesScreen> {
     }
   }
 
-  void _showReferenceDetails(Reference reference) {
+  Future<void> _showReferenceDetails(Reference summary) async {
+    final reference = await _withBody(summary);
+    if (reference == null || !mounted) {
+      return;
+    }
     showDialog(
       context: context,
       builder: (context) {
@@ -512,10 +542,10 @@ class _ReferencesScreenState extends State<ReferencesScreen> {
                               subtitle: Column(
                                 crossAxisAlignment: CrossAxisAlignment.start,
                                 children: [
-                                  if (reference.body != null &&
-                                      reference.body!.isNotEmpty)
+                                  if (reference.snippet != null &&
+                                      reference.snippet!.isNotEmpty)
                                     Text(
-                                      reference.body!,
+                                      reference.snippet!,
                                       maxLines: 2,
                                       overflow: TextOverflow.ellipsis,
                                     ),
@@ -0,0 +1,11 @@
+/// Headers sent with every backend call. Once a user is signed in they carry
+/// `X-User-Id`: the backend keeps that user's reads on the primary database for
+/// a few seconds after they write, so a list reloaded right after a change shows it.
+class ApiHeaders {
+  static int? userId;
+
+  static Map<String, String> get json => {
+        'Content-Type': 'application/json',
+        if (userId != null) 'X-User-Id': '$userId',
+      };
+}
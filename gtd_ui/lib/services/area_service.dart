@@ -1,6 +1,7 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/area.dart';
+import 'api_headers.dart';
 
 class AreaService {
   // Update this to match your backend URL
@@ -11,7 +12,7 @@ class AreaService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -36,7 +37,7 @@ class AreaService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'name': name,
@@ -66,7 +67,7 @@ class AreaService {
     try {
       final response = await http.put(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'name': name,
@@ -91,7 +92,7 @@ class AreaService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204 && response.statusCode != 200) {
@@ -107,7 +108,7 @@ class AreaService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
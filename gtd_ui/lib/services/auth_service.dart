@@ -1,6 +1,7 @@
 import 'package:google_sign_in/google_sign_in.dart';
 import 'package:shared_preferences/shared_preferences.dart';
 import '../models/user.dart';
+import 'api_headers.dart';
 import 'user_service.dart';
 
 class AuthService {
@@ -17,7 +18,14 @@ class AuthService {
   static const String _userNameKey = 'current_user_name';
   static const String _authTypeKey = 'auth_type';
 
-  User? _currentUser;
+  User? _user;
+
+  User? get _currentUser => _user;
+
+  set _currentUser(User? user) {
+    _user = user;
+    ApiHeaders.userId = user?.id;
+  }
 
   User? get currentUser => _currentUser;
   bool get isLoggedIn => _currentUser != null;
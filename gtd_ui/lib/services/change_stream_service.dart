@@ -0,0 +1,186 @@
+import 'dart:async';
+import 'dart:convert';
+import 'package:flutter/foundation.dart' show kIsWeb;
+import 'package:http/http.dart' as http;
+import 'api_headers.dart';
+
+/// A change pushed by the backend: which task, project or tag changed and how.
+/// A reset means changes were missed, so everything shown should be reloaded.
+class ChangeEvent {
+  final String type;
+  final String? entity;
+  final int? id;
+  final String? action;
+
+  const ChangeEvent({required this.type, this.entity, this.id, this.action});
+
+  bool get isReset => type == 'reset';
+
+  /// Whether a screen showing [entities] needs to reload for this event.
+  bool affects(Set<String> entities) => isReset || entities.contains(entity);
+}
+
+/// Listens to a user's `/api/users/{id}/events` stream so screens can reload
+/// when something changed instead of polling. One connection per user is
+/// shared by all screens; it is opened on the first listener and closed after
+/// the last. When the stream ends it reconnects with `Last-Event-ID`, and the
+/// backend sends the changes missed meanwhile.
+///
+/// On the web, package:http reads a response only once it is complete, so a
+/// stream would deliver nothing until the backend closed it. There the service
+/// long polls `/api/users/{id}/changes/wait` instead, which answers as soon as
+/// something changed; its versions are the stream's event ids.
+class ChangeStreamService {
+  static const String baseUrl = 'http://localhost:8080/api/users';
+  static const Duration _maxRetryDelay = Duration(seconds: 30);
+
+  static final Map<int, ChangeStreamService> _byUser = {};
+
+  final int userId;
+  late final StreamController<ChangeEvent> _controller =
+      StreamController<ChangeEvent>.broadcast(onListen: _connect, onCancel: _disconnect);
+  http.Client? _client;
+  String? _lastEventId;
+  Duration _retryDelay = const Duration(seconds: 1);
+  bool _listening = false;
+  int _generation = 0;
+
+  ChangeStreamService._(this.userId);
+
+  factory ChangeStreamService.forUser(int userId) =>
+      _byUser.putIfAbsent(userId, () => ChangeStreamService._(userId));
+
+  Stream<ChangeEvent> get changes => _controller.stream;
+
+  void _connect() {
+    _listening = true;
+    _run(++_generation);
+  }
+
+  void _disconnect() {
+    _listening = false;
+    _client?.close();
+    _client = null;
+  }
+
+  Future<void> _run(int generation) async {
+    // A loop left over from a listener that cancelled and came back stops here.
+    bool current() => _listening && generation == _generation;
+    while (current()) {
+      final client = http.Client();
+      _client = client;
+      try {
+        if (kIsWeb) {
+          await _poll(client, current);
+        } else {
+          await _stream(client);
+        }
+      } catch (_) {
+        // Dropped or refused; reconnect after the retry delay.
+      } finally {
+        client.close();
+      }
+      if (current()) {
+        await Future.delayed(_retryDelay);
+        _retryDelay = _retryDelay * 2 > _maxRetryDelay ? _maxRetryDelay : _retryDelay * 2;
+      }
+    }
+  }
+
+  Future<void> _stream(http.Client client) async {
+    final request = http.Request('GET', Uri.parse('$baseUrl/$userId/events'));
+    request.headers['Accept'] = 'text/event-stream';
+    if (_lastEventId != null) {
+      request.headers['Last-Event-ID'] = _lastEventId!;
+    }
+    final response = await client.send(request);
+    if (response.statusCode != 200) {
+      throw Exception('Failed to open change stream: ${response.statusCode}');
+    }
+    _retryDelay = const Duration(seconds: 1);
+    await _read(response.stream);
+  }
+
+  /// Waits for the next changes, one request at a time, until the last
+  /// listener leaves. The first request only learns the current version.
+  Future<void> _poll(http.Client client, bool Function() current) async {
+    while (current()) {
+      final since = _lastEventId;
+      final uri = Uri.parse('$baseUrl/$userId/changes/wait')
+          .replace(queryParameters: since != null ? {'since': since} : null);
+      final response = await client.get(uri, headers: ApiHeaders.json);
+      if (response.statusCode != 200) {
+        throw Exception('Failed to wait for changes: ${response.statusCode}');
+      }
+      _retryDelay = const Duration(seconds: 1);
+      if (!current()) {
+        return;
+      }
+      final json = jsonDecode(response.body) as Map<String, dynamic>;
+      _lastEventId = json['version'] as String?;
+      if (json['reset'] == true) {
+        _controller.add(const ChangeEvent(type: 'reset'));
+      }
+      for (final change in json['changes'] as List<dynamic>) {
+        _controller.add(_change(change as Map<String, dynamic>));
+      }
+    }
+  }
+
+  /// Parses the Server-Sent Events wire format: `field:value` lines, events
+  /// separated by a blank line, comments (heartbeats) starting with `:`.
+  Future<void> _read(Stream<List<int>> body) async {
+    String? id;
+    String event = 'message';
+    final data = StringBuffer();
+    await for (final line in body.transform(utf8.decoder).transform(const LineSplitter())) {
+      if (line.isEmpty) {
+        if (id != null) {
+          _lastEventId = id;
+        }
+        if (data.isNotEmpty) {
+          _dispatch(event, data.toString());
+        }
+        id = null;
+        event = 'message';
+        data.clear();
+        continue;
+      }
+      if (line.startsWith(':')) {
+        continue;
+      }
+      final colon = line.indexOf(':');
+      final field = colon < 0 ? line : line.substring(0, colon);
+      var value = colon < 0 ? '' : line.substring(colon + 1);
+      if (value.startsWith(' ')) {
+        value = value.substring(1);
+      }
+      switch (field) {
+        case 'id':
+          id = value;
+        case 'event':
+          event = value;
+        case 'data':
+          if (data.isNotEmpty) {
+            data.write('\n');
+          }
+          data.write(value);
+      }
+    }
+  }
+
+  void _dispatch(String event, String data) {
+    if (event == 'change') {
+      _controller.add(_change(jsonDecode(data) as Map<String, dynamic>));
+    } else if (event == 'reset') {
+      _controller.add(ChangeEvent(type: event));
+    }
+  }
+
+  static ChangeEvent _change(Map<String, dynamic> json) => ChangeEvent(
+        type: 'change',
+        entity: json['entity'] as String?,
+        id: json['id'] as int?,
+        action: json['action'] as String?,
+      );
+}
@@ -1,6 +1,7 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/context.dart';
+import 'api_headers.dart';
 
 class ContextService {
   // Update this to match your backend URL
@@ -11,7 +12,7 @@ class ContextService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -37,7 +38,7 @@ class ContextService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'name': name,
@@ -69,7 +70,7 @@ class ContextService {
     try {
       final response = await http.put(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'name': name,
@@ -95,7 +96,7 @@ class ContextService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 200 && response.statusCode != 204) {
@@ -111,7 +112,7 @@ class ContextService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
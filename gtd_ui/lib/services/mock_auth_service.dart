@@ -1,5 +1,6 @@
 import 'package:shared_preferences/shared_preferences.dart';
 import '../models/user.dart';
+import 'api_headers.dart';
 import 'user_service.dart';
 
 /// Mock AuthService for testing Google Sign-In without actual Google authentication
@@ -16,7 +17,14 @@ class MockAuthService {
   static const String _userNameKey = 'current_user_name';
   static const String _authTypeKey = 'auth_type';
 
-  User? _currentUser;
+  User? _user;
+
+  User? get _currentUser => _user;
+
+  set _currentUser(User? user) {
+    _user = user;
+    ApiHeaders.userId = user?.id;
+  }
 
   User? get currentUser => _currentUser;
   bool get isLoggedIn => _currentUser != null;
@@ -1,17 +1,23 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/project.dart';
+import 'api_headers.dart';
 
 class ProjectService {
   // Update this to match your backend URL
   static const String baseUrl = 'http://localhost:8080/api/projects';
 
+  /// List responses leave out long text unless asked for; the screens show and edit
+  /// it, so every field is requested.
+  static const String listFields =
+      'id,userId,areaId,title,outcome,notes,status,dueDate,createdAt,completedAt';
+
   /// Fetches all projects for a specific user
   Future<List<Project>> getProjectsByUserId(int userId) async {
     try {
       final response = await http.get(
-        Uri.parse('$baseUrl?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        Uri.parse('$baseUrl?userId=$userId&fields=$listFields'),
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -31,8 +37,8 @@ class ProjectService {
   Future<List<Project>> getProjectsByAreaId(int areaId) async {
     try {
       final response = await http.get(
-        Uri.parse('$baseUrl?areaId=$areaId'),
-        headers: {'Content-Type': 'application/json'},
+        Uri.parse('$baseUrl?areaId=$areaId&fields=$listFields'),
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -52,8 +58,8 @@ class ProjectService {
   Future<List<Project>> getProjectsByStatus(String status) async {
     try {
       final response = await http.get(
-        Uri.parse('$baseUrl?status=$status'),
-        headers: {'Content-Type': 'application/json'},
+        Uri.parse('$baseUrl?status=$status&fields=$listFields'),
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -82,7 +88,7 @@ class ProjectService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'areaId': areaId,
@@ -120,7 +126,7 @@ class ProjectService {
     try {
       final response = await http.put(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'areaId': areaId,
@@ -149,7 +155,7 @@ class ProjectService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204 && response.statusCode != 200) {
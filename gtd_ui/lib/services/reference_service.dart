@@ -1,17 +1,23 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/reference.dart';
+import 'api_headers.dart';
 
 class ReferenceService {
   // Update this to match your backend URL
   static const String baseUrl = 'http://localhost:8080/api/references';
 
+  /// List responses carry a snippet of each body; the full body is fetched with
+  /// [getReferenceBody] when a reference is opened.
+  static const String listFields =
+      'id,userId,title,snippet,bodySize,url,fileHint,createdAt';
+
   /// Fetches all references for a specific user
   Future<List<Reference>> getReferencesByUserId(int userId) async {
     try {
       final response = await http.get(
-        Uri.parse('$baseUrl?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        Uri.parse('$baseUrl?userId=$userId&fields=$listFields'),
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -32,7 +38,7 @@ class ReferenceService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -47,6 +53,21 @@ class ReferenceService {
     }
   }
 
+  /// Fetches the full body of a reference
+  Future<String> getReferenceBody(int id) async {
+    try {
+      final response = await http.get(Uri.parse('$baseUrl/$id/body'), headers: ApiHeaders.json);
+
+      if (response.statusCode == 200) {
+        return utf8.decode(response.bodyBytes);
+      } else {
+        throw Exception('Failed to load reference body: ${response.statusCode}');
+      }
+    } catch (e) {
+      throw Exception('Error fetching reference body: $e');
+    }
+  }
+
   /// Creates a new reference
   Future<Reference> createReference({
     required int userId,
@@ -58,7 +79,7 @@ class ReferenceService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'title': title,
@@ -92,7 +113,7 @@ class ReferenceService {
     try {
       final response = await http.put(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'userId': userId,
           'title': title,
@@ -119,7 +140,7 @@ class ReferenceService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204 && response.statusCode != 200) {
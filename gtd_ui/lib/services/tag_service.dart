@@ -1,6 +1,7 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/tag.dart';
+import 'api_headers.dart';
 
 class TagService {
   // Update this to match your backend URL
@@ -11,7 +12,7 @@ class TagService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -32,7 +33,7 @@ class TagService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({'userId': userId, 'name': name}),
       );
 
@@ -55,7 +56,7 @@ class TagService {
     try {
       final response = await http.put(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({'userId': userId, 'name': name}),
       );
 
@@ -74,7 +75,7 @@ class TagService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204 && response.statusCode != 200) {
@@ -90,7 +91,7 @@ class TagService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -1,6 +1,7 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/task_dependency.dart';
+import 'api_headers.dart';
 
 class TaskDependencyService {
   static const String baseUrl = 'http://localhost:8080/api/task-dependencies';
@@ -10,7 +11,7 @@ class TaskDependencyService {
     try {
       final response = await http.get(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -33,7 +34,7 @@ class TaskDependencyService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl?taskId=$taskId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -58,7 +59,7 @@ class TaskDependencyService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl?dependsOnTaskId=$dependsOnTaskId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -86,7 +87,7 @@ class TaskDependencyService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode({
           'taskId': taskId,
           'dependsOnTaskId': dependsOnTaskId,
@@ -113,7 +114,7 @@ class TaskDependencyService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$taskId/$dependsOnTaskId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204) {
@@ -129,7 +130,7 @@ class TaskDependencyService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/task/$taskId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204) {
@@ -1,17 +1,23 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/task.dart';
+import 'api_headers.dart';
 
 class TaskService {
   // Update this to match your backend URL
   static const String baseUrl = 'http://localhost:8080/api/tasks';
 
+  /// List responses leave out long text unless asked for; the screens show and edit
+  /// it, so every field is requested.
+  static const String listFields =
+      'id,userId,projectId,contextId,title,notes,status,priority,energy,durationEstMin,dueAt,deferUntil,waitingOn,waitingSince,createdAt,completedAt,orderIndex';
+
   /// Fetches all tasks with a specific status
   Future<List<Task>> getTasksByStatus(String status) async {
     try {
       final response = await http.get(
-        Uri.parse('$baseUrl?status=$status'),
-        headers: {'Content-Type': 'application/json'},
+        Uri.parse('$baseUrl?status=$status&fields=$listFields'),
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -28,7 +34,7 @@ class TaskService {
   /// Fetches all tasks in the inbox for a specific user
   Future<List<Task>> getInboxTasks({int? userId}) async {
     try {
-      final queryParams = <String, String>{'status': 'inbox'};
+      final queryParams = <String, String>{'status': 'inbox', 'fields': listFields};
       if (userId != null) {
         queryParams['userId'] = userId.toString();
       }
@@ -36,7 +42,7 @@ class TaskService {
       final uri = Uri.parse(baseUrl).replace(queryParameters: queryParams);
       final response = await http.get(
         uri,
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -54,8 +60,8 @@ class TaskService {
   Future<List<Task>> getTasksByUserId(int userId) async {
     try {
       final response = await http.get(
-        Uri.parse('$baseUrl?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        Uri.parse('$baseUrl?userId=$userId&fields=$listFields'),
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -74,7 +80,7 @@ class TaskService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {
@@ -92,7 +98,7 @@ class TaskService {
     try {
       final response = await http.post(
         Uri.parse(baseUrl),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode(taskData),
       );
 
@@ -111,7 +117,7 @@ class TaskService {
     try {
       final response = await http.put(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
         body: json.encode(taskData),
       );
 
@@ -130,7 +136,7 @@ class TaskService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$id'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204) {
@@ -146,7 +152,7 @@ class TaskService {
     try {
       final response = await http.post(
         Uri.parse('$baseUrl/$taskId/tags/$tagId?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 200) {
@@ -162,7 +168,7 @@ class TaskService {
     try {
       final response = await http.delete(
         Uri.parse('$baseUrl/$taskId/tags/$tagId?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode != 204 && response.statusCode != 200) {
@@ -178,7 +184,7 @@ class TaskService {
     try {
       final response = await http.get(
         Uri.parse('$baseUrl/$taskId/tags?userId=$userId'),
-        headers: {'Content-Type': 'application/json'},
+        headers: ApiHeaders.json,
       );
 
       if (response.statusCode == 200) {